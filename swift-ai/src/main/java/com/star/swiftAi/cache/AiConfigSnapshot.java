@@ -0,0 +1,69 @@
+package com.star.swiftAi.cache;
+
+import com.star.swiftAi.entity.AiModel;
+import com.star.swiftAi.entity.AiProvider;
+import com.star.swiftAi.entity.AiSystemPrompt;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * AI配置快照
+ * 模型、供应商、系统提示词的不可变只读视图，构建完成后不再修改，可被多个线程无锁读取；
+ * 配置变更时整体替换为新版本的快照
+ *
+ * 注意：快照中的实体对象被所有请求共享，调用方不得修改其字段
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Getter
+public final class AiConfigSnapshot {
+
+    /**
+     * 空快照（尚未加载时使用）
+     */
+    public static final AiConfigSnapshot EMPTY = new AiConfigSnapshot(0L, List.of(), List.of(), List.of());
+
+    /**
+     * 快照版本号（单调递增）
+     */
+    private final long version;
+
+    /**
+     * 构建时间
+     */
+    private final LocalDateTime builtAt;
+
+    private final Map<Long, AiModel> models;
+    private final Map<Long, AiProvider> providers;
+    private final Map<Long, AiSystemPrompt> systemPrompts;
+
+    public AiConfigSnapshot(long version, List<AiModel> models, List<AiProvider> providers,
+                            List<AiSystemPrompt> systemPrompts) {
+        this.version = version;
+        this.builtAt = LocalDateTime.now();
+        this.models = index(models, AiModel::getId);
+        this.providers = index(providers, AiProvider::getId);
+        this.systemPrompts = index(systemPrompts, AiSystemPrompt::getId);
+    }
+
+    public AiModel getModel(Long modelId) {
+        return modelId == null ? null : models.get(modelId);
+    }
+
+    public AiProvider getProvider(Long providerId) {
+        return providerId == null ? null : providers.get(providerId);
+    }
+
+    public AiSystemPrompt getSystemPrompt(Long promptId) {
+        return promptId == null ? null : systemPrompts.get(promptId);
+    }
+
+    private static <T> Map<Long, T> index(List<T> rows, Function<T, Long> idGetter) {
+        return Map.copyOf(rows.stream().collect(Collectors.toMap(idGetter, Function.identity(), (a, b) -> a)));
+    }
+}
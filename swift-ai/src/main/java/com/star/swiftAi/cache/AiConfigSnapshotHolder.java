@@ -0,0 +1,151 @@
+package com.star.swiftAi.cache;
+
+import com.star.swiftAi.entity.AiModel;
+import com.star.swiftAi.entity.AiProvider;
+import com.star.swiftAi.entity.AiSystemPrompt;
+import com.star.swiftAi.mapper.postgresql.AiModelMapper;
+import com.star.swiftAi.mapper.postgresql.AiProviderMapper;
+import com.star.swiftAi.mapper.postgresql.AiSystemPromptMapper;
+import com.star.swiftCommon.properties.CommonProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AI配置快照持有者
+ * 在内存中持有 {@link AiConfigSnapshot}，聊天请求解析模型/供应商/提示词时只做无锁的 Map 查找；
+ * 配置增删改的事务提交后重建快照并整体替换，同时通过 Redis 发布/订阅通知其他节点重建
+ *
+ * 直接使用 Mapper 加载数据，避免与各配置 Service 之间形成循环依赖
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AiConfigSnapshotHolder {
+
+    private static final String CHANNEL_SUFFIX = ":ai:config:changed";
+
+    private final AiModelMapper aiModelMapper;
+    private final AiProviderMapper aiProviderMapper;
+    private final AiSystemPromptMapper aiSystemPromptMapper;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final CommonProperties commonProperties;
+
+    private final AtomicReference<AiConfigSnapshot> snapshot = new AtomicReference<>(AiConfigSnapshot.EMPTY);
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    /**
+     * 当前节点标识，用于忽略自己发出的变更通知
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (nodeId.equals(sender)) {
+                return;
+            }
+            log.info("收到AI配置变更通知，重建配置快照: sender={}", sender);
+            rebuild();
+        }, new ChannelTopic(channel()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // 启动时数据库不可用不影响启动，首次访问时会再次加载
+            log.warn("预加载AI配置快照失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取当前快照，尚未加载时同步加载一次
+     *
+     * @return 当前快照
+     */
+    public AiConfigSnapshot current() {
+        AiConfigSnapshot current = snapshot.get();
+        if (current == AiConfigSnapshot.EMPTY) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == AiConfigSnapshot.EMPTY) {
+                    current = rebuild();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 从数据库重新加载并替换快照
+     *
+     * @return 新快照
+     */
+    public synchronized AiConfigSnapshot rebuild() {
+        List<AiModel> models = aiModelMapper.selectList(null);
+        List<AiProvider> providers = aiProviderMapper.selectList(null);
+        List<AiSystemPrompt> prompts = aiSystemPromptMapper.selectList(null);
+
+        AiConfigSnapshot rebuilt = new AiConfigSnapshot(versionSequence.incrementAndGet(), models, providers, prompts);
+        snapshot.set(rebuilt);
+        log.info("AI配置快照已更新: version={}, models={}, providers={}, prompts={}",
+                rebuilt.getVersion(), models.size(), providers.size(), prompts.size());
+        return rebuilt;
+    }
+
+    /**
+     * 配置变更后刷新快照
+     * 在事务中调用时延迟到事务提交后执行，避免读到未提交的数据或在回滚后仍然生效
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshAndNotify();
+                }
+            });
+        } else {
+            refreshAndNotify();
+        }
+    }
+
+    private void refreshAndNotify() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("重建AI配置快照失败: {}", e.getMessage(), e);
+        }
+        // 直接使用独立连接发布，不参与当前线程绑定的 Redis 事务
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            connection.publish(channel().getBytes(StandardCharsets.UTF_8), nodeId.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.error("发布AI配置变更通知失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private String channel() {
+        return commonProperties.getName() + CHANNEL_SUFFIX;
+    }
+}
@@ -0,0 +1,282 @@
+package com.star.swiftAi.cache;
+
+import com.star.swiftAi.properties.AiSemanticCacheProperties;
+import com.star.swiftAi.service.EmbeddingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 匿名聊天语义响应缓存
+ * 对规范化后的提示词计算向量，在同一模型的缓存中查找最相近的提示词，相似度超过阈值时直接返回缓存的回答
+ *
+ * 每个模型一个LRU桶，条目数有上限，因此直接对归一化向量做线性扫描；
+ * 完全相同的规范化提示词会先走精确匹配，不调用嵌入接口
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SemanticResponseCache {
+
+    private final AiSemanticCacheProperties cacheProperties;
+    private final EmbeddingService embeddingService;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 模型代码 -> 缓存桶
+     */
+    private final Map<String, ModelBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 是否启用
+     *
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return cacheProperties.isEnabled() && embeddingService.isAvailable();
+    }
+
+    /**
+     * 查询缓存
+     * 未命中时返回的结果中携带已计算的向量，调用方拿到回答后通过 {@link #store} 写回，避免重复计算
+     *
+     * @param modelCode 模型代码
+     * @param prompt    用户提示词
+     * @return 查询结果，未启用或提示词不可缓存时返回 null
+     */
+    public Lookup lookup(String modelCode, String prompt) {
+        if (!isEnabled() || prompt == null || prompt.length() > cacheProperties.getMaxPromptChars()) {
+            return null;
+        }
+        String normalized = normalize(prompt);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        ModelBucket bucket = bucket(modelCode);
+        Entry exact = bucket.getExact(normalized);
+        if (exact != null) {
+            record(modelCode, true);
+            return new Lookup(modelCode, normalized, null, exact, 1.0f);
+        }
+
+        float[] vector;
+        try {
+            vector = normalizeVector(embeddingService.embed(normalized));
+        } catch (Exception e) {
+            log.warn("语义缓存计算向量失败，按未命中处理: model={}, error={}", modelCode, e.getMessage());
+            record(modelCode, false);
+            return null;
+        }
+
+        Match match = bucket.nearest(vector);
+        if (match != null && match.score >= cacheProperties.getSimilarityThreshold()) {
+            record(modelCode, true);
+            log.debug("语义缓存命中: model={}, score={}", modelCode, match.score);
+            return new Lookup(modelCode, normalized, vector, match.entry, match.score);
+        }
+        record(modelCode, false);
+        return new Lookup(modelCode, normalized, vector, null, match != null ? match.score : 0f);
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param lookup     查询结果（未命中）
+     * @param content    模型回答
+     * @param tokensUsed 消耗的token数
+     */
+    public void store(Lookup lookup, String content, int tokensUsed) {
+        if (lookup == null || lookup.isHit() || lookup.vector == null || content == null || content.isBlank()) {
+            return;
+        }
+        Duration ttl = cacheProperties.getModelTtl().getOrDefault(lookup.modelCode, cacheProperties.getDefaultTtl());
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        bucket(lookup.modelCode).put(new Entry(lookup.normalizedPrompt, lookup.vector, content, tokensUsed, expiresAt));
+    }
+
+    /**
+     * 清空指定模型的缓存
+     *
+     * @param modelCode 模型代码
+     */
+    public void evictModel(String modelCode) {
+        ModelBucket bucket = buckets.get(modelCode);
+        if (bucket != null) {
+            bucket.clear();
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private ModelBucket bucket(String modelCode) {
+        return buckets.computeIfAbsent(modelCode, code -> {
+            ModelBucket bucket = new ModelBucket(cacheProperties.getMaxEntriesPerModel());
+            Gauge.builder("ai.semantic.cache.entries", bucket, ModelBucket::size)
+                    .description("语义缓存条目数")
+                    .tag("model", code)
+                    .register(meterRegistry);
+            return bucket;
+        });
+    }
+
+    private void record(String modelCode, boolean hit) {
+        Counter.builder("ai.semantic.cache.requests")
+                .description("语义缓存查询次数")
+                .tag("model", modelCode)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 规范化提示词：去除首尾空白和结尾标点、合并空白、统一小写
+     */
+    static String normalize(String prompt) {
+        String text = prompt.strip().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        int end = text.length();
+        while (end > 0 && "?？!！.。~～".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return text.substring(0, end).strip();
+    }
+
+    private static float[] normalizeVector(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            return vector;
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * inv;
+        }
+        return normalized;
+    }
+
+    /**
+     * 缓存查询结果
+     */
+    public static class Lookup {
+        private final String modelCode;
+        private final String normalizedPrompt;
+        private final float[] vector;
+        private final Entry entry;
+        @Getter
+        private final float score;
+
+        private Lookup(String modelCode, String normalizedPrompt, float[] vector, Entry entry, float score) {
+            this.modelCode = modelCode;
+            this.normalizedPrompt = normalizedPrompt;
+            this.vector = vector;
+            this.entry = entry;
+            this.score = score;
+        }
+
+        public boolean isHit() {
+            return entry != null;
+        }
+
+        public String getContent() {
+            return entry != null ? entry.content : null;
+        }
+
+        public int getTokensUsed() {
+            return entry != null ? entry.tokensUsed : 0;
+        }
+    }
+
+    private record Entry(String prompt, float[] vector, String content, int tokensUsed, long expiresAt) {
+
+        boolean expired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private record Match(Entry entry, float score) {
+    }
+
+    /**
+     * 单个模型的缓存桶（访问顺序LRU）
+     */
+    private static class ModelBucket {
+        private final LinkedHashMap<String, Entry> entries;
+
+        ModelBucket(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized Entry getExact(String prompt) {
+            Entry entry = entries.get(prompt);
+            if (entry != null && entry.expired(System.currentTimeMillis())) {
+                entries.remove(prompt);
+                return null;
+            }
+            return entry;
+        }
+
+        synchronized Match nearest(float[] vector) {
+            long now = System.currentTimeMillis();
+            Entry best = null;
+            float bestScore = -1f;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.expired(now)) {
+                    iterator.remove();
+                    continue;
+                }
+                if (entry.vector.length != vector.length) {
+                    continue;
+                }
+                float score = 0f;
+                for (int i = 0; i < vector.length; i++) {
+                    score += entry.vector[i] * vector[i];
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = entry;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            // 命中条目刷新LRU顺序
+            entries.get(best.prompt);
+            return new Match(best, bestScore);
+        }
+
+        synchronized void put(Entry entry) {
+            entries.put(entry.prompt, entry);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
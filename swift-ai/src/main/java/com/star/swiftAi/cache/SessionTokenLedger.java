@@ -0,0 +1,91 @@
+package com.star.swiftAi.cache;
+
+import com.star.swiftAi.core.model.Message;
+import com.star.swiftAi.dto.MessageDTO;
+import com.star.swiftAi.properties.AiTokenLedgerProperties;
+import com.star.swiftAi.util.TokenCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 会话 token 账本
+ * 每轮对话都会从数据库读取会话的全部历史消息，账本记录上一轮每条历史消息的 token 数，
+ * 本轮历史的前 count 条与上一轮相同（第 count 条的消息ID一致）时直接复用，只计算新增的消息，
+ * 长对话每轮的 token 计算量与新增消息数成正比，而不是与会话长度成正比
+ *
+ * 历史消息按创建时间排序且ID唯一，中间有消息被删除时第 count 条的ID必然不同，此时整体重新计算
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionTokenLedger {
+
+    private final AiTokenLedgerProperties ledgerProperties;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > ledgerProperties.getMaxSessions();
+        }
+    };
+
+    /**
+     * 计算历史消息的 token 数，并记录到账本
+     *
+     * @param sessionId 会话ID
+     * @param history   按时间排序的历史消息
+     * @return 每条历史消息的 token 数（与 history 一一对应，角色或内容为空的消息为0）
+     */
+    public int[] countHistory(String sessionId, List<MessageDTO> history) {
+        Entry previous = ledgerProperties.getMaxSessions() > 0 ? get(sessionId) : null;
+        int reused = previous != null && previous.matches(history) ? previous.tokens.length : 0;
+
+        int[] tokens = reused > 0 ? Arrays.copyOf(previous.tokens, history.size()) : new int[history.size()];
+        for (int i = reused; i < history.size(); i++) {
+            MessageDTO message = history.get(i);
+            if (message.getRole() != null && message.getContent() != null) {
+                tokens[i] = TokenCounter.estimateTokens(Message.of(message.getRole(), message.getContent()));
+            }
+        }
+        if (ledgerProperties.getMaxSessions() > 0 && !history.isEmpty()) {
+            put(sessionId, new Entry(history.get(history.size() - 1).getId(), tokens));
+        }
+        return tokens;
+    }
+
+    /**
+     * 会话删除或清空时移除记录
+     *
+     * @param sessionId 会话ID
+     */
+    public synchronized void evict(String sessionId) {
+        entries.remove(sessionId);
+    }
+
+    private synchronized Entry get(String sessionId) {
+        return entries.get(sessionId);
+    }
+
+    private synchronized void put(String sessionId, Entry entry) {
+        entries.put(sessionId, entry);
+    }
+
+    /**
+     * @param lastMessageId 已记录的最后一条历史消息的ID
+     * @param tokens        已记录的每条历史消息的 token 数
+     */
+    private record Entry(Long lastMessageId, int[] tokens) {
+
+        boolean matches(List<MessageDTO> history) {
+            int count = tokens.length;
+            return count > 0 && history.size() >= count && lastMessageId != null
+                    && lastMessageId.equals(history.get(count - 1).getId());
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.star.swiftAi.client;
+
+import com.star.swiftAi.core.model.StreamHandle;
+import com.star.swiftAi.core.request.ChatRequest;
+import com.star.swiftAi.core.response.ChatResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 对冲客户端
+ *
+ * 流式调用先发给主提供商；对冲延迟（主提供商近期首 token 延迟的百分位）内没有收到首个 token 且预算允许时，
+ * 把同一请求再发给备用提供商。先输出首个 token 的一方胜出，另一方立即通过各自的 {@link StreamHandle} 取消；
+ * 胜出前收到的分块先缓存在各自的尝试中，胜出后补发，消费者只会看到胜出方的完整输出。
+ * 主请求在首个 token 前失败时，已发出的备用请求继续作为兜底。非流式调用直接交给主提供商
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class HedgingAiClient implements AiClient {
+
+    private final AiClient primary;
+    private final AiClient secondary;
+    private final String secondaryModel;
+    private final Long modelId;
+    private final String modelCode;
+    private final HedgingPolicy policy;
+    private final boolean primaryDegraded;
+
+    /**
+     * @param primary         主提供商客户端
+     * @param secondary       备用提供商客户端
+     * @param secondaryModel  备用提供商上的模型编码
+     * @param modelId         模型ID
+     * @param modelCode       模型编码
+     * @param policy          对冲策略
+     * @param primaryDegraded 主提供商是否处于 DEGRADED 状态
+     */
+    public HedgingAiClient(AiClient primary, AiClient secondary, String secondaryModel, Long modelId, String modelCode,
+                           HedgingPolicy policy, boolean primaryDegraded) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.secondaryModel = secondaryModel;
+        this.modelId = modelId;
+        this.modelCode = modelCode;
+        this.policy = policy;
+        this.primaryDegraded = primaryDegraded;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        return primary.chat(request);
+    }
+
+    @Override
+    public void streamChat(ChatRequest request, Consumer<ChatResponse> consumer) {
+        Race race = new Race(request, consumer);
+        long delay = policy.onRequest(modelId, modelCode, primaryDegraded);
+        ScheduledFuture<?> timer = policy.schedule(race::launchSecondary, delay);
+        try {
+            race.primary.run();
+        } finally {
+            timer.cancel(false);
+        }
+        race.awaitResult();
+    }
+
+    @Override
+    public CompletableFuture<ChatResponse> asyncChat(ChatRequest request) {
+        return primary.asyncChat(request);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return primary.isAvailable() || secondary.isAvailable();
+    }
+
+    @Override
+    public ClientConfig getConfig() {
+        return primary.getConfig();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static boolean isFirstToken(ChatResponse response) {
+        if (response == null || response.getChoices() == null || response.getChoices().isEmpty()) {
+            return false;
+        }
+        ChatResponse.Choice choice = response.getChoices().get(0);
+        if (choice.getFinishReason() != null) {
+            return true;
+        }
+        Object delta = choice.getDelta() != null ? choice.getDelta().getContent() : null;
+        return delta != null && !delta.toString().isEmpty();
+    }
+
+    private static RuntimeException propagate(Exception e) {
+        return e instanceof RuntimeException runtime ? runtime : new RuntimeException("AI流式调用失败: " + e.getMessage(), e);
+    }
+
+    /**
+     * 一次对冲调用：主、备两个尝试竞争首个 token
+     */
+    private class Race {
+
+        private final Consumer<ChatResponse> consumer;
+        private final Attempt primary;
+        private final Attempt secondary;
+        private final AtomicReference<Attempt> winner = new AtomicReference<>();
+        private final CompletableFuture<Void> secondaryDone = new CompletableFuture<>();
+
+        /**
+         * 主请求是否已结束、备用请求是否已发出（由 this 保护）
+         */
+        private boolean primaryFinished;
+        private boolean secondaryLaunched;
+
+        Race(ChatRequest request, Consumer<ChatResponse> consumer) {
+            this.consumer = consumer;
+            StreamHandle parent = request.getStreamHandle();
+            String generationId = parent != null ? parent.getGenerationId() : UUID.randomUUID().toString();
+            this.primary = new Attempt(HedgingPolicy.ROLE_PRIMARY, HedgingAiClient.this.primary,
+                    request.toBuilder().streamHandle(new StreamHandle(generationId)).build(), this);
+            this.secondary = new Attempt(HedgingPolicy.ROLE_SECONDARY, HedgingAiClient.this.secondary,
+                    request.toBuilder().model(secondaryModel).streamHandle(new StreamHandle(generationId)).build(), this);
+            if (parent != null) {
+                // 外部停止生成时同时取消两个尝试
+                parent.attach(() -> {
+                    primary.cancel();
+                    secondary.cancel();
+                });
+            }
+        }
+
+        /**
+         * 对冲定时到期：仍无胜出方且预算允许时发出备用请求
+         */
+        void launchSecondary() {
+            synchronized (this) {
+                if (primaryFinished || winner.get() != null || primary.handle().isCancelled()) {
+                    return;
+                }
+                if (!policy.tryAcquire(modelId, modelCode)) {
+                    return;
+                }
+                secondaryLaunched = true;
+            }
+            log.info("主提供商首 token 超时，发出对冲请求: model={}, secondaryModel={}", modelCode, secondaryModel);
+            Thread.ofVirtual().name("ai-hedge-secondary").start(() -> {
+                try {
+                    secondary.run();
+                } finally {
+                    secondaryDone.complete(null);
+                }
+            });
+        }
+
+        /**
+         * 主请求结束后确定最终结果：需要时等待备用请求结束，失败时抛出异常
+         */
+        void awaitResult() {
+            boolean launched;
+            synchronized (this) {
+                primaryFinished = true;
+                launched = secondaryLaunched;
+            }
+            if (launched && winner.get() != primary) {
+                try {
+                    secondaryDone.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    secondary.cancel();
+                } catch (ExecutionException e) {
+                    // secondaryDone 只会正常完成
+                }
+            }
+
+            Attempt won = winner.get();
+            if (won != null) {
+                if (won.failure() != null) {
+                    throw propagate(won.failure());
+                }
+                return;
+            }
+            // 双方都没有输出首个 token：优先采用正常结束的一方，否则抛出主请求的异常
+            if (primary.failure() == null) {
+                primary.flushPending();
+            } else if (launched && secondary.failure() == null) {
+                secondary.flushPending();
+            } else {
+                throw propagate(primary.failure());
+            }
+        }
+
+        /**
+         * 分发分块：决出胜负前各自缓存，胜出方补发缓存后直接转发，落败方的分块丢弃
+         */
+        void onResponse(Attempt attempt, ChatResponse response) {
+            Attempt current = winner.get();
+            if (current == null && isFirstToken(response)) {
+                if (winner.compareAndSet(null, attempt)) {
+                    current = attempt;
+                    onWin(attempt);
+                } else {
+                    current = winner.get();
+                }
+            }
+            if (current == null) {
+                attempt.buffer(response);
+            } else if (current == attempt) {
+                attempt.flushPending();
+                consumer.accept(response);
+            }
+        }
+
+        private void onWin(Attempt attempt) {
+            long elapsed = attempt.elapsedMillis();
+            if (attempt == primary) {
+                policy.recordPrimaryTtft(modelId, elapsed);
+                secondary.cancel();
+            } else {
+                // 主请求的真实首 token 延迟不可知，记录被取消前已等待的时间
+                policy.recordPrimaryTtft(modelId, primary.elapsedMillis());
+                primary.cancel();
+                log.info("对冲请求胜出: model={}, secondaryModel={}, ttft={}ms", modelCode, secondaryModel, elapsed);
+            }
+            policy.recordWin(modelCode, attempt.role(), elapsed);
+        }
+    }
+
+    /**
+     * 单个提供商上的一次尝试
+     */
+    private static class Attempt {
+
+        private final String role;
+        private final AiClient client;
+        private final ChatRequest request;
+        private final Race race;
+        private final List<ChatResponse> pending = new ArrayList<>();
+        private volatile long startNanos;
+        private volatile Exception failure;
+
+        Attempt(String role, AiClient client, ChatRequest request, Race race) {
+            this.role = role;
+            this.client = client;
+            this.request = request;
+            this.race = race;
+        }
+
+        void run() {
+            startNanos = System.nanoTime();
+            try {
+                client.streamChat(request, response -> race.onResponse(this, response));
+            } catch (Exception e) {
+                if (handle().isCancelled()) {
+                    log.debug("对冲尝试已取消: role={}, error={}", role, e.getMessage());
+                } else {
+                    failure = e;
+                    log.warn("对冲尝试失败: role={}, error={}", role, e.getMessage());
+                }
+            }
+        }
+
+        void buffer(ChatResponse response) {
+            pending.add(response);
+        }
+
+        /**
+         * 补发缓存的分块（只在本尝试的线程或尝试结束后调用）
+         */
+        void flushPending() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<ChatResponse> buffered = new ArrayList<>(pending);
+            pending.clear();
+            buffered.forEach(race.consumer);
+        }
+
+        void cancel() {
+            handle().cancel();
+        }
+
+        StreamHandle handle() {
+            return request.getStreamHandle();
+        }
+
+        long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        String role() {
+            return role;
+        }
+
+        Exception failure() {
+            return failure;
+        }
+    }
+}
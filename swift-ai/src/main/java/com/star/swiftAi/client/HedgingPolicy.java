@@ -0,0 +1,191 @@
+package com.star.swiftAi.client;
+
+import com.star.swiftAi.properties.AiHedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲策略
+ *
+ * 为每个开启对冲的模型维护主提供商首 token 延迟的滚动窗口和对冲预算：
+ * 对冲延迟取窗口的 percentile 百分位并限制在 [minDelay, maxDelay]；
+ * 预算按令牌桶计算，每个主请求补充 budgetRatio 个额度，每次对冲消耗 1 个，额外请求比例因此不超过 budgetRatio。
+ * 对冲定时线程不注册为 Bean，避免替换 Spring Boot 为 @Scheduled 任务自动配置的调度器
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Component
+@RequiredArgsConstructor
+public class HedgingPolicy {
+
+    public static final String ROLE_PRIMARY = "primary";
+    public static final String ROLE_SECONDARY = "secondary";
+
+    private final AiHedgingProperties hedgingProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, ModelState> states = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler = createScheduler();
+
+    /**
+     * 是否对该模型开启对冲
+     */
+    public boolean isHedged(Long modelId) {
+        return hedgingProperties.isHedged(modelId);
+    }
+
+    /**
+     * 备用目标
+     */
+    public AiHedgingProperties.Target target(Long modelId) {
+        return hedgingProperties.getModels().get(modelId);
+    }
+
+    /**
+     * 登记一次主请求：补充对冲预算并返回本次的对冲延迟（毫秒）
+     *
+     * @param modelId         模型ID
+     * @param modelCode       模型编码（指标标签）
+     * @param primaryDegraded 主提供商健康探测是否为 DEGRADED，是则直接使用 minDelay 尽早对冲
+     * @return 对冲延迟
+     */
+    public long onRequest(Long modelId, String modelCode, boolean primaryDegraded) {
+        ModelState state = state(modelId);
+        long delay = primaryDegraded ? hedgingProperties.getMinDelay().toMillis() : state.delayMillis();
+        state.refill();
+        counter("ai.hedge.requests", modelCode).increment();
+        DistributionSummary.builder("ai.hedge.delay")
+                .description("对冲延迟")
+                .baseUnit("milliseconds")
+                .tag("model", modelCode)
+                .register(meterRegistry)
+                .record(delay);
+        return delay;
+    }
+
+    /**
+     * 尝试占用一次对冲预算
+     *
+     * @return 是否允许对冲
+     */
+    public boolean tryAcquire(Long modelId, String modelCode) {
+        if (state(modelId).tryAcquire()) {
+            counter("ai.hedge.launched", modelCode).increment();
+            return true;
+        }
+        counter("ai.hedge.budget.exhausted", modelCode).increment();
+        return false;
+    }
+
+    /**
+     * 记录主提供商的首 token 延迟（备用方胜出时为主请求被取消前已等待的时间）
+     */
+    public void recordPrimaryTtft(Long modelId, long millis) {
+        state(modelId).record(millis);
+    }
+
+    /**
+     * 记录胜出方
+     *
+     * @param role   primary / secondary
+     * @param millis 胜出方从发出请求到首个 token 的时间
+     */
+    public void recordWin(String modelCode, String role, long millis) {
+        Counter.builder("ai.hedge.wins")
+                .tag("model", modelCode)
+                .tag("winner", role)
+                .register(meterRegistry)
+                .increment();
+        Timer.builder("ai.hedge.ttft")
+                .description("对冲模式下胜出方的首 token 延迟")
+                .tag("model", modelCode)
+                .tag("winner", role)
+                .register(meterRegistry)
+                .record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 延迟执行对冲任务
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private ModelState state(Long modelId) {
+        return states.computeIfAbsent(modelId, id -> new ModelState());
+    }
+
+    private Counter counter(String name, String modelCode) {
+        return Counter.builder(name)
+                .tag("model", modelCode)
+                .register(meterRegistry);
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ai-hedge-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * 单个模型的延迟窗口与预算
+     */
+    private class ModelState {
+
+        private final long[] samples = new long[Math.max(1, hedgingProperties.getWindowSize())];
+        private int size;
+        private int next;
+        private double credits;
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+
+        synchronized long delayMillis() {
+            long delay;
+            if (size < hedgingProperties.getMinSamples()) {
+                delay = hedgingProperties.getInitialDelay().toMillis();
+            } else {
+                long[] sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                int rank = (int) Math.ceil(hedgingProperties.getPercentile() / 100 * size);
+                delay = sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+            }
+            return Math.max(hedgingProperties.getMinDelay().toMillis(), Math.min(hedgingProperties.getMaxDelay().toMillis(), delay));
+        }
+
+        synchronized void refill() {
+            credits = Math.min(hedgingProperties.getBudgetBurst(), credits + hedgingProperties.getBudgetRatio());
+        }
+
+        synchronized boolean tryAcquire() {
+            if (credits < 1) {
+                return false;
+            }
+            credits -= 1;
+            return true;
+        }
+    }
+}
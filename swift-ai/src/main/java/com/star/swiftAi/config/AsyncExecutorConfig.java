@@ -1,5 +1,6 @@
 package com.star.swiftAi.config;
 
+import com.star.swiftAi.properties.AiRetrievalProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -59,4 +60,24 @@ public class AsyncExecutorConfig {
         
         return executor;
     }
+
+    /**
+     * 消息向量索引专用线程池
+     * 嵌入计算耗时较长，使用独立线程池避免占用SSE线程；队列满时直接拒绝（索引为尽力而为）
+     */
+    @Bean(name = "vectorIndexExecutor")
+    public Executor vectorIndexExecutor(AiRetrievalProperties retrievalProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(retrievalProperties.getIndexQueueCapacity());
+        executor.setThreadNamePrefix("vector-index-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("向量索引线程池初始化完成: queueCapacity={}", retrievalProperties.getIndexQueueCapacity());
+        return executor;
+    }
 }
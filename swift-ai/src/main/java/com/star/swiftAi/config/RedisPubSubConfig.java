@@ -0,0 +1,26 @@
+package com.star.swiftAi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis 发布/订阅配置
+ * 用于集群内各节点之间广播通知（如配置变更）
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Configuration
+public class RedisPubSubConfig {
+
+    /**
+     * Redis 消息监听容器，各业务通过 addMessageListener 注册自己的频道
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
@@ -0,0 +1,15 @@
+package com.star.swiftAi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ * 启用 @Scheduled（消息分区维护等后台任务）
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
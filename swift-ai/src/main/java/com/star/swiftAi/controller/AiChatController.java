@@ -1,13 +1,34 @@
 package com.star.swiftAi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.core.model.StreamHandle;
+import com.star.swiftAi.dto.ChatHistoryPageDTO;
+import com.star.swiftAi.dto.ChatIdempotencyRecordDTO;
+import com.star.swiftAi.dto.ChatHistoryRecordDTO;
 import com.star.swiftAi.dto.ChatRequestDTO;
 import com.star.swiftAi.dto.ChatResponseDTO;
+import com.star.swiftAi.dto.CompareChatRequestDTO;
+import com.star.swiftAi.dto.CompareModelResultDTO;
+import com.star.swiftAi.dto.CompareStreamEventDTO;
 import com.star.swiftAi.dto.ImportChatRequestDTO;
+import com.star.swiftAi.dto.ImportProgressDTO;
+import com.star.swiftAi.dto.MessageDTO;
+import com.star.swiftAi.dto.MessageSearchPageDTO;
 import com.star.swiftAi.dto.StreamChatResponseDTO;
+import com.star.swiftAi.dto.TokenQuotaDTO;
 import com.star.swiftAi.entity.AiChatSession;
+import com.star.swiftAi.entity.AiTokenUsageDaily;
+import com.star.swiftAi.exception.AiRejectedException;
 import com.star.swiftAi.service.AiChatMessageService;
 import com.star.swiftAi.service.AiChatService;
 import com.star.swiftAi.service.AiChatSessionService;
+import com.star.swiftAi.service.ChatHistoryTransferService;
+import com.star.swiftAi.service.ChatIdempotencyService;
+import com.star.swiftAi.service.TokenMeteringService;
+import com.star.swiftAi.sse.FairChatScheduler;
+import com.star.swiftAi.sse.GenerationRegistry;
+import com.star.swiftAi.sse.GenerationStreamStore;
+import com.star.swiftAi.util.CursorCodec;
 import com.star.swiftCommon.domain.PubResult;
 import com.star.swiftSecurity.constant.AuthorityConstants;
 import com.star.swiftSecurity.utils.SecurityUtils;
@@ -17,19 +38,35 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * AI聊天控制器
@@ -47,19 +84,51 @@ public class AiChatController {
     private final AiChatMessageService aiChatMessageService;
     private final AiChatService aiChatService;
     private final Executor sseStreamExecutor;
+    private final ChatHistoryTransferService chatHistoryTransferService;
+    private final ObjectMapper objectMapper;
+    private final GenerationRegistry generationRegistry;
+    private final GenerationStreamStore generationStreamStore;
+    private final TokenMeteringService tokenMeteringService;
+    private final FairChatScheduler fairChatScheduler;
+    private final ChatIdempotencyService chatIdempotencyService;
+
+    /**
+     * 流式响应中返回生成ID的响应头
+     */
+    private static final String GENERATION_ID_HEADER = "X-Generation-Id";
 
     /**
      * 发送聊天消息
+     * 带 Idempotency-Key 时，相同键的重试等待首次请求完成并返回同一结果，不会重复保存消息和调用模型
      */
     @Operation(summary = "发送聊天消息", description = "向 AI 模型发送消息并获取回复，支持新会话和已有会话。如果是新会话，会自动创建一个默认会话。")
     @ApiResponse(responseCode = "200", description = "发送成功", content = @Content(schema = @Schema(implementation = ChatResponseDTO.class)))
     @PostMapping
     @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
     public PubResult<ChatResponseDTO> chat(
-            @Valid @RequestBody ChatRequestDTO request) {
+            @Valid @RequestBody ChatRequestDTO request,
+            @Parameter(description = "幂等键，客户端重试时使用相同的值") @RequestHeader(value = ChatIdempotencyService.HEADER, required = false) String idempotencyHeader,
+            HttpServletResponse response) {
         // 获取当前登录用户ID
         String userId = SecurityUtils.getCurrentUserId();
-        return PubResult.success(aiChatService.chat(request, userId));
+        String idempotencyKey = chatIdempotencyService.normalizeKey(idempotencyHeader);
+        if (idempotencyKey == null) {
+            return PubResult.success(aiChatService.chat(request, userId));
+        }
+
+        ChatIdempotencyRecordDTO existing = chatIdempotencyService.acquireOrAwait(ChatIdempotencyService.SCOPE_CHAT, userId, idempotencyKey, request);
+        if (existing != null) {
+            response.setHeader(ChatIdempotencyService.REPLAYED_HEADER, "true");
+            return PubResult.success(chatIdempotencyService.readResponse(existing, ChatResponseDTO.class));
+        }
+        try {
+            ChatResponseDTO result = aiChatService.chat(request, userId);
+            chatIdempotencyService.complete(ChatIdempotencyService.SCOPE_CHAT, userId, idempotencyKey, result);
+            return PubResult.success(result);
+        } catch (RuntimeException e) {
+            chatIdempotencyService.abandon(ChatIdempotencyService.SCOPE_CHAT, userId, idempotencyKey);
+            throw e;
+        }
     }
 
     /**
@@ -89,6 +158,52 @@ public class AiChatController {
         return PubResult.success(importedCount);
     }
 
+    /**
+     * 流式导入聊天记录（NDJSON）
+     * 请求体逐行解析，分批提交，每批提交后向响应写出一行进度
+     */
+    @Operation(summary = "流式导入聊天记录", description = "以 NDJSON 上传会话行和消息行（会话行在前），分批提交，每提交一批返回一行进度，最后一行 finished=true")
+    @ApiResponse(responseCode = "200", description = "NDJSON 进度流", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ImportProgressDTO.class)))
+    @PostMapping(value = "/import/stream", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
+    public void importChatHistoryStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String userId = SecurityUtils.getCurrentUserId();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        
+        AtomicReference<ImportProgressDTO> lastProgress = new AtomicReference<>(new ImportProgressDTO());
+        try {
+            chatHistoryTransferService.importNdjson(userId, request.getInputStream(), progress -> {
+                lastProgress.set(progress);
+                writeNdjsonLine(out, progress);
+            });
+        } catch (Exception e) {
+            // 已提交的批次保留，返回中断时的进度和错误信息
+            log.error("流式导入聊天记录中断: userId={}, error={}", userId, e.getMessage(), e);
+            ImportProgressDTO progress = lastProgress.get();
+            progress.setFinished(true);
+            progress.setError("导入中断: " + e.getMessage());
+            writeNdjsonLine(out, progress);
+        }
+    }
+
+    /**
+     * 导出聊天记录（NDJSON）
+     */
+    @Operation(summary = "导出聊天记录", description = "以 NDJSON 流式导出当前用户的全部会话和消息，格式与流式导入一致")
+    @ApiResponse(responseCode = "200", description = "NDJSON 记录流", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ChatHistoryRecordDTO.class)))
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_HISTORY + "')")
+    public ResponseEntity<StreamingResponseBody> exportChatHistory() {
+        String userId = SecurityUtils.getCurrentUserId();
+        StreamingResponseBody body = out -> chatHistoryTransferService.exportNdjson(userId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=chat-history.ndjson")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /**
      * 获取聊天历史
      */
@@ -98,11 +213,8 @@ public class AiChatController {
     @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_HISTORY + "')")
     public PubResult<List<ChatResponseDTO>> getChatHistory(
             @Parameter(description = "会话ID", required = true) @RequestParam String sessionId) {
-        // 验证会话是否存在
-        AiChatSession session = aiChatSessionService.getBySessionId(sessionId);
-        if (session == null) {
-            throw new RuntimeException("会话不存在");
-        }
+        // 验证会话存在且属于当前用户
+        requireOwnedSession(sessionId);
 
         // 获取消息列表
         var messages = aiChatMessageService.getMessagesBySessionId(sessionId);
@@ -122,11 +234,96 @@ public class AiChatController {
         return PubResult.success(history);
     }
 
+    /**
+     * 游标分页获取聊天历史
+     */
+    @Operation(summary = "分页获取聊天历史", description = "按消息ID游标分页获取会话消息，新消息在前。"
+            + "可使用 before/after 消息ID或上一页返回的 cursor 翻页，每页大小与会话长度无关")
+    @ApiResponse(responseCode = "200", description = "获取成功", content = @Content(schema = @Schema(implementation = ChatHistoryPageDTO.class)))
+    @GetMapping("/history/page")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_HISTORY + "')")
+    public PubResult<ChatHistoryPageDTO> getChatHistoryPage(
+            @Parameter(description = "会话ID", required = true) @RequestParam String sessionId,
+            @Parameter(description = "返回ID小于该值的消息（更早）") @RequestParam(required = false) Long before,
+            @Parameter(description = "返回ID大于该值的消息（更新）") @RequestParam(required = false) Long after,
+            @Parameter(description = "上一页返回的游标，优先于 before/after") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量（1-100）") @RequestParam(defaultValue = "20") Integer limit) {
+        requireOwnedSession(sessionId);
+        if (before != null && after != null) {
+            throw new RuntimeException("before 和 after 不能同时指定");
+        }
+
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                long cursorId = Long.parseLong(parts[1]);
+                before = "b".equals(parts[0]) ? cursorId : null;
+                after = "a".equals(parts[0]) ? cursorId : null;
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, 100));
+        // 多取一条用于判断翻页方向上是否还有数据
+        List<MessageDTO> rows = new ArrayList<>(
+                aiChatMessageService.getMessagesPage(sessionId, before, after, pageSize + 1));
+        boolean newerDirection = after != null;
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            // 降序结果中，向更新翻页时多出的是最新一条，否则是最早一条
+            rows.remove(newerDirection ? 0 : rows.size() - 1);
+        }
+
+        List<ChatResponseDTO> messages = rows.stream().map(msg -> {
+            ChatResponseDTO dto = new ChatResponseDTO();
+            dto.setSessionId(sessionId);
+            dto.setMessageId(msg.getId());
+            dto.setRole(msg.getRole());
+            dto.setContent(msg.getContent());
+            dto.setTokensUsed(msg.getTokensUsed());
+            dto.setCreatedAt(msg.getCreatedAt());
+            return dto;
+        }).toList();
+
+        ChatHistoryPageDTO page = new ChatHistoryPageDTO();
+        page.setMessages(messages);
+        page.setHasMore(hasMore);
+        if (!messages.isEmpty()) {
+            Long newestId = messages.get(0).getMessageId();
+            Long oldestId = messages.get(messages.size() - 1).getMessageId();
+            // 向更新翻页时，游标之前必然还有更早的消息
+            if (hasMore || newerDirection) {
+                page.setNextCursor(CursorCodec.encode("b", oldestId));
+            }
+            page.setPrevCursor(CursorCodec.encode("a", newestId));
+        }
+        return PubResult.success(page);
+    }
+
+    /**
+     * 检索聊天记录
+     */
+    @Operation(summary = "检索聊天记录", description = "在当前用户的所有会话中检索消息，按相关度排序并返回高亮片段。"
+            + "含中日韩字符的检索词按子串匹配，否则按词检索（支持 \"短语\"、OR 和 -排除）")
+    @ApiResponse(responseCode = "200", description = "检索成功", content = @Content(schema = @Schema(implementation = MessageSearchPageDTO.class)))
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_HISTORY + "')")
+    public PubResult<MessageSearchPageDTO> searchMessages(
+            @Parameter(description = "检索词", required = true) @RequestParam String q,
+            @Parameter(description = "上一页返回的游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量（1-50）") @RequestParam(defaultValue = "20") Integer limit) {
+        int pageSize = Math.max(1, Math.min(limit, 50));
+        return PubResult.success(aiChatMessageService.searchMessages(SecurityUtils.getCurrentUserId(), q, cursor, pageSize));
+    }
+
     @Operation(summary = "流式发送聊天消息", description = "向AI模型发送消息并获取流式回复")
     @ApiResponse(responseCode = "200", description = "流式响应", content = @Content(schema = @Schema(implementation = StreamChatResponseDTO.class)))
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
-    public SseEmitter streamChat(@Valid @RequestBody ChatRequestDTO request, jakarta.servlet.http.HttpServletResponse response) {
+    public DeferredResult<SseEmitter> streamChat(@Valid @RequestBody ChatRequestDTO request, HttpServletRequest httpRequest,
+                                                 @Parameter(description = "幂等键，客户端重试时使用相同的值") @RequestHeader(value = ChatIdempotencyService.HEADER, required = false) String idempotencyHeader,
+                                                 jakarta.servlet.http.HttpServletResponse response) {
         // 对于 Axios 等非原生 SSE 客户端，必须确保不被代理缓存
         response.setHeader("X-Accel-Buffering", "no");
         response.setHeader("Cache-Control", "no-cache, no-transform");
@@ -134,63 +331,390 @@ public class AiChatController {
         response.setContentType("text/event-stream;charset=UTF-8");
         
         String userId = SecurityUtils.getCurrentUserId();
+        String idempotencyKey = chatIdempotencyService.normalizeKey(idempotencyHeader);
         SseEmitter emitter = new SseEmitter(5 * 60 * 1000L);
         AtomicBoolean completed = new AtomicBoolean(false);
         AtomicReference<StringBuilder> fullContentRef = new AtomicReference<>(new StringBuilder());
         AtomicInteger totalOutputTokens = new AtomicInteger(0);
+        StreamHandle streamHandle = registerGeneration(emitter, userId, completed, response);
+        String generationId = streamHandle.getGenerationId();
 
-        // 使用线程池异步执行 AI 调用，让 Controller 立即返回 Emitter
-        sseStreamExecutor.execute(() -> {
+        // 幂等键已被占用：放弃本次生成，接到已有生成的事件流上
+        if (idempotencyKey != null) {
+            ChatIdempotencyRecordDTO existing;
+            try {
+                existing = chatIdempotencyService.begin(ChatIdempotencyService.SCOPE_STREAM, userId, idempotencyKey, request, generationId);
+            } catch (RuntimeException e) {
+                generationRegistry.release(generationId, GenerationRegistry.REASON_REJECTED);
+                throw e;
+            }
+            if (existing != null) {
+                generationRegistry.release(generationId, GenerationRegistry.REASON_DUPLICATE);
+                return attachDuplicateStream(existing, userId, response);
+            }
+        }
+        // 在返回 Emitter 之前检查配额，超出时直接返回错误响应
+        try {
+            tokenMeteringService.checkQuota(userId, request.getModelId());
+        } catch (RuntimeException e) {
+            generationRegistry.release(generationId, GenerationRegistry.REASON_REJECTED);
+            chatIdempotencyService.abandon(ChatIdempotencyService.SCOPE_STREAM, userId, idempotencyKey);
+            throw e;
+        }
+
+        // 按用户公平排队，出队后在调度线程中执行 AI 调用；被拒绝或排队超时时释放生成
+        return fairChatScheduler.submit(userId, httpRequest, 1, emitter, () -> {
+            // 排队期间已停止，直接放弃
+            if (streamHandle.isCancelled()) {
+                chatIdempotencyService.abandon(ChatIdempotencyService.SCOPE_STREAM, userId, idempotencyKey);
+                return;
+            }
             try {
                 String sessionId = aiChatService.prepareSessionAndSaveUserMessage(request, userId);
-                log.info("开始流式响应: sessionId={}, userId={}", sessionId, userId);
+                log.info("开始流式响应: sessionId={}, userId={}, generationId={}", sessionId, userId, generationId);
                 
-                aiChatService.streamChatWithEmitter(request, userId, sessionId, emitter,
+                boolean finished = aiChatService.streamChatWithEmitter(request, userId, sessionId, emitter,
                         fullContentRef, totalOutputTokens, completed,
-                        (llmResponse) -> this.convertToStreamResponse(llmResponse, sessionId));
+                        (llmResponse) -> this.convertToStreamResponse(llmResponse, sessionId, generationId),
+                        streamHandle);
+                if (finished) {
+                    // 完整回复已保存，之后的重复请求返回同一结果
+                    chatIdempotencyService.complete(ChatIdempotencyService.SCOPE_STREAM, userId, idempotencyKey,
+                            finalStreamResponse(sessionId, generationId, fullContentRef.get().toString(), totalOutputTokens.get()));
+                } else {
+                    // 被停止或客户端断开：部分内容不作为结果缓存，带相同幂等键的重试重新生成
+                    chatIdempotencyService.abandon(ChatIdempotencyService.SCOPE_STREAM, userId, idempotencyKey);
+                }
             } catch (Exception e) {
                 log.error("流式聊天失败: {}", e.getMessage(), e);
+                chatIdempotencyService.abandon(ChatIdempotencyService.SCOPE_STREAM, userId, idempotencyKey);
                 if (completed.compareAndSet(false, true)) {
                     emitter.completeWithError(e);
                 }
             }
+        }, () -> {
+            generationRegistry.release(generationId, GenerationRegistry.REASON_REJECTED);
+            chatIdempotencyService.abandon(ChatIdempotencyService.SCOPE_STREAM, userId, idempotencyKey);
         });
-
-        return emitter;
     }
 
     @Operation(summary = "匿名流式聊天", description = "匿名用户流式聊天，不保存到数据库")
     @ApiResponse(responseCode = "200", description = "流式响应", content = @Content(schema = @Schema(implementation = StreamChatResponseDTO.class)))
     @PostMapping(value = "/anonymous/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter anonymousStreamChat(@Valid @RequestBody ChatRequestDTO request, jakarta.servlet.http.HttpServletResponse response) {
+    public DeferredResult<SseEmitter> anonymousStreamChat(@Valid @RequestBody ChatRequestDTO request, HttpServletRequest httpRequest,
+                                                          jakarta.servlet.http.HttpServletResponse response) {
         // 对于 Axios 等非原生 SSE 客户端，必须确保不被代理缓存
         response.setHeader("X-Accel-Buffering", "no");
         response.setHeader("Cache-Control", "no-cache, no-transform");
         response.setHeader("Connection", "keep-alive");
         response.setContentType("text/event-stream;charset=UTF-8");
         
+        tokenMeteringService.checkQuota(null, request.getModelId());
         SseEmitter emitter = new SseEmitter(5 * 60 * 1000L);
         AtomicBoolean completed = new AtomicBoolean(false);
+        StreamHandle streamHandle = registerGeneration(emitter, null, completed, response);
 
-        // 使用线程池异步执行 AI 调用，让 Controller 立即返回 Emitter
-        sseStreamExecutor.execute(() -> {
+        // 匿名请求按客户端IP排队，优先级低于登录用户
+        return fairChatScheduler.submit(null, httpRequest, 1, emitter, () -> {
+            if (streamHandle.isCancelled()) {
+                return;
+            }
             try {
                 aiChatService.anonymousStreamChatWithEmitter(request, emitter, completed,
-                        (llmResponse) -> this.convertToStreamResponse(llmResponse, null));
+                        (llmResponse) -> this.convertToStreamResponse(llmResponse, null, streamHandle.getGenerationId()),
+                        streamHandle);
             } catch (Exception e) {
                 log.error("匿名流式聊天失败: {}", e.getMessage(), e);
                 if (completed.compareAndSet(false, true)) {
                     emitter.completeWithError(e);
                 }
             }
-        });
+        }, () -> generationRegistry.release(streamHandle.getGenerationId(), GenerationRegistry.REASON_REJECTED));
+    }
+
+    @Operation(summary = "多模型对比流式聊天", description = "同一条消息并行发给多个模型，各模型的增量按 modelId 标记后合并到同一个 SSE 流，不保存到数据库")
+    @ApiResponse(responseCode = "200", description = "流式响应", content = @Content(schema = @Schema(implementation = CompareStreamEventDTO.class)))
+    @PostMapping(value = "/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
+    public DeferredResult<SseEmitter> compareStreamChat(@Valid @RequestBody CompareChatRequestDTO request, HttpServletRequest httpRequest,
+                                                        HttpServletResponse response) {
+        return startCompare(request, SecurityUtils.getCurrentUserId(), httpRequest, response);
+    }
+
+    @Operation(summary = "匿名多模型对比流式聊天", description = "匿名用户的多模型对比流式聊天")
+    @ApiResponse(responseCode = "200", description = "流式响应", content = @Content(schema = @Schema(implementation = CompareStreamEventDTO.class)))
+    @PostMapping(value = "/anonymous/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public DeferredResult<SseEmitter> anonymousCompareStreamChat(@Valid @RequestBody CompareChatRequestDTO request, HttpServletRequest httpRequest,
+                                                                 HttpServletResponse response) {
+        return startCompare(request, null, httpRequest, response);
+    }
+
+    @Operation(summary = "查询今日Token配额", description = "查询当前用户今日已使用的token数和每日配额")
+    @ApiResponse(responseCode = "200", description = "查询成功")
+    @GetMapping("/quota")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
+    public PubResult<TokenQuotaDTO> getQuota() {
+        return PubResult.success(tokenMeteringService.getQuota(SecurityUtils.getCurrentUserId()));
+    }
+
+    @Operation(summary = "查询Token用量", description = "查询当前用户最近若干天按模型汇总的token用量（按计量周期写入，可能有数十秒延迟）")
+    @ApiResponse(responseCode = "200", description = "查询成功")
+    @GetMapping("/usage")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
+    public PubResult<List<AiTokenUsageDaily>> listUsage(
+            @Parameter(description = "天数（含今天）", example = "7") @RequestParam(defaultValue = "7") int days) {
+        return PubResult.success(tokenMeteringService.listDailyUsage(SecurityUtils.getCurrentUserId(), Math.min(days, 90)));
+    }
+
+    @Operation(summary = "续读流式生成", description = "断线重连后从 Last-Event-ID 之后补发已生成的事件，并继续接收后续输出，可连接到任意节点")
+    @ApiResponse(responseCode = "200", description = "流式响应", content = @Content(schema = @Schema(implementation = StreamChatResponseDTO.class)))
+    @GetMapping(value = "/stream/{generationId}/resume", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
+    public SseEmitter resumeStream(
+            @Parameter(description = "生成ID（流式响应头 X-Generation-Id）", required = true) @PathVariable String generationId,
+            @Parameter(description = "最后收到的事件ID") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletResponse response) {
+        return resumeGeneration(generationId, SecurityUtils.getCurrentUserId(), lastEventId, response);
+    }
+
+    @Operation(summary = "续读匿名流式生成", description = "断线重连后续读匿名流式生成")
+    @ApiResponse(responseCode = "200", description = "流式响应", content = @Content(schema = @Schema(implementation = StreamChatResponseDTO.class)))
+    @GetMapping(value = "/anonymous/stream/{generationId}/resume", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter resumeAnonymousStream(
+            @Parameter(description = "生成ID（流式响应头 X-Generation-Id）", required = true) @PathVariable String generationId,
+            @Parameter(description = "最后收到的事件ID") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletResponse response) {
+        return resumeGeneration(generationId, null, lastEventId, response);
+    }
 
+    @Operation(summary = "停止生成", description = "停止当前用户正在进行的流式生成，生成可以在集群中的任意节点上")
+    @ApiResponse(responseCode = "200", description = "停止请求已受理")
+    @PostMapping("/stop/{generationId}")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_CHAT_SEND + "')")
+    public PubResult<Void> stopGeneration(
+            @Parameter(description = "生成ID（流式响应头 X-Generation-Id）", required = true) @PathVariable String generationId) {
+        generationRegistry.stop(generationId, SecurityUtils.getCurrentUserId());
+        return PubResult.success();
+    }
+
+    @Operation(summary = "停止匿名生成", description = "停止匿名流式生成")
+    @ApiResponse(responseCode = "200", description = "停止请求已受理")
+    @PostMapping("/anonymous/stop/{generationId}")
+    public PubResult<Void> stopAnonymousGeneration(
+            @Parameter(description = "生成ID（流式响应头 X-Generation-Id）", required = true) @PathVariable String generationId) {
+        generationRegistry.stop(generationId, null);
+        return PubResult.success();
+    }
+
+    /**
+     * 校验会话存在且属于当前用户，不属于时按无权限拒绝（403）
+     */
+    private AiChatSession requireOwnedSession(String sessionId) {
+        AiChatSession session = aiChatSessionService.getBySessionId(sessionId);
+        if (session == null) {
+            throw new RuntimeException("会话不存在");
+        }
+        if (!Objects.equals(session.getUserId(), SecurityUtils.getCurrentUserId())) {
+            throw new AuthorizationDeniedException("无权访问该会话");
+        }
+        return session;
+    }
+
+    /**
+     * 续读生成事件流：校验发起者后在线程池中补发历史事件并跟随后续输出
+     */
+    private SseEmitter resumeGeneration(String generationId, String userId, String lastEventId, HttpServletResponse response) {
+        if (!generationStreamStore.isEnabled()) {
+            throw new RuntimeException("未启用断线续传");
+        }
+        String owner = generationStreamStore.getOwner(generationId);
+        if (owner == null) {
+            throw new RuntimeException("生成不存在或已过期");
+        }
+        if (!owner.equals(userId != null ? userId : "")) {
+            throw new RuntimeException("无权访问该生成");
+        }
+        long lastSequence;
+        try {
+            lastSequence = lastEventId == null || lastEventId.isBlank() ? 0 : Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("无效的Last-Event-ID: " + lastEventId);
+        }
+
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setHeader("Cache-Control", "no-cache, no-transform");
+        response.setHeader(GENERATION_ID_HEADER, generationId);
+
+        SseEmitter emitter = new SseEmitter(5 * 60 * 1000L);
+        AtomicBoolean completed = new AtomicBoolean(false);
+        emitter.onCompletion(() -> completed.set(true));
+        emitter.onTimeout(() -> completed.set(true));
+        emitter.onError(e -> completed.set(true));
+
+        sseStreamExecutor.execute(() -> {
+            try {
+                generationStreamStore.replay(generationId, lastSequence, emitter, completed);
+            } catch (Exception e) {
+                log.warn("续读流式生成失败: generationId={}, error={}", generationId, e.getMessage());
+                if (completed.compareAndSet(false, true)) {
+                    emitter.completeWithError(e);
+                }
+            }
+        });
         return emitter;
     }
 
-    private StreamChatResponseDTO convertToStreamResponse(com.star.swiftAi.core.model.LLMResponse llmResponse, String sessionId) {
+    /**
+     * 重复的流式请求：生成的事件流仍在 Redis 中时从头续读（处理中的生成继续跟随后续输出），
+     * 否则处理中时返回 409，已完成时以一个结束事件返回保存的完整回复
+     */
+    private DeferredResult<SseEmitter> attachDuplicateStream(ChatIdempotencyRecordDTO existing, String userId, HttpServletResponse response) {
+        String generationId = existing.getGenerationId();
+        response.setHeader(ChatIdempotencyService.REPLAYED_HEADER, "true");
+        response.setHeader(GENERATION_ID_HEADER, generationId);
+        DeferredResult<SseEmitter> result = new DeferredResult<>();
+        if (generationStreamStore.isEnabled() && generationId != null && generationStreamStore.getOwner(generationId) != null) {
+            log.info("重复的流式请求，续读已有生成: generationId={}", generationId);
+            result.setResult(resumeGeneration(generationId, userId, null, response));
+            return result;
+        }
+        if (!existing.isCompleted()) {
+            throw new AiRejectedException("相同 " + ChatIdempotencyService.HEADER + " 的请求正在处理中，请稍后重试", null,
+                    "IDEMPOTENCY_IN_PROGRESS", 409, 1);
+        }
+        SseEmitter emitter = new SseEmitter(5 * 60 * 1000L);
+        try {
+            // 发射器尚未交给 Spring MVC 时发送的事件会先缓存，初始化后立即写出
+            emitter.send(SseEmitter.event().data(existing.getResponse()));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        result.setResult(emitter);
+        return result;
+    }
+
+    private StreamChatResponseDTO finalStreamResponse(String sessionId, String generationId, String content, int tokensUsed) {
         StreamChatResponseDTO dto = new StreamChatResponseDTO();
         dto.setSessionId(sessionId);
+        dto.setGenerationId(generationId);
+        dto.setRole("assistant");
+        dto.setContent(content);
+        dto.setTokensUsed(tokensUsed);
+        dto.setFinished(true);
+        return dto;
+    }
+
+    /**
+     * 开始多模型对比：每个模型注册独立的生成（可通过停止生成接口单独停止），发射器结束时取消全部模型；
+     * 多个模型线程的事件在同一把锁内发送；整个对比占用一个并发流名额，调度成本按模型数计算
+     */
+    private DeferredResult<SseEmitter> startCompare(CompareChatRequestDTO request, String userId,
+                                                    HttpServletRequest httpRequest, HttpServletResponse response) {
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setHeader("Cache-Control", "no-cache, no-transform");
+        response.setHeader("Connection", "keep-alive");
+        response.setContentType("text/event-stream;charset=UTF-8");
+
+        SseEmitter emitter = new SseEmitter(5 * 60 * 1000L);
+        AtomicBoolean completed = new AtomicBoolean(false);
+        Map<Long, StreamHandle> streamHandles = new LinkedHashMap<>();
+        for (Long modelId : new LinkedHashSet<>(request.getModelIds())) {
+            streamHandles.put(modelId, generationRegistry.register(userId));
+        }
+        emitter.onTimeout(() -> releaseCompare(streamHandles, completed, GenerationRegistry.REASON_TIMEOUT));
+        emitter.onError(e -> releaseCompare(streamHandles, completed, GenerationRegistry.REASON_ERROR));
+        emitter.onCompletion(() -> releaseCompare(streamHandles, completed, GenerationRegistry.REASON_COMPLETION));
+
+        Object sendLock = new Object();
+        Consumer<CompareStreamEventDTO> sink = event -> {
+            synchronized (sendLock) {
+                if (completed.get()) {
+                    return;
+                }
+                try {
+                    emitter.send(SseEmitter.event().data(objectMapper.writeValueAsString(event)));
+                } catch (Exception e) {
+                    // 客户端已断开：停止所有模型，其余事件直接丢弃
+                    log.debug("发送对比事件失败: {}", e.getMessage());
+                    releaseCompare(streamHandles, completed, GenerationRegistry.REASON_ERROR);
+                }
+            }
+        };
+
+        return fairChatScheduler.submit(userId, httpRequest, streamHandles.size(), emitter, () -> {
+            if (completed.get()) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                sink.accept(compareEvent(CompareStreamEventDTO.TYPE_START, streamHandles.entrySet().stream().map(entry -> {
+                    CompareModelResultDTO pending = new CompareModelResultDTO();
+                    pending.setModelId(entry.getKey());
+                    pending.setGenerationId(entry.getValue().getGenerationId());
+                    pending.setStatus(CompareModelResultDTO.STATUS_PENDING);
+                    return pending;
+                }).toList()));
+
+                List<CompareModelResultDTO> results = aiChatService.compareStreamChat(request, userId, streamHandles, sink);
+
+                CompareStreamEventDTO summary = compareEvent(CompareStreamEventDTO.TYPE_SUMMARY, results);
+                summary.setLatencyMillis((System.nanoTime() - start) / 1_000_000);
+                sink.accept(summary);
+                synchronized (sendLock) {
+                    if (completed.compareAndSet(false, true)) {
+                        emitter.complete();
+                    }
+                }
+            } catch (Exception e) {
+                log.error("多模型对比失败: {}", e.getMessage(), e);
+                synchronized (sendLock) {
+                    if (completed.compareAndSet(false, true)) {
+                        emitter.completeWithError(e);
+                    }
+                }
+            }
+        }, () -> releaseCompare(streamHandles, completed, GenerationRegistry.REASON_REJECTED));
+    }
+
+    private void releaseCompare(Map<Long, StreamHandle> streamHandles, AtomicBoolean completed, String reason) {
+        completed.set(true);
+        streamHandles.values().forEach(handle -> generationRegistry.release(handle.getGenerationId(), reason));
+    }
+
+    private static CompareStreamEventDTO compareEvent(String type, List<CompareModelResultDTO> results) {
+        CompareStreamEventDTO event = new CompareStreamEventDTO();
+        event.setType(type);
+        event.setResults(results);
+        return event;
+    }
+
+    /**
+     * 注册流式生成：发射器结束、超时或出错时取消上游模型调用，并通过响应头返回生成ID
+     */
+    private StreamHandle registerGeneration(SseEmitter emitter, String userId, AtomicBoolean completed, HttpServletResponse response) {
+        StreamHandle streamHandle = generationRegistry.register(userId);
+        String generationId = streamHandle.getGenerationId();
+        response.setHeader(GENERATION_ID_HEADER, generationId);
+        emitter.onTimeout(() -> {
+            completed.set(true);
+            generationRegistry.release(generationId, GenerationRegistry.REASON_TIMEOUT);
+        });
+        emitter.onError(e -> {
+            completed.set(true);
+            generationRegistry.release(generationId, GenerationRegistry.REASON_ERROR);
+        });
+        emitter.onCompletion(() -> {
+            completed.set(true);
+            generationRegistry.release(generationId, GenerationRegistry.REASON_COMPLETION);
+        });
+        return streamHandle;
+    }
+
+    private StreamChatResponseDTO convertToStreamResponse(com.star.swiftAi.core.model.LLMResponse llmResponse, String sessionId, String generationId) {
+        StreamChatResponseDTO dto = new StreamChatResponseDTO();
+        dto.setSessionId(sessionId);
+        dto.setGenerationId(generationId);
         dto.setMessageId(llmResponse.getId());
         dto.setRole(llmResponse.getRole() != null ? llmResponse.getRole() : "assistant");
         dto.setContent(llmResponse.getContent());
@@ -200,4 +724,14 @@ public class AiChatController {
         dto.setFinished(llmResponse.isFinished());
         return dto;
     }
+
+    private void writeNdjsonLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
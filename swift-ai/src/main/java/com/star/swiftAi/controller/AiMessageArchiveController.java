@@ -0,0 +1,91 @@
+package com.star.swiftAi.controller;
+
+import com.star.swiftAi.entity.AiChatMessageArchive;
+import com.star.swiftAi.service.MessagePartitionService;
+import com.star.swiftAi.service.MessagePurgeService;
+import com.star.swiftCommon.domain.PubResult;
+import com.star.swiftSecurity.constant.AuthorityConstants;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AI聊天消息归档控制器
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Tag(name = "AI-消息归档", description = "AI聊天消息分区归档与恢复接口")
+@RestController
+@RequestMapping("/ai/message-archive")
+@RequiredArgsConstructor
+public class AiMessageArchiveController {
+
+    private final MessagePartitionService messagePartitionService;
+    private final MessagePurgeService messagePurgeService;
+
+    /**
+     * 查询归档记录
+     */
+    @Operation(summary = "查询归档记录", description = "查询所有已归档或已恢复的消息分区")
+    @ApiResponse(responseCode = "200", description = "查询成功")
+    @GetMapping
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_MESSAGE_ARCHIVE + "')")
+    public PubResult<List<AiChatMessageArchive>> listArchives() {
+        return PubResult.success(messagePartitionService.listArchives());
+    }
+
+    /**
+     * 预创建分区
+     */
+    @Operation(summary = "预创建分区", description = "立即创建当月及未来若干个月的消息分区")
+    @ApiResponse(responseCode = "200", description = "创建成功，返回新创建的分区名")
+    @PostMapping("/partitions/ensure")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_MESSAGE_ARCHIVE + "')")
+    public PubResult<List<String>> ensurePartitions() {
+        return PubResult.success(messagePartitionService.ensurePartitions());
+    }
+
+    /**
+     * 归档分区
+     */
+    @Operation(summary = "归档分区", description = "将指定的历史分区导出为压缩文件后删除分区")
+    @ApiResponse(responseCode = "200", description = "归档成功", content = @Content(schema = @Schema(implementation = AiChatMessageArchive.class)))
+    @PostMapping("/partitions/{partitionName}/archive")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_MESSAGE_ARCHIVE + "')")
+    public PubResult<AiChatMessageArchive> archivePartition(
+            @Parameter(description = "分区名", required = true, example = "ai_chat_message_p202401") @PathVariable String partitionName) {
+        return PubResult.success(messagePartitionService.archivePartition(partitionName));
+    }
+
+    /**
+     * 恢复分区
+     */
+    @Operation(summary = "恢复分区", description = "从归档文件重建指定分区，恢复后在保留期内不会被再次归档")
+    @ApiResponse(responseCode = "200", description = "恢复成功", content = @Content(schema = @Schema(implementation = AiChatMessageArchive.class)))
+    @PostMapping("/partitions/{partitionName}/restore")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_MESSAGE_ARCHIVE + "')")
+    public PubResult<AiChatMessageArchive> restorePartition(
+            @Parameter(description = "分区名", required = true, example = "ai_chat_message_p202401") @PathVariable String partitionName) {
+        return PubResult.success(messagePartitionService.restorePartition(partitionName));
+    }
+
+    /**
+     * 立即清理
+     */
+    @Operation(summary = "立即清理", description = "立即删除过期会话和孤儿消息，其他节点正在清理时直接返回")
+    @ApiResponse(responseCode = "200", description = "清理完成，返回各类数据的删除行数")
+    @PostMapping("/purge")
+    @PreAuthorize("hasAuthority('" + AuthorityConstants.AI_MESSAGE_ARCHIVE + "')")
+    public PubResult<Map<String, Long>> purge() {
+        return PubResult.success(messagePurgeService.purge());
+    }
+}
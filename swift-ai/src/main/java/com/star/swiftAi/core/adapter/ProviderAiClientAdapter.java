@@ -12,7 +12,6 @@ import com.star.swiftAi.core.response.ChatResponse.Usage;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -95,56 +94,20 @@ public class ProviderAiClientAdapter implements AiClient {
 
     // ==================== 私有辅助方法 ====================
 
-    /**
-     * 提取最后一条用户消息
-     */
-    private String extractLastUserMessage(List<Message> messages) {
-        if (messages == null || messages.isEmpty()) {
-            return "";
-        }
-        
-        // 从后往前找第一条用户消息
-        for (int i = messages.size() - 1; i >= 0; i--) {
-            Message msg = messages.get(i);
-            if ("user".equalsIgnoreCase(msg.getRole()) && msg.getContent() != null) {
-                return msg.getContent().toString();
-            }
-        }
-        
-        return "";
-    }
-
     /**
      * 构建ProviderRequest
+     * 消息列表（含本轮用户消息）原样交给提供商，每条消息只发送一次
      */
     private ProviderRequest buildProviderRequest(ChatRequest request) {
         ProviderRequest providerRequest = new ProviderRequest();
         
-        providerRequest.setPrompt(extractLastUserMessage(request.getMessages()));
         providerRequest.setModel(request.getModel());
-        providerRequest.setContexts(convertToContexts(request.getMessages()));
+        providerRequest.setMessages(request.getMessages() != null ? request.getMessages() : Collections.emptyList());
+        providerRequest.setStreamHandle(request.getStreamHandle());
         
         return providerRequest;
     }
 
-    /**
-     * 转换为Provider需要的contexts格式
-     */
-    private List<java.util.Map<String, Object>> convertToContexts(List<Message> messages) {
-        if (messages == null) {
-            return Collections.emptyList();
-        }
-        
-        return messages.stream()
-                .map(msg -> {
-                    java.util.Map<String, Object> map = new java.util.HashMap<>();
-                    map.put("role", msg.getRole());
-                    map.put("content", msg.getContent());
-                    return map;
-                })
-                .toList();
-    }
-
     /**
      * 将LLMResponse转换为ChatResponse
      */
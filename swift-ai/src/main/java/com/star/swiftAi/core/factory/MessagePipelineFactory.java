@@ -4,6 +4,7 @@ import com.star.swiftAi.client.AiClient;
 import com.star.swiftAi.core.processor.*;
 import com.star.swiftAi.core.pipeline.MessagePipeline;
 import com.star.swiftAi.core.pipeline.MessagePipelineBuilder;
+import com.star.swiftAi.core.vector.SemanticRetriever;
 
 /**
  * 消息流水线工厂
@@ -13,7 +14,7 @@ import com.star.swiftAi.core.pipeline.MessagePipelineBuilder;
  */
 public class MessagePipelineFactory {
     
-    private static final int DEFAULT_MAX_TOKENS = 4000;
+    public static final int DEFAULT_MAX_TOKENS = 4000;
     
     /**
      * 创建标准流水线
@@ -37,6 +38,39 @@ public class MessagePipelineFactory {
         return createStandardPipeline(aiClient, DEFAULT_MAX_TOKENS);
     }
     
+    /**
+     * 创建带语义检索的标准流水线
+     * 在截断后按当前问题召回相关历史消息，并在剩余token预算内注入
+     *
+     * @param aiClient  AI客户端
+     * @param maxTokens 最大token数
+     * @param retriever 语义检索器
+     * @param topK      召回数量
+     * @return 流水线
+     */
+    public static MessagePipeline createRetrievalPipeline(AiClient aiClient, int maxTokens,
+            SemanticRetriever retriever, int topK) {
+        MessagePipeline pipeline = createCustomPipeline("RetrievalPipeline", aiClient, maxTokens, false, true);
+        pipeline.addProcessor(new SemanticRetrievalProcessor(retriever, maxTokens, topK));
+        return pipeline;
+    }
+
+    /**
+     * 创建上下文流水线
+     * 只包含：截断、语义检索，不发送请求；供流式调用在发送前整理消息链
+     *
+     * @param maxTokens 最大token数
+     * @param retriever 语义检索器
+     * @param topK      召回数量
+     * @return 流水线
+     */
+    public static MessagePipeline createContextPipeline(int maxTokens, SemanticRetriever retriever, int topK) {
+        return MessagePipelineBuilder.create("ContextPipeline")
+                .addProcessor(new MessageTruncationProcessor(maxTokens))
+                .addProcessor(new SemanticRetrievalProcessor(retriever, maxTokens, topK))
+                .build();
+    }
+
     /**
      * 创建简单流水线
      * 只包含：初始化、验证、发送
@@ -1,9 +1,10 @@
 package com.star.swiftAi.core.model;
 
 import com.star.swiftAi.util.TokenCounter;
-import lombok.Data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -11,27 +12,92 @@ import java.util.stream.Collectors;
  * chain-based消息管理模型
  * 提供链式调用方法和丰富的消息管理能力
  *
+ * 消息列表只能通过本类的方法修改，修改时同步维护每条消息 token 数的前缀和：
+ * 追加消息 O(1)，总 token 数和任意区间的 token 数 O(1)，按预算查找可保留的最长后缀 O(log n)
+ *
  * @author SHOOTING_STAR_C
  */
-@Data
 public class MessageChain {
     /**
      * 消息列表
      */
-    private List<Message> messages = new ArrayList<>();
-    
+    private final List<Message> messages;
+
+    /**
+     * token 前缀和：prefixTokens[i] 为前 i 条消息的 token 数之和，有效长度为 messages.size() + 1
+     */
+    private int[] prefixTokens;
+
+    public MessageChain() {
+        this(10);
+    }
+
+    /**
+     * @param initialCapacity 预计的消息条数
+     */
+    public MessageChain(int initialCapacity) {
+        this.messages = new ArrayList<>(initialCapacity);
+        this.prefixTokens = new int[initialCapacity + 1];
+    }
+
+    /**
+     * 获取消息列表（只读视图，修改请使用本类的方法）
+     *
+     * @return 消息列表
+     */
+    public List<Message> getMessages() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * 替换全部消息
+     *
+     * @param messages 消息列表
+     */
+    public void setMessages(List<Message> messages) {
+        clear();
+        if (messages != null) {
+            messages.forEach(this::addMessage);
+        }
+    }
+
     /**
      * 添加消息
+     * 消息的 token 数在加入时计算一次并记录在消息上
      *
      * @param message 消息
      * @return 当前MessageChain实例，支持链式调用
      */
     public MessageChain addMessage(Message message) {
         if (message != null) {
-            this.messages.add(message);
+            int tokens = countTokens(message);
+            int size = messages.size();
+            ensurePrefixCapacity(size + 2);
+            messages.add(message);
+            prefixTokens[size + 1] = prefixTokens[size] + tokens;
         }
         return this;
     }
+
+    /**
+     * 在指定位置插入消息
+     *
+     * @param index       插入位置
+     * @param newMessages 消息列表
+     * @return 当前MessageChain实例，支持链式调用
+     */
+    public MessageChain insertMessages(int index, List<Message> newMessages) {
+        if (newMessages == null || newMessages.isEmpty()) {
+            return this;
+        }
+        if (index == messages.size()) {
+            newMessages.forEach(this::addMessage);
+            return this;
+        }
+        messages.addAll(index, newMessages);
+        rebuildPrefixFrom(index);
+        return this;
+    }
     
     /**
      * 添加系统消息
@@ -173,7 +239,57 @@ public class MessageChain {
      * @return token数量
      */
     public int getTotalTokens() {
-        return TokenCounter.estimateTotalTokens(messages);
+        return prefixTokens[messages.size()];
+    }
+
+    /**
+     * 计算 [fromIndex, toIndex) 区间内消息的token数
+     *
+     * @param fromIndex 起始索引（包含）
+     * @param toIndex   结束索引（不包含）
+     * @return token数量
+     */
+    public int getTokens(int fromIndex, int toIndex) {
+        return prefixTokens[toIndex] - prefixTokens[fromIndex];
+    }
+
+    /**
+     * 按预算查找可以完整保留的最长后缀
+     * 前缀和单调不减，二分查找第一个满足 total - prefix[i] <= budget 的位置
+     *
+     * @param budget token预算
+     * @return 后缀起始索引，预算不足以保留最后一条消息时为 size()
+     */
+    public int findSuffixStart(int budget) {
+        int size = messages.size();
+        int threshold = prefixTokens[size] - budget;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prefixTokens[mid] >= threshold) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 删除 [fromIndex, toIndex) 区间内的消息
+     *
+     * @param fromIndex 起始索引（包含）
+     * @param toIndex   结束索引（不包含）
+     * @return 当前MessageChain实例，支持链式调用
+     */
+    public MessageChain removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return this;
+        }
+        messages.subList(fromIndex, toIndex).clear();
+        rebuildPrefixFrom(fromIndex);
+        return this;
     }
     
     /**
@@ -205,7 +321,9 @@ public class MessageChain {
      */
     public Message removeMessage(int index) {
         if (index >= 0 && index < messages.size()) {
-            return messages.remove(index);
+            Message removed = messages.remove(index);
+            rebuildPrefixFrom(index);
+            return removed;
         }
         return null;
     }
@@ -217,7 +335,16 @@ public class MessageChain {
      * @return 是否删除成功
      */
     public boolean removeMessageById(String messageId) {
-        return messages.removeIf(m -> m.getMessageId() != null && m.getMessageId().equals(messageId));
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            if (message.getMessageId() != null && message.getMessageId().equals(messageId)) {
+                // 与 removeIf 一致，删除所有ID相同的消息
+                messages.removeIf(m -> m.getMessageId() != null && m.getMessageId().equals(messageId));
+                rebuildPrefixFrom(i);
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
@@ -246,4 +373,30 @@ public class MessageChain {
     public List<Message> toOpenAIFormat() {
         return new ArrayList<>(messages);
     }
+
+    /**
+     * 计算消息的token数并记录在消息上，已记录的直接使用
+     */
+    private static int countTokens(Message message) {
+        int tokens = TokenCounter.estimateTokens(message);
+        message.setTokens(tokens);
+        return tokens;
+    }
+
+    /**
+     * 从指定位置起重新计算前缀和（插入或删除之后调用）
+     */
+    private void rebuildPrefixFrom(int index) {
+        int size = messages.size();
+        ensurePrefixCapacity(size + 1);
+        for (int i = index; i < size; i++) {
+            prefixTokens[i + 1] = prefixTokens[i] + countTokens(messages.get(i));
+        }
+    }
+
+    private void ensurePrefixCapacity(int capacity) {
+        if (prefixTokens.length < capacity) {
+            prefixTokens = Arrays.copyOf(prefixTokens, Math.max(capacity, prefixTokens.length + (prefixTokens.length >> 1)));
+        }
+    }
 }
@@ -38,6 +38,12 @@ public class ProviderRequest {
      */
     private ToolSet funcTool;
     
+    /**
+     * 完整的消息列表（已包含系统提示词和本轮用户消息）
+     * 设置后按顺序原样发送，不再使用 prompt、contexts 和 systemPrompt
+     */
+    private List<Message> messages;
+
     /**
      * OpenAI格式上下文
      */
@@ -72,4 +78,9 @@ public class ProviderRequest {
      * Top P参数（核采样）
      */
     private Double topP;
+
+    /**
+     * 流式生成句柄（用于取消正在进行的流式调用）
+     */
+    private StreamHandle streamHandle;
 }
@@ -0,0 +1,81 @@
+package com.star.swiftAi.core.model;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 流式生成句柄
+ * 随请求传递到提供商，提供商把正在读取的响应体（或尚未返回的请求）挂到句柄上；
+ * 客户端断开或主动停止生成时调用 {@link #cancel()} 关闭该资源，使阻塞中的读取立即结束
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class StreamHandle {
+
+    /**
+     * 生成ID
+     */
+    @Getter
+    private final String generationId;
+
+    private volatile boolean cancelled;
+
+    private AutoCloseable resource;
+
+    public StreamHandle(String generationId) {
+        this.generationId = generationId;
+    }
+
+    /**
+     * 是否已取消
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 挂载需要在取消时关闭的资源，替换之前挂载的资源；已取消时立即关闭
+     *
+     * @param closeable 资源
+     */
+    public void attach(AutoCloseable closeable) {
+        boolean closeNow;
+        synchronized (this) {
+            resource = closeable;
+            closeNow = cancelled;
+        }
+        if (closeNow) {
+            closeQuietly(closeable);
+        }
+    }
+
+    /**
+     * 取消生成并关闭已挂载的资源
+     *
+     * @return 是否由本次调用完成取消（重复取消返回 false）
+     */
+    public boolean cancel() {
+        AutoCloseable toClose;
+        synchronized (this) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            toClose = resource;
+            resource = null;
+        }
+        if (toClose != null) {
+            closeQuietly(toClose);
+        }
+        return true;
+    }
+
+    private void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            log.debug("关闭流式资源失败: generationId={}, error={}", generationId, e.getMessage());
+        }
+    }
+}
@@ -1,19 +1,15 @@
 package com.star.swiftAi.core.processor;
 
-import com.star.swiftAi.core.model.Message;
+import com.star.swiftAi.core.model.MessageChain;
 import com.star.swiftAi.core.pipeline.MessageProcessor;
 import com.star.swiftAi.core.pipeline.ProcessingContext;
 import com.star.swiftAi.exception.AiException;
-import com.star.swiftAi.util.TokenCounter;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Iterator;
-import java.util.List;
-
 /**
  * 消息截断处理器
- * 根据token限制截断MessageChain
+ * 根据token限制截断MessageChain：在预算内保留尽可能多的近期消息（至少保留最后N条），系统消息始终保留
  *
  * @author SHOOTING_STAR_C
  */
@@ -50,14 +46,10 @@ public class MessageTruncationProcessor implements MessageProcessor {
             return context;
         }
         
-        List<Message> messages = context.getMessageChain().getMessages();
-        
-        // 检查是否需要截断
-        Integer totalTokens = context.getSharedData("totalTokens", Integer.class);
-        if (totalTokens == null) {
-            totalTokens = TokenCounter.estimateTotalTokens(messages);
-        }
+        MessageChain chain = context.getMessageChain();
         
+        // 检查是否需要截断（总数由前缀和维护，无需重新计算）
+        int totalTokens = chain.getTotalTokens();
         if (totalTokens <= maxTokens) {
             log.debug("No truncation needed. Total tokens: {}", totalTokens);
             return context;
@@ -66,41 +58,36 @@ public class MessageTruncationProcessor implements MessageProcessor {
         log.info("Truncating messages. Current tokens: {}, Max tokens: {}", totalTokens, maxTokens);
         
         // 保留系统消息
-        Message systemMessage = null;
+        int systemIndex = -1;
         if (keepSystemMessage) {
-            for (Message message : messages) {
-                if ("system".equalsIgnoreCase(message.getRole())) {
-                    systemMessage = message;
+            for (int i = 0; i < chain.size(); i++) {
+                if ("system".equalsIgnoreCase(chain.getMessages().get(i).getRole())) {
+                    systemIndex = i;
                     break;
                 }
             }
         }
+        int systemTokens = systemIndex >= 0 ? chain.getTokens(systemIndex, systemIndex + 1) : 0;
         
-        // 保留最后N条消息
-        int keepCount = Math.min(keepLastMessages, messages.size());
-        int startIndex = messages.size() - keepCount;
-        
-        List<Message> truncatedMessages = messages.subList(startIndex, messages.size());
-        
-        // 重新构建MessageChain
-        messages.clear();
-        
-        // 先添加系统消息
-        if (systemMessage != null && !truncatedMessages.contains(systemMessage)) {
-            messages.add(systemMessage);
+        // 在扣除系统消息后的预算内保留尽可能长的近期对话，且至少保留最后N条消息
+        int keepCount = Math.min(keepLastMessages, chain.size());
+        int startIndex = Math.min(chain.findSuffixStart(maxTokens - systemTokens), chain.size() - keepCount);
+        int removed = startIndex;
+        if (systemIndex >= 0 && systemIndex < startIndex) {
+            chain.removeRange(systemIndex + 1, startIndex);
+            chain.removeRange(0, systemIndex);
+            removed--;
+        } else {
+            chain.removeRange(0, startIndex);
         }
         
-        // 添加截断后的消息
-        messages.addAll(truncatedMessages);
-        
-        // 重新计算token
-        int newTotalTokens = TokenCounter.estimateTotalTokens(messages);
+        int newTotalTokens = chain.getTotalTokens();
         context.putSharedData("totalTokens", newTotalTokens);
         context.putSharedData("truncated", true);
         context.putSharedData("originalTokenCount", totalTokens);
         
-        log.info("Truncation completed. Original tokens: {}, New tokens: {}, Messages: {}", 
-                totalTokens, newTotalTokens, messages.size());
+        log.info("Truncation completed. Original tokens: {}, New tokens: {}, Removed: {}, Messages: {}", 
+                totalTokens, newTotalTokens, removed, chain.size());
         
         return context;
     }
@@ -0,0 +1,136 @@
+package com.star.swiftAi.core.processor;
+
+import com.star.swiftAi.core.model.Message;
+import com.star.swiftAi.core.model.MessageChain;
+import com.star.swiftAi.core.pipeline.MessageProcessor;
+import com.star.swiftAi.core.pipeline.ProcessingContext;
+import com.star.swiftAi.core.vector.SemanticRetriever;
+import com.star.swiftAi.exception.AiException;
+import com.star.swiftAi.util.TokenCounter;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 语义检索处理器
+ * 在截断之后执行：按当前问题从会话历史中召回语义相关、但已不在上下文窗口内的消息，
+ * 在剩余token预算内插入到系统消息之后
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Data
+public class SemanticRetrievalProcessor implements MessageProcessor {
+
+    private final SemanticRetriever retriever;
+
+    /**
+     * 最大token数（与截断处理器保持一致）
+     */
+    private int maxTokens = 4000;
+
+    /**
+     * 召回数量
+     */
+    private int topK = 4;
+
+    public SemanticRetrievalProcessor(SemanticRetriever retriever, int maxTokens, int topK) {
+        this.retriever = retriever;
+        this.maxTokens = maxTokens;
+        this.topK = topK;
+    }
+
+    @Override
+    public ProcessingContext process(ProcessingContext context) throws AiException {
+        MessageChain chain = context.getMessageChain();
+        if (chain == null || chain.getMessages() == null || context.getConversationId() == null) {
+            return context;
+        }
+
+        Message lastUser = null;
+        List<Message> messages = chain.getMessages();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if ("user".equalsIgnoreCase(messages.get(i).getRole())) {
+                lastUser = messages.get(i);
+                break;
+            }
+        }
+        if (lastUser == null || lastUser.getContent() == null) {
+            return context;
+        }
+
+        int totalTokens = chain.getTotalTokens();
+        int budget = maxTokens - totalTokens;
+        if (budget <= 0) {
+            log.debug("No token budget left for retrieval. Total tokens: {}", totalTokens);
+            return context;
+        }
+
+        List<Message> retrieved;
+        try {
+            retrieved = retriever.retrieve(context.getConversationId(), lastUser.getContent().toString(), topK);
+        } catch (Exception e) {
+            // 检索失败不影响主流程
+            log.warn("Semantic retrieval failed: {}", e.getMessage());
+            return context;
+        }
+        if (retrieved == null || retrieved.isEmpty()) {
+            return context;
+        }
+
+        // 已在上下文窗口中的消息不重复注入
+        Set<String> present = new HashSet<>();
+        for (Message message : messages) {
+            if (message.getContent() != null) {
+                present.add(message.getRole() + ":" + message.getContent());
+            }
+        }
+
+        List<Message> injected = new ArrayList<>();
+        int used = 0;
+        for (Message candidate : retrieved) {
+            if (candidate.getContent() == null
+                    || !present.add(candidate.getRole() + ":" + candidate.getContent())) {
+                continue;
+            }
+            int tokens = TokenCounter.estimateTokens(candidate);
+            if (used + tokens > budget) {
+                continue;
+            }
+            candidate.setTokens(tokens);
+            candidate.putMetadata("retrieved", true);
+            injected.add(candidate);
+            used += tokens;
+        }
+        if (injected.isEmpty()) {
+            return context;
+        }
+
+        // 插入到系统消息之后、近期对话之前，保持时间顺序
+        int insertAt = 0;
+        while (insertAt < messages.size() && "system".equalsIgnoreCase(messages.get(insertAt).getRole())) {
+            insertAt++;
+        }
+        chain.insertMessages(insertAt, injected);
+
+        context.putSharedData("totalTokens", totalTokens + used);
+        context.putSharedData("retrievedMessages", injected.size());
+        log.debug("Injected {} retrieved messages ({} tokens)", injected.size(), used);
+
+        return context;
+    }
+
+    @Override
+    public String getName() {
+        return "SemanticRetrievalProcessor";
+    }
+
+    @Override
+    public int getPriority() {
+        return 35;
+    }
+}
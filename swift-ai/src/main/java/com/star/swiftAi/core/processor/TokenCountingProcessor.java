@@ -1,15 +1,13 @@
 package com.star.swiftAi.core.processor;
 
-import com.star.swiftAi.core.model.Message;
 import com.star.swiftAi.core.pipeline.MessageProcessor;
 import com.star.swiftAi.core.pipeline.ProcessingContext;
 import com.star.swiftAi.exception.AiException;
-import com.star.swiftAi.util.TokenCounter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Token计数处理器
- * 计算每条消息和整个MessageChain的token数量
+ * 每条消息的token数在加入MessageChain时已计算并维护为前缀和，这里只读取总数供后续处理器使用
  *
  * @author SHOOTING_STAR_C
  */
@@ -23,15 +21,7 @@ public class TokenCountingProcessor implements MessageProcessor {
             return context;
         }
         
-        int totalTokens = 0;
-        
-        for (Message message : context.getMessageChain().getMessages()) {
-            int messageTokens = TokenCounter.estimateTokens(message);
-            message.setTokens(messageTokens);
-            totalTokens += messageTokens;
-            log.debug("Message [{}] tokens: {}", message.getMessageId(), messageTokens);
-        }
-        
+        int totalTokens = context.getMessageChain().getTotalTokens();
         context.putSharedData("totalTokens", totalTokens);
         log.debug("Total tokens for message chain: {}", totalTokens);
         
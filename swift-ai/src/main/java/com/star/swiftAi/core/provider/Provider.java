@@ -2,10 +2,14 @@ package com.star.swiftAi.core.provider;
 
 import com.star.swiftAi.core.model.ContentPart;
 import com.star.swiftAi.core.model.LLMResponse;
+import com.star.swiftAi.core.model.Message;
 import com.star.swiftAi.core.model.ProviderRequest;
+import com.star.swiftAi.core.model.StreamHandle;
 import com.star.swiftAi.core.model.ToolCallsResult;
 import com.star.swiftAi.core.model.ToolSet;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -54,7 +58,20 @@ public abstract class Provider extends AbstractProvider {
      * @throws Exception 获取失败时抛出异常
      */
     public abstract List<String> getModels() throws Exception;
-    
+
+    /**
+     * 获取文本的向量嵌入
+     * 默认不支持，具备嵌入接口的提供商需覆盖此方法
+     *
+     * @param texts 文本列表
+     * @param model 嵌入模型
+     * @return 向量列表（与输入文本顺序一致）
+     * @throws Exception 调用失败时抛出异常
+     */
+    public List<float[]> embed(List<String> texts, String model) throws Exception {
+        throw new UnsupportedOperationException("当前提供商不支持向量嵌入: " + getClass().getSimpleName());
+    }
+
     /**
      * 获得LLM的文本对话结果（非流式）
      *
@@ -116,11 +133,11 @@ public abstract class Provider extends AbstractProvider {
      */
     public LLMResponse chat(ProviderRequest request) throws Exception {
         return textChat(
-            request.getPrompt(),
+            promptOf(request),
             request.getSessionId(),
             request.getImageUrls(),
             request.getFuncTool(),
-            request.getContexts(),
+            contextsOf(request),
             request.getSystemPrompt(),
             request.getToolCallsResult(),
             request.getModel(),
@@ -138,11 +155,11 @@ public abstract class Provider extends AbstractProvider {
      */
     public void streamChat(ProviderRequest request, java.util.function.Consumer<LLMResponse> consumer) throws Exception {
         List<LLMResponse> responses = textChatStream(
-            request.getPrompt(),
+            promptOf(request),
             request.getSessionId(),
             request.getImageUrls(),
             request.getFuncTool(),
-            request.getContexts(),
+            contextsOf(request),
             request.getSystemPrompt(),
             request.getToolCallsResult(),
             request.getModel()
@@ -160,18 +177,50 @@ public abstract class Provider extends AbstractProvider {
      */
     public void streamChatRealtime(ProviderRequest request, java.util.function.Consumer<LLMResponse> consumer) throws Exception {
         textChatStreamRealtime(
-            request.getPrompt(),
+            promptOf(request),
             request.getSessionId(),
             request.getImageUrls(),
             request.getFuncTool(),
-            request.getContexts(),
+            contextsOf(request),
             request.getSystemPrompt(),
             request.getToolCallsResult(),
             request.getModel(),
-            consumer
+            consumer,
+            request.getStreamHandle()
         );
     }
     
+    /**
+     * 获得LLM的实时流式文本对话结果（可取消）
+     * 默认实现不支持取消，忽略句柄；支持取消的提供商应覆盖此方法，把响应体挂到句柄上
+     *
+     * @param prompt 提示词
+     * @param sessionId 会话ID（已废弃）
+     * @param imageUrls 图片URL列表
+     * @param funcTool 可用函数工具
+     * @param contexts OpenAI格式上下文
+     * @param systemPrompt 系统提示词
+     * @param toolCallsResult 工具调用结果
+     * @param model 模型名称
+     * @param consumer 响应消费者，每接收一个数据块就调用一次
+     * @param streamHandle 流式生成句柄，可为null
+     * @throws Exception 调用失败时抛出异常
+     */
+    public void textChatStreamRealtime(
+        String prompt,
+        String sessionId,
+        List<String> imageUrls,
+        ToolSet funcTool,
+        List<Map<String, Object>> contexts,
+        String systemPrompt,
+        List<ToolCallsResult> toolCallsResult,
+        String model,
+        java.util.function.Consumer<LLMResponse> consumer,
+        StreamHandle streamHandle
+    ) throws Exception {
+        textChatStreamRealtime(prompt, sessionId, imageUrls, funcTool, contexts, systemPrompt, toolCallsResult, model, consumer);
+    }
+    
     /**
      * 获得LLM的实时流式文本对话结果
      * 每接收到一个数据块就通过consumer传递，而不是等待所有响应完成
@@ -198,4 +247,29 @@ public abstract class Provider extends AbstractProvider {
         String model,
         java.util.function.Consumer<LLMResponse> consumer
     ) throws Exception;
+
+    /**
+     * 请求中的提示词：设置了完整消息列表时本轮用户消息已在列表中，不再单独传入
+     */
+    private static String promptOf(ProviderRequest request) {
+        return request.getMessages() != null ? null : request.getPrompt();
+    }
+
+    /**
+     * 请求中的上下文：设置了完整消息列表时转换为 OpenAI 格式上下文，
+     * 供只实现了按参数调用的提供商使用；能直接写出消息列表的提供商应覆盖便捷方法
+     */
+    private static List<Map<String, Object>> contextsOf(ProviderRequest request) {
+        if (request.getMessages() == null) {
+            return request.getContexts();
+        }
+        List<Map<String, Object>> contexts = new ArrayList<>(request.getMessages().size());
+        for (Message message : request.getMessages()) {
+            Map<String, Object> context = new HashMap<>();
+            context.put("role", message.getRole());
+            context.put("content", message.getContent());
+            contexts.add(context);
+        }
+        return contexts;
+    }
 }
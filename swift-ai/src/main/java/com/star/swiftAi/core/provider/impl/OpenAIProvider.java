@@ -1,5 +1,6 @@
 package com.star.swiftAi.core.provider.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.star.swiftAi.core.annotation.ProviderAdapter;
@@ -7,6 +8,8 @@ import com.star.swiftAi.core.model.*;
 import com.star.swiftAi.core.provider.Provider;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -39,6 +42,7 @@ public class OpenAIProvider extends Provider {
 
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final OpenAiStreamChunkParser chunkParser;
 
     /**
      * 获取或创建 HttpClient（单例模式，按超时时间缓存）
@@ -59,6 +63,7 @@ public class OpenAIProvider extends Provider {
         this.httpClient = getHttpClient(timeout);
 
         this.objectMapper = new ObjectMapper();
+        this.chunkParser = new OpenAiStreamChunkParser(objectMapper);
     }
 
     /**
@@ -113,6 +118,7 @@ public class OpenAIProvider extends Provider {
             .uri(URI.create(baseUrl + "/models"))
             .header("Authorization", "Bearer " + apiKey)
             .GET()
+            .timeout(Duration.ofSeconds(getTimeout()))
             .build();
 
         HttpResponse<String> response = httpClient.send(
@@ -138,6 +144,62 @@ public class OpenAIProvider extends Provider {
         return models;
     }
 
+    @Override
+    public List<float[]> embed(List<String> texts, String model) throws Exception {
+        if (texts == null || texts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String baseUrl = getBaseUrl();
+        String apiKey = getCurrentKey();
+
+        Map<String, Object> requestBody = new java.util.HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("input", texts);
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + "/embeddings"))
+            .header("Authorization", "Bearer " + apiKey)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody)))
+            .build();
+
+        HttpResponse<String> response = httpClient.send(
+            request,
+            HttpResponse.BodyHandlers.ofString()
+        );
+
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("OpenAI 嵌入接口调用失败：" + response.body());
+        }
+
+        JsonNode data = objectMapper.readTree(response.body()).get("data");
+        float[][] vectors = new float[texts.size()][];
+        if (data != null && data.isArray()) {
+            for (int i = 0; i < data.size(); i++) {
+                JsonNode item = data.get(i);
+                // 按 index 字段回填，兼容乱序返回的实现
+                int index = item.has("index") ? item.get("index").asInt() : i;
+                JsonNode embedding = item.get("embedding");
+                if (index < 0 || index >= vectors.length || embedding == null || !embedding.isArray()) {
+                    continue;
+                }
+                float[] vector = new float[embedding.size()];
+                for (int j = 0; j < vector.length; j++) {
+                    vector[j] = (float) embedding.get(j).asDouble();
+                }
+                vectors[index] = vector;
+            }
+        }
+
+        for (float[] vector : vectors) {
+            if (vector == null) {
+                throw new RuntimeException("OpenAI 嵌入接口返回的向量数量与输入不一致");
+            }
+        }
+        return java.util.Arrays.asList(vectors);
+    }
+
     @Override
     public LLMResponse textChat(
         String prompt,
@@ -152,21 +214,33 @@ public class OpenAIProvider extends Provider {
     ) throws Exception {
         log.info("OpenAI 提供商执行 textChat 请求：model={}", model);
 
-        String baseUrl = getBaseUrl();
-        String apiKey = getCurrentKey();
+        return sendChat(buildChatRequestBody(
+            prompt, systemPrompt, contexts, null, model, funcTool, toolCallsResult, false
+        ));
+    }
 
-        // 构建请求体
-        Map<String, Object> requestBody = buildChatRequestBody(
-            prompt, systemPrompt, contexts, model, funcTool, toolCallsResult
-        );
+    /**
+     * 对话调用：直接按请求中的完整消息列表写出请求体
+     */
+    @Override
+    public LLMResponse chat(ProviderRequest request) throws Exception {
+        if (request.getMessages() == null) {
+            return super.chat(request);
+        }
+        log.info("OpenAI 提供商执行 chat 请求：model={}", request.getModel());
 
-        String jsonBody = objectMapper.writeValueAsString(requestBody);
+        return sendChat(buildChatRequestBody(request, false));
+    }
 
+    /**
+     * 发送非流式聊天请求
+     */
+    private LLMResponse sendChat(byte[] body) throws Exception {
         HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(baseUrl + "/chat/completions"))
-            .header("Authorization", "Bearer " + apiKey)
+            .uri(URI.create(getBaseUrl() + "/chat/completions"))
+            .header("Authorization", "Bearer " + getCurrentKey())
             .header("Content-Type", "application/json")
-            .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
             .build();
 
         HttpResponse<String> response = httpClient.send(
@@ -181,57 +255,111 @@ public class OpenAIProvider extends Provider {
         return parseChatResponse(response.body());
     }
 
+    /**
+     * 按请求中的完整消息列表构建聊天请求体（对话调用的热点路径）
+     *
+     * @param request 提供商请求，messages 不能为空
+     * @param stream  是否流式
+     * @return UTF-8 编码的请求体
+     */
+    public byte[] buildChatRequestBody(ProviderRequest request, boolean stream) throws IOException {
+        return buildChatRequestBody(
+            null, null, null, request.getMessages(), request.getModel(), request.getFuncTool(), request.getToolCallsResult(), stream
+        );
+    }
+
     /**
      * 构建聊天请求体
+     * 用 JsonGenerator 直接写出 JSON，不经过中间的 Map；messages 不为空时按顺序写出，
+     * 否则依次写出系统提示词、上下文和用户提示词（prompt 为空时不写）
      */
-    private Map<String, Object> buildChatRequestBody(
+    private byte[] buildChatRequestBody(
         String prompt,
         String systemPrompt,
         List<Map<String, Object>> contexts,
+        List<Message> messages,
         String model,
         ToolSet funcTool,
-        List<ToolCallsResult> toolCallsResult
-    ) {
-        Map<String, Object> body = new java.util.HashMap<>();
-        body.put("model", model);
-
-        // 构建消息列表
-        List<Map<String, Object>> messages = new ArrayList<>();
-
-        // 添加系统提示
-        if (systemPrompt != null && !systemPrompt.isEmpty()) {
-            Map<String, Object> systemMsg = new java.util.HashMap<>();
-            systemMsg.put("role", "system");
-            systemMsg.put("content", systemPrompt);
-            messages.add(systemMsg);
-        }
-
-        // 添加历史上下文
-        if (contexts != null && !contexts.isEmpty()) {
-            messages.addAll(contexts);
-        }
-
-        // 添加用户消息
-        Map<String, Object> userMsg = new java.util.HashMap<>();
-        userMsg.put("role", "user");
-        userMsg.put("content", prompt);
-        messages.add(userMsg);
+        List<ToolCallsResult> toolCallsResult,
+        boolean stream
+    ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("model", model);
+            generator.writeArrayFieldStart("messages");
+
+            if (messages != null) {
+                for (Message message : messages) {
+                    writeMessage(generator, message);
+                }
+            } else {
+                // 添加系统提示
+                if (systemPrompt != null && !systemPrompt.isEmpty()) {
+                    writeMessage(generator, "system", systemPrompt);
+                }
+                // 添加历史上下文
+                if (contexts != null) {
+                    for (Map<String, Object> context : contexts) {
+                        generator.writeObject(context);
+                    }
+                }
+                // 添加用户消息
+                if (prompt != null) {
+                    writeMessage(generator, "user", prompt);
+                }
+            }
 
-        body.put("messages", messages);
+            // 添加工具调用结果（如果有）
+            if (toolCallsResult != null) {
+                for (ToolCallsResult result : toolCallsResult) {
+                    for (Map<String, Object> message : result.toOpenAiMessages()) {
+                        generator.writeObject(message);
+                    }
+                }
+            }
+            generator.writeEndArray();
 
-        // 添加工具（如果有）
-        if (funcTool != null && funcTool.getTools() != null && !funcTool.getTools().isEmpty()) {
-            body.put("tools", funcTool.getTools());
+            // 添加工具（如果有）
+            if (funcTool != null && funcTool.getTools() != null && !funcTool.getTools().isEmpty()) {
+                generator.writeObjectField("tools", funcTool.getTools());
+            }
+            if (stream) {
+                generator.writeBooleanField("stream", true);
+            }
+            generator.writeEndObject();
         }
+        return out.toByteArray();
+    }
 
-        // 添加工具调用结果（如果有）
-        if (toolCallsResult != null && !toolCallsResult.isEmpty()) {
-            for (ToolCallsResult result : toolCallsResult) {
-                messages.addAll(result.toOpenAiMessages());
-            }
+    /**
+     * 写出一条消息，只包含接口需要的字段
+     */
+    private void writeMessage(JsonGenerator generator, Message message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("role", message.getRole());
+        if (message.getContent() instanceof String content) {
+            generator.writeStringField("content", content);
+        } else if (message.getContent() != null) {
+            generator.writeObjectField("content", message.getContent());
+        }
+        if (message.getToolCalls() != null) {
+            generator.writeObjectField("tool_calls", message.getToolCalls());
+        }
+        if (message.getToolCallId() != null) {
+            generator.writeStringField("tool_call_id", message.getToolCallId());
         }
+        if (message.getName() != null) {
+            generator.writeStringField("name", message.getName());
+        }
+        generator.writeEndObject();
+    }
 
-        return body;
+    private void writeMessage(JsonGenerator generator, String role, String content) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("role", role);
+        generator.writeStringField("content", content);
+        generator.writeEndObject();
     }
 
     /**
@@ -301,18 +429,15 @@ public class OpenAIProvider extends Provider {
         String apiKey = getCurrentKey();
 
         // 构建请求体
-        Map<String, Object> requestBody = buildChatRequestBody(
-            prompt, systemPrompt, contexts, model, funcTool, toolCallsResult
+        byte[] body = buildChatRequestBody(
+            prompt, systemPrompt, contexts, null, model, funcTool, toolCallsResult, true
         );
-        requestBody.put("stream", true);
-
-        String jsonBody = objectMapper.writeValueAsString(requestBody);
 
         HttpRequest request = HttpRequest.newBuilder()
             .uri(URI.create(baseUrl + "/chat/completions"))
             .header("Authorization", "Bearer " + apiKey)
             .header("Content-Type", "application/json")
-            .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
             .build();
 
         HttpResponse<String> response = httpClient.send(
@@ -336,12 +461,10 @@ public class OpenAIProvider extends Provider {
         // SSE 格式：每行以"data: "开头
         String[] lines = responseBody.split("\n");
         for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("data: ")) {
-                String data = line.substring(6);
-
+            String data = OpenAiStreamChunkParser.extractData(line.trim());
+            if (data != null) {
                 // 结束标记
-                if ("[DONE]".equals(data)) {
+                if (OpenAiStreamChunkParser.isDone(data)) {
                     LLMResponse finalResponse = new LLMResponse();
                     finalResponse.setFinished(true);
                     responses.add(finalResponse);
@@ -349,28 +472,8 @@ public class OpenAIProvider extends Provider {
                 }
 
                 try {
-                    JsonNode root = objectMapper.readTree(data);
-                    LLMResponse response = new LLMResponse();
-
-                    JsonNode choices = root.get("choices");
-                    if (choices != null && choices.isArray() && !choices.isEmpty()) {
-                        JsonNode choice = choices.get(0);
-                        JsonNode delta = choice.get("delta");
-
-                        if (delta != null) {
-                            JsonNode content = delta.get("content");
-                            if (content != null) {
-                                String contentText = content.asText();
-                                response.setContent(contentText);
-                                response.setDelta(contentText);
-                            }
-                        }
-
-                        String finishReason = choice.get("finish_reason") != null ?
-                            choice.get("finish_reason").asText() : null;
-                        response.setFinished("stop".equals(finishReason));
-                    }
-
+                    LLMResponse response = chunkParser.parse(data);
+                    response.setContent(response.getDelta());
                     responses.add(response);
                 } catch (Exception e) {
                     log.error("解析流式响应失败：{}", data, e);
@@ -392,37 +495,92 @@ public class OpenAIProvider extends Provider {
         List<ToolCallsResult> toolCallsResult,
         String model,
         java.util.function.Consumer<LLMResponse> consumer
+    ) throws Exception {
+        textChatStreamRealtime(prompt, sessionId, imageUrls, funcTool, contexts, systemPrompt, toolCallsResult, model, consumer, null);
+    }
+
+    @Override
+    public void textChatStreamRealtime(
+        String prompt,
+        String sessionId,
+        List<String> imageUrls,
+        ToolSet funcTool,
+        List<Map<String, Object>> contexts,
+        String systemPrompt,
+        List<ToolCallsResult> toolCallsResult,
+        String model,
+        java.util.function.Consumer<LLMResponse> consumer,
+        StreamHandle streamHandle
     ) throws Exception {
         log.info("OpenAI 提供商执行 textChatStreamRealtime 请求：model={}", model);
 
-        String baseUrl = getBaseUrl();
-        String apiKey = getCurrentKey();
+        sendStreamRealtime(buildChatRequestBody(
+            prompt, systemPrompt, contexts, null, model, funcTool, toolCallsResult, true
+        ), consumer, streamHandle);
+    }
 
-        // 构建请求体
-        Map<String, Object> requestBody = buildChatRequestBody(
-            prompt, systemPrompt, contexts, model, funcTool, toolCallsResult
-        );
-        requestBody.put("stream", true);
+    /**
+     * 实时流式对话调用：直接按请求中的完整消息列表写出请求体
+     */
+    @Override
+    public void streamChatRealtime(ProviderRequest request, java.util.function.Consumer<LLMResponse> consumer) throws Exception {
+        if (request.getMessages() == null) {
+            super.streamChatRealtime(request, consumer);
+            return;
+        }
+        log.info("OpenAI 提供商执行 streamChatRealtime 请求：model={}", request.getModel());
 
-        String jsonBody = objectMapper.writeValueAsString(requestBody);
+        sendStreamRealtime(buildChatRequestBody(request, true), consumer, request.getStreamHandle());
+    }
 
+    /**
+     * 发送流式聊天请求，逐行解析并实时传递给消费者
+     */
+    private void sendStreamRealtime(
+        byte[] body,
+        java.util.function.Consumer<LLMResponse> consumer,
+        StreamHandle streamHandle
+    ) throws Exception {
         HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(baseUrl + "/chat/completions"))
-            .header("Authorization", "Bearer " + apiKey)
+            .uri(URI.create(getBaseUrl() + "/chat/completions"))
+            .header("Authorization", "Bearer " + getCurrentKey())
             .header("Content-Type", "application/json")
-            .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
             .build();
 
-        // 使用 BufferedReader 逐行读取响应，确保实时性
-        HttpResponse<java.io.InputStream> response = httpClient.send(
+        // 异步发送，等待首包期间取消时直接取消请求
+        java.util.concurrent.CompletableFuture<HttpResponse<java.io.InputStream>> pending = httpClient.sendAsync(
             request,
             HttpResponse.BodyHandlers.ofInputStream()
         );
+        if (streamHandle != null) {
+            streamHandle.attach(() -> pending.cancel(true));
+        }
+        HttpResponse<java.io.InputStream> response;
+        try {
+            response = pending.get();
+        } catch (java.util.concurrent.CancellationException e) {
+            log.info("流式请求在响应前被取消：generationId={}", streamHandle != null ? streamHandle.getGenerationId() : null);
+            return;
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (streamHandle != null && streamHandle.isCancelled()) {
+                log.info("流式请求在响应前被取消：generationId={}", streamHandle.getGenerationId());
+                return;
+            }
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
 
         if (response.statusCode() != 200) {
+            response.body().close();
             throw new RuntimeException("OpenAI 流式 API 调用失败：" + response.statusCode());
         }
 
+        // 挂载响应体：取消时关闭输入流，阻塞中的 readLine 立即返回
+        if (streamHandle != null) {
+            streamHandle.attach(response.body());
+        }
+
+        // 使用 BufferedReader 逐行读取响应，确保实时性
         try (java.io.BufferedReader reader = new java.io.BufferedReader(
                 new java.io.InputStreamReader(response.body(), java.nio.charset.StandardCharsets.UTF_8))) {
             String line;
@@ -432,6 +590,9 @@ public class OpenAIProvider extends Provider {
             int loggedChunkCount = 0;
 
             while ((line = reader.readLine()) != null) {
+                if (streamHandle != null && streamHandle.isCancelled()) {
+                    break;
+                }
                 line = line.trim();
 
                 // 跳过空行
@@ -440,11 +601,10 @@ public class OpenAIProvider extends Provider {
                 }
 
                 // 处理 SSE 数据
-                if (line.startsWith("data: ")) {
-                    String data = line.substring(6);
-
+                String data = OpenAiStreamChunkParser.extractData(line);
+                if (data != null) {
                     // 结束标记
-                    if ("[DONE]".equals(data)) {
+                    if (OpenAiStreamChunkParser.isDone(data)) {
                         if (!finished) {
                             finished = true;
                             LLMResponse finalResponse = new LLMResponse();
@@ -455,35 +615,14 @@ public class OpenAIProvider extends Provider {
                     }
 
                     try {
-                        JsonNode root = objectMapper.readTree(data);
-                        LLMResponse llmResponse = new LLMResponse();
-
-                        JsonNode choices = root.get("choices");
-                        if (choices != null && choices.isArray() && !choices.isEmpty()) {
-                            JsonNode choice = choices.get(0);
-                            JsonNode delta = choice.get("delta");
-
-                            if (delta != null) {
-                                JsonNode content = delta.get("content");
-                                if (content != null) {
-                                    String contentText = content.asText();
-                                    // 流式响应中，只设置 delta，不设置 content
-                                    llmResponse.setDelta(contentText);
-                                    // 日志采样：只记录前 10 个数据块
-                                    if (loggedChunkCount < 10) {
-                                        log.debug("流式响应数据块 #{}: delta='{}'", ++loggedChunkCount, contentText);
-                                    }
-                                }
-                            }
-
-                            String finishReason = choice.get("finish_reason") != null ?
-                                choice.get("finish_reason").asText() : null;
-
-                            // 只有当 finish_reason 为 stop 时才设置 finished=true
-                            if ("stop".equals(finishReason)) {
-                                finished = true;
-                                llmResponse.setFinished(true);
-                            }
+                        // 流式响应中，只设置 delta，不设置 content；只有 finish_reason 为 stop 时才设置 finished=true
+                        LLMResponse llmResponse = chunkParser.parse(data);
+                        if (llmResponse.getDelta() != null && loggedChunkCount < 10) {
+                            // 日志采样：只记录前 10 个数据块
+                            log.debug("流式响应数据块 #{}: delta='{}'", ++loggedChunkCount, llmResponse.getDelta());
+                        }
+                        if (llmResponse.isFinished()) {
+                            finished = true;
                         }
 
                         // 立即传递给消费者（即使 delta 为空也要传递，以保持流式响应的连续性）
@@ -494,6 +633,10 @@ public class OpenAIProvider extends Provider {
                 }
             }
         } catch (Exception e) {
+            if (streamHandle != null && streamHandle.isCancelled()) {
+                log.info("流式响应已取消，停止读取：generationId={}", streamHandle.getGenerationId());
+                return;
+            }
             log.error("读取流式响应失败", e);
             // 发送一个 finished=true 的响应以正确结束流
             LLMResponse errorResponse = new LLMResponse();
@@ -0,0 +1,78 @@
+package com.star.swiftAi.core.provider.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.core.model.LLMResponse;
+
+/**
+ * OpenAI 流式响应数据块解析器
+ * 把 SSE 中 "data: " 之后的一个数据块解析为 {@link LLMResponse}，只读取 choices[0] 的 delta.content 和 finish_reason
+ *
+ * @author SHOOTING_STAR_C
+ */
+public class OpenAiStreamChunkParser {
+
+    /**
+     * SSE 数据行前缀
+     */
+    public static final String DATA_PREFIX = "data: ";
+
+    /**
+     * 流结束标记
+     */
+    public static final String DONE = "[DONE]";
+
+    private final ObjectMapper objectMapper;
+
+    public OpenAiStreamChunkParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 提取 SSE 数据行中的数据块
+     *
+     * @param line 去除首尾空白后的一行
+     * @return 数据块，不是数据行时为null
+     */
+    public static String extractData(String line) {
+        return line.startsWith(DATA_PREFIX) ? line.substring(DATA_PREFIX.length()) : null;
+    }
+
+    /**
+     * 是否为结束标记
+     */
+    public static boolean isDone(String data) {
+        return DONE.equals(data);
+    }
+
+    /**
+     * 解析一个数据块，只设置 delta，finish_reason 为 stop 时 finished=true
+     *
+     * @param data 数据块（JSON）
+     * @return 响应，没有 choices 时返回空响应
+     * @throws JsonProcessingException JSON 格式错误
+     */
+    public LLMResponse parse(String data) throws JsonProcessingException {
+        JsonNode root = objectMapper.readTree(data);
+        LLMResponse response = new LLMResponse();
+
+        JsonNode choices = root.get("choices");
+        if (choices != null && choices.isArray() && !choices.isEmpty()) {
+            JsonNode choice = choices.get(0);
+            JsonNode delta = choice.get("delta");
+            if (delta != null) {
+                JsonNode content = delta.get("content");
+                if (content != null) {
+                    response.setDelta(content.asText());
+                }
+            }
+
+            JsonNode finishReason = choice.get("finish_reason");
+            if (finishReason != null && "stop".equals(finishReason.asText())) {
+                response.setFinished(true);
+            }
+        }
+        return response;
+    }
+}
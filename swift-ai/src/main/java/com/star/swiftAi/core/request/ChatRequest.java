@@ -1,9 +1,11 @@
 package com.star.swiftAi.core.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.star.swiftAi.core.model.Message;
+import com.star.swiftAi.core.model.StreamHandle;
 import com.star.swiftAi.core.model.Tool;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +20,7 @@ import java.util.Map;
  * 遵循 OpenAI Chat Completions API 格式
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -158,4 +160,11 @@ public class ChatRequest {
      */
     @JsonProperty("timeout")
     private Long timeout;
+
+    /**
+     * 流式生成句柄
+     * 非 OpenAI 标准参数，不参与序列化，用于取消正在进行的流式调用
+     */
+    @JsonIgnore
+    private StreamHandle streamHandle;
 }
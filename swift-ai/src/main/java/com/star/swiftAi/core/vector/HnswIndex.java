@@ -0,0 +1,370 @@
+package com.star.swiftAi.core.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW（Hierarchical Navigable Small World）近似最近邻索引
+ * 向量保存在 {@link MappedVectorStore} 中（堆外），堆内只保留分层邻接图；
+ * 图结构可由向量文件在启动时重建，因此只需持久化向量本身
+ *
+ * 相似度使用余弦相似度（写入前归一化后即为内积）
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class HnswIndex implements Closeable {
+
+    private static final Comparator<Candidate> NEAREST_FIRST = (a, b) -> Float.compare(b.score, a.score);
+    private static final Comparator<Candidate> FARTHEST_FIRST = (a, b) -> Float.compare(a.score, b.score);
+
+    private final MappedVectorStore store;
+    private final int m;
+    private final int maxConnLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 每个节点的层数
+     */
+    private int[] levels = new int[16];
+
+    /**
+     * 邻接表：links[node][level][0] 为邻居数量，其后为邻居序号
+     */
+    private int[][][] links = new int[16][][];
+
+    private int nodeCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * 创建索引并根据已有向量重建图结构
+     *
+     * @param store          向量存储
+     * @param m              每层最大连接数
+     * @param efConstruction 构建时的候选集大小
+     */
+    public HnswIndex(MappedVectorStore store, int m, int efConstruction) {
+        this.store = store;
+        this.m = Math.max(2, m);
+        this.maxConnLevel0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+        // 固定种子，保证同一份向量文件重建出的图结构一致
+        this.random = new SplittableRandom(store.getPath().toString().hashCode());
+        rebuild();
+    }
+
+    /**
+     * 添加向量
+     *
+     * @param messageId 消息ID
+     * @param vector    原始向量（内部归一化）
+     * @throws IOException 写入向量文件失败
+     */
+    public void add(long messageId, float[] vector) throws IOException {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            int ordinal = store.append(messageId, normalized);
+            link(ordinal, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 近似最近邻搜索
+     *
+     * @param query    查询向量
+     * @param k        返回数量
+     * @param efSearch 搜索候选集大小
+     * @return 按相似度降序排列的结果
+     */
+    public List<VectorSearchResult> search(float[] query, int k, int efSearch) {
+        if (query.length != store.getDimension()) {
+            throw new IllegalArgumentException("查询向量维度不一致: " + query.length + " != " + store.getDimension());
+        }
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int ep = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                ep = greedyClosest(normalized, ep, level);
+            }
+            PriorityQueue<Candidate> found = searchLayer(normalized, ep, Math.max(efSearch, k), 0);
+            List<Candidate> ordered = new ArrayList<>(found);
+            ordered.sort(NEAREST_FIRST);
+
+            List<VectorSearchResult> results = new ArrayList<>(Math.min(k, ordered.size()));
+            for (int i = 0; i < ordered.size() && i < k; i++) {
+                Candidate candidate = ordered.get(i);
+                results.add(new VectorSearchResult(store.messageId(candidate.node), candidate.score));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引的向量数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDimension() {
+        return store.getDimension();
+    }
+
+    /**
+     * 将向量文件刷入磁盘
+     */
+    public void flush() {
+        store.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            store.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 根据向量文件重建图结构（不需要重新计算嵌入）
+     */
+    private void rebuild() {
+        int total = store.size();
+        if (total == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        float[] vector = new float[store.getDimension()];
+        for (int ordinal = 0; ordinal < total; ordinal++) {
+            store.read(ordinal, vector);
+            link(ordinal, vector);
+        }
+        log.debug("HNSW索引重建完成: path={}, nodes={}, cost={}ms",
+                store.getPath(), total, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 将节点接入分层图
+     */
+    private void link(int node, float[] vector) {
+        ensureCapacity(node + 1);
+        int level = randomLevel();
+        levels[node] = level;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[maxConn(l) + 1];
+        }
+        nodeCount = Math.max(nodeCount, node + 1);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vector, ep, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> candidates = searchLayer(vector, ep, efConstruction, l);
+            List<Candidate> ordered = new ArrayList<>(candidates);
+            ordered.sort(NEAREST_FIRST);
+
+            int connections = Math.min(m, ordered.size());
+            for (int i = 0; i < connections; i++) {
+                int neighbor = ordered.get(i).node;
+                addLink(node, neighbor, l);
+                addLink(neighbor, node, l);
+            }
+            if (!ordered.isEmpty()) {
+                ep = ordered.get(0).node;
+            }
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * 添加单向连接，超出上限时保留与该节点最相似的邻居
+     */
+    private void addLink(int from, int to, int level) {
+        int[] neighbors = links[from][level];
+        int size = neighbors[0];
+        for (int i = 1; i <= size; i++) {
+            if (neighbors[i] == to) {
+                return;
+            }
+        }
+        int max = maxConn(level);
+        if (size < max) {
+            neighbors[size + 1] = to;
+            neighbors[0] = size + 1;
+            return;
+        }
+
+        // 连接已满：在现有邻居和新节点中保留相似度最高的 max 个
+        Candidate[] pool = new Candidate[size + 1];
+        for (int i = 0; i < size; i++) {
+            int n = neighbors[i + 1];
+            pool[i] = new Candidate(n, store.dot(from, n));
+        }
+        pool[size] = new Candidate(to, store.dot(from, to));
+        Arrays.sort(pool, NEAREST_FIRST);
+        for (int i = 0; i < max; i++) {
+            neighbors[i + 1] = pool[i].node;
+        }
+        neighbors[0] = max;
+    }
+
+    /**
+     * 在指定层上贪心移动到最相似的节点
+     */
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = store.dot(current, query);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] neighbors = neighborsAt(current, level);
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int candidate = neighbors[i];
+                float score = store.dot(candidate, query);
+                if (score > best) {
+                    best = score;
+                    current = candidate;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在指定层上做 ef 宽度的最佳优先搜索
+     *
+     * @return 结果集（堆顶为最不相似的节点）
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] query, int entry, int ef, int level) {
+        BitSet visited = new BitSet(nodeCount);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(FARTHEST_FIRST);
+
+        Candidate first = new Candidate(entry, store.dot(entry, query));
+        visited.set(entry);
+        candidates.add(first);
+        results.add(first);
+
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.score < results.peek().score) {
+                break;
+            }
+            int[] neighbors = neighborsAt(current.node, level);
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = store.dot(neighbor, query);
+                if (results.size() < ef || score > results.peek().score) {
+                    Candidate candidate = new Candidate(neighbor, score);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private int[] neighborsAt(int node, int level) {
+        int[][] nodeLinks = links[node];
+        if (nodeLinks == null || level >= nodeLinks.length) {
+            return EMPTY;
+        }
+        return nodeLinks[level];
+    }
+
+    private static final int[] EMPTY = new int[]{0};
+
+    private int randomLevel() {
+        double r = random.nextDouble();
+        return (int) (-Math.log(Math.max(r, Double.MIN_VALUE)) * levelMultiplier);
+    }
+
+    private int maxConn(int level) {
+        return level == 0 ? maxConnLevel0 : m;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= levels.length) {
+            return;
+        }
+        int newLength = Math.max(required, levels.length * 2);
+        levels = Arrays.copyOf(levels, newLength);
+        links = Arrays.copyOf(links, newLength);
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            return vector.clone();
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * inv;
+        }
+        return normalized;
+    }
+
+    /**
+     * 搜索候选
+     */
+    private record Candidate(int node, float score) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.star.swiftAi.core.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于内存映射文件的向量存储
+ * 向量数据保存在堆外（mmap），追加写入即持久化，进程重启后可直接重新映射，无需重新计算嵌入
+ *
+ * 文件布局：
+ * <pre>
+ * [magic:int][dimension:int][count:int][reserved:int]
+ * [messageId:long][vector:float * dimension] * count
+ * </pre>
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class MappedVectorStore implements Closeable {
+
+    /**
+     * 文件魔数（"SVEC"）
+     */
+    private static final int MAGIC = 0x53564543;
+
+    /**
+     * 文件头字节数
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * 记录数在文件头中的偏移
+     */
+    private static final int COUNT_OFFSET = 8;
+
+    private final Path path;
+    private final int dimension;
+    private final int recordBytes;
+    private final FileChannel channel;
+
+    private volatile MappedByteBuffer buffer;
+    private volatile int count;
+    private int capacity;
+    private boolean closed;
+
+    private MappedVectorStore(Path path, int dimension, FileChannel channel) {
+        this.path = path;
+        this.dimension = dimension;
+        this.recordBytes = Long.BYTES + dimension * Float.BYTES;
+        this.channel = channel;
+    }
+
+    /**
+     * 打开（或创建）向量存储文件
+     *
+     * @param path            文件路径
+     * @param dimension       向量维度（打开已有文件时必须与文件头一致）
+     * @param initialCapacity 初始容量（记录数）
+     * @return 向量存储
+     * @throws IOException 文件读写失败
+     */
+    public static MappedVectorStore open(Path path, int dimension, int initialCapacity) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        boolean exists = Files.exists(path) && Files.size(path) >= HEADER_BYTES;
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (exists) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                if (header.getInt(0) != MAGIC) {
+                    throw new IOException("向量文件格式不正确: " + path);
+                }
+                int fileDimension = header.getInt(4);
+                if (dimension > 0 && fileDimension != dimension) {
+                    throw new IOException("向量维度不一致: file=" + fileDimension + ", expected=" + dimension);
+                }
+                MappedVectorStore store = new MappedVectorStore(path, fileDimension, channel);
+                int storedCount = header.getInt(COUNT_OFFSET);
+                // 文件长度不足说明最后一条记录未完整写入，以实际可读的记录数为准
+                long available = (channel.size() - HEADER_BYTES) / store.recordBytes;
+                store.count = (int) Math.min(storedCount, available);
+                store.remap(Math.max(store.count, initialCapacity));
+                return store;
+            }
+
+            if (dimension <= 0) {
+                throw new IOException("创建向量文件时必须指定维度: " + path);
+            }
+            MappedVectorStore store = new MappedVectorStore(path, dimension, channel);
+            store.remap(Math.max(1, initialCapacity));
+            store.buffer.putInt(0, MAGIC);
+            store.buffer.putInt(4, dimension);
+            store.buffer.putInt(COUNT_OFFSET, 0);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读取已有向量文件的维度
+     *
+     * @param path 文件路径
+     * @return 维度，文件不存在时返回 0
+     * @throws IOException 文件读取失败
+     */
+    public static int readDimension(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_BYTES) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            return header.getInt(0) == MAGIC ? header.getInt(4) : 0;
+        }
+    }
+
+    /**
+     * 追加向量
+     * 先写入记录再更新文件头中的记录数，保证异常退出时不会读到半条记录
+     *
+     * @param messageId 关联的消息ID
+     * @param vector    向量（调用方负责归一化）
+     * @return 向量序号
+     * @throws IOException 扩容映射失败
+     */
+    public synchronized int append(long messageId, float[] vector) throws IOException {
+        ensureOpen();
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("向量维度不一致: " + vector.length + " != " + dimension);
+        }
+        if (count == capacity) {
+            remap(capacity * 2);
+        }
+        int ordinal = count;
+        MappedByteBuffer target = buffer;
+        long offset = offsetOf(ordinal);
+        target.putLong((int) offset, messageId);
+        int base = (int) offset + Long.BYTES;
+        for (int i = 0; i < dimension; i++) {
+            target.putFloat(base + i * Float.BYTES, vector[i]);
+        }
+        target.putInt(COUNT_OFFSET, ordinal + 1);
+        count = ordinal + 1;
+        return ordinal;
+    }
+
+    /**
+     * 获取向量关联的消息ID
+     *
+     * @param ordinal 向量序号
+     * @return 消息ID
+     */
+    public long messageId(int ordinal) {
+        return buffer.getLong((int) offsetOf(ordinal));
+    }
+
+    /**
+     * 读取向量到指定数组
+     *
+     * @param ordinal 向量序号
+     * @param target  目标数组
+     */
+    public void read(int ordinal, float[] target) {
+        MappedByteBuffer source = buffer;
+        int base = (int) offsetOf(ordinal) + Long.BYTES;
+        for (int i = 0; i < dimension; i++) {
+            target[i] = source.getFloat(base + i * Float.BYTES);
+        }
+    }
+
+    /**
+     * 计算存储向量与查询向量的内积（直接读取映射内存，不复制到堆）
+     *
+     * @param ordinal 向量序号
+     * @param query   查询向量
+     * @return 内积
+     */
+    public float dot(int ordinal, float[] query) {
+        MappedByteBuffer source = buffer;
+        int base = (int) offsetOf(ordinal) + Long.BYTES;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += source.getFloat(base + i * Float.BYTES) * query[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 计算两个存储向量的内积
+     *
+     * @param a 向量序号
+     * @param b 向量序号
+     * @return 内积
+     */
+    public float dot(int a, int b) {
+        MappedByteBuffer source = buffer;
+        int baseA = (int) offsetOf(a) + Long.BYTES;
+        int baseB = (int) offsetOf(b) + Long.BYTES;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            int delta = i * Float.BYTES;
+            sum += source.getFloat(baseA + delta) * source.getFloat(baseB + delta);
+        }
+        return sum;
+    }
+
+    /**
+     * 将脏页刷入磁盘
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            buffer.force();
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * 重新映射文件以容纳指定数量的记录
+     * 旧的映射在无引用后由GC回收，正在读取旧映射的线程不受影响
+     */
+    private void remap(int newCapacity) throws IOException {
+        long maxRecords = (Integer.MAX_VALUE - HEADER_BYTES) / recordBytes;
+        if (newCapacity > maxRecords) {
+            if (capacity >= maxRecords) {
+                throw new IOException("向量文件已达到单文件容量上限: " + path);
+            }
+            newCapacity = (int) maxRecords;
+        }
+        long size = HEADER_BYTES + (long) newCapacity * recordBytes;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.capacity = newCapacity;
+        log.debug("向量文件重新映射: path={}, capacity={}", path, newCapacity);
+    }
+
+    private long offsetOf(int ordinal) {
+        return HEADER_BYTES + (long) ordinal * recordBytes;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("向量存储已关闭: " + path);
+        }
+    }
+}
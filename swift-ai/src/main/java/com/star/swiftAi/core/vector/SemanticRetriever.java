@@ -0,0 +1,25 @@
+package com.star.swiftAi.core.vector;
+
+import com.star.swiftAi.core.model.Message;
+
+import java.util.List;
+
+/**
+ * 语义检索器
+ * 根据查询文本从会话的历史消息中召回语义相关的消息
+ *
+ * @author SHOOTING_STAR_C
+ */
+@FunctionalInterface
+public interface SemanticRetriever {
+
+    /**
+     * 检索相关历史消息
+     *
+     * @param conversationId 会话ID
+     * @param query          查询文本
+     * @param topK           返回数量
+     * @return 相关消息（按消息时间升序）
+     */
+    List<Message> retrieve(String conversationId, String query, int topK);
+}
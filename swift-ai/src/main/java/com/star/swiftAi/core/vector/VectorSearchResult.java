@@ -0,0 +1,26 @@
+package com.star.swiftAi.core.vector;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 向量检索结果
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VectorSearchResult {
+
+    /**
+     * 消息ID
+     */
+    private long messageId;
+
+    /**
+     * 余弦相似度
+     */
+    private float score;
+}
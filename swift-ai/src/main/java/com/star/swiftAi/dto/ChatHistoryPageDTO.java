@@ -0,0 +1,44 @@
+package com.star.swiftAi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 聊天历史分页DTO（游标分页，新消息在前）
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "聊天历史分页DTO")
+public class ChatHistoryPageDTO {
+
+    /**
+     * 当前页消息（按消息ID降序）
+     */
+    @Schema(description = "当前页消息（新消息在前）")
+    private List<ChatResponseDTO> messages;
+
+    /**
+     * 获取更早消息的游标
+     */
+    @Schema(description = "获取更早消息的游标，没有更早消息时为空", example = "Ynw0Mg")
+    private String nextCursor;
+
+    /**
+     * 获取更新消息的游标
+     */
+    @Schema(description = "获取更新消息的游标，当前页为空时为空", example = "YXw2MQ")
+    private String prevCursor;
+
+    /**
+     * 翻页方向上是否还有更多消息
+     */
+    @Schema(description = "翻页方向上是否还有更多消息", example = "true")
+    private boolean hasMore;
+}
@@ -0,0 +1,70 @@
+package com.star.swiftAi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 聊天记录行DTO（NDJSON 流式导入/导出）
+ * 每行一条记录：先是 type=session 的会话行，其后是该会话的 type=message 消息行
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "聊天记录行DTO（NDJSON）")
+public class ChatHistoryRecordDTO {
+
+    public static final String TYPE_SESSION = "session";
+    public static final String TYPE_MESSAGE = "message";
+
+    /**
+     * 记录类型：session/message
+     */
+    @Schema(description = "记录类型：session/message", example = "session")
+    private String type;
+
+    /**
+     * 会话ID
+     */
+    @Schema(description = "会话ID", example = "1723456789012345678")
+    private String sessionId;
+
+    /**
+     * 模型ID（会话行）
+     */
+    @Schema(description = "模型ID（会话行）", example = "1")
+    private Long modelId;
+
+    /**
+     * 会话标题（会话行）
+     */
+    @Schema(description = "会话标题（会话行）", example = "新对话")
+    private String title;
+
+    /**
+     * 角色（消息行）
+     */
+    @Schema(description = "角色：user/assistant/system（消息行）", example = "user")
+    private String role;
+
+    /**
+     * 消息内容（消息行）
+     */
+    @Schema(description = "消息内容（消息行）", example = "你好，请问你是谁？")
+    private String content;
+
+    /**
+     * 使用的token数（消息行）
+     */
+    @Schema(description = "使用的token数（消息行）", example = "0")
+    private Integer tokensUsed;
+
+    /**
+     * 创建时间
+     */
+    @Schema(description = "创建时间")
+    private LocalDateTime createdAt;
+}
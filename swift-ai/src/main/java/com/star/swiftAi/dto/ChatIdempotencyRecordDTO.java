@@ -0,0 +1,45 @@
+package com.star.swiftAi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 聊天请求幂等记录，以 JSON 保存在 Redis 中
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatIdempotencyRecordDTO {
+
+    public static final String STATUS_PROCESSING = "processing";
+    public static final String STATUS_COMPLETED = "completed";
+
+    /**
+     * 状态：processing / completed
+     */
+    private String status;
+
+    /**
+     * 请求体摘要，相同的键只能用于相同的请求
+     */
+    private String fingerprint;
+
+    /**
+     * 流式请求的生成ID，重复请求据此续读事件流
+     */
+    private String generationId;
+
+    /**
+     * 处理结果（JSON），处理中为null
+     */
+    private String response;
+
+    @JsonIgnore
+    public boolean isCompleted() {
+        return STATUS_COMPLETED.equals(status);
+    }
+}
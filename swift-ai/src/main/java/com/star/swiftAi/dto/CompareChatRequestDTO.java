@@ -0,0 +1,34 @@
+package com.star.swiftAi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 多模型对比请求DTO
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Schema(description = "多模型对比请求DTO")
+public class CompareChatRequestDTO {
+
+    /**
+     * 参与对比的模型ID（重复的ID只调用一次）
+     */
+    @Schema(description = "参与对比的模型ID", requiredMode = Schema.RequiredMode.REQUIRED, example = "[1, 2, 3]")
+    @NotEmpty(message = "模型ID不能为空")
+    @Size(max = 8, message = "最多同时对比8个模型")
+    private List<Long> modelIds;
+
+    /**
+     * 消息内容
+     */
+    @Schema(description = "消息内容", requiredMode = Schema.RequiredMode.REQUIRED, example = "用一句话介绍你自己")
+    @NotBlank(message = "消息内容不能为空")
+    private String message;
+}
@@ -0,0 +1,75 @@
+package com.star.swiftAi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 多模型对比中单个模型的结果
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "多模型对比中单个模型的结果")
+public class CompareModelResultDTO {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_STOPPED = "stopped";
+    public static final String STATUS_FAILED = "failed";
+
+    /**
+     * 模型ID
+     */
+    @Schema(description = "模型ID", example = "1")
+    private Long modelId;
+
+    /**
+     * 模型编码
+     */
+    @Schema(description = "模型编码", example = "gpt-4o-mini")
+    private String modelCode;
+
+    /**
+     * 生成ID，可通过停止生成接口单独停止该模型
+     */
+    @Schema(description = "生成ID", example = "0b6f3c1e-6a52-4a4b-9f0e-3f1f9a2c7d10")
+    private String generationId;
+
+    /**
+     * 状态：pending / completed / stopped / failed
+     */
+    @Schema(description = "状态", example = "completed")
+    private String status;
+
+    /**
+     * 失败原因
+     */
+    @Schema(description = "失败原因")
+    private String error;
+
+    /**
+     * 输入token数
+     */
+    @Schema(description = "输入token数", example = "12")
+    private Long promptTokens;
+
+    /**
+     * 输出token数
+     */
+    @Schema(description = "输出token数", example = "86")
+    private Long completionTokens;
+
+    /**
+     * 首个token的延迟（毫秒），没有输出时为空
+     */
+    @Schema(description = "首个token的延迟（毫秒）", example = "420")
+    private Long ttftMillis;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    @Schema(description = "总耗时（毫秒）", example = "3150")
+    private Long latencyMillis;
+}
@@ -0,0 +1,82 @@
+package com.star.swiftAi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 多模型对比流式事件
+ *
+ * <pre>
+ * start   开始，results 中为各模型的生成ID（status=pending）
+ * delta   某个模型的增量输出
+ * done    某个模型结束，result 中为该模型的状态和用量
+ * summary 全部结束，results 中为所有模型的结果
+ * </pre>
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "多模型对比流式事件")
+public class CompareStreamEventDTO {
+
+    public static final String TYPE_START = "start";
+    public static final String TYPE_DELTA = "delta";
+    public static final String TYPE_DONE = "done";
+    public static final String TYPE_SUMMARY = "summary";
+
+    /**
+     * 事件类型：start / delta / done / summary
+     */
+    @Schema(description = "事件类型", example = "delta")
+    private String type;
+
+    /**
+     * 模型ID（delta / done）
+     */
+    @Schema(description = "模型ID", example = "1")
+    private Long modelId;
+
+    /**
+     * 增量内容（delta）
+     */
+    @Schema(description = "增量内容", example = "你好")
+    private String delta;
+
+    /**
+     * 单个模型的结果（done）
+     */
+    @Schema(description = "单个模型的结果")
+    private CompareModelResultDTO result;
+
+    /**
+     * 所有模型的结果（start / summary）
+     */
+    @Schema(description = "所有模型的结果")
+    private List<CompareModelResultDTO> results;
+
+    /**
+     * 对比总耗时（毫秒，summary）
+     */
+    @Schema(description = "对比总耗时（毫秒）", example = "3150")
+    private Long latencyMillis;
+
+    public static CompareStreamEventDTO delta(Long modelId, String delta) {
+        CompareStreamEventDTO event = new CompareStreamEventDTO();
+        event.setType(TYPE_DELTA);
+        event.setModelId(modelId);
+        event.setDelta(delta);
+        return event;
+    }
+
+    public static CompareStreamEventDTO done(CompareModelResultDTO result) {
+        CompareStreamEventDTO event = new CompareStreamEventDTO();
+        event.setType(TYPE_DONE);
+        event.setModelId(result.getModelId());
+        event.setResult(result);
+        return event;
+    }
+}
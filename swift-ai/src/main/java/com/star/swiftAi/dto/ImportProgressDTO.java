@@ -0,0 +1,47 @@
+package com.star.swiftAi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 流式导入进度DTO
+ * 每提交一批写出一行，最后一行 finished=true
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "流式导入进度DTO")
+public class ImportProgressDTO {
+
+    /**
+     * 已导入会话数
+     */
+    @Schema(description = "已导入会话数", example = "10")
+    private long importedSessions;
+
+    /**
+     * 已导入消息数
+     */
+    @Schema(description = "已导入消息数", example = "200")
+    private long importedMessages;
+
+    /**
+     * 跳过的记录数（格式错误、会话已存在或消息所属会话未导入）
+     */
+    @Schema(description = "跳过的记录数", example = "0")
+    private long skippedRecords;
+
+    /**
+     * 是否已结束
+     */
+    @Schema(description = "是否已结束", example = "false")
+    private boolean finished;
+
+    /**
+     * 错误信息（导入中断时）
+     */
+    @Schema(description = "错误信息（导入中断时）")
+    private String error;
+}
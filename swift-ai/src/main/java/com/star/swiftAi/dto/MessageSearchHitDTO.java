@@ -0,0 +1,62 @@
+package com.star.swiftAi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 聊天记录检索结果DTO
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "聊天记录检索结果DTO")
+public class MessageSearchHitDTO {
+
+    /**
+     * 消息ID
+     */
+    @Schema(description = "消息ID", example = "1")
+    private Long messageId;
+
+    /**
+     * 会话ID
+     */
+    @Schema(description = "会话ID", example = "1723456789012345678")
+    private String sessionId;
+
+    /**
+     * 会话标题
+     */
+    @Schema(description = "会话标题", example = "新对话")
+    private String sessionTitle;
+
+    /**
+     * 角色
+     */
+    @Schema(description = "角色", example = "assistant")
+    private String role;
+
+    /**
+     * 高亮片段（已做HTML转义，命中部分用 mark 标签包裹）
+     */
+    @Schema(description = "高亮片段（已做HTML转义，命中部分用 <mark> 包裹）", example = "……使用 <mark>Redis</mark> Stream 保存事件……")
+    private String snippet;
+
+    /**
+     * 相关度
+     */
+    @Schema(description = "相关度，越大越相关", example = "0.1")
+    private Float rank;
+
+    /**
+     * 创建时间
+     */
+    @Schema(description = "创建时间", example = "2024-01-01T12:00:00")
+    private LocalDateTime createdAt;
+}
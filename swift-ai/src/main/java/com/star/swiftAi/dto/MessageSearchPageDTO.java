@@ -0,0 +1,38 @@
+package com.star.swiftAi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 聊天记录检索分页DTO（按相关度降序，游标分页）
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "聊天记录检索分页DTO")
+public class MessageSearchPageDTO {
+
+    /**
+     * 当前页结果（按相关度降序，相关度相同时新消息在前）
+     */
+    @Schema(description = "当前页结果（按相关度降序）")
+    private List<MessageSearchHitDTO> hits;
+
+    /**
+     * 获取下一页的游标
+     */
+    @Schema(description = "获取下一页的游标，没有更多结果时为空", example = "MC4xfDQy")
+    private String nextCursor;
+
+    /**
+     * 是否还有更多结果
+     */
+    @Schema(description = "是否还有更多结果", example = "true")
+    private boolean hasMore;
+}
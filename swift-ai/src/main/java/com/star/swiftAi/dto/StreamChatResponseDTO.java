@@ -27,6 +27,13 @@ public class StreamChatResponseDTO {
     @Schema(description = "会话ID", example = "1723456789012345678")
     private String sessionId;
 
+    /**
+     * 生成ID（流式特有）
+     * 用于停止本次生成
+     */
+    @Schema(description = "生成ID", example = "0b6f3c1e-6a52-4a4b-9f0e-3f1f9a2c7d10")
+    private String generationId;
+
     /**
      * 消息ID
      * 流式响应时，第一次响应可能为null，后续响应会有值
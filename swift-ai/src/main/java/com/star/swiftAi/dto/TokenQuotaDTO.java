@@ -0,0 +1,36 @@
+package com.star.swiftAi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Token 配额DTO
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Token配额DTO")
+public class TokenQuotaDTO {
+
+    /**
+     * 统计日期
+     */
+    @Schema(description = "统计日期", example = "2024-01-01")
+    private LocalDate date;
+
+    /**
+     * 当日已使用的token数
+     */
+    @Schema(description = "当日已使用的token数", example = "12000")
+    private long usedTokens;
+
+    /**
+     * 每日配额，不限制时为空
+     */
+    @Schema(description = "每日配额，不限制时为空", example = "100000")
+    private Long limitTokens;
+}
@@ -0,0 +1,80 @@
+package com.star.swiftAi.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * AI聊天消息分区归档记录实体
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@TableName("ai_chat_message_archive")
+public class AiChatMessageArchive {
+
+    /**
+     * 已归档（分区已删除，数据仅存在于归档文件）
+     */
+    public static final String STATUS_ARCHIVED = "ARCHIVED";
+
+    /**
+     * 已恢复（分区已从归档文件重建）
+     */
+    public static final String STATUS_RESTORED = "RESTORED";
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 分区表名
+     */
+    @TableField("partition_name")
+    private String partitionName;
+
+    /**
+     * 分区范围起始（含）
+     */
+    @TableField("range_start")
+    private LocalDateTime rangeStart;
+
+    /**
+     * 分区范围结束（不含）
+     */
+    @TableField("range_end")
+    private LocalDateTime rangeEnd;
+
+    /**
+     * 归档文件路径
+     */
+    @TableField("file_path")
+    private String filePath;
+
+    /**
+     * 归档行数
+     */
+    @TableField("row_count")
+    private Long rowCount;
+
+    /**
+     * 状态：ARCHIVED/RESTORED
+     */
+    @TableField("status")
+    private String status;
+
+    /**
+     * 归档时间
+     */
+    @TableField("archived_at")
+    private LocalDateTime archivedAt;
+
+    /**
+     * 恢复时间
+     */
+    @TableField("restored_at")
+    private LocalDateTime restoredAt;
+}
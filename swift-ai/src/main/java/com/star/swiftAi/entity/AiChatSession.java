@@ -14,6 +14,16 @@ import java.time.LocalDateTime;
 @TableName("ai_chat_session")
 public class AiChatSession {
 
+    /**
+     * 会话来源：在线对话
+     */
+    public static final String SOURCE_CHAT = "chat";
+
+    /**
+     * 会话来源：导入
+     */
+    public static final String SOURCE_IMPORT = "import";
+
     /**
      * 主键ID
      */
@@ -44,6 +54,12 @@ public class AiChatSession {
     @TableField("model_id")
     private Long modelId;
 
+    /**
+     * 会话来源（chat/import）
+     */
+    @TableField("source")
+    private String source;
+
     /**
      * 创建时间
      */
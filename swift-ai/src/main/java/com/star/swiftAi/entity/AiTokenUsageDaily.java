@@ -0,0 +1,65 @@
+package com.star.swiftAi.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * AI Token用量日汇总实体
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@TableName("ai_token_usage_daily")
+public class AiTokenUsageDaily {
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 统计日期
+     */
+    @TableField("usage_date")
+    private LocalDate usageDate;
+
+    /**
+     * 用户ID（匿名用户为 anonymous）
+     */
+    @TableField("user_id")
+    private String userId;
+
+    /**
+     * 模型ID
+     */
+    @TableField("model_id")
+    private Long modelId;
+
+    /**
+     * 输入token数
+     */
+    @TableField("prompt_tokens")
+    private Long promptTokens;
+
+    /**
+     * 输出token数
+     */
+    @TableField("completion_tokens")
+    private Long completionTokens;
+
+    /**
+     * 请求次数
+     */
+    @TableField("request_count")
+    private Long requestCount;
+
+    /**
+     * 更新时间
+     */
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.star.swiftAi.exception;
+
+/**
+ * AI 请求准入被拒绝（限流、过载、配额用尽、相同请求处理中）
+ * 状态码为 409、429 或 503，并给出建议的重试间隔
+ */
+public class AiRejectedException extends AiException {
+
+    private final long retryAfterSeconds;
+
+    public AiRejectedException(String message, String provider, String errorCode, int statusCode, long retryAfterSeconds) {
+        super(message, provider, errorCode, statusCode);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
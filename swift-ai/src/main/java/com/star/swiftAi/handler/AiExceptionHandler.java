@@ -0,0 +1,47 @@
+package com.star.swiftAi.handler;
+
+import com.star.swiftAi.exception.AiRejectedException;
+import com.star.swiftCommon.constant.ResultCode;
+import com.star.swiftCommon.domain.PubResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 处理 AI 模块的异常
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RestControllerAdvice
+public class AiExceptionHandler {
+
+    /**
+     * 准入被拒绝：返回 409 / 429 / 503 和 Retry-After
+     * 流式接口此时响应尚未提交，显式指定 JSON 类型，不受接口声明的 text/event-stream 影响
+     *
+     * @param e AiRejectedException
+     * @return ResponseEntity<PubResult<?>>
+     */
+    @ExceptionHandler(AiRejectedException.class)
+    public ResponseEntity<PubResult<?>> handleAiRejectedException(AiRejectedException e) {
+        log.warn("AI请求被拒绝: errorCode={}, message={}", e.getErrorCode(), e.getMessage());
+        HttpStatus status = HttpStatus.valueOf(e.getStatusCode());
+        ResultCode resultCode = switch (status) {
+            case SERVICE_UNAVAILABLE -> ResultCode.SERVICE_UNAVAILABLE;
+            case CONFLICT -> ResultCode.CONFLICT;
+            default -> ResultCode.TOO_MANY_REQUESTS;
+        };
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(PubResult.error(resultCode, e.getMessage()));
+    }
+}
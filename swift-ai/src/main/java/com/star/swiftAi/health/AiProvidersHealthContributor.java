@@ -0,0 +1,88 @@
+package com.star.swiftAi.health;
+
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
+import com.star.swiftAi.entity.AiProvider;
+import com.star.swiftAi.service.ProviderHealthService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.NamedContributor;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * AI供应商健康组合指示器
+ * 在 /actuator/health 的 aiProviders 下为每个启用的供应商输出一个子组件（名称为供应商ID），
+ * 只读取 {@link ProviderHealthService} 缓存的探测结果，不会在健康检查时请求上游
+ *
+ * 单个供应商不可用不代表本服务不可用：供应商 DOWN 映射为自定义的 PROVIDER_DOWN 而不是 DOWN，不会使 /actuator/health 整体返回 503。
+ * DEGRADED、PROVIDER_DOWN 为自定义状态，需要在 management.endpoint.health.status.order 中配置其优先级，并在 http-mapping 中映射为 200
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Component("aiProvidersHealthContributor")
+@RequiredArgsConstructor
+public class AiProvidersHealthContributor implements CompositeHealthContributor {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "错误率或延迟偏高");
+
+    public static final Status PROVIDER_DOWN = new Status("PROVIDER_DOWN", "连续探测失败");
+
+    private final ProviderHealthService providerHealthService;
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
+
+    @Override
+    public HealthContributor getContributor(String name) {
+        try {
+            AiProvider provider = aiConfigSnapshotHolder.current().getProvider(Long.valueOf(name));
+            return provider != null && Boolean.TRUE.equals(provider.getEnabled()) ? indicator(provider) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Iterator<NamedContributor<HealthContributor>> iterator() {
+        return aiConfigSnapshotHolder.current().getProviders().values().stream()
+                .filter(provider -> Boolean.TRUE.equals(provider.getEnabled()))
+                .sorted(Comparator.comparing(AiProvider::getId))
+                .map(provider -> NamedContributor.<HealthContributor>of(String.valueOf(provider.getId()), indicator(provider)))
+                .iterator();
+    }
+
+    private HealthIndicator indicator(AiProvider provider) {
+        Long providerId = provider.getId();
+        return () -> {
+            ProviderHealthWindow.Snapshot snapshot = providerHealthService.getSnapshot(providerId);
+            Health.Builder builder = Health.status(toStatus(snapshot.status()))
+                    .withDetail("name", provider.getProviderName())
+                    .withDetail("code", provider.getProviderCode());
+            if (snapshot.samples() > 0) {
+                builder.withDetail("samples", snapshot.samples())
+                        .withDetail("errorRate", snapshot.errorRate())
+                        .withDetail("avgLatencyMillis", snapshot.avgLatencyMillis())
+                        .withDetail("maxLatencyMillis", snapshot.maxLatencyMillis())
+                        .withDetail("consecutiveFailures", snapshot.consecutiveFailures())
+                        .withDetail("checkedAt", String.valueOf(snapshot.checkedAt()));
+            }
+            if (snapshot.lastError() != null) {
+                builder.withDetail("lastError", snapshot.lastError());
+            }
+            return builder.build();
+        };
+    }
+
+    private static Status toStatus(ProviderHealthStatus status) {
+        return switch (status) {
+            case UP -> Status.UP;
+            case DEGRADED -> DEGRADED;
+            case DOWN -> PROVIDER_DOWN;
+            case UNKNOWN -> Status.UNKNOWN;
+        };
+    }
+}
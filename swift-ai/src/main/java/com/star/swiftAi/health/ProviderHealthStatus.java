@@ -0,0 +1,36 @@
+package com.star.swiftAi.health;
+
+/**
+ * 供应商健康状态
+ *
+ * @author SHOOTING_STAR_C
+ */
+public enum ProviderHealthStatus {
+
+    /**
+     * 尚未探测
+     */
+    UNKNOWN,
+
+    /**
+     * 正常
+     */
+    UP,
+
+    /**
+     * 可用但错误率或延迟偏高
+     */
+    DEGRADED,
+
+    /**
+     * 连续探测失败
+     */
+    DOWN;
+
+    /**
+     * 是否可以继续路由请求（未探测时视为可用）
+     */
+    public boolean isAvailable() {
+        return this != DOWN;
+    }
+}
@@ -0,0 +1,98 @@
+package com.star.swiftAi.health;
+
+import com.star.swiftAi.properties.AiProviderHealthProperties;
+
+import java.time.LocalDateTime;
+
+/**
+ * 单个供应商的探测结果滚动窗口
+ * 保留最近 windowSize 次探测的成功与否和延迟，每次记录后重新计算状态；读取方拿到的是不可变的 {@link Snapshot}
+ *
+ * @author SHOOTING_STAR_C
+ */
+public class ProviderHealthWindow {
+
+    private final AiProviderHealthProperties properties;
+    private final boolean[] successes;
+    private final long[] latencies;
+    private int size;
+    private int next;
+    private int consecutiveFailures;
+    private volatile Snapshot snapshot = Snapshot.UNKNOWN;
+
+    public ProviderHealthWindow(AiProviderHealthProperties properties) {
+        this.properties = properties;
+        int windowSize = Math.max(1, properties.getWindowSize());
+        this.successes = new boolean[windowSize];
+        this.latencies = new long[windowSize];
+    }
+
+    /**
+     * 记录一次探测结果
+     *
+     * @param success       是否成功
+     * @param latencyMillis 耗时（毫秒）
+     * @param error         失败原因，成功时为null
+     * @return 记录后的快照
+     */
+    public synchronized Snapshot record(boolean success, long latencyMillis, String error) {
+        successes[next] = success;
+        latencies[next] = latencyMillis;
+        next = (next + 1) % successes.length;
+        size = Math.min(size + 1, successes.length);
+        consecutiveFailures = success ? 0 : consecutiveFailures + 1;
+
+        int failures = 0;
+        long totalLatency = 0;
+        long maxLatency = 0;
+        int succeeded = 0;
+        for (int i = 0; i < size; i++) {
+            if (successes[i]) {
+                succeeded++;
+                totalLatency += latencies[i];
+                maxLatency = Math.max(maxLatency, latencies[i]);
+            } else {
+                failures++;
+            }
+        }
+        double errorRate = (double) failures / size;
+        long avgLatency = succeeded > 0 ? totalLatency / succeeded : 0;
+
+        ProviderHealthStatus status;
+        if (consecutiveFailures >= properties.getDownAfterFailures()) {
+            status = ProviderHealthStatus.DOWN;
+        } else if (errorRate >= properties.getDegradedErrorRate()
+                || maxLatency >= properties.getDegradedLatency().toMillis()) {
+            status = ProviderHealthStatus.DEGRADED;
+        } else {
+            status = ProviderHealthStatus.UP;
+        }
+
+        Snapshot updated = new Snapshot(status, size, errorRate, avgLatency, maxLatency, consecutiveFailures,
+                success ? snapshot.lastError() : error, LocalDateTime.now());
+        snapshot = updated;
+        return updated;
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 窗口统计快照
+     *
+     * @param status              状态
+     * @param samples             窗口内的探测次数
+     * @param errorRate           错误率
+     * @param avgLatencyMillis    成功探测的平均延迟
+     * @param maxLatencyMillis    成功探测的最大延迟
+     * @param consecutiveFailures 连续失败次数
+     * @param lastError           最近一次失败原因
+     * @param checkedAt           最近一次探测时间
+     */
+    public record Snapshot(ProviderHealthStatus status, int samples, double errorRate, long avgLatencyMillis,
+                           long maxLatencyMillis, int consecutiveFailures, String lastError, LocalDateTime checkedAt) {
+
+        public static final Snapshot UNKNOWN = new Snapshot(ProviderHealthStatus.UNKNOWN, 0, 0, 0, 0, 0, null, null);
+    }
+}
@@ -0,0 +1,170 @@
+package com.star.swiftAi.init;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.core.model.Message;
+import com.star.swiftAi.core.provider.impl.OpenAiStreamChunkParser;
+import com.star.swiftAi.dto.StreamChatResponseDTO;
+import com.star.swiftAi.properties.AiWarmupProperties;
+import com.star.swiftAi.service.AiChatService;
+import com.star.swiftAi.util.TokenCounter;
+import com.star.swiftEncrypt.service.CryptoService;
+import com.star.swiftSecurity.properties.JwtProperties;
+import com.star.swiftSecurity.utils.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI 模块启动预热
+ * 在就绪探针通过之前建立到启用供应商的连接，并用合成数据执行 JWT 解析、RSA/AES、token 计数和 SSE 数据块解析，
+ * 让类加载和 JIT 编译在接入流量之前完成
+ * <p>
+ * ApplicationRunner 在 ApplicationReadyEvent 之前执行，Spring Boot 在所有 Runner 完成后才把就绪状态置为 ACCEPTING_TRAFFIC，
+ * 开始时显式发布 REFUSING_TRAFFIC，保证预热期间 /actuator/health/readiness 不通过
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AiWarmupInitializer implements ApplicationRunner {
+
+    private static final String SAMPLE_TEXT = "请用三句话解释什么是向量数据库。Explain the difference between TCP and UDP in three sentences.";
+
+    private static final String SAMPLE_CHUNK = "{\"id\":\"chatcmpl-warmup\",\"object\":\"chat.completion.chunk\",\"model\":\"warmup\","
+            + "\"choices\":[{\"index\":0,\"delta\":{\"content\":\"你好，world\"},\"finish_reason\":null}]}";
+
+    private static final String SAMPLE_LAST_CHUNK = "{\"id\":\"chatcmpl-warmup\",\"object\":\"chat.completion.chunk\",\"model\":\"warmup\","
+            + "\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}";
+
+    private final AiWarmupProperties warmupProperties;
+    private final AiChatService aiChatService;
+    private final JwtUtil jwtUtil;
+    private final JwtProperties jwtProperties;
+    private final CryptoService cryptoService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 应用启动后执行
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupProperties.isEnabled()) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.currentTimeMillis();
+        log.info("AI模块启动预热开始: iterations={}, cryptoIterations={}",
+                warmupProperties.getIterations(), warmupProperties.getCryptoIterations());
+
+        // 供应商连接受网络延迟影响，与本地热点代码预热并行进行
+        AtomicInteger warmedProviders = new AtomicInteger();
+        Thread providerThread = Thread.ofVirtual().name("ai-warmup-providers").start(() -> {
+            try {
+                warmedProviders.set(aiChatService.warmUpProviderConnections(warmupProperties.getProviderTimeout()));
+            } catch (Exception e) {
+                log.warn("预热供应商连接失败: {}", e.getMessage());
+            }
+        });
+
+        runStep("JWT解析", warmupProperties.getIterations(), this::warmUpJwt);
+        runStep("RSA/AES加解密", warmupProperties.getCryptoIterations(), this::warmUpCrypto);
+        runStep("Token计数", warmupProperties.getIterations(), this::warmUpTokenCounter);
+        runStep("SSE数据块解析", warmupProperties.getIterations(), this::warmUpStreamChunk);
+
+        try {
+            providerThread.join(warmupProperties.getProviderTimeout().plusSeconds(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("AI模块启动预热完成: providers={}, 耗时={}ms", warmedProviders.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 执行一个预热步骤，失败只记录日志，不影响启动
+     */
+    private void runStep(String name, int iterations, WarmupStep step) {
+        long start = System.currentTimeMillis();
+        try {
+            step.run(iterations);
+            log.info("预热完成: {} x{}, 耗时={}ms", name, iterations, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("预热失败: {}, error={}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 签发一个合成 token（不写入 Redis），反复走请求认证时的解析路径
+     */
+    private void warmUpJwt(int iterations) {
+        String token = Jwts.builder()
+                .claim("userId", "0")
+                .subject("0")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes()))
+                .compact();
+        for (int i = 0; i < iterations; i++) {
+            jwtUtil.extractUserId(token);
+        }
+    }
+
+    private void warmUpCrypto(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            String plain = "sk-warmup-" + i;
+            if (!plain.equals(cryptoService.decryptWithAES(cryptoService.encryptWithAES(plain)))
+                    || !plain.equals(cryptoService.decryptWithRSA(cryptoService.encryptWithRSA(plain)))) {
+                throw new RuntimeException("加解密结果不一致");
+            }
+        }
+    }
+
+    private void warmUpTokenCounter(int iterations) {
+        List<Message> messages = List.of(Message.system("你是一个乐于助人的助手。"),
+                Message.user(SAMPLE_TEXT), Message.assistant(SAMPLE_TEXT));
+        for (int i = 0; i < iterations; i++) {
+            TokenCounter.estimateTokens(SAMPLE_TEXT);
+            TokenCounter.estimateTotalTokens(messages);
+        }
+    }
+
+    /**
+     * 解析合成的 SSE 数据行，并序列化发往客户端的事件
+     */
+    private void warmUpStreamChunk(int iterations) throws Exception {
+        OpenAiStreamChunkParser parser = new OpenAiStreamChunkParser(objectMapper);
+        String[] lines = {OpenAiStreamChunkParser.DATA_PREFIX + SAMPLE_CHUNK, OpenAiStreamChunkParser.DATA_PREFIX + SAMPLE_LAST_CHUNK,
+                OpenAiStreamChunkParser.DATA_PREFIX + OpenAiStreamChunkParser.DONE};
+        StreamChatResponseDTO event = new StreamChatResponseDTO();
+        event.setSessionId("0");
+        event.setGenerationId("warmup");
+        event.setRole("assistant");
+        for (int i = 0; i < iterations; i++) {
+            for (String line : lines) {
+                String data = OpenAiStreamChunkParser.extractData(line);
+                if (data == null || OpenAiStreamChunkParser.isDone(data)) {
+                    continue;
+                }
+                event.setDelta(parser.parse(data).getDelta());
+                objectMapper.writeValueAsString(event);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        void run(int iterations) throws Exception;
+    }
+}
@@ -0,0 +1,14 @@
+package com.star.swiftAi.mapper.postgresql;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.star.swiftAi.entity.AiChatMessageArchive;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * AI聊天消息分区归档记录Mapper
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Mapper
+public interface AiChatMessageArchiveMapper extends BaseMapper<AiChatMessageArchive> {
+}
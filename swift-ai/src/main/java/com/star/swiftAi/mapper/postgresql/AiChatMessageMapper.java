@@ -1,8 +1,13 @@
 package com.star.swiftAi.mapper.postgresql;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.star.swiftAi.dto.MessageSearchHitDTO;
 import com.star.swiftAi.entity.AiChatMessage;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 /**
  * AI聊天消息Mapper
@@ -11,4 +16,55 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface AiChatMessageMapper extends BaseMapper<AiChatMessage> {
+
+    /**
+     * 检索用户的聊天记录，按 (相关度, 消息ID) 降序键集分页
+     * 全文模式使用 search_tsv 的 GIN 索引并用 ts_headline 生成片段；子串模式（中日韩文本）使用 pg_trgm 索引，返回完整内容由调用方截取片段。
+     * 两个索引都是 search_tsv IS NOT NULL 的部分索引，刚写入、尚未由后台任务填充的消息暂不可检索；片段只为当前页的行生成
+     *
+     * @param userId      用户ID
+     * @param query       检索词
+     * @param likePattern 子串模式的 ILIKE 模式（已转义通配符）
+     * @param trigram     是否为子串模式
+     * @param cursorRank  上一页最后一条的相关度，第一页为null
+     * @param cursorId    上一页最后一条的消息ID，第一页为null
+     * @param limit       返回数量
+     * @return 检索结果
+     */
+    @Select("<script>" +
+            "SELECT p.id AS message_id, p.session_id, s.title AS session_title, p.role, p.created_at, p.rank, " +
+            "<choose>" +
+            "<when test='trigram'>p.content</when>" +
+            "<otherwise>ts_headline('simple', p.content, websearch_to_tsquery('simple', #{query}), " +
+            "'StartSel=&lt;mark&gt;, StopSel=&lt;/mark&gt;, MaxWords=24, MinWords=8, MaxFragments=2')</otherwise>" +
+            "</choose> AS snippet " +
+            "FROM (" +
+            "  SELECT r.* FROM (" +
+            "    SELECT m.id, m.session_id, m.role, m.content, m.created_at, " +
+            "    <choose>" +
+            "    <when test='trigram'>word_similarity(#{query}, m.content)</when>" +
+            "    <otherwise>ts_rank_cd(m.search_tsv, websearch_to_tsquery('simple', #{query}))</otherwise>" +
+            "    </choose> AS rank " +
+            "    FROM ai_chat_message m " +
+            "    WHERE m.session_id IN (SELECT session_id FROM ai_chat_session WHERE user_id = #{userId}) " +
+            "    AND m.search_tsv IS NOT NULL " +
+            "    <choose>" +
+            "    <when test='trigram'>AND m.content ILIKE #{likePattern}</when>" +
+            "    <otherwise>AND m.search_tsv @@ websearch_to_tsquery('simple', #{query})</otherwise>" +
+            "    </choose>" +
+            "  ) r " +
+            "  <if test='cursorId != null'>WHERE (r.rank, r.id) &lt; (CAST(#{cursorRank} AS REAL), #{cursorId})</if> " +
+            "  ORDER BY r.rank DESC, r.id DESC " +
+            "  LIMIT #{limit}" +
+            ") p " +
+            "LEFT JOIN ai_chat_session s ON s.session_id = p.session_id " +
+            "ORDER BY p.rank DESC, p.id DESC" +
+            "</script>")
+    List<MessageSearchHitDTO> searchMessages(@Param("userId") String userId,
+                                             @Param("query") String query,
+                                             @Param("likePattern") String likePattern,
+                                             @Param("trigram") boolean trigram,
+                                             @Param("cursorRank") Float cursorRank,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
 }
@@ -0,0 +1,14 @@
+package com.star.swiftAi.mapper.postgresql;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.star.swiftAi.entity.AiTokenUsageDaily;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * AI Token用量日汇总Mapper
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Mapper
+public interface AiTokenUsageDailyMapper extends BaseMapper<AiTokenUsageDaily> {
+}
@@ -0,0 +1,26 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 聊天记录导入/导出配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.transfer")
+public class AiChatTransferProperties {
+
+    /**
+     * 导入时每批写入的记录数（每批单独提交）
+     */
+    private int importBatchSize = 500;
+
+    /**
+     * 导出时数据库游标每次读取的行数
+     */
+    private int exportFetchSize = 500;
+}
@@ -0,0 +1,31 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * AI 向量嵌入配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.embedding")
+public class AiEmbeddingProperties {
+
+    /**
+     * 嵌入模型ID（对应 ai_model 表中 model_type 为 embedding 的模型），为空时不启用向量相关功能
+     */
+    private Long modelId;
+
+    /**
+     * 嵌入接口超时时间（秒）
+     */
+    private int timeout = 30;
+
+    /**
+     * 单次嵌入的最大字符数，超出部分截断
+     */
+    private int maxInputChars = 8000;
+}
@@ -0,0 +1,97 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 对冲请求配置
+ * 按模型开启：主提供商在对冲延迟内没有返回首个 token 时，把同一请求再发给备用提供商，先开始输出的一方胜出
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.hedging")
+public class AiHedgingProperties {
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = false;
+
+    /**
+     * 开启对冲的模型：模型ID -> 备用目标
+     */
+    private Map<Long, Target> models = new HashMap<>();
+
+    /**
+     * 对冲延迟取主提供商近期首 token 延迟的百分位
+     */
+    private double percentile = 95;
+
+    /**
+     * 滚动窗口保留的首 token 延迟样本数
+     */
+    private int windowSize = 200;
+
+    /**
+     * 样本少于该数量时使用 initialDelay
+     */
+    private int minSamples = 20;
+
+    /**
+     * 样本不足时的对冲延迟
+     */
+    private Duration initialDelay = Duration.ofSeconds(2);
+
+    /**
+     * 对冲延迟下限，避免主提供商正常时也频繁对冲
+     */
+    private Duration minDelay = Duration.ofMillis(300);
+
+    /**
+     * 对冲延迟上限
+     */
+    private Duration maxDelay = Duration.ofSeconds(10);
+
+    /**
+     * 对冲预算：额外请求数占主请求数的最大比例
+     */
+    private double budgetRatio = 0.05;
+
+    /**
+     * 预算可累积的最大额外请求数（突发容量）
+     */
+    private double budgetBurst = 10;
+
+    /**
+     * 是否开启对冲
+     *
+     * @param modelId 模型ID
+     */
+    public boolean isHedged(Long modelId) {
+        return enabled && modelId != null && models.containsKey(modelId);
+    }
+
+    /**
+     * 备用目标
+     */
+    @Data
+    public static class Target {
+
+        /**
+         * 备用提供商ID
+         */
+        private Long providerId;
+
+        /**
+         * 备用提供商上的模型编码，为空时与主模型相同
+         */
+        private String modelCode;
+    }
+}
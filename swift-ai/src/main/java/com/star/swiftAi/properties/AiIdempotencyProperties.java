@@ -0,0 +1,49 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 聊天请求幂等配置
+ * 客户端通过 Idempotency-Key 请求头标识一次提交，超时重试时不会重复创建消息和调用模型
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.idempotency")
+public class AiIdempotencyProperties {
+
+    /**
+     * 是否启用，关闭时忽略 Idempotency-Key 请求头
+     */
+    private boolean enabled = true;
+
+    /**
+     * 处理中标记的过期时间，节点异常退出时标记在此时间后自动清除，应大于流式响应超时时间
+     */
+    private Duration processingTtl = Duration.ofMinutes(6);
+
+    /**
+     * 处理结果的保留时间，期间相同键的请求直接返回保存的结果
+     */
+    private Duration resultTtl = Duration.ofHours(24);
+
+    /**
+     * 非流式请求等待处理中的相同请求完成的最长时间，超时返回 409
+     */
+    private Duration waitTimeout = Duration.ofSeconds(60);
+
+    /**
+     * 等待期间查询结果的间隔
+     */
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    /**
+     * Idempotency-Key 的最大长度
+     */
+    private int maxKeyLength = 128;
+}
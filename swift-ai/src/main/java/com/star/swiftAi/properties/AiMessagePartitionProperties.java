@@ -0,0 +1,56 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * AI 聊天消息分区与归档配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.message-partition")
+public class AiMessagePartitionProperties {
+
+    /**
+     * 是否启用分区维护任务（ai_chat_message 不是分区表时自动跳过）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 分区维护任务的 cron 表达式
+     */
+    private String cron = "0 30 3 * * ?";
+
+    /**
+     * 预创建未来几个月的分区（不含当月）
+     */
+    private int premakeMonths = 3;
+
+    /**
+     * 是否启用冷分区归档
+     */
+    private boolean archiveEnabled = false;
+
+    /**
+     * 热数据保留月数（不含当月），更早的分区会被归档
+     */
+    private int hotMonths = 6;
+
+    /**
+     * 归档文件目录
+     */
+    private String archiveDir = "data/message-archive";
+
+    /**
+     * 恢复的分区保留天数，超过后再次归档
+     */
+    private int restoredRetentionDays = 7;
+
+    /**
+     * 归档导出时游标每次读取的行数 / 恢复时每批写入的行数
+     */
+    private int batchSize = 1000;
+}
@@ -0,0 +1,38 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * AI 聊天记录检索配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.search")
+public class AiMessageSearchProperties {
+
+    /**
+     * 是否启用后台填充检索向量的任务，关闭后新消息不可检索
+     */
+    private boolean indexEnabled = true;
+
+    /**
+     * 两次填充之间的间隔，即新消息可被检索的最大延迟
+     */
+    private Duration indexInterval = Duration.ofSeconds(5);
+
+    /**
+     * 每批填充的消息数，每批是一条独立提交的语句
+     */
+    private int batchSize = 500;
+
+    /**
+     * 每次最多执行的批数，积压较多时分多次追上，避免单次任务长时间占用连接
+     */
+    private int maxBatches = 20;
+}
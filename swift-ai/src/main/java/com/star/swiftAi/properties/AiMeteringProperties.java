@@ -0,0 +1,55 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AI Token 计量与配额配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.metering")
+public class AiMeteringProperties {
+
+    /**
+     * 是否启用用量计量
+     */
+    private boolean enabled = true;
+
+    /**
+     * 内存计数器写入日汇总表的间隔
+     */
+    private Duration flushInterval = Duration.ofSeconds(30);
+
+    /**
+     * 是否启用每日配额
+     */
+    private boolean quotaEnabled = false;
+
+    /**
+     * 登录用户每日 token 配额，0 表示不限制
+     */
+    private long dailyTokenLimit = 0;
+
+    /**
+     * 匿名用户（整体）每日 token 配额，0 表示不限制
+     */
+    private long anonymousDailyTokenLimit = 0;
+
+    /**
+     * 按用户ID单独配置的每日 token 配额，优先于默认值
+     */
+    private Map<String, Long> userDailyTokenLimits = new HashMap<>();
+
+    /**
+     * 按模型ID配置的每个用户每日 token 配额，0 或未配置表示不限制
+     */
+    private Map<Long, Long> modelDailyTokenLimits = new HashMap<>();
+}
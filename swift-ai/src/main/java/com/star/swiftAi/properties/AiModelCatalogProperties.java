@@ -0,0 +1,49 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 供应商模型目录缓存配置
+ * 供应商 /models 接口的结果按供应商缓存，过期后先返回旧值再在后台刷新
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.model-catalog")
+public class AiModelCatalogProperties {
+
+    /**
+     * 是否启用后台定时刷新（关闭后仍会缓存，只在访问时按需刷新）
+     */
+    private boolean refreshEnabled = true;
+
+    /**
+     * 目录有效期，过期后访问返回旧值并触发后台刷新
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * 有效期随机抖动比例（0~1），避免各供应商、各节点同时刷新
+     */
+    private double jitter = 0.2;
+
+    /**
+     * 后台检查到期目录的间隔
+     */
+    private Duration checkInterval = Duration.ofSeconds(30);
+
+    /**
+     * 拉取失败后的重试间隔
+     */
+    private Duration retryInterval = Duration.ofMinutes(1);
+
+    /**
+     * 单次拉取模型列表的超时时间（秒）
+     */
+    private int fetchTimeout = 15;
+}
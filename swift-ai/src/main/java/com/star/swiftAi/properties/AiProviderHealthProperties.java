@@ -0,0 +1,53 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 供应商健康探测配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.provider-health")
+public class AiProviderHealthProperties {
+
+    /**
+     * 是否启用后台健康探测
+     */
+    private boolean enabled = true;
+
+    /**
+     * 探测间隔
+     */
+    private Duration interval = Duration.ofSeconds(30);
+
+    /**
+     * 单次探测超时时间（秒）
+     */
+    private int timeout = 5;
+
+    /**
+     * 滚动窗口保留的探测结果数
+     */
+    private int windowSize = 10;
+
+    /**
+     * 连续失败达到该次数时判定为 DOWN
+     */
+    private int downAfterFailures = 3;
+
+    /**
+     * 窗口内错误率达到该值时判定为 DEGRADED
+     */
+    private double degradedErrorRate = 0.2;
+
+    /**
+     * 窗口内最大探测延迟达到该值时判定为 DEGRADED
+     */
+    private Duration degradedLatency = Duration.ofSeconds(2);
+}
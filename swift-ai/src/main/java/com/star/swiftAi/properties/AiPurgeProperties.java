@@ -0,0 +1,53 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * AI 聊天数据清理配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.purge")
+public class AiPurgeProperties {
+
+    /**
+     * 是否启用定时清理任务
+     */
+    private boolean enabled = true;
+
+    /**
+     * 清理任务的 cron 表达式
+     */
+    private String cron = "0 0 4 * * ?";
+
+    /**
+     * 孤儿消息按主键区间分块删除时每块的ID跨度 / 过期会话每批处理的会话数
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * 每块删除之间的休眠时间（毫秒），降低对在线查询的影响
+     */
+    private long sleepMillis = 100;
+
+    /**
+     * 会话保留天数（按最后更新时间），0 表示不按时间清理会话
+     */
+    private int sessionRetentionDays = 0;
+
+    /**
+     * 导入会话的保留天数（按最后更新时间），0 表示与普通会话相同
+     */
+    private int importedRetentionDays = 0;
+
+    /**
+     * 分布式锁有效期，每处理一块会续期
+     */
+    private Duration lockTtl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,71 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * AI 历史消息语义检索配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.retrieval")
+public class AiRetrievalProperties {
+
+    /**
+     * 是否启用语义检索（需同时配置 app.ai.embedding.model-id）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 向量索引文件目录（按 用户/会话 分区存放）
+     */
+    private String indexDir = "data/vector-index";
+
+    /**
+     * 每次召回的历史消息数量
+     */
+    private int topK = 4;
+
+    /**
+     * 召回的最低相似度
+     */
+    private float minScore = 0.3f;
+
+    /**
+     * HNSW 每层最大连接数
+     */
+    private int m = 16;
+
+    /**
+     * HNSW 构建时的候选集大小
+     */
+    private int efConstruction = 100;
+
+    /**
+     * HNSW 搜索时的候选集大小
+     */
+    private int efSearch = 64;
+
+    /**
+     * 单个分区向量文件的初始容量（记录数）
+     */
+    private int initialCapacity = 256;
+
+    /**
+     * 同时保持打开的分区数量上限，超出后关闭最久未使用的分区
+     */
+    private int maxOpenPartitions = 256;
+
+    /**
+     * 启动时预加载（重建索引）的最近活跃分区数量
+     */
+    private int preloadPartitions = 32;
+
+    /**
+     * 异步建索引队列容量，队列满时丢弃并记录日志
+     */
+    private int indexQueueCapacity = 1000;
+}
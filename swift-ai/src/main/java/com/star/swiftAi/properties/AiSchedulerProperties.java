@@ -0,0 +1,69 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 流式聊天调度配置
+ * 登录用户按用户ID、匿名用户按客户端IP分别排队，按权重公平调度，并限制每个用户在集群内的并发流数
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.scheduler")
+public class AiSchedulerProperties {
+
+    /**
+     * 本节点同时执行的流式任务数
+     */
+    private int workers = Runtime.getRuntime().availableProcessors() * 4;
+
+    /**
+     * 本节点排队任务总数上限，超出时返回 503
+     */
+    private int maxQueued = 200;
+
+    /**
+     * 单个用户（或匿名IP）排队任务数上限，超出时返回 429
+     */
+    private int maxQueuedPerKey = 8;
+
+    /**
+     * 登录用户在集群内的最大并发流数（含排队中），0 表示不限制
+     */
+    private int maxStreamsPerUser = 4;
+
+    /**
+     * 每个匿名IP在集群内的最大并发流数（含排队中），0 表示不限制
+     */
+    private int maxStreamsPerAnonymous = 2;
+
+    /**
+     * 登录用户优先级的调度权重：每轮调度中登录用户可以先执行的任务数
+     */
+    private int authenticatedWeight = 4;
+
+    /**
+     * 匿名用户优先级的调度权重
+     */
+    private int anonymousWeight = 1;
+
+    /**
+     * 最长排队时间，超时返回 503
+     */
+    private Duration queueTimeout = Duration.ofSeconds(15);
+
+    /**
+     * 被拒绝时建议客户端重试的间隔（Retry-After）
+     */
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    /**
+     * 并发计数键的过期时间，节点异常退出时计数在此时间后自动清除，应大于流式响应超时时间
+     */
+    private Duration slotTtl = Duration.ofMinutes(10);
+}
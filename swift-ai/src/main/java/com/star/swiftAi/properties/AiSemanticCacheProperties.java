@@ -0,0 +1,50 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 匿名聊天语义缓存配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.semantic-cache")
+public class AiSemanticCacheProperties {
+
+    /**
+     * 是否启用语义缓存（需同时配置 app.ai.embedding.model-id）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 命中阈值（余弦相似度）
+     */
+    private float similarityThreshold = 0.92f;
+
+    /**
+     * 默认缓存有效期
+     */
+    private Duration defaultTtl = Duration.ofHours(1);
+
+    /**
+     * 按模型代码配置的缓存有效期，未配置的模型使用默认值
+     */
+    private Map<String, Duration> modelTtl = new HashMap<>();
+
+    /**
+     * 每个模型最多缓存的条目数，超出后淘汰最久未使用的条目
+     */
+    private int maxEntriesPerModel = 1000;
+
+    /**
+     * 参与缓存的最大提示词长度（字符），过长的提示词不缓存
+     */
+    private int maxPromptChars = 2000;
+}
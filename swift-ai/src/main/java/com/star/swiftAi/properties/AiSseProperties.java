@@ -0,0 +1,94 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SSE 流式输出配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.sse")
+public class AiSseProperties {
+
+    /**
+     * 默认的合并窗口
+     */
+    private Window defaults = new Window();
+
+    /**
+     * 按接口配置的合并窗口（chat / anonymous），未配置的接口使用默认值
+     */
+    private Map<String, Window> endpoints = new HashMap<>();
+
+    /**
+     * 断线续传配置
+     */
+    private Resume resume = new Resume();
+
+    /**
+     * 获取指定接口的合并窗口
+     *
+     * @param endpoint 接口标识
+     * @return 合并窗口
+     */
+    public Window window(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaults);
+    }
+
+    /**
+     * 增量合并窗口：缓冲的增量内容超过时间或字节阈值时合并为一个事件发送
+     */
+    @Data
+    public static class Window {
+
+        /**
+         * 是否合并增量，关闭时每个模型分块单独发送一个事件
+         */
+        private boolean coalesce = true;
+
+        /**
+         * 缓冲的最长时间
+         */
+        private Duration maxDelay = Duration.ofMillis(40);
+
+        /**
+         * 缓冲的最大字节数（UTF-8）
+         */
+        private int maxBytes = 512;
+    }
+
+    /**
+     * 断线续传：每次生成的事件追加到独立的 Redis Stream，客户端可凭 Last-Event-ID 从任意节点续读
+     */
+    @Data
+    public static class Resume {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 生成流在 Redis 中的保留时间（应大于 SSE 超时时间）
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * 续读时 XREAD 单次阻塞等待时间
+         */
+        private Duration blockTimeout = Duration.ofSeconds(2);
+
+        /**
+         * 续读时连续没有新事件的最长时间，超过后结束续读
+         */
+        private Duration maxIdle = Duration.ofSeconds(60);
+    }
+}
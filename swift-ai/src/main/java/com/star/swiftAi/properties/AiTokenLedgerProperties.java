@@ -0,0 +1,22 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话 token 账本配置
+ * 记录每个会话已计算过的历史消息 token 数，下一轮对话只计算新增的消息
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.token-ledger")
+public class AiTokenLedgerProperties {
+
+    /**
+     * 本节点最多记录的会话数（按最近使用淘汰），0 表示不记录
+     */
+    private int maxSessions = 10000;
+}
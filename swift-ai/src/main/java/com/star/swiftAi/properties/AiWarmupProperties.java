@@ -0,0 +1,39 @@
+package com.star.swiftAi.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 启动预热配置
+ * 就绪探针通过之前建立到供应商的连接，并用合成数据反复执行请求路径上的热点代码
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ai.warmup")
+public class AiWarmupProperties {
+
+    /**
+     * 是否启用启动预热
+     */
+    private boolean enabled = true;
+
+    /**
+     * JWT 解析、token 计数、SSE 数据块解析的执行次数
+     */
+    private int iterations = 5000;
+
+    /**
+     * RSA / AES 加解密的执行次数（RSA 解密开销较大，次数单独配置）
+     */
+    private int cryptoIterations = 100;
+
+    /**
+     * 供应商连接预热的最长等待时间
+     */
+    private Duration providerTimeout = Duration.ofSeconds(10);
+}
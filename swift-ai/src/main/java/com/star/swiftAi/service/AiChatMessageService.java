@@ -2,6 +2,7 @@ package com.star.swiftAi.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.star.swiftAi.dto.MessageDTO;
+import com.star.swiftAi.dto.MessageSearchPageDTO;
 import com.star.swiftAi.entity.AiChatMessage;
 
 import java.util.List;
@@ -32,6 +33,30 @@ public interface AiChatMessageService extends IService<AiChatMessage> {
      */
     List<MessageDTO> getMessagesBySessionId(String sessionId);
 
+    /**
+     * 按消息ID键集分页获取会话消息（新消息在前）
+     * beforeId 与 afterId 均为空时返回最新一页
+     *
+     * @param sessionId 会话ID
+     * @param beforeId  只返回ID小于该值的消息（向更早翻页），可为空
+     * @param afterId   只返回ID大于该值的消息（向更新翻页），可为空
+     * @param limit     返回数量
+     * @return 消息列表（按ID降序）
+     */
+    List<MessageDTO> getMessagesPage(String sessionId, Long beforeId, Long afterId, int limit);
+
+    /**
+     * 检索用户所有会话中的消息（按相关度降序，游标分页）
+     * 含中日韩字符的检索词按子串匹配，否则按词全文检索（支持引号短语、OR 和 -排除）
+     *
+     * @param userId 用户ID
+     * @param query  检索词
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param limit  每页数量
+     * @return 检索结果
+     */
+    MessageSearchPageDTO searchMessages(String userId, String query, String cursor, int limit);
+
     /**
      * 删除会话的所有消息
      *
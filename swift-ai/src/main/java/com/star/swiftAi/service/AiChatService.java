@@ -106,13 +106,16 @@ public interface AiChatService {
      * @param totalOutputTokens 总输出token数
      * @param completed 完成标志
      * @param converter 响应转换器
+     * @param streamHandle 流式生成句柄（用于取消）
+     * @return 模型是否完整输出（被停止、客户端断开时为 false，只保存了部分内容）
      */
-    void streamChatWithEmitter(ChatRequestDTO request, String userId, String sessionId, 
+    boolean streamChatWithEmitter(ChatRequestDTO request, String userId, String sessionId, 
                               org.springframework.web.servlet.mvc.method.annotation.SseEmitter emitter,
                               java.util.concurrent.atomic.AtomicReference<java.lang.StringBuilder> fullContentRef,
                               java.util.concurrent.atomic.AtomicInteger totalOutputTokens,
                               java.util.concurrent.atomic.AtomicBoolean completed,
-                              java.util.function.Function<com.star.swiftAi.core.model.LLMResponse, com.star.swiftAi.dto.StreamChatResponseDTO> converter);
+                              java.util.function.Function<com.star.swiftAi.core.model.LLMResponse, com.star.swiftAi.dto.StreamChatResponseDTO> converter,
+                              com.star.swiftAi.core.model.StreamHandle streamHandle);
 
     /**
      * 匿名流式聊天（使用SseEmitter）
@@ -122,9 +125,35 @@ public interface AiChatService {
      * @param emitter SSE发射器
      * @param completed 完成标志
      * @param converter 响应转换器
+     * @param streamHandle 流式生成句柄（用于取消）
      */
     void anonymousStreamChatWithEmitter(ChatRequestDTO request, 
                                        org.springframework.web.servlet.mvc.method.annotation.SseEmitter emitter,
                                        java.util.concurrent.atomic.AtomicBoolean completed,
-                                       java.util.function.Function<com.star.swiftAi.core.model.LLMResponse, com.star.swiftAi.dto.StreamChatResponseDTO> converter);
+                                       java.util.function.Function<com.star.swiftAi.core.model.LLMResponse, com.star.swiftAi.dto.StreamChatResponseDTO> converter,
+                                       com.star.swiftAi.core.model.StreamHandle streamHandle);
+
+    /**
+     * 多模型对比流式聊天（不保存到数据库）
+     * 同一条消息并行发给多个模型，各模型的增量通过 sink 输出（delta 事件），每个模型结束时输出 done 事件；
+     * sink 会被多个线程调用，调用方负责串行发送
+     *
+     * @param request       对比请求
+     * @param userId        用户ID，匿名为null
+     * @param streamHandles 模型ID -> 该模型的生成句柄（用于单独停止），按对比顺序排列
+     * @param sink          事件输出
+     * @return 各模型的结果，顺序与 streamHandles 一致
+     */
+    java.util.List<com.star.swiftAi.dto.CompareModelResultDTO> compareStreamChat(com.star.swiftAi.dto.CompareChatRequestDTO request, String userId,
+                                                                               java.util.Map<Long, com.star.swiftAi.core.model.StreamHandle> streamHandles,
+                                                                               java.util.function.Consumer<com.star.swiftAi.dto.CompareStreamEventDTO> sink);
+
+    /**
+     * 预热到所有启用供应商的连接
+     * 以与聊天调用相同的配置请求一次模型列表，让共享 HttpClient 的连接池中保留已完成 TLS 握手的连接
+     *
+     * @param timeout 最长等待时间，超时仍未完成的供应商放弃预热
+     * @return 预热成功的供应商数
+     */
+    int warmUpProviderConnections(java.time.Duration timeout);
 }
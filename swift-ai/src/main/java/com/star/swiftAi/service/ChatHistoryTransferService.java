@@ -0,0 +1,53 @@
+package com.star.swiftAi.service;
+
+import com.star.swiftAi.dto.ChatHistoryRecordDTO;
+import com.star.swiftAi.dto.ImportProgressDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * 聊天记录批量导入/导出服务
+ * 以 NDJSON（每行一条 {@link ChatHistoryRecordDTO}）为交换格式，逐行解析、分批写入、游标导出，内存占用与数据量无关
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface ChatHistoryTransferService {
+
+    /**
+     * 分批导入聊天记录
+     * 每批在独立的短事务中提交；已存在的会话及其消息会被跳过
+     *
+     * @param userId           导入到的用户ID
+     * @param records          记录迭代器（会话行必须位于其消息行之前）
+     * @param progressListener 每批提交后的进度回调，可为空
+     * @return 最终进度
+     */
+    ImportProgressDTO importRecords(String userId, Iterator<ChatHistoryRecordDTO> records,
+                                    Consumer<ImportProgressDTO> progressListener);
+
+    /**
+     * 从 NDJSON 输入流导入聊天记录
+     *
+     * @param userId           导入到的用户ID
+     * @param inputStream      NDJSON 输入流
+     * @param progressListener 每批提交后的进度回调，可为空
+     * @return 最终进度
+     * @throws IOException 读取或解析失败
+     */
+    ImportProgressDTO importNdjson(String userId, InputStream inputStream,
+                                   Consumer<ImportProgressDTO> progressListener) throws IOException;
+
+    /**
+     * 将用户的全部聊天记录以 NDJSON 写出
+     * 在只读事务中通过服务端游标分批读取，边读边写
+     *
+     * @param userId       用户ID
+     * @param outputStream 输出流
+     * @throws IOException 写出失败
+     */
+    void exportNdjson(String userId, OutputStream outputStream) throws IOException;
+}
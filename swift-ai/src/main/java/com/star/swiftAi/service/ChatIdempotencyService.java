@@ -0,0 +1,72 @@
+package com.star.swiftAi.service;
+
+import com.star.swiftAi.dto.ChatIdempotencyRecordDTO;
+
+/**
+ * 聊天请求幂等服务
+ * 首次请求在 Redis 中写入处理中标记，完成后替换为处理结果；相同用户、相同键的重复请求复用这次处理，不再重复调用模型
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface ChatIdempotencyService {
+
+    /**
+     * 客户端提交的幂等键请求头
+     */
+    String HEADER = "Idempotency-Key";
+
+    /**
+     * 响应来自已有处理时返回的响应头
+     */
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    String SCOPE_CHAT = "chat";
+    String SCOPE_STREAM = "stream";
+
+    /**
+     * 规范化请求头中的幂等键
+     *
+     * @param idempotencyKey 请求头的值
+     * @return 幂等键，未提供或未启用时为null
+     */
+    String normalizeKey(String idempotencyKey);
+
+    /**
+     * 尝试占用幂等键
+     *
+     * @param scope          接口（chat / stream）
+     * @param userId         用户ID
+     * @param idempotencyKey 幂等键
+     * @param request        请求体，用于校验相同的键是否用于相同的请求
+     * @param generationId   流式请求的生成ID，非流式为null
+     * @return 占用成功返回null；已被占用时返回已有记录（处理中或已完成）
+     */
+    ChatIdempotencyRecordDTO begin(String scope, String userId, String idempotencyKey, Object request, String generationId);
+
+    /**
+     * 占用幂等键，已被占用时等待原请求完成；原请求失败（标记被删除）时由本请求接手
+     *
+     * @return 占用成功返回null；否则返回已完成的记录，等待超时抛出 409
+     */
+    ChatIdempotencyRecordDTO acquireOrAwait(String scope, String userId, String idempotencyKey, Object request);
+
+    /**
+     * 保存处理结果，在结果保留时间内相同键的请求直接返回该结果
+     *
+     * @param idempotencyKey 幂等键，为null时不处理
+     * @param response       处理结果
+     */
+    void complete(String scope, String userId, String idempotencyKey, Object response);
+
+    /**
+     * 处理失败时删除处理中标记，使客户端可以用相同的键重试
+     *
+     * @param idempotencyKey 幂等键，为null时不处理
+     */
+    void abandon(String scope, String userId, String idempotencyKey);
+
+    /**
+     * 读取记录中保存的处理结果
+     */
+    <T> T readResponse(ChatIdempotencyRecordDTO record, Class<T> type);
+}
@@ -0,0 +1,34 @@
+package com.star.swiftAi.service;
+
+import java.util.List;
+
+/**
+ * 文本向量嵌入服务
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface EmbeddingService {
+
+    /**
+     * 是否已配置可用的嵌入模型
+     *
+     * @return 是否可用
+     */
+    boolean isAvailable();
+
+    /**
+     * 计算单条文本的向量
+     *
+     * @param text 文本
+     * @return 向量
+     */
+    float[] embed(String text);
+
+    /**
+     * 批量计算文本向量
+     *
+     * @param texts 文本列表
+     * @return 向量列表（与输入顺序一致）
+     */
+    List<float[]> embed(List<String> texts);
+}
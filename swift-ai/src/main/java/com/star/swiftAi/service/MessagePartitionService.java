@@ -0,0 +1,49 @@
+package com.star.swiftAi.service;
+
+import com.star.swiftAi.entity.AiChatMessageArchive;
+
+import java.util.List;
+
+/**
+ * 聊天消息分区管理服务
+ * 负责 ai_chat_message 月度分区的预创建、冷分区归档（导出为 gzip 压缩的 NDJSON 后删除分区）以及按需恢复
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface MessagePartitionService {
+
+    /**
+     * 执行一次分区维护：预创建未来分区，启用归档时归档冷分区
+     */
+    void maintain();
+
+    /**
+     * 预创建当月及未来若干个月的分区
+     *
+     * @return 本次新创建的分区名
+     */
+    List<String> ensurePartitions();
+
+    /**
+     * 归档指定分区：先解除挂载，再从分离出的表导出到归档文件，记录归档后删除该表
+     *
+     * @param partitionName 分区名（ai_chat_message_pYYYYMM）
+     * @return 归档记录
+     */
+    AiChatMessageArchive archivePartition(String partitionName);
+
+    /**
+     * 从归档文件恢复指定分区，归档后落入默认分区的同月数据一并移入
+     *
+     * @param partitionName 分区名（ai_chat_message_pYYYYMM）
+     * @return 归档记录
+     */
+    AiChatMessageArchive restorePartition(String partitionName);
+
+    /**
+     * 查询全部归档记录
+     *
+     * @return 归档记录列表（按分区范围倒序）
+     */
+    List<AiChatMessageArchive> listArchives();
+}
@@ -0,0 +1,19 @@
+package com.star.swiftAi.service;
+
+import java.util.Map;
+
+/**
+ * 聊天数据清理服务
+ * 删除会话已不存在的孤儿消息，以及超过保留期的会话及其消息
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface MessagePurgeService {
+
+    /**
+     * 执行一次清理（多节点下只有取得分布式锁的节点会执行）
+     *
+     * @return 各类数据的删除行数，未取得锁时为空
+     */
+    Map<String, Long> purge();
+}
@@ -0,0 +1,17 @@
+package com.star.swiftAi.service;
+
+/**
+ * 聊天记录检索索引服务
+ * 在后台为新写入的消息填充全文检索向量，使写入路径不承担 tsvector 计算和 GIN 索引维护
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface MessageSearchIndexService {
+
+    /**
+     * 分批填充尚未建立检索向量的消息，新消息优先
+     *
+     * @return 本次填充的消息数
+     */
+    long indexPending();
+}
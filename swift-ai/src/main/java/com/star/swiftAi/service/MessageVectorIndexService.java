@@ -0,0 +1,48 @@
+package com.star.swiftAi.service;
+
+import com.star.swiftAi.core.vector.SemanticRetriever;
+import com.star.swiftAi.core.vector.VectorSearchResult;
+
+import java.util.List;
+
+/**
+ * 聊天消息向量索引服务
+ * 按会话分区维护 HNSW 索引，用于召回与当前问题语义相关的历史消息
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface MessageVectorIndexService extends SemanticRetriever {
+
+    /**
+     * 是否启用语义检索
+     *
+     * @return 是否启用
+     */
+    boolean isEnabled();
+
+    /**
+     * 异步将消息加入索引（不阻塞调用方，队列满时丢弃）
+     *
+     * @param sessionId 会话ID
+     * @param messageId 消息ID
+     * @param content   消息内容
+     */
+    void indexMessageAsync(String sessionId, Long messageId, String content);
+
+    /**
+     * 在会话分区中检索相似消息
+     *
+     * @param sessionId 会话ID
+     * @param query     查询文本
+     * @param topK      返回数量
+     * @return 检索结果（按相似度降序）
+     */
+    List<VectorSearchResult> search(String sessionId, String query, int topK);
+
+    /**
+     * 删除会话分区（关闭映射并删除索引文件）
+     *
+     * @param sessionId 会话ID
+     */
+    void removeSession(String sessionId);
+}
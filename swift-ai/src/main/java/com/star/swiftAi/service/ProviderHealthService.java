@@ -0,0 +1,41 @@
+package com.star.swiftAi.service;
+
+import com.star.swiftAi.health.ProviderHealthStatus;
+import com.star.swiftAi.health.ProviderHealthWindow;
+
+/**
+ * 供应商健康探测服务
+ * 后台定时并行探测所有启用的供应商，按滚动窗口统计延迟和错误率并缓存状态，请求路径只读取缓存的状态
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface ProviderHealthService {
+
+    /**
+     * 获取供应商的健康状态
+     *
+     * @param providerId 供应商ID
+     * @return 状态，尚未探测时为 UNKNOWN
+     */
+    ProviderHealthStatus getStatus(Long providerId);
+
+    /**
+     * 供应商是否可以路由请求（DOWN 以外的状态）
+     *
+     * @param providerId 供应商ID
+     */
+    boolean isAvailable(Long providerId);
+
+    /**
+     * 获取供应商最近的探测统计
+     *
+     * @param providerId 供应商ID
+     * @return 快照，尚未探测时为 {@link ProviderHealthWindow.Snapshot#UNKNOWN}
+     */
+    ProviderHealthWindow.Snapshot getSnapshot(Long providerId);
+
+    /**
+     * 立即并行探测所有启用的供应商
+     */
+    void probeAll();
+}
@@ -0,0 +1,53 @@
+package com.star.swiftAi.service;
+
+import com.star.swiftAi.entity.AiProvider;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 供应商模型目录服务
+ * 缓存各供应商 /models 接口返回的模型列表，后台定时并行刷新，过期时先返回旧值（stale-while-revalidate）
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface ProviderModelCatalogService {
+
+    /**
+     * 获取供应商的模型列表
+     * 有缓存时直接返回（过期则触发后台刷新）；没有缓存或供应商配置已变更时同步拉取
+     *
+     * @param providerId 供应商ID
+     * @return 模型编码列表
+     */
+    List<String> getModels(Long providerId);
+
+    /**
+     * 获取供应商模型列表中的第一个模型，用于连接测试
+     *
+     * @param providerId 供应商ID
+     * @return 模型编码，没有缓存且拉取失败时为null
+     */
+    String firstModel(Long providerId);
+
+    /**
+     * 并行刷新所有启用供应商中已到期或尚未缓存的目录
+     */
+    void refreshDue();
+
+    /**
+     * 立即拉取供应商的模型目录，同一供应商已有拉取在进行时复用该拉取；成功后更新缓存并重新计算到期时间
+     * 健康探测通过该方法完成，探测和目录刷新共用同一次模型列表请求
+     *
+     * @param provider 供应商
+     * @return 拉取结果，失败时异常完成
+     */
+    CompletableFuture<List<String>> refreshNow(AiProvider provider);
+
+    /**
+     * 移除供应商的目录缓存
+     *
+     * @param providerId 供应商ID
+     */
+    void evict(Long providerId);
+}
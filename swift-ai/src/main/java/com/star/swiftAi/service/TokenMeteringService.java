@@ -0,0 +1,60 @@
+package com.star.swiftAi.service;
+
+import com.star.swiftAi.dto.TokenQuotaDTO;
+import com.star.swiftAi.entity.AiTokenUsageDaily;
+
+import java.util.List;
+
+/**
+ * Token 计量与配额服务
+ * 用量先累加到内存计数器，定时批量写入日汇总表；配额使用 Redis 计数器在集群内共享
+ *
+ * @author SHOOTING_STAR_C
+ */
+public interface TokenMeteringService {
+
+    /**
+     * 匿名用户在计量中使用的用户ID
+     */
+    String ANONYMOUS_USER = "anonymous";
+
+    /**
+     * 调用模型前检查配额，超出时抛出 errorCode 为 QUOTA_EXCEEDED 的 AiException
+     *
+     * @param userId  用户ID，匿名为null
+     * @param modelId 模型ID
+     */
+    void checkQuota(String userId, Long modelId);
+
+    /**
+     * 记录一次模型调用的用量
+     *
+     * @param userId           用户ID，匿名为null
+     * @param modelId          模型ID
+     * @param promptTokens     输入token数
+     * @param completionTokens 输出token数
+     */
+    void record(String userId, Long modelId, long promptTokens, long completionTokens);
+
+    /**
+     * 把内存计数器中的增量写入日汇总表
+     */
+    void flush();
+
+    /**
+     * 查询用户当日配额使用情况
+     *
+     * @param userId 用户ID
+     * @return 配额信息
+     */
+    TokenQuotaDTO getQuota(String userId);
+
+    /**
+     * 查询用户最近若干天的用量（已写入汇总表的部分）
+     *
+     * @param userId 用户ID
+     * @param days   天数（含当天）
+     * @return 按日期倒序的用量列表
+     */
+    List<AiTokenUsageDaily> listDailyUsage(String userId, int days);
+}
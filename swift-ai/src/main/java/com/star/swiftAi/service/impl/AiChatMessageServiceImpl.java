@@ -1,18 +1,32 @@
 package com.star.swiftAi.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.star.swiftAi.dto.MessageDTO;
+import com.star.swiftAi.dto.MessageSearchHitDTO;
+import com.star.swiftAi.dto.MessageSearchPageDTO;
 import com.star.swiftAi.entity.AiChatMessage;
+import com.star.swiftAi.entity.AiChatSession;
 import com.star.swiftAi.mapper.postgresql.AiChatMessageMapper;
+import com.star.swiftAi.mapper.postgresql.AiChatSessionMapper;
 import com.star.swiftAi.service.AiChatMessageService;
+import com.star.swiftAi.service.MessageVectorIndexService;
+import com.star.swiftAi.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.util.HtmlUtils;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
@@ -26,29 +40,76 @@ import java.util.stream.Collectors;
 public class AiChatMessageServiceImpl extends ServiceImpl<AiChatMessageMapper, AiChatMessage> 
         implements AiChatMessageService {
 
+    private final MessageVectorIndexService messageVectorIndexService;
+    private final AiChatSessionMapper aiChatSessionMapper;
+
+    /**
+     * 检索词最大长度
+     */
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    /**
+     * 子串模式片段中命中位置前后保留的字符数
+     */
+    private static final int SNIPPET_BEFORE = 30;
+    private static final int SNIPPET_AFTER = 60;
+
+    /**
+     * 会话 updated_at 的最小刷新间隔
+     */
+    private static final Duration SESSION_TOUCH_INTERVAL = Duration.ofMinutes(1);
+
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class)
     public AiChatMessage saveMessage(String sessionId, String role, String content, Integer tokensUsed) {
         AiChatMessage message = new AiChatMessage();
         message.setSessionId(sessionId);
         message.setRole(role);
         message.setContent(content);
         message.setTokensUsed(tokensUsed);
+        // createdAt 在写入前确定（也是分区键），插入后只需回填自增ID，不再按ID回查：按ID查询无法裁剪分区，会扫描所有月份分区
+        message.setCreatedAt(LocalDateTime.now());
         
         this.save(message);
-        
-        // 重新查询以获取完整的消息信息（包括自动生成的ID和createdAt）
-        message = this.getById(message.getId());
+        touchSession(sessionId);
         
         log.info("保存消息成功: sessionId={}, role={}, messageId={}, createdAt={}", 
             sessionId, role, message.getId(), message.getCreatedAt());
+        
+        // 异步建立向量索引，供后续语义检索召回；延迟到事务提交后，避免回滚的消息被索引
+        Long messageId = message.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    messageVectorIndexService.indexMessageAsync(sessionId, messageId, content);
+                }
+            });
+        } else {
+            messageVectorIndexService.indexMessageAsync(sessionId, messageId, content);
+        }
         return message;
     }
 
+    /**
+     * 刷新会话的 updated_at，与消息写入处于同一事务
+     * 会话列表排序与过期清理都以该字段作为最近活跃时间；一分钟内已刷新过的会话不再更新，
+     * 同一会话连续写入消息时不必每条都更新会话行
+     */
+    private void touchSession(String sessionId) {
+        LocalDateTime now = LocalDateTime.now();
+        LambdaUpdateWrapper<AiChatSession> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.set(AiChatSession::getUpdatedAt, now);
+        wrapper.eq(AiChatSession::getSessionId, sessionId);
+        wrapper.lt(AiChatSession::getUpdatedAt, now.minus(SESSION_TOUCH_INTERVAL));
+        aiChatSessionMapper.update(null, wrapper);
+    }
+
     @Override
     public List<MessageDTO> getMessagesBySessionId(String sessionId) {
         LambdaQueryWrapper<AiChatMessage> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(AiChatMessage::getSessionId, sessionId);
+        routeToSessionPartitions(wrapper, sessionId);
         wrapper.orderByAsc(AiChatMessage::getCreatedAt);
         
         List<AiChatMessage> messages = this.list(wrapper);
@@ -61,7 +122,137 @@ public class AiChatMessageServiceImpl extends ServiceImpl<AiChatMessageMapper, A
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    public MessageSearchPageDTO searchMessages(String userId, String query, String cursor, int limit) {
+        String keyword = query == null ? "" : query.trim();
+        if (keyword.isEmpty()) {
+            throw new RuntimeException("检索词不能为空");
+        }
+        if (keyword.length() > MAX_QUERY_LENGTH) {
+            throw new RuntimeException("检索词不能超过" + MAX_QUERY_LENGTH + "个字符");
+        }
+        Float cursorRank = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                cursorRank = Float.parseFloat(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+
+        // simple 配置按空白和标点分词，中日韩文本整段成为一个词，改用 pg_trgm 子串匹配
+        boolean trigram = containsCjk(keyword);
+        String likePattern = trigram ? "%" + escapeLike(keyword) + "%" : null;
+        // 多取一条判断是否还有下一页
+        List<MessageSearchHitDTO> hits = baseMapper.searchMessages(userId, keyword, likePattern, trigram, cursorRank, cursorId, limit + 1);
+        boolean hasMore = hits.size() > limit;
+        if (hasMore) {
+            hits = hits.subList(0, limit);
+        }
+        for (MessageSearchHitDTO hit : hits) {
+            hit.setSnippet(trigram ? substringSnippet(hit.getSnippet(), keyword) : escapeHeadline(hit.getSnippet()));
+        }
+
+        MessageSearchPageDTO page = new MessageSearchPageDTO();
+        page.setHits(hits);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            MessageSearchHitDTO last = hits.get(hits.size() - 1);
+            page.setNextCursor(CursorCodec.encode(last.getRank(), last.getMessageId()));
+        }
+        return page;
+    }
+
+    private static boolean containsCjk(String text) {
+        return text.codePoints().anyMatch(codePoint -> {
+            Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+            return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+        });
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * ts_headline 不转义原文，先整体转义再还原高亮标签
+     */
+    private static String escapeHeadline(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline).replace("&lt;mark&gt;", "<mark>").replace("&lt;/mark&gt;", "</mark>");
+    }
+
+    /**
+     * 截取子串命中位置附近的片段并高亮
+     */
+    private static String substringSnippet(String content, String keyword) {
+        if (content == null) {
+            return null;
+        }
+        int index = content.toLowerCase(Locale.ROOT).indexOf(keyword.toLowerCase(Locale.ROOT));
+        if (index < 0 || index + keyword.length() > content.length()) {
+            return HtmlUtils.htmlEscape(content.substring(0, Math.min(content.length(), SNIPPET_BEFORE + SNIPPET_AFTER)));
+        }
+        int start = Math.max(0, index - SNIPPET_BEFORE);
+        int end = Math.min(content.length(), index + keyword.length() + SNIPPET_AFTER);
+        return (start > 0 ? "…" : "")
+                + HtmlUtils.htmlEscape(content.substring(start, index))
+                + "<mark>" + HtmlUtils.htmlEscape(content.substring(index, index + keyword.length())) + "</mark>"
+                + HtmlUtils.htmlEscape(content.substring(index + keyword.length(), end))
+                + (end < content.length() ? "…" : "");
+    }
+
+    @Override
+    public List<MessageDTO> getMessagesPage(String sessionId, Long beforeId, Long afterId, int limit) {
+        // 依赖 (session_id, id) 索引，每页只扫描 limit 行，与会话长度无关
+        LambdaQueryWrapper<AiChatMessage> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(AiChatMessage::getSessionId, sessionId);
+        routeToSessionPartitions(wrapper, sessionId);
+        if (afterId != null) {
+            wrapper.gt(AiChatMessage::getId, afterId);
+            wrapper.orderByAsc(AiChatMessage::getId);
+        } else {
+            if (beforeId != null) {
+                wrapper.lt(AiChatMessage::getId, beforeId);
+            }
+            wrapper.orderByDesc(AiChatMessage::getId);
+        }
+        wrapper.last("LIMIT " + limit);
+        
+        List<MessageDTO> messages = this.list(wrapper).stream().map(message -> {
+            MessageDTO dto = new MessageDTO();
+            BeanUtils.copyProperties(message, dto);
+            return dto;
+        }).collect(Collectors.toList());
+        
+        // 向更新方向翻页时按升序查询，统一返回降序
+        if (afterId != null) {
+            Collections.reverse(messages);
+        }
+        return messages;
+    }
+
+    /**
+     * 为按会话查询的消息加上 created_at 下界
+     * 消息不会早于所属会话的创建月份，该条件使分区表只扫描会话创建之后的分区（取月初以容忍节点间时钟偏差）
+     */
+    private void routeToSessionPartitions(LambdaQueryWrapper<AiChatMessage> wrapper, String sessionId) {
+        LambdaQueryWrapper<AiChatSession> sessionWrapper = new LambdaQueryWrapper<>();
+        sessionWrapper.select(AiChatSession::getCreatedAt);
+        sessionWrapper.eq(AiChatSession::getSessionId, sessionId);
+        AiChatSession session = aiChatSessionMapper.selectOne(sessionWrapper);
+        if (session != null && session.getCreatedAt() != null) {
+            wrapper.ge(AiChatMessage::getCreatedAt, session.getCreatedAt().toLocalDate().withDayOfMonth(1).atStartOfDay());
+        }
+    }
+
+    @Override
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class)
     public void deleteMessagesBySessionId(String sessionId) {
         LambdaQueryWrapper<AiChatMessage> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(AiChatMessage::getSessionId, sessionId);
@@ -1,6 +1,8 @@
 package com.star.swiftAi.service.impl;
 
-import com.star.swiftAi.core.adapter.MessageChainAdapter;
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
+import com.star.swiftAi.cache.SemanticResponseCache;
+import com.star.swiftAi.cache.SessionTokenLedger;
 import com.star.swiftAi.core.adapter.ProviderAiClientAdapter;
 import com.star.swiftAi.core.factory.MessagePipelineFactory;
 import com.star.swiftAi.core.model.*;
@@ -9,33 +11,57 @@ import com.star.swiftAi.core.provider.Provider;
 import com.star.swiftAi.core.request.ChatRequest;
 import com.star.swiftAi.core.response.ChatResponse;
 import com.star.swiftAi.client.AiClient;
+import com.star.swiftAi.client.HedgingAiClient;
+import com.star.swiftAi.client.HedgingPolicy;
+import com.star.swiftAi.health.ProviderHealthStatus;
 import com.star.swiftAi.dto.ChatRequestDTO;
 import com.star.swiftAi.dto.ChatResponseDTO;
+import com.star.swiftAi.dto.CompareChatRequestDTO;
+import com.star.swiftAi.dto.CompareModelResultDTO;
+import com.star.swiftAi.dto.CompareStreamEventDTO;
 import com.star.swiftAi.dto.StreamChatResponseDTO;
 import com.star.swiftAi.dto.ImportChatRequestDTO;
 import com.star.swiftAi.dto.ChatSessionDataDTO;
+import com.star.swiftAi.dto.ChatHistoryRecordDTO;
+import com.star.swiftAi.dto.ImportProgressDTO;
 import com.star.swiftAi.dto.MessageDataDTO;
 import com.star.swiftAi.dto.MessageDTO;
 import com.star.swiftAi.service.AiChatService;
+import com.star.swiftAi.service.ChatHistoryTransferService;
 import com.star.swiftAi.service.AiChatSessionService;
 import com.star.swiftAi.service.AiChatMessageService;
-import com.star.swiftAi.service.AiModelService;
-import com.star.swiftAi.service.AiProviderService;
-import com.star.swiftAi.service.AiSystemPromptService;
+import com.star.swiftAi.service.MessageVectorIndexService;
+import com.star.swiftAi.service.ProviderHealthService;
+import com.star.swiftAi.service.TokenMeteringService;
+import com.star.swiftAi.properties.AiHedgingProperties;
+import com.star.swiftAi.properties.AiRetrievalProperties;
 import com.star.swiftAi.entity.*;
+import com.star.swiftAi.sse.CoalescingSseWriter;
+import com.star.swiftAi.sse.SseWriterFactory;
+import com.star.swiftAi.util.TokenCounter;
 import com.star.swiftAi.core.factory.ProviderFactory;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -47,54 +73,114 @@ import java.util.function.Function;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AiChatServiceImpl implements AiChatService {
 
+    /**
+     * 多模型对比的模型调用线程
+     */
+    private static final ThreadFactory COMPARE_THREAD_FACTORY = Thread.ofVirtual().name("ai-compare-", 0).factory();
+
+    /**
+     * 供应商连接预热线程
+     */
+    private static final ThreadFactory WARMUP_THREAD_FACTORY = Thread.ofVirtual().name("ai-warmup-", 0).factory();
+
     private final AiChatSessionService aiChatSessionService;
     private final AiChatMessageService aiChatMessageService;
-    private final AiModelService aiModelService;
-    private final AiProviderService aiProviderService;
-    private final AiSystemPromptService aiSystemPromptService;
     private final com.star.swiftAi.util.ApiKeyCryptoUtil apiKeyCryptoUtil;
+    private final MessageVectorIndexService messageVectorIndexService;
+    private final AiRetrievalProperties retrievalProperties;
+    private final SemanticResponseCache semanticResponseCache;
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
+    private final TransactionTemplate pgTransactionTemplate;
+    private final ChatHistoryTransferService chatHistoryTransferService;
+    private final SseWriterFactory sseWriterFactory;
+    private final TokenMeteringService tokenMeteringService;
+    private final HedgingPolicy hedgingPolicy;
+    private final ProviderHealthService providerHealthService;
+    private final SessionTokenLedger sessionTokenLedger;
 
-    @Transactional(rollbackFor = Exception.class)
+    public AiChatServiceImpl(AiChatSessionService aiChatSessionService,
+                             AiChatMessageService aiChatMessageService,
+                             com.star.swiftAi.util.ApiKeyCryptoUtil apiKeyCryptoUtil,
+                             MessageVectorIndexService messageVectorIndexService,
+                             AiRetrievalProperties retrievalProperties,
+                             SemanticResponseCache semanticResponseCache,
+                             AiConfigSnapshotHolder aiConfigSnapshotHolder,
+                             @Qualifier("pgTransactionTemplate") TransactionTemplate pgTransactionTemplate,
+                             ChatHistoryTransferService chatHistoryTransferService,
+                             SseWriterFactory sseWriterFactory,
+                             TokenMeteringService tokenMeteringService,
+                             HedgingPolicy hedgingPolicy,
+                             ProviderHealthService providerHealthService,
+                             SessionTokenLedger sessionTokenLedger) {
+        this.aiChatSessionService = aiChatSessionService;
+        this.aiChatMessageService = aiChatMessageService;
+        this.apiKeyCryptoUtil = apiKeyCryptoUtil;
+        this.messageVectorIndexService = messageVectorIndexService;
+        this.retrievalProperties = retrievalProperties;
+        this.semanticResponseCache = semanticResponseCache;
+        this.aiConfigSnapshotHolder = aiConfigSnapshotHolder;
+        this.pgTransactionTemplate = pgTransactionTemplate;
+        this.chatHistoryTransferService = chatHistoryTransferService;
+        this.sseWriterFactory = sseWriterFactory;
+        this.tokenMeteringService = tokenMeteringService;
+        this.hedgingPolicy = hedgingPolicy;
+        this.providerHealthService = providerHealthService;
+        this.sessionTokenLedger = sessionTokenLedger;
+    }
+
+    /**
+     * 非流式聊天
+     * 不在整个方法上开启事务：模型调用可能持续数十秒，期间不能占用数据库连接，
+     * 只有会话创建和消息保存两段使用各自的短事务
+     */
     public ChatResponseDTO chat(ChatRequestDTO request, String userId) {
         AiModel model = validateAndGetModel(request.getModelId());
         AiProvider provider = validateAndGetProvider(model.getProviderId());
-        AiChatSession session = getOrCreateSession(request, model, userId);
+        tokenMeteringService.checkQuota(userId, model.getId());
+        AiChatSession session = pgTransactionTemplate.execute(status -> getOrCreateSession(request, model, userId));
         
-        // 使用流水线处理消息
+        // 使用流水线处理消息（不持有数据库连接）
         ChatResponse chatResponse = processWithPipeline(session, request, model, provider);
         
         // 提取响应内容
         String content = extractContentFromResponse(chatResponse);
         int totalTokens = extractTokensFromResponse(chatResponse);
+        recordUsage(userId, model, resolveUsage(chatResponse != null ? chatResponse.getUsage() : null,
+                TokenCounter.estimateTokens(request.getMessage()), content));
         
         // 保存消息
-        saveUserMessage(session, request.getMessage(), totalTokens);
-        AiChatMessage assistantMessage = saveAssistantMessage(session, content, totalTokens);
+        AiChatMessage assistantMessage = pgTransactionTemplate.execute(status -> {
+            saveUserMessage(session, request.getMessage(), totalTokens);
+            return saveAssistantMessage(session, content, totalTokens);
+        });
         
         return buildChatResponse(session, content, totalTokens, assistantMessage);
     }
 
-    @Transactional(rollbackFor = Exception.class)
+    /**
+     * 流式聊天
+     * 会话创建和用户消息保存在同一个短事务中提交，流式调用期间不持有数据库连接
+     */
     public void streamChat(ChatRequestDTO request, String userId, java.util.function.BiConsumer<String, LLMResponse> consumer) throws Exception {
         AiModel model = validateAndGetModel(request.getModelId());
         AiProvider provider = validateAndGetProvider(model.getProviderId());
-        AiChatSession session = getOrCreateSession(request, model, userId);
-        
-        // 保存用户消息
-        aiChatMessageService.saveMessage(session.getSessionId(), "user", request.getMessage(), 0);
+        AiChatSession session = pgTransactionTemplate.execute(status -> {
+            AiChatSession created = getOrCreateSession(request, model, userId);
+            // 保存用户消息
+            aiChatMessageService.saveMessage(created.getSessionId(), "user", request.getMessage(), 0);
+            return created;
+        });
 
         String sessionId = session.getSessionId();
         log.info("流式调用AI: sessionId={}, model={}", sessionId, model.getModelCode());
         
-        // 构建MessageChain
-        MessageChain messageChain = buildMessageChain(session.getSessionId(), request.getSystemPromptId());
-        messageChain.addUser(request.getMessage());
+        // 构建MessageChain（本轮用户消息已保存，包含在历史中）
+        MessageChain messageChain = buildMessageChainWithSavedTurn(session.getSessionId(), request.getSystemPromptId(), request.getMessage());
         
         // 使用辅助方法执行流式调用
-        executeStreamChat(model, provider, messageChain, response -> {
+        executeStreamChat(userId, model, provider, messageChain, null, response -> {
             LLMResponse llmResponse = convertToLLMResponse(response);
             consumer.accept(sessionId, llmResponse);
         });
@@ -106,15 +192,33 @@ public class AiChatServiceImpl implements AiChatService {
 
         log.info("匿名流式调用AI: model={}", model.getModelCode());
         
+        // 语义缓存命中时直接返回缓存的回答
+        SemanticResponseCache.Lookup cacheLookup = semanticResponseCache.lookup(model.getModelCode(), request.getMessage());
+        if (cacheLookup != null && cacheLookup.isHit()) {
+            consumer.accept(buildCachedStreamResponse(cacheLookup));
+            return;
+        }
+        
         // 构建MessageChain
         MessageChain messageChain = new MessageChain();
         messageChain.addUser(request.getMessage());
         
         // 使用辅助方法执行流式调用
-        executeStreamChat(model, provider, messageChain, response -> {
+        StringBuilder fullContent = new StringBuilder();
+        AtomicInteger outputTokens = new AtomicInteger(0);
+        AtomicBoolean streamFinished = new AtomicBoolean(false);
+        executeStreamChat(null, model, provider, messageChain, null, response -> {
             LLMResponse llmResponse = convertToLLMResponse(response);
+            collectStreamContent(llmResponse, fullContent, outputTokens);
+            if (llmResponse.isFinished()) {
+                streamFinished.set(true);
+            }
             consumer.accept(llmResponse);
         });
+        // 只缓存完整结束的回答
+        if (streamFinished.get()) {
+            semanticResponseCache.store(cacheLookup, fullContent.toString(), outputTokens.get());
+        }
     }
 
     public void streamChatWithoutDb(ChatRequestDTO request, String userId, String sessionId, Consumer<LLMResponse> consumer) throws Exception {
@@ -123,38 +227,49 @@ public class AiChatServiceImpl implements AiChatService {
 
         log.info("流式调用AI（无DB）: sessionId={}, model={}", sessionId, model.getModelCode());
         
-        // 构建消息链
-        MessageChain messageChain = buildMessageChain(sessionId, request.getSystemPromptId());
-        messageChain.addUser(request.getMessage());
+        // 构建消息链（本轮用户消息已由调用方保存，包含在历史中）
+        MessageChain messageChain = buildMessageChainWithSavedTurn(sessionId, request.getSystemPromptId(), request.getMessage());
         
         // 使用辅助方法执行流式调用
-        executeStreamChat(model, provider, messageChain, response -> {
+        executeStreamChat(userId, model, provider, messageChain, null, response -> {
             LLMResponse llmResponse = convertToLLMResponse(response);
             consumer.accept(llmResponse);
         });
     }
 
-    public void streamChatWithEmitter(ChatRequestDTO request, String userId, String sessionId, 
+    public boolean streamChatWithEmitter(ChatRequestDTO request, String userId, String sessionId, 
                                       SseEmitter emitter,
                                       AtomicReference<StringBuilder> fullContentRef,
                                       AtomicInteger totalOutputTokens,
                                       AtomicBoolean completed,
-                                      Function<LLMResponse, StreamChatResponseDTO> converter) {
+                                      Function<LLMResponse, StreamChatResponseDTO> converter,
+                                      StreamHandle streamHandle) {
         try {
             AiModel model = validateAndGetModel(request.getModelId());
             AiProvider provider = validateAndGetProvider(model.getProviderId());
 
             log.info("流式调用AI（SSE）: sessionId={}, model={}", sessionId, model.getModelCode());
             
-            // 构建消息链
-            MessageChain messageChain = buildMessageChain(sessionId, request.getSystemPromptId());
-            messageChain.addUser(request.getMessage());
+            // 构建消息链（本轮用户消息已由调用方保存，包含在历史中）
+            MessageChain messageChain = buildMessageChainWithSavedTurn(sessionId, request.getSystemPromptId(), request.getMessage());
             
             // 使用辅助方法执行流式调用
-            executeStreamChat(model, provider, messageChain, response -> {
+            CoalescingSseWriter writer = createSseWriter(emitter, SseWriterFactory.ENDPOINT_CHAT, streamHandle, completed);
+            AtomicBoolean streamFinished = new AtomicBoolean(false);
+            executeStreamChat(userId, model, provider, messageChain, streamHandle, response -> {
                 LLMResponse llmResponse = convertToLLMResponse(response);
-                handleStreamResponse(llmResponse, sessionId, emitter, fullContentRef, totalOutputTokens, completed, converter, true);
+                // 结束分块到达时客户端仍在连接，才算完整结束
+                if (llmResponse.isFinished() && !completed.get()) {
+                    streamFinished.set(true);
+                }
+                handleStreamResponse(llmResponse, sessionId, emitter, writer, fullContentRef, totalOutputTokens, completed, converter, true);
             });
+            if (streamHandle != null && streamHandle.isCancelled()) {
+                // 主动停止生成：以结束事件收尾并保存已生成的部分内容
+                handleStreamResponse(stoppedResponse(), sessionId, emitter, writer, fullContentRef, totalOutputTokens, completed, converter, true);
+            }
+            flushSseWriter(writer, emitter, completed);
+            return streamFinished.get();
             
         } catch (Exception e) {
             log.error("流式调用AI失败（SSE）: sessionId={}, error={}", sessionId, e.getMessage(), e);
@@ -168,22 +283,45 @@ public class AiChatServiceImpl implements AiChatService {
     public void anonymousStreamChatWithEmitter(ChatRequestDTO request, 
                                                SseEmitter emitter,
                                                AtomicBoolean completed,
-                                               Function<LLMResponse, StreamChatResponseDTO> converter) {
+                                               Function<LLMResponse, StreamChatResponseDTO> converter,
+                                               StreamHandle streamHandle) {
         try {
             AiModel model = validateAndGetModel(request.getModelId());
             AiProvider provider = validateAndGetProvider(model.getProviderId());
 
             log.info("匿名流式调用AI（SSE）: model={}", model.getModelCode());
             
+            // 语义缓存命中时直接以单个事件返回缓存的回答
+            SemanticResponseCache.Lookup cacheLookup = semanticResponseCache.lookup(model.getModelCode(), request.getMessage());
+            CoalescingSseWriter writer = createSseWriter(emitter, SseWriterFactory.ENDPOINT_ANONYMOUS, streamHandle, completed);
+            if (cacheLookup != null && cacheLookup.isHit()) {
+                handleStreamResponse(buildCachedStreamResponse(cacheLookup), null, emitter, writer, null, null, completed, converter, false);
+                return;
+            }
+            
             // 构建消息链
             MessageChain messageChain = new MessageChain();
             messageChain.addUser(request.getMessage());
             
             // 使用辅助方法执行流式调用
-            executeStreamChat(model, provider, messageChain, response -> {
+            AtomicReference<StringBuilder> fullContentRef = new AtomicReference<>(new StringBuilder());
+            AtomicInteger outputTokens = new AtomicInteger(0);
+            AtomicBoolean streamFinished = new AtomicBoolean(false);
+            executeStreamChat(null, model, provider, messageChain, streamHandle, response -> {
                 LLMResponse llmResponse = convertToLLMResponse(response);
-                handleStreamResponse(llmResponse, null, emitter, null, null, completed, converter, false);
+                if (llmResponse.isFinished()) {
+                    streamFinished.set(true);
+                }
+                handleStreamResponse(llmResponse, null, emitter, writer, fullContentRef, outputTokens, completed, converter, false);
             });
+            if (streamHandle != null && streamHandle.isCancelled()) {
+                handleStreamResponse(stoppedResponse(), null, emitter, writer, fullContentRef, outputTokens, completed, converter, false);
+            }
+            flushSseWriter(writer, emitter, completed);
+            // 只缓存完整结束的回答
+            if (streamFinished.get()) {
+                semanticResponseCache.store(cacheLookup, fullContentRef.get().toString(), outputTokens.get());
+            }
             
         } catch (Exception e) {
             log.error("匿名流式调用AI失败（SSE）: error={}", e.getMessage(), e);
@@ -194,21 +332,80 @@ public class AiChatServiceImpl implements AiChatService {
         }
     }
 
-    @Transactional(rollbackFor = Exception.class)
+    public List<CompareModelResultDTO> compareStreamChat(CompareChatRequestDTO request, String userId,
+                                                         Map<Long, StreamHandle> streamHandles,
+                                                         Consumer<CompareStreamEventDTO> sink) {
+        log.info("多模型对比流式调用: userId={}, models={}", userId, streamHandles.keySet());
+        List<Future<CompareModelResultDTO>> futures = new ArrayList<>();
+        // 每个模型一个虚拟线程，总耗时取决于最慢的模型；close 会等待全部结束
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(COMPARE_THREAD_FACTORY)) {
+            streamHandles.forEach((modelId, streamHandle) ->
+                    futures.add(executor.submit(() -> compareModel(request, userId, modelId, streamHandle, sink))));
+        }
+        return futures.stream().map(Future::resultNow).toList();
+    }
+
+    /**
+     * 对比中的单个模型：失败只影响该模型，结束时输出 done 事件
+     */
+    private CompareModelResultDTO compareModel(CompareChatRequestDTO request, String userId, Long modelId,
+                                               StreamHandle streamHandle, Consumer<CompareStreamEventDTO> sink) {
+        CompareModelResultDTO result = new CompareModelResultDTO();
+        result.setModelId(modelId);
+        result.setGenerationId(streamHandle.getGenerationId());
+        long start = System.nanoTime();
+        AtomicLong firstTokenNanos = new AtomicLong();
+        try {
+            AiModel model = validateAndGetModel(modelId);
+            result.setModelCode(model.getModelCode());
+            AiProvider provider = validateAndGetProvider(model.getProviderId());
+
+            MessageChain messageChain = new MessageChain();
+            messageChain.addUser(request.getMessage());
+
+            TokenUsage usage = executeStreamChat(userId, model, provider, messageChain, streamHandle, response -> {
+                String delta = extractDeltaFromResponse(response);
+                if (delta != null && !delta.isEmpty()) {
+                    firstTokenNanos.compareAndSet(0, System.nanoTime());
+                    sink.accept(CompareStreamEventDTO.delta(modelId, delta));
+                }
+            });
+            result.setPromptTokens((long) usage.getInputOther());
+            result.setCompletionTokens((long) usage.getOutput());
+            result.setStatus(streamHandle.isCancelled() ? CompareModelResultDTO.STATUS_STOPPED : CompareModelResultDTO.STATUS_COMPLETED);
+        } catch (Exception e) {
+            if (streamHandle.isCancelled()) {
+                result.setStatus(CompareModelResultDTO.STATUS_STOPPED);
+            } else {
+                log.warn("多模型对比中模型调用失败: modelId={}, error={}", modelId, e.getMessage());
+                result.setStatus(CompareModelResultDTO.STATUS_FAILED);
+                result.setError(e.getMessage());
+            }
+        }
+        long firstToken = firstTokenNanos.get();
+        if (firstToken != 0) {
+            result.setTtftMillis((firstToken - start) / 1_000_000);
+        }
+        result.setLatencyMillis((System.nanoTime() - start) / 1_000_000);
+        sink.accept(CompareStreamEventDTO.done(result));
+        return result;
+    }
+
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class)
     public void saveAssistantMessage(String sessionId, String content, int tokensUsed) {
         aiChatMessageService.saveMessage(sessionId, "assistant", content, tokensUsed);
         log.info("保存AI助手消息: sessionId={}, contentLength={}, tokens={}", 
             sessionId, content != null ? content.length() : 0, tokensUsed);
     }
 
-    @Transactional(rollbackFor = Exception.class, propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class, propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
     public void saveAssistantMessageWithoutSecurity(String sessionId, String content, int tokensUsed) {
         aiChatMessageService.saveMessage(sessionId, "assistant", content, tokensUsed);
         log.info("保存AI助手消息（无安全上下文）: sessionId={}, contentLength={}, tokens={}", 
             sessionId, content != null ? content.length() : 0, tokensUsed);
     }
 
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class)
     public String prepareSessionAndSaveUserMessage(ChatRequestDTO request, String userId) {
         AiModel model = validateAndGetModel(request.getModelId());
         AiChatSession session = getOrCreateSession(request, model, userId);
@@ -223,6 +420,19 @@ public class AiChatServiceImpl implements AiChatService {
         AiModel model = validateAndGetModel(request.getModelId());
         AiProvider provider = validateAndGetProvider(model.getProviderId());
         
+        // 语义缓存命中时跳过模型调用
+        SemanticResponseCache.Lookup cacheLookup = semanticResponseCache.lookup(model.getModelCode(), request.getMessage());
+        if (cacheLookup != null && cacheLookup.isHit()) {
+            ChatResponseDTO cached = new ChatResponseDTO();
+            cached.setRole("assistant");
+            cached.setContent(cacheLookup.getContent());
+            cached.setTokensUsed(cacheLookup.getTokensUsed());
+            log.info("匿名聊天命中语义缓存: modelId={}, score={}", model.getId(), cacheLookup.getScore());
+            return cached;
+        }
+        
+        tokenMeteringService.checkQuota(null, model.getId());
+        
         // 构建消息链
         MessageChain messageChain = new MessageChain();
         messageChain.addUser(request.getMessage());
@@ -252,6 +462,7 @@ public class AiChatServiceImpl implements AiChatService {
         Message responseMessage = result.getMessageChain().getLastAssistantMessage();
         String content = responseMessage != null ? responseMessage.getContent().toString() : "";
         int tokens = result.getMessageChain().getTotalTokens();
+        recordUsage(null, model, resolveUsage(null, TokenCounter.estimateTokens(request.getMessage()), content));
         
         ChatResponseDTO response = new ChatResponseDTO();
         response.setSessionId(null);
@@ -259,46 +470,39 @@ public class AiChatServiceImpl implements AiChatService {
         response.setContent(content);
         response.setTokensUsed(tokens);
         
+        semanticResponseCache.store(cacheLookup, content, tokens);
+        
         log.info("匿名聊天成功: modelId={}, tokens={}", model.getId(), tokens);
         return response;
     }
 
-    @Transactional(rollbackFor = Exception.class)
+    /**
+     * 导入聊天记录
+     * 转换为记录行后走批量导入流程，分批提交，不再逐条保存
+     */
     public int importChatHistory(String userId, ImportChatRequestDTO request) {
-        int importedCount = 0;
-        
+        List<ChatHistoryRecordDTO> records = new ArrayList<>();
         for (ChatSessionDataDTO sessionData : request.getSessions()) {
-            try {
-                if (aiChatSessionService.getBySessionId(sessionData.getSessionId()) != null) {
-                    log.warn("会话已存在，跳过导入: sessionId={}", sessionData.getSessionId());
-                    continue;
-                }
-                
-                AiChatSession session = new AiChatSession();
-                session.setSessionId(sessionData.getSessionId());
-                session.setUserId(userId);
-                session.setModelId(sessionData.getModelId());
-                session.setTitle(sessionData.getTitle());
-                aiChatSessionService.save(session);
-                
-                for (MessageDataDTO messageData : sessionData.getMessages()) {
-                    aiChatMessageService.saveMessage(
-                        sessionData.getSessionId(),
-                        messageData.getRole(),
-                        messageData.getContent(),
-                        0
-                    );
-                }
-                
-                importedCount++;
-                log.info("成功导入会话: sessionId={}, messageCount={}", 
-                    sessionData.getSessionId(), sessionData.getMessages().size());
-                
-            } catch (Exception e) {
-                log.error("导入会话失败: sessionId={}, error={}", sessionData.getSessionId(), e.getMessage(), e);
+            ChatHistoryRecordDTO session = new ChatHistoryRecordDTO();
+            session.setType(ChatHistoryRecordDTO.TYPE_SESSION);
+            session.setSessionId(sessionData.getSessionId());
+            session.setModelId(sessionData.getModelId());
+            session.setTitle(sessionData.getTitle());
+            records.add(session);
+            
+            for (MessageDataDTO messageData : sessionData.getMessages()) {
+                ChatHistoryRecordDTO message = new ChatHistoryRecordDTO();
+                message.setType(ChatHistoryRecordDTO.TYPE_MESSAGE);
+                message.setSessionId(sessionData.getSessionId());
+                message.setRole(messageData.getRole());
+                message.setContent(messageData.getContent());
+                records.add(message);
             }
         }
         
+        ImportProgressDTO progress = chatHistoryTransferService.importRecords(userId, records.iterator(), null);
+        int importedCount = (int) progress.getImportedSessions();
+        
         log.info("导入聊天记录完成: userId={}, importedCount={}", userId, importedCount);
         return importedCount;
     }
@@ -306,7 +510,7 @@ public class AiChatServiceImpl implements AiChatService {
     // ==================== 私有辅助方法 ====================
 
     private AiModel validateAndGetModel(Long modelId) {
-        AiModel model = aiModelService.getById(modelId);
+        AiModel model = aiConfigSnapshotHolder.current().getModel(modelId);
         if (model == null) {
             throw new RuntimeException("模型不存在");
         }
@@ -317,7 +521,7 @@ public class AiChatServiceImpl implements AiChatService {
     }
 
     private AiProvider validateAndGetProvider(Long providerId) {
-        AiProvider provider = aiProviderService.getById(providerId);
+        AiProvider provider = aiConfigSnapshotHolder.current().getProvider(providerId);
         if (provider == null) {
             throw new RuntimeException("供应商不存在");
         }
@@ -372,7 +576,7 @@ public class AiChatServiceImpl implements AiChatService {
             return null;
         }
         
-        AiSystemPrompt prompt = aiSystemPromptService.getById(systemPromptId);
+        AiSystemPrompt prompt = aiConfigSnapshotHolder.current().getSystemPrompt(systemPromptId);
         if (prompt == null) {
             throw new RuntimeException("系统提示词不存在");
         }
@@ -383,29 +587,6 @@ public class AiChatServiceImpl implements AiChatService {
         return prompt.getPromptContent();
     }
 
-    private List<Map<String, Object>> buildContexts(String sessionId, Long systemPromptId) {
-        List<MessageDTO> historyMessages = aiChatMessageService.getMessagesBySessionId(sessionId);
-        String systemPrompt = getSystemPrompt(systemPromptId);
-        
-        List<Map<String, Object>> contexts = new ArrayList<>();
-        
-        if (systemPrompt != null && !systemPrompt.isEmpty()) {
-            Map<String, Object> systemContext = new HashMap<>();
-            systemContext.put("role", "system");
-            systemContext.put("content", systemPrompt);
-            contexts.add(systemContext);
-        }
-        
-        for (MessageDTO message : historyMessages) {
-            Map<String, Object> context = new HashMap<>();
-            context.put("role", message.getRole());
-            context.put("content", message.getContent());
-            contexts.add(context);
-        }
-        
-        return contexts;
-    }
-
     private ChatResponseDTO buildChatResponse(AiChatSession session, String content, int tokens, AiChatMessage assistantMessage) {
         ChatResponseDTO response = new ChatResponseDTO();
         response.setSessionId(session.getSessionId());
@@ -421,6 +602,38 @@ public class AiChatServiceImpl implements AiChatService {
         return response;
     }
 
+    public int warmUpProviderConnections(Duration timeout) {
+        List<Callable<Boolean>> tasks = aiConfigSnapshotHolder.current().getProviders().values().stream()
+                .filter(provider -> Boolean.TRUE.equals(provider.getEnabled()))
+                .<Callable<Boolean>>map(provider -> () -> warmUpProviderConnection(provider))
+                .toList();
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        // 不使用 try-with-resources：close() 会等待超时后仍在进行的请求
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(WARMUP_THREAD_FACTORY);
+        try {
+            return (int) executor.invokeAll(tasks, timeout.toMillis(), TimeUnit.MILLISECONDS).stream()
+                    .filter(future -> future.state() == Future.State.SUCCESS && future.resultNow())
+                    .count();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean warmUpProviderConnection(AiProvider provider) {
+        try {
+            createProvider(provider).getModels();
+            return true;
+        } catch (Exception e) {
+            log.warn("预热供应商连接失败: providerId={}, error={}", provider.getId(), e.getMessage());
+            return false;
+        }
+    }
+
     private Provider createProvider(AiProvider provider) throws Exception {
         String decryptedApiKey = apiKeyCryptoUtil.decryptApiKeyString(provider.getApiKey());
         
@@ -440,25 +653,109 @@ public class AiChatServiceImpl implements AiChatService {
         return new ProviderAiClientAdapter(aiProvider, provider.getBaseUrl(), modelCode);
     }
 
+    /**
+     * 创建流式调用客户端
+     * 模型开启对冲且备用提供商可用时包装为对冲客户端；结合健康探测结果：
+     * 主提供商 DOWN 时直接改用备用提供商，DEGRADED 时以最小延迟尽早对冲，备用提供商 DOWN 时不再对冲
+     */
+    private AiClient createStreamClient(AiModel model, AiProvider provider) throws Exception {
+        ProviderHealthStatus primaryStatus = providerHealthService.getStatus(provider.getId());
+        AiClient primary = createAiClientAdapter(provider, model.getModelCode());
+        if (!hedgingPolicy.isHedged(model.getId())) {
+            if (primaryStatus == ProviderHealthStatus.DOWN) {
+                log.warn("供应商健康探测为DOWN且没有备用提供商，仍按原供应商请求: modelId={}, providerId={}", model.getId(), provider.getId());
+            }
+            return primary;
+        }
+        AiHedgingProperties.Target target = hedgingPolicy.target(model.getId());
+        AiProvider secondaryProvider = target.getProviderId() != null
+                ? aiConfigSnapshotHolder.current().getProvider(target.getProviderId()) : null;
+        if (secondaryProvider == null || !Boolean.TRUE.equals(secondaryProvider.getEnabled())) {
+            log.warn("对冲备用提供商不存在或未启用，按普通请求处理: modelId={}, providerId={}", model.getId(), target.getProviderId());
+            return primary;
+        }
+        if (!providerHealthService.isAvailable(secondaryProvider.getId())) {
+            log.debug("对冲备用提供商健康探测为DOWN，本次不对冲: modelId={}, providerId={}", model.getId(), secondaryProvider.getId());
+            return primary;
+        }
+        String secondaryModel = target.getModelCode() != null && !target.getModelCode().isBlank()
+                ? target.getModelCode() : model.getModelCode();
+        AiClient secondary = createAiClientAdapter(secondaryProvider, secondaryModel);
+        if (primaryStatus == ProviderHealthStatus.DOWN) {
+            log.info("主供应商健康探测为DOWN，改用备用提供商: modelId={}, providerId={}", model.getId(), secondaryProvider.getId());
+            return secondary;
+        }
+        return new HedgingAiClient(primary, secondary, secondaryModel, model.getId(), model.getModelCode(), hedgingPolicy,
+                primaryStatus == ProviderHealthStatus.DEGRADED);
+    }
+
     /**
      * 构建流式ChatRequest
      */
-    private ChatRequest buildStreamChatRequest(String modelCode, List<Message> messages) {
+    private ChatRequest buildStreamChatRequest(String modelCode, List<Message> messages, StreamHandle streamHandle) {
         return ChatRequest.builder()
                 .model(modelCode)
                 .messages(messages)
                 .stream(true)
+                .streamHandle(streamHandle)
                 .build();
     }
 
     /**
      * 执行流式调用
+     *
+     * @return 本次调用计入的用量（inputOther 为输入token，output 为输出token）
      */
-    private void executeStreamChat(AiModel model, AiProvider provider, MessageChain messageChain, 
-                                   Consumer<ChatResponse> responseHandler) throws Exception {
-        AiClient adapter = createAiClientAdapter(provider, model.getModelCode());
-        ChatRequest chatRequest = buildStreamChatRequest(model.getModelCode(), messageChain.getMessages());
-        adapter.streamChat(chatRequest, responseHandler);
+    private TokenUsage executeStreamChat(String userId, AiModel model, AiProvider provider, MessageChain messageChain, StreamHandle streamHandle,
+                                         Consumer<ChatResponse> responseHandler) throws Exception {
+        tokenMeteringService.checkQuota(userId, model.getId());
+        AiClient adapter = createStreamClient(model, provider);
+        // 改用备用提供商时模型编码可能不同
+        ChatRequest chatRequest = buildStreamChatRequest(adapter.getConfig().getModel(), messageChain.getMessages(), streamHandle);
+        
+        // 累积输出用于计量，被取消或失败的调用同样按已生成的部分计量
+        StringBuilder output = new StringBuilder();
+        AtomicReference<ChatResponse.Usage> usage = new AtomicReference<>();
+        TokenUsage resolved;
+        try {
+            adapter.streamChat(chatRequest, response -> {
+                String delta = extractDeltaFromResponse(response);
+                if (delta != null) {
+                    output.append(delta);
+                }
+                if (response.getUsage() != null) {
+                    usage.set(response.getUsage());
+                }
+                responseHandler.accept(response);
+            });
+        } finally {
+            resolved = resolveUsage(usage.get(), messageChain.getTotalTokens(), output.toString());
+            recordUsage(userId, model, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * 记录用量
+     */
+    private void recordUsage(String userId, AiModel model, TokenUsage resolved) {
+        try {
+            tokenMeteringService.record(userId, model.getId(), resolved.getInputOther(), resolved.getOutput());
+        } catch (Exception e) {
+            log.warn("记录Token用量失败: modelId={}, error={}", model.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 确定用量：优先使用模型返回的 usage，缺失时按文本估算
+     */
+    private TokenUsage resolveUsage(ChatResponse.Usage usage, int estimatedPromptTokens, String completion) {
+        TokenUsage resolved = new TokenUsage();
+        resolved.setInputOther(usage != null && usage.getPromptTokens() != null && usage.getPromptTokens() > 0
+                ? usage.getPromptTokens() : estimatedPromptTokens);
+        resolved.setOutput(usage != null && usage.getCompletionTokens() != null && usage.getCompletionTokens() > 0
+                ? usage.getCompletionTokens() : TokenCounter.estimateTokens(completion));
+        return resolved;
     }
 
     /**
@@ -487,9 +784,11 @@ public class AiChatServiceImpl implements AiChatService {
                     .conversationId(session.getSessionId())
                     .build();
             
-            // 使用流水线处理
-            com.star.swiftAi.core.pipeline.MessagePipeline pipeline = 
-                MessagePipelineFactory.createStandardPipeline(adapter);
+            // 使用流水线处理（启用语义检索时，在截断后召回相关历史消息）
+            com.star.swiftAi.core.pipeline.MessagePipeline pipeline = messageVectorIndexService.isEnabled()
+                ? MessagePipelineFactory.createRetrievalPipeline(adapter, MessagePipelineFactory.DEFAULT_MAX_TOKENS,
+                    messageVectorIndexService, retrievalProperties.getTopK())
+                : MessagePipelineFactory.createStandardPipeline(adapter);
             
             ProcessingContext result = pipeline.process(context);
             
@@ -504,13 +803,53 @@ public class AiChatServiceImpl implements AiChatService {
 
     /**
      * 构建MessageChain
+     * 直接由系统提示词和历史消息行构建，不经过中间的 Map 格式；历史消息的 token 数从会话账本获取，只计算新增的消息
      */
     private MessageChain buildMessageChain(String sessionId, Long systemPromptId) {
-        // 获取历史消息
-        List<Map<String, Object>> contexts = buildContexts(sessionId, systemPromptId);
+        List<MessageDTO> historyMessages = aiChatMessageService.getMessagesBySessionId(sessionId);
+        String systemPrompt = getSystemPrompt(systemPromptId);
         
-        // 转换为MessageChain
-        return MessageChainAdapter.fromContexts(contexts);
+        // 预留系统提示词和本轮用户消息的位置
+        MessageChain messageChain = new MessageChain(historyMessages.size() + 2);
+        if (systemPrompt != null && !systemPrompt.isEmpty()) {
+            messageChain.addSystem(systemPrompt);
+        }
+        int[] historyTokens = sessionTokenLedger.countHistory(sessionId, historyMessages);
+        for (int i = 0; i < historyMessages.size(); i++) {
+            MessageDTO message = historyMessages.get(i);
+            if (message.getRole() != null && message.getContent() != null) {
+                Message historyMessage = Message.of(message.getRole(), message.getContent());
+                historyMessage.setTokens(historyTokens[i]);
+                messageChain.addMessage(historyMessage);
+            }
+        }
+        return messageChain;
+    }
+
+    /**
+     * 为本轮用户消息已先行保存的调用构建MessageChain
+     * 历史的最后一条即为本轮消息时不再追加，避免同一轮在提示词中出现两次并被重复计费；
+     * 启用语义检索时与非流式聊天一致：截断后召回相关历史消息
+     */
+    private MessageChain buildMessageChainWithSavedTurn(String sessionId, Long systemPromptId, String userMessage) {
+        MessageChain messageChain = buildMessageChain(sessionId, systemPromptId);
+        Message last = messageChain.getLastMessage();
+        if (last == null || !"user".equals(last.getRole()) || !Objects.equals(last.getContent(), userMessage)) {
+            messageChain.addUser(userMessage);
+        }
+        if (messageVectorIndexService.isEnabled()) {
+            ProcessingContext context = ProcessingContext.builder()
+                    .messageChain(messageChain)
+                    .conversationId(sessionId)
+                    .build();
+            try {
+                MessagePipelineFactory.createContextPipeline(MessagePipelineFactory.DEFAULT_MAX_TOKENS,
+                        messageVectorIndexService, retrievalProperties.getTopK()).process(context);
+            } catch (Exception e) {
+                log.warn("整理消息链失败: sessionId={}, error={}", sessionId, e.getMessage());
+            }
+        }
+        return messageChain;
     }
 
     /**
@@ -604,7 +943,77 @@ public class AiChatServiceImpl implements AiChatService {
         return llmResponse;
     }
 
+    /**
+     * 将语义缓存中的回答构造为一次完整的流式响应
+     */
+    private LLMResponse buildCachedStreamResponse(SemanticResponseCache.Lookup cacheLookup) {
+        LLMResponse cached = new LLMResponse();
+        cached.setId("cache-" + System.currentTimeMillis());
+        cached.setRole("assistant");
+        cached.setDelta(cacheLookup.getContent());
+        cached.setFinished(true);
+        TokenUsage usage = new TokenUsage();
+        usage.setOutput(cacheLookup.getTokensUsed());
+        cached.setUsage(usage);
+        return cached;
+    }
+
+    /**
+     * 累积流式响应内容和输出token数
+     */
+    private void collectStreamContent(LLMResponse response, StringBuilder fullContent, AtomicInteger outputTokens) {
+        if (response.getDelta() != null) {
+            fullContent.append(response.getDelta());
+        } else if (response.getContent() != null) {
+            fullContent.append(response.getContent());
+        }
+        if (response.getUsage() != null && response.getUsage().getOutput() > 0) {
+            outputTokens.set(response.getUsage().getOutput());
+        }
+    }
+
+    /**
+     * 生成被停止时发送给客户端的结束响应
+     */
+    private LLMResponse stoppedResponse() {
+        LLMResponse response = new LLMResponse();
+        response.setFinished(true);
+        return response;
+    }
+
+    /**
+     * 创建合并写出的 SSE 写入器，定时发送失败时结束发射器
+     */
+    private CoalescingSseWriter createSseWriter(SseEmitter emitter, String endpoint, StreamHandle streamHandle, AtomicBoolean completed) {
+        String generationId = streamHandle != null ? streamHandle.getGenerationId() : null;
+        return sseWriterFactory.create(emitter, endpoint, generationId, e -> {
+            log.warn("定时发送SSE事件失败: {}", e.getMessage());
+            if (completed.compareAndSet(false, true)) {
+                emitter.completeWithError(e);
+            }
+        });
+    }
+
+    /**
+     * 模型流结束后发送仍在缓冲中的增量（未收到结束分块的情况）
+     */
+    private void flushSseWriter(CoalescingSseWriter writer, SseEmitter emitter, AtomicBoolean completed) {
+        if (completed.get()) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (Exception e) {
+            log.warn("发送剩余SSE事件失败: {}", e.getMessage());
+            writer.close();
+            if (completed.compareAndSet(false, true)) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
     private void handleStreamResponse(LLMResponse response, String sessionId, SseEmitter emitter,
+                                      CoalescingSseWriter writer,
                                       AtomicReference<StringBuilder> fullContentRef,
                                       AtomicInteger totalOutputTokens,
                                       AtomicBoolean completed,
@@ -639,9 +1048,8 @@ public class AiChatServiceImpl implements AiChatService {
                 log.trace("发送流式数据: sessionId={}, content={}", sessionId, streamResponse.getDelta());
             }
             
-            emitter.send(SseEmitter.event()
-                .data(streamResponse)
-                .id(String.valueOf(System.currentTimeMillis())));
+            // 增量由写入器按合并窗口缓冲后发送，结束分块会先发送缓冲内容再单独发送
+            writer.write(streamResponse);
             
             if (streamResponse.isFinished() && completed.compareAndSet(false, true)) {
                 if (saveToDb && sessionId != null) {
@@ -654,6 +1062,7 @@ public class AiChatServiceImpl implements AiChatService {
                 emitter.complete();
             }
         } catch (java.lang.IllegalStateException e) {
+            writer.close();
             if (e.getMessage() != null && e.getMessage().contains("already completed")) {
                 completed.set(true);
             } else {
@@ -663,6 +1072,7 @@ public class AiChatServiceImpl implements AiChatService {
                 }
             }
         } catch (Exception e) {
+            writer.close();
             log.error("发送SSE事件失败: {}", e.getMessage(), e);
             if (completed.compareAndSet(false, true)) {
                 emitter.completeWithError(e);
@@ -4,12 +4,14 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.star.swiftAi.cache.SessionTokenLedger;
 import com.star.swiftAi.dto.SessionDTO;
 import com.star.swiftAi.entity.AiChatSession;
 import com.star.swiftAi.entity.AiModel;
 import com.star.swiftAi.mapper.postgresql.AiChatSessionMapper;
 import com.star.swiftAi.service.AiChatSessionService;
 import com.star.swiftAi.service.AiModelService;
+import com.star.swiftAi.service.MessageVectorIndexService;
 import com.star.swiftCommon.domain.PageResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,7 +19,12 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * AI聊天会话服务实现
@@ -31,9 +38,11 @@ public class AiChatSessionServiceImpl extends ServiceImpl<AiChatSessionMapper, A
         implements AiChatSessionService {
 
     private final AiModelService aiModelService;
+    private final MessageVectorIndexService messageVectorIndexService;
+    private final SessionTokenLedger sessionTokenLedger;
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class)
     public AiChatSession createSession(String userId, Long modelId, String title) {
         // 检查模型是否存在
         AiModel model = aiModelService.getById(modelId);
@@ -53,7 +62,7 @@ public class AiChatSessionServiceImpl extends ServiceImpl<AiChatSessionMapper, A
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class)
     public void updateSession(String sessionId, String title) {
         AiChatSession session = this.getBySessionId(sessionId);
         if (session == null) {
@@ -66,13 +75,17 @@ public class AiChatSessionServiceImpl extends ServiceImpl<AiChatSessionMapper, A
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(transactionManager = "pgTransactionManager", rollbackFor = Exception.class)
     public void deleteSession(String sessionId) {
         AiChatSession session = this.getBySessionId(sessionId);
         if (session == null) {
             throw new RuntimeException("会话不存在");
         }
         
+        // 先释放向量分区（分区路径依赖会话记录中的用户ID）
+        messageVectorIndexService.removeSession(sessionId);
+        sessionTokenLedger.evict(sessionId);
+        
         this.removeById(session.getId());
         log.info("删除会话成功: sessionId={}", sessionId);
     }
@@ -95,10 +108,7 @@ public class AiChatSessionServiceImpl extends ServiceImpl<AiChatSessionMapper, A
         BeanUtils.copyProperties(session, dto);
         
         // 获取模型名称
-        AiModel model = aiModelService.getById(session.getModelId());
-        if (model != null) {
-            dto.setModelName(model.getModelName());
-        }
+        fillModelNames(List.of(dto));
         
         return dto;
     }
@@ -117,41 +127,60 @@ public class AiChatSessionServiceImpl extends ServiceImpl<AiChatSessionMapper, A
         IPage<SessionDTO> dtoPage = sessionPage.convert(session -> {
             SessionDTO dto = new SessionDTO();
             BeanUtils.copyProperties(session, dto);
-            
-            // 获取模型名称
-            AiModel model = aiModelService.getById(session.getModelId());
-            if (model != null) {
-                dto.setModelName(model.getModelName());
-            }
-            
             return dto;
         });
         
+        // 批量获取模型名称
+        fillModelNames(dtoPage.getRecords());
+        
         // 转换为 PageResult
         return PageResult.success(dtoPage.getRecords(), dtoPage.getTotal(), dtoPage.getCurrent(), dtoPage.getSize());
     }
 
     @Override
-    public java.util.List<SessionDTO> getAllSessionsByUserId(String userId) {
+    public List<SessionDTO> getAllSessionsByUserId(String userId) {
         LambdaQueryWrapper<AiChatSession> wrapper = new LambdaQueryWrapper<>();
         
         wrapper.eq(AiChatSession::getUserId, userId);
         wrapper.orderByDesc(AiChatSession::getUpdatedAt);
         
-        java.util.List<AiChatSession> sessions = this.list(wrapper);
+        List<AiChatSession> sessions = this.list(wrapper);
         
         // 转换为DTO
-        return sessions.stream().map(session -> {
+        List<SessionDTO> dtos = sessions.stream().map(session -> {
             SessionDTO dto = new SessionDTO();
             BeanUtils.copyProperties(session, dto);
-            
-            // 获取模型名称
-            AiModel model = aiModelService.getById(session.getModelId());
-            if (model != null) {
-                dto.setModelName(model.getModelName());
-            }
-            
             return dto;
-        }).collect(java.util.stream.Collectors.toList());
+        }).collect(Collectors.toList());
+        
+        // 批量获取模型名称
+        fillModelNames(dtos);
+        
+        return dtos;
+    }
+
+    /**
+     * 批量填充会话的模型名称
+     * 一次 IN 查询取回所有涉及的模型，避免逐条查询（N+1）
+     *
+     * @param sessions 会话列表
+     */
+    private void fillModelNames(List<SessionDTO> sessions) {
+        Set<Long> modelIds = sessions.stream()
+                .map(SessionDTO::getModelId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (modelIds.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, String> modelNames = aiModelService.listByIds(modelIds).stream()
+                .collect(Collectors.toMap(AiModel::getId, AiModel::getModelName, (a, b) -> a));
+        
+        for (SessionDTO session : sessions) {
+            if (session.getModelId() != null) {
+                session.setModelName(modelNames.get(session.getModelId()));
+            }
+        }
     }
 }
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.star.swiftAi.cache.AiConfigCacheService;
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
 import com.star.swiftAi.core.factory.ProviderFactory;
 import com.star.swiftAi.core.provider.Provider;
 import com.star.swiftAi.core.response.ModelsResponse;
@@ -15,6 +16,7 @@ import com.star.swiftAi.entity.AiProvider;
 import com.star.swiftAi.mapper.postgresql.AiModelMapper;
 import com.star.swiftAi.service.AiModelService;
 import com.star.swiftAi.service.AiProviderService;
+import com.star.swiftAi.service.ProviderModelCatalogService;
 import com.star.swiftAi.util.ApiKeyCryptoUtil;
 import com.star.swiftCommon.domain.PageResult;
 import lombok.RequiredArgsConstructor;
@@ -39,6 +41,8 @@ public class AiModelServiceImpl extends ServiceImpl<AiModelMapper, AiModel>
     private final AiProviderService aiProviderService;
     private final ApiKeyCryptoUtil apiKeyCryptoUtil;
     private final AiConfigCacheService aiConfigCacheService;
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
+    private final ProviderModelCatalogService providerModelCatalogService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -60,6 +64,8 @@ public class AiModelServiceImpl extends ServiceImpl<AiModelMapper, AiModel>
         
         // 清除启用模型列表缓存
         aiConfigCacheService.removeEnabledModelsCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("创建模型成功: {}", model.getModelCode());
         return model;
@@ -99,6 +105,8 @@ public class AiModelServiceImpl extends ServiceImpl<AiModelMapper, AiModel>
         aiConfigCacheService.cacheModel(id, dto);
         // 清除启用模型列表缓存
         aiConfigCacheService.removeEnabledModelsCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("更新模型成功: {}", model.getModelCode());
         return model;
@@ -118,6 +126,8 @@ public class AiModelServiceImpl extends ServiceImpl<AiModelMapper, AiModel>
         aiConfigCacheService.removeModelCache(id);
         // 清除启用模型列表缓存
         aiConfigCacheService.removeEnabledModelsCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("删除模型成功: {}", model.getModelCode());
     }
@@ -211,24 +221,8 @@ public class AiModelServiceImpl extends ServiceImpl<AiModelMapper, AiModel>
         }
         
         try {
-            // 获取解密后的API密钥
-            String decryptedApiKey = apiKeyCryptoUtil.decryptApiKeyString(provider.getApiKey());
-            
-            // 创建Provider配置
-            java.util.Map<String, Object> providerConfig = new java.util.HashMap<>();
-            providerConfig.put("api_key", decryptedApiKey);
-            providerConfig.put("base_url", provider.getBaseUrl());
-            providerConfig.put("timeout", 30);
-            
-            // 创建Provider实例
-            Provider aiProvider = ProviderFactory.createProvider(
-                provider.getProviderCode(),
-                providerConfig,
-                new java.util.HashMap<>()
-            );
-            
-            // 获取模型列表
-            java.util.List<String> modelIds = aiProvider.getModels();
+            // 从模型目录缓存获取（过期时返回旧值并在后台刷新）
+            java.util.List<String> modelIds = providerModelCatalogService.getModels(providerId);
             
             // 转换为ModelsResponse格式
             ModelsResponse modelsResponse = new ModelsResponse();
@@ -241,7 +235,7 @@ public class AiModelServiceImpl extends ServiceImpl<AiModelMapper, AiModel>
             }
             modelsResponse.setData(modelData);
             
-            log.info("从供应商获取模型成功: providerCode={}, modelCount={}", 
+            log.debug("从供应商获取模型成功: providerCode={}, modelCount={}", 
                     provider.getProviderCode(), modelIds.size());
             
             return modelsResponse;
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.star.swiftAi.cache.AiConfigCacheService;
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
 import com.star.swiftAi.core.factory.ProviderFactory;
 import com.star.swiftAi.core.model.ProviderMetaData;
 import com.star.swiftAi.core.provider.AbstractProvider;
@@ -13,6 +14,8 @@ import com.star.swiftAi.dto.TestResultDTO;
 import com.star.swiftAi.entity.AiProvider;
 import com.star.swiftAi.mapper.postgresql.AiProviderMapper;
 import com.star.swiftAi.service.AiProviderService;
+import com.star.swiftAi.service.ProviderHealthService;
+import com.star.swiftAi.service.ProviderModelCatalogService;
 import com.star.swiftAi.util.ApiKeyCryptoUtil;
 import com.star.swiftCommon.domain.PageResult;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +40,9 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
 
     private final ApiKeyCryptoUtil apiKeyCryptoUtil;
     private final AiConfigCacheService aiConfigCacheService;
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
+    private final ProviderModelCatalogService providerModelCatalogService;
+    private final ProviderHealthService providerHealthService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -51,6 +57,8 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
         
         // 清除启用供应商列表缓存
         aiConfigCacheService.removeEnabledProvidersCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("创建供应商成功: {}", provider.getProviderName());
         return provider;
@@ -79,10 +87,12 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
         // 更新缓存
         ProviderDTO dto = new ProviderDTO();
         BeanUtils.copyProperties(provider, dto);
-        dto.setHealthy(true);
+        dto.setHealthy(providerHealthService.isAvailable(id));
         aiConfigCacheService.cacheProvider(id, dto);
         // 清除启用供应商列表缓存
         aiConfigCacheService.removeEnabledProvidersCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("更新供应商成功: {}", provider.getProviderName());
         return provider;
@@ -105,6 +115,8 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
         aiConfigCacheService.removeProviderCache(id);
         // 清除启用供应商列表缓存
         aiConfigCacheService.removeEnabledProvidersCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("删除供应商成功: {}", provider.getProviderName());
     }
@@ -114,6 +126,8 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
         // 先尝试从缓存获取
         ProviderDTO cached = aiConfigCacheService.getCachedProvider(id);
         if (cached != null) {
+            // 健康状态随探测变化，不使用缓存中的值
+            cached.setHealthy(providerHealthService.isAvailable(id));
             return cached;
         }
         
@@ -126,7 +140,7 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
         // 直接返回加密的密钥，不解密
         ProviderDTO dto = new ProviderDTO();
         BeanUtils.copyProperties(provider, dto);
-        dto.setHealthy(true); // 默认健康状态，实际应该通过健康检查获取
+        dto.setHealthy(providerHealthService.isAvailable(id));
         
         // 写入缓存
         aiConfigCacheService.cacheProvider(id, dto);
@@ -140,6 +154,7 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
         if (Boolean.TRUE.equals(enabled) && page == 1 && size >= 1000) {
             List<ProviderDTO> cached = aiConfigCacheService.getCachedEnabledProviders();
             if (cached != null) {
+                cached.forEach(dto -> dto.setHealthy(providerHealthService.isAvailable(dto.getId())));
                 return PageResult.success(cached, (long) cached.size(), 1L, size);
             }
         }
@@ -159,7 +174,7 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
         IPage<ProviderDTO> dtoPage = providerPage.convert(provider -> {
             ProviderDTO dto = new ProviderDTO();
             BeanUtils.copyProperties(provider, dto);
-            dto.setHealthy(true); // 默认健康状态
+            dto.setHealthy(providerHealthService.isAvailable(provider.getId()));
             return dto;
         });
         
@@ -199,8 +214,8 @@ public class AiProviderServiceImpl extends ServiceImpl<AiProviderMapper, AiProvi
                 Map.of() // 空的settings，测试连接不需要模型参数
             );
             
-            // 测试连接（不指定模型，会自动使用第一个可用模型）
-            abstractProvider.test(null);
+            // 使用模型目录缓存中的第一个模型测试，目录不可用时由提供商自行选择
+            abstractProvider.test(providerModelCatalogService.firstModel(id));
             
             long latency = System.currentTimeMillis() - startTime;
             log.info("供应商连接测试成功: {}, 耗时: {}ms", provider.getProviderName(), latency);
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.star.swiftAi.cache.AiConfigCacheService;
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
 import com.star.swiftAi.dto.SystemPromptDTO;
 import com.star.swiftAi.dto.SystemPromptRequestDTO;
 import com.star.swiftAi.entity.AiSystemPrompt;
@@ -32,6 +33,7 @@ public class AiSystemPromptServiceImpl extends ServiceImpl<AiSystemPromptMapper,
         implements AiSystemPromptService {
 
     private final AiConfigCacheService aiConfigCacheService;
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -43,6 +45,8 @@ public class AiSystemPromptServiceImpl extends ServiceImpl<AiSystemPromptMapper,
         
         // 清除启用提示词列表缓存
         aiConfigCacheService.removeEnabledPromptsCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("创建系统提示词成功: {}", prompt.getPromptName());
         return prompt;
@@ -66,6 +70,8 @@ public class AiSystemPromptServiceImpl extends ServiceImpl<AiSystemPromptMapper,
         aiConfigCacheService.cacheSystemPrompt(id, toDTO(prompt));
         // 清除启用提示词列表缓存
         aiConfigCacheService.removeEnabledPromptsCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("更新系统提示词成功: id={}, name={}", id, prompt.getPromptName());
         return prompt;
@@ -85,6 +91,8 @@ public class AiSystemPromptServiceImpl extends ServiceImpl<AiSystemPromptMapper,
         aiConfigCacheService.removeSystemPromptCache(id);
         // 清除启用提示词列表缓存
         aiConfigCacheService.removeEnabledPromptsCache();
+        // 事务提交后刷新配置快照
+        aiConfigSnapshotHolder.refreshAfterCommit();
         
         log.info("删除系统提示词成功: id={}, name={}", id, prompt.getPromptName());
     }
@@ -0,0 +1,281 @@
+package com.star.swiftAi.service.impl;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.dto.ChatHistoryRecordDTO;
+import com.star.swiftAi.dto.ImportProgressDTO;
+import com.star.swiftAi.entity.AiChatSession;
+import com.star.swiftAi.properties.AiChatTransferProperties;
+import com.star.swiftAi.service.ChatHistoryTransferService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 聊天记录批量导入/导出服务实现
+ *
+ * 导入：逐条读取记录，攒够一批后用 JDBC 批量写入并单独提交，每批提交后回调进度；
+ * 导出：在只读事务中设置 fetchSize 使用 PostgreSQL 服务端游标，逐行写出
+ *
+ * 注：批量写入不经过 saveMessage，导入的消息不会加入语义检索索引
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+public class ChatHistoryTransferServiceImpl implements ChatHistoryTransferService {
+
+    private static final Set<String> ALLOWED_ROLES = Set.of("user", "assistant", "system");
+
+    private static final String INSERT_SESSION_SQL =
+            "INSERT INTO ai_chat_session (session_id, user_id, title, model_id, source, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (session_id) DO NOTHING";
+
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO ai_chat_message (session_id, role, content, tokens_used, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String EXPORT_SQL =
+            "SELECT s.session_id, s.model_id, s.title, s.created_at AS session_created_at, " +
+            "m.role, m.content, m.tokens_used, m.created_at AS message_created_at " +
+            "FROM ai_chat_session s LEFT JOIN ai_chat_message m ON m.session_id = s.session_id " +
+            "WHERE s.user_id = ? ORDER BY s.id, m.id";
+
+    private final AiChatTransferProperties transferProperties;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate pgJdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate writeTransactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public ChatHistoryTransferServiceImpl(AiChatTransferProperties transferProperties,
+                                          ObjectMapper objectMapper,
+                                          @Qualifier("pgJdbcTemplate") JdbcTemplate pgJdbcTemplate,
+                                          @Qualifier("pgTransactionManager") PlatformTransactionManager pgTransactionManager) {
+        this.transferProperties = transferProperties;
+        this.objectMapper = objectMapper;
+        this.pgJdbcTemplate = pgJdbcTemplate;
+
+        this.exportJdbcTemplate = new JdbcTemplate(Objects.requireNonNull(pgJdbcTemplate.getDataSource()));
+        this.exportJdbcTemplate.setFetchSize(transferProperties.getExportFetchSize());
+
+        this.writeTransactionTemplate = new TransactionTemplate(pgTransactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(pgTransactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public ImportProgressDTO importRecords(String userId, Iterator<ChatHistoryRecordDTO> records,
+                                           Consumer<ImportProgressDTO> progressListener) {
+        int batchSize = Math.max(1, transferProperties.getImportBatchSize());
+        ImportProgressDTO progress = new ImportProgressDTO();
+        // 本次导入成功创建的会话及其创建时间，只有这些会话的消息会被写入
+        Map<String, LocalDateTime> acceptedSessions = new HashMap<>();
+        List<ChatHistoryRecordDTO> pendingSessions = new ArrayList<>();
+        List<ChatHistoryRecordDTO> pendingMessages = new ArrayList<>();
+        Set<String> pendingSessionIds = new HashSet<>();
+
+        while (records.hasNext()) {
+            ChatHistoryRecordDTO record = records.next();
+            if (isValidSession(record)) {
+                if (acceptedSessions.containsKey(record.getSessionId()) || !pendingSessionIds.add(record.getSessionId())) {
+                    progress.setSkippedRecords(progress.getSkippedRecords() + 1);
+                    continue;
+                }
+                pendingSessions.add(record);
+            } else if (isValidMessage(record)
+                    && (pendingSessionIds.contains(record.getSessionId()) || acceptedSessions.containsKey(record.getSessionId()))) {
+                pendingMessages.add(record);
+            } else {
+                progress.setSkippedRecords(progress.getSkippedRecords() + 1);
+                continue;
+            }
+
+            if (pendingSessions.size() + pendingMessages.size() >= batchSize) {
+                flush(userId, pendingSessions, pendingMessages, acceptedSessions, progress);
+                pendingSessionIds.clear();
+                notifyProgress(progressListener, progress);
+            }
+        }
+
+        if (!pendingSessions.isEmpty() || !pendingMessages.isEmpty()) {
+            flush(userId, pendingSessions, pendingMessages, acceptedSessions, progress);
+        }
+        progress.setFinished(true);
+        notifyProgress(progressListener, progress);
+
+        log.info("批量导入聊天记录完成: userId={}, sessions={}, messages={}, skipped={}",
+                userId, progress.getImportedSessions(), progress.getImportedMessages(), progress.getSkippedRecords());
+        return progress;
+    }
+
+    @Override
+    public ImportProgressDTO importNdjson(String userId, InputStream inputStream,
+                                          Consumer<ImportProgressDTO> progressListener) throws IOException {
+        try (MappingIterator<ChatHistoryRecordDTO> iterator =
+                     objectMapper.readerFor(ChatHistoryRecordDTO.class).readValues(inputStream)) {
+            return importRecords(userId, iterator, progressListener);
+        } catch (RuntimeException e) {
+            // MappingIterator 将解析错误包装为 RuntimeException
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void exportNdjson(String userId, OutputStream outputStream) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(outputStream);
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                String[] currentSession = {null};
+                exportJdbcTemplate.query(EXPORT_SQL, rs -> {
+                    String sessionId = rs.getString("session_id");
+                    if (!sessionId.equals(currentSession[0])) {
+                        currentSession[0] = sessionId;
+                        ChatHistoryRecordDTO session = new ChatHistoryRecordDTO();
+                        session.setType(ChatHistoryRecordDTO.TYPE_SESSION);
+                        session.setSessionId(sessionId);
+                        session.setModelId(rs.getObject("model_id", Long.class));
+                        session.setTitle(rs.getString("title"));
+                        session.setCreatedAt(toLocalDateTime(rs.getTimestamp("session_created_at")));
+                        writeLine(out, session);
+                    }
+                    String role = rs.getString("role");
+                    if (role == null) {
+                        // 没有消息的会话
+                        return;
+                    }
+                    ChatHistoryRecordDTO message = new ChatHistoryRecordDTO();
+                    message.setType(ChatHistoryRecordDTO.TYPE_MESSAGE);
+                    message.setSessionId(sessionId);
+                    message.setRole(role);
+                    message.setContent(rs.getString("content"));
+                    message.setTokensUsed(rs.getObject("tokens_used", Integer.class));
+                    message.setCreatedAt(toLocalDateTime(rs.getTimestamp("message_created_at")));
+                    writeLine(out, message);
+                }, userId);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 在一个短事务中批量写入当前批次
+     */
+    private void flush(String userId, List<ChatHistoryRecordDTO> sessions, List<ChatHistoryRecordDTO> messages,
+                       Map<String, LocalDateTime> acceptedSessions, ImportProgressDTO progress) {
+        LocalDateTime now = LocalDateTime.now();
+        writeTransactionTemplate.executeWithoutResult(status -> {
+            if (!sessions.isEmpty()) {
+                int[][] results = pgJdbcTemplate.batchUpdate(INSERT_SESSION_SQL, sessions, sessions.size(), (ps, record) -> {
+                    LocalDateTime createdAt = record.getCreatedAt() != null ? record.getCreatedAt() : now;
+                    ps.setString(1, record.getSessionId());
+                    ps.setString(2, userId);
+                    ps.setString(3, record.getTitle());
+                    ps.setObject(4, record.getModelId());
+                    ps.setString(5, AiChatSession.SOURCE_IMPORT);
+                    ps.setTimestamp(6, Timestamp.valueOf(createdAt));
+                    ps.setTimestamp(7, Timestamp.valueOf(now));
+                });
+                int index = 0;
+                for (int[] batch : results) {
+                    for (int count : batch) {
+                        ChatHistoryRecordDTO session = sessions.get(index++);
+                        String sessionId = session.getSessionId();
+                        if (count > 0) {
+                            acceptedSessions.put(sessionId, session.getCreatedAt() != null ? session.getCreatedAt() : now);
+                            progress.setImportedSessions(progress.getImportedSessions() + 1);
+                        } else {
+                            log.warn("会话已存在，跳过导入: sessionId={}", sessionId);
+                            progress.setSkippedRecords(progress.getSkippedRecords() + 1);
+                        }
+                    }
+                }
+            }
+
+            List<ChatHistoryRecordDTO> accepted = new ArrayList<>(messages.size());
+            for (ChatHistoryRecordDTO message : messages) {
+                if (acceptedSessions.containsKey(message.getSessionId())) {
+                    accepted.add(message);
+                } else {
+                    progress.setSkippedRecords(progress.getSkippedRecords() + 1);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                pgJdbcTemplate.batchUpdate(INSERT_MESSAGE_SQL, accepted, accepted.size(), (ps, record) -> {
+                    ps.setString(1, record.getSessionId());
+                    ps.setString(2, record.getRole());
+                    ps.setString(3, record.getContent());
+                    ps.setInt(4, record.getTokensUsed() != null ? record.getTokensUsed() : 0);
+                    // 消息时间不早于会话创建时间，按会话创建时间裁剪分区的历史查询才能查到全部消息
+                    LocalDateTime sessionCreatedAt = acceptedSessions.get(record.getSessionId());
+                    LocalDateTime createdAt = record.getCreatedAt() != null ? record.getCreatedAt() : now;
+                    ps.setTimestamp(5, Timestamp.valueOf(createdAt.isBefore(sessionCreatedAt) ? sessionCreatedAt : createdAt));
+                });
+                progress.setImportedMessages(progress.getImportedMessages() + accepted.size());
+            }
+        });
+        sessions.clear();
+        messages.clear();
+    }
+
+    private boolean isValidSession(ChatHistoryRecordDTO record) {
+        return record != null
+                && ChatHistoryRecordDTO.TYPE_SESSION.equals(record.getType())
+                && StringUtils.hasText(record.getSessionId())
+                && record.getModelId() != null;
+    }
+
+    private boolean isValidMessage(ChatHistoryRecordDTO record) {
+        return record != null
+                && ChatHistoryRecordDTO.TYPE_MESSAGE.equals(record.getType())
+                && StringUtils.hasText(record.getSessionId())
+                && ALLOWED_ROLES.contains(record.getRole())
+                && StringUtils.hasText(record.getContent());
+    }
+
+    private void notifyProgress(Consumer<ImportProgressDTO> progressListener, ImportProgressDTO progress) {
+        if (progressListener != null) {
+            progressListener.accept(progress);
+        }
+    }
+
+    private void writeLine(OutputStream out, ChatHistoryRecordDTO record) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(record));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
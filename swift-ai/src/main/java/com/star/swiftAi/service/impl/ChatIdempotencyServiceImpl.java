@@ -0,0 +1,174 @@
+package com.star.swiftAi.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.dto.ChatIdempotencyRecordDTO;
+import com.star.swiftAi.exception.AiRejectedException;
+import com.star.swiftAi.properties.AiIdempotencyProperties;
+import com.star.swiftAi.service.ChatIdempotencyService;
+import com.star.swiftCommon.properties.CommonProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 聊天请求幂等服务实现
+ *
+ * 记录保存在 {app.name}:ai:idempotency:{scope}:{userId}:{key}，首次请求用 SET NX 写入处理中标记（过期时间 processing-ttl），
+ * 完成后覆盖为处理结果（过期时间 result-ttl），失败时删除标记；Redis 不可用时不做幂等处理，请求照常执行
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatIdempotencyServiceImpl implements ChatIdempotencyService {
+
+    private static final String KEY_SEGMENT = ":ai:idempotency:";
+
+    /**
+     * 占用时标记恰好过期或被删除，重新尝试的次数
+     */
+    private static final int MAX_ACQUIRE_ATTEMPTS = 3;
+
+    private final AiIdempotencyProperties idempotencyProperties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CommonProperties commonProperties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String normalizeKey(String idempotencyKey) {
+        if (!idempotencyProperties.isEnabled() || idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > idempotencyProperties.getMaxKeyLength()) {
+            throw new RuntimeException(HEADER + " 长度不能超过 " + idempotencyProperties.getMaxKeyLength());
+        }
+        return key;
+    }
+
+    @Override
+    public ChatIdempotencyRecordDTO begin(String scope, String userId, String idempotencyKey, Object request, String generationId) {
+        return tryAcquire(redisKey(scope, userId, idempotencyKey), fingerprint(request), generationId);
+    }
+
+    @Override
+    public ChatIdempotencyRecordDTO acquireOrAwait(String scope, String userId, String idempotencyKey, Object request) {
+        String redisKey = redisKey(scope, userId, idempotencyKey);
+        String fingerprint = fingerprint(request);
+        long deadline = System.currentTimeMillis() + idempotencyProperties.getWaitTimeout().toMillis();
+        while (true) {
+            ChatIdempotencyRecordDTO existing = tryAcquire(redisKey, fingerprint, null);
+            if (existing == null || existing.isCompleted()) {
+                return existing;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new AiRejectedException("相同 " + HEADER + " 的请求正在处理中，请稍后重试", null,
+                        "IDEMPOTENCY_IN_PROGRESS", 409, idempotencyProperties.getPollInterval().toSeconds());
+            }
+            try {
+                Thread.sleep(idempotencyProperties.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("等待相同请求完成时被中断");
+            }
+        }
+    }
+
+    @Override
+    public void complete(String scope, String userId, String idempotencyKey, Object response) {
+        if (idempotencyKey == null) {
+            return;
+        }
+        String redisKey = redisKey(scope, userId, idempotencyKey);
+        try {
+            String json = stringRedisTemplate.opsForValue().get(redisKey);
+            if (json == null) {
+                // 处理时间超过了标记的过期时间，没有可以对应的请求摘要，不保存结果
+                log.warn("幂等标记已过期，不保存处理结果: key={}", redisKey);
+                return;
+            }
+            ChatIdempotencyRecordDTO record = objectMapper.readValue(json, ChatIdempotencyRecordDTO.class);
+            record.setStatus(ChatIdempotencyRecordDTO.STATUS_COMPLETED);
+            record.setResponse(objectMapper.writeValueAsString(response));
+            stringRedisTemplate.opsForValue().set(redisKey, objectMapper.writeValueAsString(record), idempotencyProperties.getResultTtl());
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("保存幂等处理结果失败: key={}, error={}", redisKey, e.getMessage());
+        }
+    }
+
+    @Override
+    public void abandon(String scope, String userId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return;
+        }
+        String redisKey = redisKey(scope, userId, idempotencyKey);
+        try {
+            stringRedisTemplate.delete(redisKey);
+        } catch (DataAccessException e) {
+            log.warn("删除幂等标记失败: key={}, error={}", redisKey, e.getMessage());
+        }
+    }
+
+    @Override
+    public <T> T readResponse(ChatIdempotencyRecordDTO record, Class<T> type) {
+        try {
+            return objectMapper.readValue(record.getResponse(), type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("读取幂等处理结果失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 写入处理中标记，已存在时读取已有记录并校验请求摘要
+     *
+     * @return 占用成功（或 Redis 不可用）返回null，否则返回已有记录
+     */
+    private ChatIdempotencyRecordDTO tryAcquire(String redisKey, String fingerprint, String generationId) {
+        try {
+            String processing = objectMapper.writeValueAsString(new ChatIdempotencyRecordDTO(
+                    ChatIdempotencyRecordDTO.STATUS_PROCESSING, fingerprint, generationId, null));
+            for (int attempt = 0; attempt < MAX_ACQUIRE_ATTEMPTS; attempt++) {
+                if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                        .setIfAbsent(redisKey, processing, idempotencyProperties.getProcessingTtl()))) {
+                    return null;
+                }
+                String json = stringRedisTemplate.opsForValue().get(redisKey);
+                if (json == null) {
+                    // 已有记录恰好过期或原请求失败删除了标记，重新占用
+                    continue;
+                }
+                ChatIdempotencyRecordDTO existing = objectMapper.readValue(json, ChatIdempotencyRecordDTO.class);
+                if (!fingerprint.equals(existing.getFingerprint())) {
+                    throw new RuntimeException(HEADER + " 已用于内容不同的请求");
+                }
+                return existing;
+            }
+            log.warn("占用幂等键失败，按普通请求处理: key={}", redisKey);
+            return null;
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("幂等处理不可用，按普通请求处理: key={}, error={}", redisKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("计算请求摘要失败: " + e.getMessage(), e);
+        }
+    }
+
+    private String redisKey(String scope, String userId, String idempotencyKey) {
+        return commonProperties.getName() + KEY_SEGMENT + scope + ":" + userId + ":" + idempotencyKey;
+    }
+}
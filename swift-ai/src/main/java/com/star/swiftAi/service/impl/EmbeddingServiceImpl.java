@@ -0,0 +1,82 @@
+package com.star.swiftAi.service.impl;
+
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
+import com.star.swiftAi.core.factory.ProviderFactory;
+import com.star.swiftAi.core.provider.Provider;
+import com.star.swiftAi.entity.AiModel;
+import com.star.swiftAi.entity.AiProvider;
+import com.star.swiftAi.properties.AiEmbeddingProperties;
+import com.star.swiftAi.service.EmbeddingService;
+import com.star.swiftAi.util.ApiKeyCryptoUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文本向量嵌入服务实现
+ * 使用配置的嵌入模型所属供应商计算向量
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmbeddingServiceImpl implements EmbeddingService {
+
+    private final AiEmbeddingProperties embeddingProperties;
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
+    private final ApiKeyCryptoUtil apiKeyCryptoUtil;
+
+    @Override
+    public boolean isAvailable() {
+        return embeddingProperties.getModelId() != null;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return embed(List.of(text)).get(0);
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) {
+        if (!isAvailable()) {
+            throw new RuntimeException("未配置嵌入模型");
+        }
+
+        AiModel model = aiConfigSnapshotHolder.current().getModel(embeddingProperties.getModelId());
+        if (model == null || !Boolean.TRUE.equals(model.getEnabled())) {
+            throw new RuntimeException("嵌入模型不存在或未启用");
+        }
+        AiProvider provider = aiConfigSnapshotHolder.current().getProvider(model.getProviderId());
+        if (provider == null || !Boolean.TRUE.equals(provider.getEnabled())) {
+            throw new RuntimeException("嵌入模型供应商不存在或未启用");
+        }
+
+        int maxChars = embeddingProperties.getMaxInputChars();
+        List<String> inputs = texts.stream()
+                .map(text -> text == null ? "" : (text.length() > maxChars ? text.substring(0, maxChars) : text))
+                .toList();
+
+        try {
+            return createProvider(provider).embed(inputs, model.getModelCode());
+        } catch (Exception e) {
+            log.error("计算向量失败: model={}, error={}", model.getModelCode(), e.getMessage());
+            throw new RuntimeException("计算向量失败: " + e.getMessage(), e);
+        }
+    }
+
+    private Provider createProvider(AiProvider provider) throws Exception {
+        String decryptedApiKey = apiKeyCryptoUtil.decryptApiKeyString(provider.getApiKey());
+
+        Map<String, Object> providerConfig = new HashMap<>();
+        providerConfig.put("api_key", decryptedApiKey);
+        providerConfig.put("base_url", provider.getBaseUrl());
+        providerConfig.put("timeout", embeddingProperties.getTimeout());
+
+        return ProviderFactory.createProvider(provider.getProviderCode(), providerConfig, new HashMap<>());
+    }
+}
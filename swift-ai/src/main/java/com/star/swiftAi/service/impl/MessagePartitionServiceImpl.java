@@ -0,0 +1,517 @@
+package com.star.swiftAi.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.entity.AiChatMessage;
+import com.star.swiftAi.entity.AiChatMessageArchive;
+import com.star.swiftAi.mapper.postgresql.AiChatMessageArchiveMapper;
+import com.star.swiftAi.properties.AiMessagePartitionProperties;
+import com.star.swiftAi.service.MessagePartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 聊天消息分区管理服务实现
+ *
+ * 分区按自然月划分，命名为 ai_chat_message_pYYYYMM，范围 [月初, 下月初)；
+ * 多节点同时运行维护任务时通过 PostgreSQL 会话级咨询锁保证同一时刻只有一个节点执行
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+public class MessagePartitionServiceImpl implements MessagePartitionService {
+
+    private static final String PARENT_TABLE = "ai_chat_message";
+    private static final String PARTITION_PREFIX = PARENT_TABLE + "_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^" + PARTITION_PREFIX + "\\d{6}$");
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String ARCHIVE_SUFFIX = ".ndjson.gz";
+    private static final String DEFAULT_PARTITION = PARENT_TABLE + "_default";
+    private static final String MOVED_ROWS_TABLE = "ai_chat_message_restore_moved";
+    private static final String MESSAGE_COLUMNS = "id, session_id, role, content, tokens_used, created_at";
+
+    /**
+     * 分区维护咨询锁的键
+     */
+    private static final long MAINTENANCE_LOCK_KEY = 0x5357_4d50_4152_5431L;
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ? AND pg_table_is_visible(p.oid)";
+
+    private final AiMessagePartitionProperties partitionProperties;
+    private final AiChatMessageArchiveMapper archiveMapper;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate pgJdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate writeTransactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public MessagePartitionServiceImpl(AiMessagePartitionProperties partitionProperties,
+                                       AiChatMessageArchiveMapper archiveMapper,
+                                       ObjectMapper objectMapper,
+                                       @Qualifier("pgJdbcTemplate") JdbcTemplate pgJdbcTemplate,
+                                       @Qualifier("pgTransactionManager") PlatformTransactionManager pgTransactionManager) {
+        this.partitionProperties = partitionProperties;
+        this.archiveMapper = archiveMapper;
+        this.objectMapper = objectMapper;
+        this.pgJdbcTemplate = pgJdbcTemplate;
+
+        this.cursorJdbcTemplate = new JdbcTemplate(Objects.requireNonNull(pgJdbcTemplate.getDataSource()));
+        this.cursorJdbcTemplate.setFetchSize(partitionProperties.getBatchSize());
+
+        this.writeTransactionTemplate = new TransactionTemplate(pgTransactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(pgTransactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 启动时确保当月及未来分区存在，避免新数据落入默认分区
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!partitionProperties.isEnabled()) {
+            return;
+        }
+        try {
+            if (isPartitioned()) {
+                withMaintenanceLock(this::ensurePartitions);
+            }
+        } catch (Exception e) {
+            log.warn("启动时预创建消息分区失败: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.ai.message-partition.cron:0 30 3 * * ?}")
+    public void scheduledMaintain() {
+        if (!partitionProperties.isEnabled()) {
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("消息分区维护失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void maintain() {
+        if (!isPartitioned()) {
+            log.warn("{} 不是分区表，跳过分区维护", PARENT_TABLE);
+            return;
+        }
+        boolean executed = withMaintenanceLock(() -> {
+            List<String> created = ensurePartitions();
+            if (!created.isEmpty()) {
+                log.info("预创建消息分区: {}", created);
+            }
+            if (partitionProperties.isArchiveEnabled()) {
+                archiveColdPartitions();
+            }
+        });
+        if (!executed) {
+            log.info("其他节点正在执行消息分区维护，本次跳过");
+        }
+    }
+
+    @Override
+    public List<String> ensurePartitions() {
+        List<String> existing = listPartitions();
+        List<String> created = new ArrayList<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionProperties.getPremakeMonths(); i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            try {
+                createPartition(name, month);
+                created.add(name);
+            } catch (Exception e) {
+                // 默认分区中已有该范围的数据时会创建失败，需要人工迁移
+                log.error("创建消息分区失败: partition={}, error={}", name, e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public AiChatMessageArchive archivePartition(String partitionName) {
+        return withRequiredMaintenanceLock(() -> archiveLocked(partitionName));
+    }
+
+    @Override
+    public AiChatMessageArchive restorePartition(String partitionName) {
+        return withRequiredMaintenanceLock(() -> restoreLocked(partitionName));
+    }
+
+    @Override
+    public List<AiChatMessageArchive> listArchives() {
+        LambdaQueryWrapper<AiChatMessageArchive> wrapper = new LambdaQueryWrapper<>();
+        wrapper.orderByDesc(AiChatMessageArchive::getRangeStart);
+        return archiveMapper.selectList(wrapper);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 归档分区（调用方持有维护锁）
+     * 先分离分区，之后该月新写入的行落入默认分区，导出的是不再变化的独立表；归档文件就位并记录后才删除该表。
+     * 上次归档在分离后失败时，分离出的表仍然存在，本次直接从它继续导出
+     */
+    private AiChatMessageArchive archiveLocked(String partitionName) {
+        YearMonth month = parseMonth(partitionName);
+        if (!month.isBefore(YearMonth.now())) {
+            throw new RuntimeException("不能归档当月或未来的分区");
+        }
+        if (listPartitions().contains(partitionName)) {
+            pgJdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partitionName);
+        } else if (!tableExists(partitionName)) {
+            throw new RuntimeException("分区不存在: " + partitionName);
+        }
+
+        Path file = archiveFile(partitionName);
+        long rows;
+        try {
+            rows = exportPartition(partitionName, file);
+        } catch (IOException | RuntimeException e) {
+            log.error("导出消息分区失败: partition={}, error={}", partitionName, e.getMessage(), e);
+            reattachQuietly(partitionName, month);
+            throw new RuntimeException("导出分区失败: " + e.getMessage(), e);
+        }
+
+        AiChatMessageArchive archive = writeTransactionTemplate.execute(status -> {
+            AiChatMessageArchive record = findArchive(partitionName);
+            if (record == null) {
+                record = new AiChatMessageArchive();
+                record.setPartitionName(partitionName);
+            }
+            record.setRangeStart(month.atDay(1).atStartOfDay());
+            record.setRangeEnd(month.plusMonths(1).atDay(1).atStartOfDay());
+            record.setFilePath(file.toString());
+            record.setRowCount(rows);
+            record.setStatus(AiChatMessageArchive.STATUS_ARCHIVED);
+            record.setArchivedAt(LocalDateTime.now());
+            record.setRestoredAt(null);
+            if (record.getId() == null) {
+                archiveMapper.insert(record);
+            } else {
+                archiveMapper.updateById(record);
+            }
+
+            pgJdbcTemplate.execute("DROP TABLE " + partitionName);
+            return record;
+        });
+
+        log.info("消息分区已归档: partition={}, rows={}, file={}", partitionName, rows, file);
+        return archive;
+    }
+
+    /**
+     * 恢复分区（调用方持有维护锁）
+     */
+    private AiChatMessageArchive restoreLocked(String partitionName) {
+        YearMonth month = parseMonth(partitionName);
+        AiChatMessageArchive archive = findArchive(partitionName);
+        if (archive == null) {
+            throw new RuntimeException("归档记录不存在: " + partitionName);
+        }
+        Path file = Paths.get(archive.getFilePath());
+        if (!Files.exists(file)) {
+            throw new RuntimeException("归档文件不存在: " + archive.getFilePath());
+        }
+
+        long moved = createPartitionFromDefault(partitionName, month);
+        long rows;
+        try {
+            rows = importPartition(partitionName, file);
+        } catch (IOException e) {
+            log.error("恢复消息分区失败: partition={}, error={}", partitionName, e.getMessage(), e);
+            throw new RuntimeException("恢复分区失败: " + e.getMessage(), e);
+        }
+
+        archive.setStatus(AiChatMessageArchive.STATUS_RESTORED);
+        archive.setRestoredAt(LocalDateTime.now());
+        archiveMapper.updateById(archive);
+
+        log.info("消息分区已恢复: partition={}, rows={}, movedFromDefault={}", partitionName, rows, moved);
+        return archive;
+    }
+
+    /**
+     * 创建分区，并把归档后落入默认分区的同月数据移入新分区
+     * 默认分区中存在该范围的行时无法直接创建分区，因此在同一事务中锁定默认分区、先取出这些行、创建分区后再写回
+     *
+     * @return 从默认分区移入的行数
+     */
+    private long createPartitionFromDefault(String partitionName, YearMonth month) {
+        if (listPartitions().contains(partitionName)) {
+            return 0;
+        }
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        Long moved = writeTransactionTemplate.execute(status -> {
+            pgJdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+            pgJdbcTemplate.execute("CREATE TEMP TABLE " + MOVED_ROWS_TABLE + " ON COMMIT DROP AS SELECT " + MESSAGE_COLUMNS +
+                    " FROM " + DEFAULT_PARTITION + " WHERE false");
+            int count = pgJdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                    " WHERE created_at >= ? AND created_at < ? RETURNING " + MESSAGE_COLUMNS + ")" +
+                    " INSERT INTO " + MOVED_ROWS_TABLE + " SELECT " + MESSAGE_COLUMNS + " FROM moved", from, to);
+            createPartition(partitionName, month);
+            pgJdbcTemplate.update("INSERT INTO " + PARENT_TABLE + " (" + MESSAGE_COLUMNS + ") SELECT " + MESSAGE_COLUMNS +
+                    " FROM " + MOVED_ROWS_TABLE);
+            return (long) count;
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    /**
+     * 导出失败时把分离出的表重新挂回，数据保持可查询；失败时保留独立表，下次归档从它继续
+     */
+    private void reattachQuietly(String partitionName, YearMonth month) {
+        try {
+            pgJdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + partitionName +
+                    " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        } catch (Exception e) {
+            log.error("重新挂载消息分区失败，分离出的表保留待下次归档: partition={}, error={}", partitionName, e.getMessage());
+        }
+    }
+
+    private boolean tableExists(String tableName) {
+        Integer count = pgJdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_class c WHERE c.relname = ? AND c.relkind = 'r' AND pg_table_is_visible(c.oid)",
+                Integer.class, tableName);
+        return count != null && count > 0;
+    }
+
+    /**
+     * 持有维护锁执行任务，其他节点正在维护时报错
+     */
+    private <T> T withRequiredMaintenanceLock(Supplier<T> task) {
+        AtomicReference<T> result = new AtomicReference<>();
+        if (!withMaintenanceLock(() -> result.set(task.get()))) {
+            throw new RuntimeException("其他节点正在执行消息分区维护，请稍后重试");
+        }
+        return result.get();
+    }
+
+    /**
+     * 归档早于热数据窗口的分区；恢复后仍在保留期内的分区跳过
+     */
+    private void archiveColdPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(partitionProperties.getHotMonths());
+        LocalDateTime restoredBefore = LocalDateTime.now().minusDays(partitionProperties.getRestoredRetentionDays());
+        for (String name : listPartitions()) {
+            if (!PARTITION_NAME.matcher(name).matches() || !parseMonth(name).isBefore(cutoff)) {
+                continue;
+            }
+            AiChatMessageArchive archive = findArchive(name);
+            if (archive != null && archive.getRestoredAt() != null && archive.getRestoredAt().isAfter(restoredBefore)) {
+                continue;
+            }
+            try {
+                archiveLocked(name);
+            } catch (Exception e) {
+                log.error("归档消息分区失败: partition={}, error={}", name, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 在只读事务中用服务端游标导出分区数据，先写临时文件，完成后原子替换
+     *
+     * @return 导出行数
+     */
+    private long exportPartition(String partitionName, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        AtomicLong rows = new AtomicLong();
+        try (OutputStream out = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp)))) {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> cursorJdbcTemplate.query(
+                    "SELECT id, session_id, role, content, tokens_used, created_at FROM " + partitionName + " ORDER BY id",
+                    rs -> {
+                        writeLine(out, toMessage(rs));
+                        rows.incrementAndGet();
+                    }));
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(tmp);
+            throw e.getCause();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows.get();
+    }
+
+    /**
+     * 逐行读取归档文件并分批写回分区，每批单独提交；重复执行时已存在的行会被跳过
+     *
+     * @return 读取行数
+     */
+    private long importPartition(String partitionName, Path file) throws IOException {
+        String sql = "INSERT INTO " + partitionName +
+                " (id, session_id, role, content, tokens_used, created_at) VALUES (?, ?, ?, ?, ?, ?)" +
+                " ON CONFLICT (id, created_at) DO NOTHING";
+        int batchSize = Math.max(1, partitionProperties.getBatchSize());
+        long rows = 0;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file));
+             MappingIterator<AiChatMessage> iterator = objectMapper.readerFor(AiChatMessage.class).readValues(in)) {
+            List<AiChatMessage> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize) {
+                    insertBatch(sql, batch);
+                    rows += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(sql, batch);
+                rows += batch.size();
+            }
+        }
+        return rows;
+    }
+
+    private void insertBatch(String sql, List<AiChatMessage> batch) {
+        writeTransactionTemplate.executeWithoutResult(status ->
+                pgJdbcTemplate.batchUpdate(sql, batch, batch.size(), (PreparedStatement ps, AiChatMessage message) -> {
+                    ps.setLong(1, message.getId());
+                    ps.setString(2, message.getSessionId());
+                    ps.setString(3, message.getRole());
+                    ps.setString(4, message.getContent());
+                    ps.setObject(5, message.getTokensUsed());
+                    ps.setTimestamp(6, Timestamp.valueOf(message.getCreatedAt()));
+                }));
+    }
+
+    private void createPartition(String partitionName, YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        pgJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName + " PARTITION OF " + PARENT_TABLE +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    private boolean isPartitioned() {
+        List<String> kinds = pgJdbcTemplate.queryForList(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.relname = ? AND pg_table_is_visible(c.oid)",
+                String.class, PARENT_TABLE);
+        return kinds.contains("p");
+    }
+
+    private List<String> listPartitions() {
+        return pgJdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class, PARENT_TABLE);
+    }
+
+    /**
+     * 持有会话级咨询锁执行任务，未获取到锁时直接返回 false
+     */
+    private boolean withMaintenanceLock(Runnable task) {
+        Boolean executed = pgJdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                ps.setLong(1, MAINTENANCE_LOCK_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || !rs.getBoolean(1)) {
+                        return false;
+                    }
+                }
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    ps.setLong(1, MAINTENANCE_LOCK_KEY);
+                    ps.execute();
+                }
+            }
+        });
+        return Boolean.TRUE.equals(executed);
+    }
+
+    private AiChatMessageArchive findArchive(String partitionName) {
+        LambdaQueryWrapper<AiChatMessageArchive> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(AiChatMessageArchive::getPartitionName, partitionName);
+        return archiveMapper.selectOne(wrapper);
+    }
+
+    private Path archiveFile(String partitionName) {
+        return Paths.get(partitionProperties.getArchiveDir(), partitionName + ARCHIVE_SUFFIX);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+    }
+
+    /**
+     * 校验分区名并解析所属月份（分区名会拼接进 DDL，必须严格校验）
+     */
+    private static YearMonth parseMonth(String partitionName) {
+        if (partitionName == null || !PARTITION_NAME.matcher(partitionName).matches()) {
+            throw new RuntimeException("无效的分区名: " + partitionName);
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+        } catch (Exception e) {
+            throw new RuntimeException("无效的分区名: " + partitionName);
+        }
+    }
+
+    private static AiChatMessage toMessage(ResultSet rs) throws SQLException {
+        AiChatMessage message = new AiChatMessage();
+        message.setId(rs.getLong("id"));
+        message.setSessionId(rs.getString("session_id"));
+        message.setRole(rs.getString("role"));
+        message.setContent(rs.getString("content"));
+        message.setTokensUsed(rs.getObject("tokens_used", Integer.class));
+        message.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return message;
+    }
+
+    private void writeLine(OutputStream out, AiChatMessage message) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(message));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.star.swiftAi.service.impl;
+
+import com.star.swiftAi.entity.AiChatSession;
+import com.star.swiftAi.properties.AiPurgeProperties;
+import com.star.swiftAi.service.MessagePurgeService;
+import com.star.swiftAi.service.MessageVectorIndexService;
+import com.star.swiftCommon.properties.CommonProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 聊天数据清理服务实现
+ *
+ * 删除会话只删除 ai_chat_session 记录，消息表没有外键级联，由本任务在后台回收：
+ * 先按保留期分批删除过期会话，再按主键区间 [lo, lo + chunkSize) 分块扫描消息表，删除会话已不存在的孤儿消息。
+ * 每块是一条独立提交的短语句，块之间休眠，避免长事务和大量死元组同时产生；
+ * 多节点通过 Redis 锁（SET NX PX + Lua 比较删除）保证同一时刻只有一个节点执行
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+public class MessagePurgeServiceImpl implements MessagePurgeService {
+
+    public static final String TYPE_EXPIRED_SESSIONS = "expired_sessions";
+    public static final String TYPE_ORPHAN_MESSAGES = "orphan_messages";
+
+    private static final String LOCK_SUFFIX = ":ai:purge:lock";
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private static final String ID_RANGE_SQL = "SELECT min(id), max(id) FROM ai_chat_message";
+
+    private static final String DELETE_ORPHAN_SQL =
+            "DELETE FROM ai_chat_message m WHERE m.id >= ? AND m.id < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM ai_chat_session s WHERE s.session_id = m.session_id)";
+
+    private static final String SELECT_EXPIRED_SQL =
+            "SELECT session_id FROM ai_chat_session WHERE updated_at < ? ORDER BY updated_at LIMIT ?";
+
+    private static final String SELECT_EXPIRED_BY_SOURCE_SQL =
+            "SELECT session_id FROM ai_chat_session WHERE updated_at < ? AND source = ? ORDER BY updated_at LIMIT ?";
+
+    private static final String DELETE_SESSIONS_SQL = "DELETE FROM ai_chat_session WHERE session_id = ANY(?)";
+
+    private final AiPurgeProperties purgeProperties;
+    private final MessageVectorIndexService messageVectorIndexService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CommonProperties commonProperties;
+    private final JdbcTemplate pgJdbcTemplate;
+    private final Counter expiredSessionCounter;
+    private final Counter orphanMessageCounter;
+
+    public MessagePurgeServiceImpl(AiPurgeProperties purgeProperties,
+                                   MessageVectorIndexService messageVectorIndexService,
+                                   StringRedisTemplate stringRedisTemplate,
+                                   CommonProperties commonProperties,
+                                   MeterRegistry meterRegistry,
+                                   @Qualifier("pgJdbcTemplate") JdbcTemplate pgJdbcTemplate) {
+        this.purgeProperties = purgeProperties;
+        this.messageVectorIndexService = messageVectorIndexService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.commonProperties = commonProperties;
+        this.pgJdbcTemplate = pgJdbcTemplate;
+        this.expiredSessionCounter = rowsCounter(meterRegistry, TYPE_EXPIRED_SESSIONS);
+        this.orphanMessageCounter = rowsCounter(meterRegistry, TYPE_ORPHAN_MESSAGES);
+    }
+
+    @Scheduled(cron = "${app.ai.purge.cron:0 0 4 * * ?}")
+    public void scheduledPurge() {
+        if (!purgeProperties.isEnabled()) {
+            return;
+        }
+        try {
+            purge();
+        } catch (Exception e) {
+            log.error("聊天数据清理失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> purge() {
+        String lockKey = commonProperties.getName() + LOCK_SUFFIX;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, purgeProperties.getLockTtl());
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.info("其他节点正在执行聊天数据清理，本次跳过");
+            return Map.of();
+        }
+
+        Map<String, Long> removed = new LinkedHashMap<>();
+        long start = System.currentTimeMillis();
+        try {
+            // 先删除过期会话，其消息随后作为孤儿消息按区间回收
+            removed.put(TYPE_EXPIRED_SESSIONS, purgeExpiredSessions(lockKey, token));
+            removed.put(TYPE_ORPHAN_MESSAGES, purgeOrphanMessages(lockKey, token));
+            log.info("聊天数据清理完成: removed={}, 耗时={}ms", removed, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("聊天数据清理被中断: removed={}", removed);
+        } finally {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        }
+        return removed;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 按保留期分批删除过期会话：导入会话可单独配置更短的保留期
+     */
+    private long purgeExpiredSessions(String lockKey, String token) throws InterruptedException {
+        long total = 0;
+        int importedDays = purgeProperties.getImportedRetentionDays();
+        if (importedDays > 0) {
+            total += purgeSessionsBefore(LocalDateTime.now().minusDays(importedDays), AiChatSession.SOURCE_IMPORT, lockKey, token);
+        }
+        int sessionDays = purgeProperties.getSessionRetentionDays();
+        if (sessionDays > 0) {
+            total += purgeSessionsBefore(LocalDateTime.now().minusDays(sessionDays), null, lockKey, token);
+        }
+        return total;
+    }
+
+    private long purgeSessionsBefore(LocalDateTime cutoff, String source, String lockKey, String token) throws InterruptedException {
+        int batchSize = Math.max(1, purgeProperties.getChunkSize());
+        Timestamp threshold = Timestamp.valueOf(cutoff);
+        long total = 0;
+        while (true) {
+            List<String> sessionIds = source == null
+                    ? pgJdbcTemplate.queryForList(SELECT_EXPIRED_SQL, String.class, threshold, batchSize)
+                    : pgJdbcTemplate.queryForList(SELECT_EXPIRED_BY_SOURCE_SQL, String.class, threshold, source, batchSize);
+            if (sessionIds.isEmpty()) {
+                return total;
+            }
+            // 向量分区路径依赖会话记录，必须在删除会话之前释放
+            for (String sessionId : sessionIds) {
+                try {
+                    messageVectorIndexService.removeSession(sessionId);
+                } catch (Exception e) {
+                    log.warn("释放会话向量分区失败: sessionId={}, error={}", sessionId, e.getMessage());
+                }
+            }
+            int deleted = pgJdbcTemplate.update(DELETE_SESSIONS_SQL,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", sessionIds.toArray())));
+            total += deleted;
+            expiredSessionCounter.increment(deleted);
+            log.debug("删除过期会话: count={}, cutoff={}, source={}", deleted, cutoff, source);
+
+            if (sessionIds.size() < batchSize) {
+                return total;
+            }
+            pause(lockKey, token);
+        }
+    }
+
+    /**
+     * 按主键区间分块删除孤儿消息，只在删除了数据的块之后休眠
+     */
+    private long purgeOrphanMessages(String lockKey, String token) throws InterruptedException {
+        Map<String, Object> range = pgJdbcTemplate.queryForMap(ID_RANGE_SQL);
+        Number minId = (Number) range.get("min");
+        Number maxId = (Number) range.get("max");
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long chunk = Math.max(1, purgeProperties.getChunkSize());
+        long upper = maxId.longValue();
+        long total = 0;
+        for (long lo = minId.longValue(); lo <= upper; lo += chunk) {
+            int deleted = pgJdbcTemplate.update(DELETE_ORPHAN_SQL, lo, lo + chunk);
+            if (deleted > 0) {
+                total += deleted;
+                orphanMessageCounter.increment(deleted);
+                pause(lockKey, token);
+            } else if (!renewLock(lockKey, token)) {
+                throw new IllegalStateException("聊天数据清理锁已失效");
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 块间休眠并续期锁，锁已被其他节点取得时终止本次清理
+     */
+    private void pause(String lockKey, String token) throws InterruptedException {
+        long sleepMillis = purgeProperties.getSleepMillis();
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+        if (!renewLock(lockKey, token)) {
+            throw new IllegalStateException("聊天数据清理锁已失效");
+        }
+    }
+
+    private boolean renewLock(String lockKey, String token) {
+        Long result = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(lockKey), token,
+                String.valueOf(purgeProperties.getLockTtl().toMillis()));
+        return result != null && result > 0;
+    }
+
+    private static Counter rowsCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("ai.purge.rows")
+                .description("聊天数据清理删除的行数")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
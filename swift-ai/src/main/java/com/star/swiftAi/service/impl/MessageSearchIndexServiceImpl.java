@@ -0,0 +1,76 @@
+package com.star.swiftAi.service.impl;
+
+import com.star.swiftAi.properties.AiMessageSearchProperties;
+import com.star.swiftAi.service.MessageSearchIndexService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 聊天记录检索索引服务实现
+ *
+ * 消息写入时 search_tsv 为空，不进入两个 GIN 部分索引；本任务按 created_at 倒序取一批待填充的消息，
+ * 计算 to_tsvector('simple', content) 后写回，行随之进入倒排索引。每批是一条独立提交的语句，
+ * 取批时使用 FOR UPDATE SKIP LOCKED，多节点同时执行时各自处理不同的行，无需分布式锁
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+public class MessageSearchIndexServiceImpl implements MessageSearchIndexService {
+
+    private static final String INDEX_BATCH_SQL =
+            "UPDATE ai_chat_message m SET search_tsv = to_tsvector('simple', m.content) " +
+            "FROM (SELECT id, created_at FROM ai_chat_message WHERE search_tsv IS NULL " +
+            "ORDER BY created_at DESC LIMIT ? FOR UPDATE SKIP LOCKED) p " +
+            "WHERE m.id = p.id AND m.created_at = p.created_at";
+
+    private final AiMessageSearchProperties searchProperties;
+    private final JdbcTemplate pgJdbcTemplate;
+    private final Counter indexedCounter;
+
+    public MessageSearchIndexServiceImpl(AiMessageSearchProperties searchProperties,
+                                         MeterRegistry meterRegistry,
+                                         @Qualifier("pgJdbcTemplate") JdbcTemplate pgJdbcTemplate) {
+        this.searchProperties = searchProperties;
+        this.pgJdbcTemplate = pgJdbcTemplate;
+        this.indexedCounter = Counter.builder("ai.search.indexed")
+                .description("后台填充检索向量的消息数")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.search.index-interval:5s}")
+    public void scheduledIndex() {
+        if (!searchProperties.isIndexEnabled()) {
+            return;
+        }
+        try {
+            indexPending();
+        } catch (Exception e) {
+            log.error("填充检索向量失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long indexPending() {
+        int batchSize = Math.max(1, searchProperties.getBatchSize());
+        int maxBatches = Math.max(1, searchProperties.getMaxBatches());
+        long total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int updated = pgJdbcTemplate.update(INDEX_BATCH_SQL, batchSize);
+            total += updated;
+            indexedCounter.increment(updated);
+            if (updated < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.debug("填充检索向量: rows={}", total);
+        }
+        return total;
+    }
+}
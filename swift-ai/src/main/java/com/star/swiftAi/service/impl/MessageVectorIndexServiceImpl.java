@@ -0,0 +1,357 @@
+package com.star.swiftAi.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.star.swiftAi.core.model.Message;
+import com.star.swiftAi.core.vector.HnswIndex;
+import com.star.swiftAi.core.vector.MappedVectorStore;
+import com.star.swiftAi.core.vector.VectorSearchResult;
+import com.star.swiftAi.entity.AiChatMessage;
+import com.star.swiftAi.entity.AiChatSession;
+import com.star.swiftAi.mapper.postgresql.AiChatMessageMapper;
+import com.star.swiftAi.mapper.postgresql.AiChatSessionMapper;
+import com.star.swiftAi.properties.AiRetrievalProperties;
+import com.star.swiftAi.service.EmbeddingService;
+import com.star.swiftAi.service.MessageVectorIndexService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * 聊天消息向量索引服务实现
+ *
+ * 每个会话一个分区：{indexDir}/{userId}/{sessionId}.vec
+ * 向量通过内存映射文件保存在堆外并在写入时持久化，分区打开时由向量文件重建 HNSW 图，无需重新计算嵌入
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+public class MessageVectorIndexServiceImpl implements MessageVectorIndexService {
+
+    private static final String FILE_SUFFIX = ".vec";
+
+    private final AiRetrievalProperties retrievalProperties;
+    private final EmbeddingService embeddingService;
+    private final AiChatSessionMapper aiChatSessionMapper;
+    private final AiChatMessageMapper aiChatMessageMapper;
+    private final Executor vectorIndexExecutor;
+
+    /**
+     * 已打开的分区（访问顺序，超出上限时淘汰最久未使用的分区）
+     * 分区按引用计数使用，被淘汰或移除的分区在最后一个使用者释放后才关闭
+     */
+    private final Map<String, Partition> partitions;
+
+    public MessageVectorIndexServiceImpl(AiRetrievalProperties retrievalProperties,
+                                         EmbeddingService embeddingService,
+                                         AiChatSessionMapper aiChatSessionMapper,
+                                         AiChatMessageMapper aiChatMessageMapper,
+                                         @Qualifier("vectorIndexExecutor") Executor vectorIndexExecutor) {
+        this.retrievalProperties = retrievalProperties;
+        this.embeddingService = embeddingService;
+        this.aiChatSessionMapper = aiChatSessionMapper;
+        this.aiChatMessageMapper = aiChatMessageMapper;
+        this.vectorIndexExecutor = vectorIndexExecutor;
+        this.partitions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Partition> eldest) {
+                if (size() > retrievalProperties.getMaxOpenPartitions()) {
+                    retire(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return retrievalProperties.isEnabled() && embeddingService.isAvailable();
+    }
+
+    @Override
+    public void indexMessageAsync(String sessionId, Long messageId, String content) {
+        if (!isEnabled() || sessionId == null || messageId == null || content == null || content.isBlank()) {
+            return;
+        }
+        try {
+            vectorIndexExecutor.execute(() -> indexMessage(sessionId, messageId, content));
+        } catch (RejectedExecutionException e) {
+            log.warn("向量索引队列已满，跳过消息: sessionId={}, messageId={}", sessionId, messageId);
+        }
+    }
+
+    @Override
+    public List<VectorSearchResult> search(String sessionId, String query, int topK) {
+        if (!isEnabled() || query == null || query.isBlank()) {
+            return List.of();
+        }
+        Partition partition = null;
+        try {
+            partition = acquirePartition(sessionId, 0);
+            if (partition == null || partition.index.size() == 0) {
+                return List.of();
+            }
+            HnswIndex index = partition.index;
+            float[] vector = embeddingService.embed(query);
+            if (vector.length != index.getDimension()) {
+                log.warn("查询向量维度与分区不一致，跳过检索: sessionId={}", sessionId);
+                return List.of();
+            }
+            return index.search(vector, topK, retrievalProperties.getEfSearch()).stream()
+                    .filter(result -> result.getScore() >= retrievalProperties.getMinScore())
+                    .toList();
+        } catch (Exception e) {
+            log.warn("向量检索失败: sessionId={}, error={}", sessionId, e.getMessage());
+            return List.of();
+        } finally {
+            release(partition);
+        }
+    }
+
+    @Override
+    public List<Message> retrieve(String conversationId, String query, int topK) {
+        List<VectorSearchResult> results = search(conversationId, query, topK);
+        if (results.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = results.stream().map(VectorSearchResult::getMessageId).toList();
+        Map<Long, Float> scores = new LinkedHashMap<>();
+        results.forEach(result -> scores.put(result.getMessageId(), result.getScore()));
+
+        List<AiChatMessage> rows = new ArrayList<>(aiChatMessageMapper.selectByIds(ids));
+        rows.sort(Comparator.comparing(AiChatMessage::getId));
+
+        List<Message> messages = new ArrayList<>(rows.size());
+        for (AiChatMessage row : rows) {
+            Message message = Message.of(row.getRole(), row.getContent());
+            message.putMetadata("dbMessageId", row.getId());
+            message.putMetadata("retrievalScore", scores.get(row.getId()));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    @Override
+    public void removeSession(String sessionId) {
+        synchronized (partitions) {
+            Partition partition = partitions.remove(sessionId);
+            if (partition != null) {
+                retire(partition);
+            }
+        }
+        try {
+            Path path = resolvePath(sessionId);
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("删除向量索引文件失败: sessionId={}, error={}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * 启动后在后台预加载最近活跃的分区，提前完成图结构重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadPartitions() {
+        if (!isEnabled() || retrievalProperties.getPreloadPartitions() <= 0) {
+            return;
+        }
+        Path root = Paths.get(retrievalProperties.getIndexDir());
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try {
+            vectorIndexExecutor.execute(() -> {
+                long start = System.currentTimeMillis();
+                List<Path> files;
+                try (Stream<Path> stream = Files.walk(root, 2)) {
+                    files = stream.filter(path -> path.toString().endsWith(FILE_SUFFIX))
+                            .sorted(Comparator.comparingLong(this::lastModified).reversed())
+                            .limit(retrievalProperties.getPreloadPartitions())
+                            .toList();
+                } catch (IOException e) {
+                    log.warn("扫描向量索引目录失败: {}", e.getMessage());
+                    return;
+                }
+                int loaded = 0;
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    String sessionId = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+                    try {
+                        Partition partition = openPartition(sessionId, file, 0);
+                        if (partition != null) {
+                            release(partition);
+                            loaded++;
+                        }
+                    } catch (IOException e) {
+                        log.warn("预加载向量分区失败: file={}, error={}", file, e.getMessage());
+                    }
+                }
+                log.info("向量索引预加载完成: partitions={}, cost={}ms", loaded, System.currentTimeMillis() - start);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("向量索引预加载任务被拒绝");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (partitions) {
+            partitions.values().forEach(partition -> closeQuietly(partition.sessionId, partition.index));
+            partitions.clear();
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void indexMessage(String sessionId, Long messageId, String content) {
+        Partition partition = null;
+        try {
+            float[] vector = embeddingService.embed(content);
+            partition = acquirePartition(sessionId, vector.length);
+            if (partition == null) {
+                log.debug("会话不存在，跳过向量索引: sessionId={}", sessionId);
+                return;
+            }
+            partition.index.add(messageId, vector);
+            log.debug("消息已加入向量索引: sessionId={}, messageId={}, size={}", sessionId, messageId, partition.index.size());
+        } catch (Exception e) {
+            log.warn("消息向量索引失败: sessionId={}, messageId={}, error={}", sessionId, messageId, e.getMessage());
+        } finally {
+            release(partition);
+        }
+    }
+
+    /**
+     * 获取并占用分区，不存在时按需从文件加载；dimension 大于 0 时允许创建新分区
+     * 返回非 null 时调用方必须通过 release 释放
+     */
+    private Partition acquirePartition(String sessionId, int dimension) throws IOException {
+        synchronized (partitions) {
+            Partition partition = partitions.get(sessionId);
+            if (partition != null) {
+                partition.refs++;
+                return partition;
+            }
+        }
+        Path path = resolvePath(sessionId);
+        if (path == null) {
+            return null;
+        }
+        return openPartition(sessionId, path, dimension);
+    }
+
+    private Partition openPartition(String sessionId, Path path, int dimension) throws IOException {
+        synchronized (partitions) {
+            Partition partition = partitions.get(sessionId);
+            if (partition == null) {
+                if (dimension <= 0 && MappedVectorStore.readDimension(path) == 0) {
+                    return null;
+                }
+                MappedVectorStore store = MappedVectorStore.open(path, dimension, retrievalProperties.getInitialCapacity());
+                partition = new Partition(sessionId, new HnswIndex(store, retrievalProperties.getM(), retrievalProperties.getEfConstruction()));
+                // 先占用再放入，避免放入时触发的淘汰立即关闭新分区
+                partition.refs++;
+                partitions.put(sessionId, partition);
+                log.debug("打开向量分区: sessionId={}, size={}", sessionId, partition.index.size());
+                return partition;
+            }
+            partition.refs++;
+            return partition;
+        }
+    }
+
+    /**
+     * 释放分区占用；分区已被淘汰且无其他使用者时关闭
+     */
+    private void release(Partition partition) {
+        if (partition == null) {
+            return;
+        }
+        synchronized (partitions) {
+            partition.refs--;
+            if (partition.retired && partition.refs == 0) {
+                closeQuietly(partition.sessionId, partition.index);
+            }
+        }
+    }
+
+    /**
+     * 分区离开已打开集合：无使用者时立即关闭，否则由最后一个使用者释放时关闭（调用方持有 partitions 锁）
+     */
+    private void retire(Partition partition) {
+        partition.retired = true;
+        if (partition.refs == 0) {
+            closeQuietly(partition.sessionId, partition.index);
+        }
+    }
+
+    /**
+     * 解析会话分区文件路径：{indexDir}/{userId}/{sessionId}.vec
+     */
+    private Path resolvePath(String sessionId) {
+        AiChatSession session = aiChatSessionMapper.selectOne(new LambdaQueryWrapper<AiChatSession>()
+                .select(AiChatSession::getUserId)
+                .eq(AiChatSession::getSessionId, sessionId));
+        if (session == null) {
+            return null;
+        }
+        return Paths.get(retrievalProperties.getIndexDir(),
+                sanitize(session.getUserId()), sanitize(sessionId) + FILE_SUFFIX);
+    }
+
+    private String sanitize(String name) {
+        return name == null ? "_" : name.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void closeQuietly(String sessionId, HnswIndex index) {
+        try {
+            index.close();
+        } catch (IOException e) {
+            log.warn("关闭向量分区失败: sessionId={}, error={}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * 已打开的分区，引用计数与淘汰标记均由 partitions 锁保护
+     */
+    private static final class Partition {
+
+        private final String sessionId;
+        private final HnswIndex index;
+        private int refs;
+        private boolean retired;
+
+        private Partition(String sessionId, HnswIndex index) {
+            this.sessionId = sessionId;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.star.swiftAi.service.impl;
+
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
+import com.star.swiftAi.entity.AiProvider;
+import com.star.swiftAi.health.ProviderHealthStatus;
+import com.star.swiftAi.health.ProviderHealthWindow;
+import com.star.swiftAi.properties.AiProviderHealthProperties;
+import com.star.swiftAi.service.ProviderHealthService;
+import com.star.swiftAi.service.ProviderModelCatalogService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 供应商健康探测服务实现
+ *
+ * 探测即刷新供应商的模型目录（{@link ProviderModelCatalogService#refreshNow}，只请求模型列表接口，不产生 token 费用），
+ * 与目录缓存共用同一次请求；每个供应商一个虚拟线程并行执行，
+ * 结果写入该供应商的 {@link ProviderHealthWindow}；连续失败 downAfterFailures 次为 DOWN，
+ * 窗口错误率或最大延迟超过阈值为 DEGRADED。状态变化时记录日志，并通过 ai.provider.health 指标导出（UP=1，DEGRADED=0.5，DOWN=0）
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProviderHealthServiceImpl implements ProviderHealthService {
+
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
+    private final ProviderModelCatalogService providerModelCatalogService;
+    private final AiProviderHealthProperties healthProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, ProviderHealthWindow> windows = new ConcurrentHashMap<>();
+    private final ExecutorService probeExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-health-probe-", 0).factory());
+
+    @Override
+    public ProviderHealthStatus getStatus(Long providerId) {
+        return getSnapshot(providerId).status();
+    }
+
+    @Override
+    public boolean isAvailable(Long providerId) {
+        return getStatus(providerId).isAvailable();
+    }
+
+    @Override
+    public ProviderHealthWindow.Snapshot getSnapshot(Long providerId) {
+        ProviderHealthWindow window = providerId == null ? null : windows.get(providerId);
+        return window == null ? ProviderHealthWindow.Snapshot.UNKNOWN : window.snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.provider-health.interval:30s}", initialDelay = 5000)
+    public void scheduledProbe() {
+        if (!healthProperties.isEnabled()) {
+            return;
+        }
+        try {
+            probeAll();
+        } catch (Exception e) {
+            log.error("供应商健康探测失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void probeAll() {
+        Map<Long, AiProvider> providers = aiConfigSnapshotHolder.current().getProviders();
+        // 已删除或停用的供应商不再保留状态
+        windows.keySet().removeIf(id -> {
+            AiProvider provider = providers.get(id);
+            return provider == null || !Boolean.TRUE.equals(provider.getEnabled());
+        });
+
+        List<CompletableFuture<Void>> probes = new ArrayList<>();
+        for (AiProvider provider : providers.values()) {
+            if (Boolean.TRUE.equals(provider.getEnabled())) {
+                probes.add(CompletableFuture.runAsync(() -> probe(provider), probeExecutor));
+            }
+        }
+        if (probes.isEmpty()) {
+            return;
+        }
+        CompletableFuture.allOf(probes.toArray(CompletableFuture[]::new))
+                .orTimeout(healthProperties.getTimeout() * 2L, TimeUnit.SECONDS)
+                .exceptionally(e -> null)
+                .join();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void probe(AiProvider provider) {
+        ProviderHealthWindow window = windows.computeIfAbsent(provider.getId(), this::createWindow);
+        ProviderHealthStatus before = window.snapshot().status();
+
+        long start = System.nanoTime();
+        boolean success;
+        String error = null;
+        try {
+            // 超时只结束本次探测，目录拉取本身按自己的超时继续
+            providerModelCatalogService.refreshNow(provider).get(healthProperties.getTimeout(), TimeUnit.SECONDS);
+            success = true;
+        } catch (ExecutionException e) {
+            success = false;
+            error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        } catch (TimeoutException e) {
+            success = false;
+            error = "探测超时（" + healthProperties.getTimeout() + "s）";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long latency = (System.nanoTime() - start) / 1_000_000;
+
+        Timer.builder("ai.provider.probe")
+                .description("供应商健康探测耗时")
+                .tag("providerId", String.valueOf(provider.getId()))
+                .tag("outcome", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(latency, TimeUnit.MILLISECONDS);
+
+        ProviderHealthWindow.Snapshot snapshot = window.record(success, latency, error);
+        if (snapshot.status() != before) {
+            if (snapshot.status() == ProviderHealthStatus.UP) {
+                log.info("供应商健康状态变化: provider={}, {} -> {}", provider.getProviderName(), before, snapshot.status());
+            } else {
+                log.warn("供应商健康状态变化: provider={}, {} -> {}, errorRate={}, maxLatency={}ms, lastError={}",
+                        provider.getProviderName(), before, snapshot.status(), snapshot.errorRate(),
+                        snapshot.maxLatencyMillis(), snapshot.lastError());
+            }
+        }
+    }
+
+    private ProviderHealthWindow createWindow(Long providerId) {
+        // 指标按供应商ID读取当前窗口，窗口被移除后重新创建时无需重新注册
+        Gauge.builder("ai.provider.health", this, service -> gaugeValue(service.getStatus(providerId)))
+                .description("供应商健康状态（UP=1，DEGRADED=0.5，DOWN=0）")
+                .tag("providerId", String.valueOf(providerId))
+                .register(meterRegistry);
+        return new ProviderHealthWindow(healthProperties);
+    }
+
+    private static double gaugeValue(ProviderHealthStatus status) {
+        return switch (status) {
+            case UP -> 1;
+            case DEGRADED -> 0.5;
+            case DOWN -> 0;
+            case UNKNOWN -> Double.NaN;
+        };
+    }
+}
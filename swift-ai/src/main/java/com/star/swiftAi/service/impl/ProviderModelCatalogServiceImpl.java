@@ -0,0 +1,240 @@
+package com.star.swiftAi.service.impl;
+
+import com.star.swiftAi.cache.AiConfigSnapshotHolder;
+import com.star.swiftAi.core.factory.ProviderFactory;
+import com.star.swiftAi.core.provider.Provider;
+import com.star.swiftAi.entity.AiProvider;
+import com.star.swiftAi.properties.AiModelCatalogProperties;
+import com.star.swiftAi.service.ProviderModelCatalogService;
+import com.star.swiftAi.util.ApiKeyCryptoUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 供应商模型目录服务实现
+ *
+ * 每个供应商的目录记录拉取时所用配置的指纹（类型、地址、密钥），供应商配置变更后旧目录自动失效；
+ * 目录的下次刷新时间 = 拉取时间 + ttl × (1 ± jitter)，到期后访问直接返回旧值并在后台刷新，拉取失败时保留旧值并按 retryInterval 重试。
+ * 同一供应商同时只有一个拉取在进行，其余调用方等待同一结果；拉取在虚拟线程上执行，定时任务并行刷新所有启用的供应商。
+ * 启用健康探测时每次探测都经 refreshNow 拉取目录，目录总是新鲜的，定时刷新不会再产生额外请求
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProviderModelCatalogServiceImpl implements ProviderModelCatalogService {
+
+    private final AiConfigSnapshotHolder aiConfigSnapshotHolder;
+    private final ApiKeyCryptoUtil apiKeyCryptoUtil;
+    private final AiModelCatalogProperties catalogProperties;
+
+    private final Map<Long, CatalogEntry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<CatalogEntry>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService fetchExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-model-catalog-", 0).factory());
+
+    @Override
+    public List<String> getModels(Long providerId) {
+        AiProvider provider = aiConfigSnapshotHolder.current().getProvider(providerId);
+        if (provider == null) {
+            throw new RuntimeException("供应商不存在");
+        }
+        if (!Boolean.TRUE.equals(provider.getEnabled())) {
+            throw new RuntimeException("供应商未启用");
+        }
+
+        CatalogEntry entry = entries.get(providerId);
+        if (entry != null && entry.fingerprint().equals(fingerprint(provider))) {
+            if (entry.isDue(System.currentTimeMillis())) {
+                refresh(provider);
+            }
+            return entry.models();
+        }
+
+        try {
+            return refresh(provider).join().models();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public String firstModel(Long providerId) {
+        try {
+            List<String> models = getModels(providerId);
+            return models.isEmpty() ? null : models.get(0);
+        } catch (Exception e) {
+            log.warn("获取供应商模型目录失败: providerId={}, error={}", providerId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.model-catalog.check-interval:30s}",
+            initialDelayString = "${app.ai.model-catalog.check-interval:30s}")
+    public void scheduledRefresh() {
+        if (!catalogProperties.isRefreshEnabled()) {
+            return;
+        }
+        try {
+            refreshDue();
+        } catch (Exception e) {
+            log.error("刷新供应商模型目录失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void refreshDue() {
+        Map<Long, AiProvider> providers = aiConfigSnapshotHolder.current().getProviders();
+        // 已删除的供应商不再保留目录
+        entries.keySet().removeIf(id -> !providers.containsKey(id));
+
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<CatalogEntry>> refreshing = new ArrayList<>();
+        for (AiProvider provider : providers.values()) {
+            if (!Boolean.TRUE.equals(provider.getEnabled())) {
+                entries.remove(provider.getId());
+                continue;
+            }
+            CatalogEntry entry = entries.get(provider.getId());
+            if (entry == null || !entry.fingerprint().equals(fingerprint(provider)) || entry.isDue(now)) {
+                refreshing.add(refresh(provider));
+            }
+        }
+        if (refreshing.isEmpty()) {
+            return;
+        }
+
+        // 等待本轮结束，避免下一轮检查与仍在进行的拉取重叠；失败已在拉取时记录
+        CompletableFuture.allOf(refreshing.toArray(CompletableFuture[]::new))
+                .orTimeout(catalogProperties.getFetchTimeout() * 2L, TimeUnit.SECONDS)
+                .exceptionally(e -> null)
+                .join();
+        long failed = refreshing.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        log.debug("供应商模型目录刷新完成: total={}, failed={}", refreshing.size(), failed);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> refreshNow(AiProvider provider) {
+        return refresh(provider).thenApply(CatalogEntry::models);
+    }
+
+    @Override
+    public void evict(Long providerId) {
+        entries.remove(providerId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 发起拉取，同一供应商已有拉取在进行时返回该拉取
+     */
+    private CompletableFuture<CatalogEntry> refresh(AiProvider provider) {
+        Long providerId = provider.getId();
+        CompletableFuture<CatalogEntry> future = new CompletableFuture<>();
+        CompletableFuture<CatalogEntry> existing = inFlight.putIfAbsent(providerId, future);
+        if (existing != null) {
+            return existing;
+        }
+        fetchExecutor.execute(() -> {
+            try {
+                CatalogEntry entry = fetch(provider);
+                inFlight.remove(providerId, future);
+                future.complete(entry);
+            } catch (Throwable e) {
+                inFlight.remove(providerId, future);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private CatalogEntry fetch(AiProvider provider) throws Exception {
+        String fingerprint = fingerprint(provider);
+        long start = System.currentTimeMillis();
+        try {
+            List<String> models = List.copyOf(createProvider(provider).getModels());
+            long now = System.currentTimeMillis();
+            CatalogEntry entry = new CatalogEntry(fingerprint, models, now, now + jitteredTtlMillis());
+            CatalogEntry previous = entries.put(provider.getId(), entry);
+            // 健康探测每个周期都会刷新目录，只在模型列表变化时记录 info 日志
+            if (previous == null || !previous.models().equals(models)) {
+                log.info("供应商模型目录已更新: providerCode={}, modelCount={}, cost={}ms",
+                        provider.getProviderCode(), models.size(), System.currentTimeMillis() - start);
+            } else {
+                log.debug("供应商模型目录未变化: providerCode={}, cost={}ms", provider.getProviderCode(), System.currentTimeMillis() - start);
+            }
+            return entry;
+        } catch (Exception e) {
+            // 保留旧目录继续提供服务，推迟下次重试
+            long retryAt = System.currentTimeMillis() + catalogProperties.getRetryInterval().toMillis();
+            entries.computeIfPresent(provider.getId(), (id, old) ->
+                    old.fingerprint().equals(fingerprint) ? old.retryAt(retryAt) : old);
+            log.warn("拉取供应商模型目录失败: providerCode={}, error={}", provider.getProviderCode(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private Provider createProvider(AiProvider provider) throws Exception {
+        String decryptedApiKey = apiKeyCryptoUtil.decryptApiKeyString(provider.getApiKey());
+
+        Map<String, Object> providerConfig = new HashMap<>();
+        providerConfig.put("api_key", decryptedApiKey);
+        providerConfig.put("base_url", provider.getBaseUrl());
+        providerConfig.put("timeout", catalogProperties.getFetchTimeout());
+
+        return ProviderFactory.createProvider(provider.getProviderCode(), providerConfig, new HashMap<>());
+    }
+
+    private long jitteredTtlMillis() {
+        long ttl = catalogProperties.getTtl().toMillis();
+        double jitter = Math.max(0, Math.min(1, catalogProperties.getJitter()));
+        double factor = 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return Math.max(1000, (long) (ttl * factor));
+    }
+
+    private static String fingerprint(AiProvider provider) {
+        return provider.getProviderCode() + "|" + provider.getBaseUrl() + "|" + Objects.hashCode(provider.getApiKey());
+    }
+
+    /**
+     * 单个供应商的模型目录
+     *
+     * @param fingerprint 拉取时的供应商配置指纹
+     * @param models      模型编码列表（不可变）
+     * @param fetchedAt   拉取时间
+     * @param refreshAt   下次刷新时间
+     */
+    private record CatalogEntry(String fingerprint, List<String> models, long fetchedAt, long refreshAt) {
+
+        boolean isDue(long now) {
+            return now >= refreshAt;
+        }
+
+        CatalogEntry retryAt(long time) {
+            return new CatalogEntry(fingerprint, models, fetchedAt, time);
+        }
+    }
+}
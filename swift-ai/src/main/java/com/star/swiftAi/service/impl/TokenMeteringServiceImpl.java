@@ -0,0 +1,320 @@
+package com.star.swiftAi.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.star.swiftAi.dto.TokenQuotaDTO;
+import com.star.swiftAi.entity.AiTokenUsageDaily;
+import com.star.swiftAi.exception.AiRejectedException;
+import com.star.swiftAi.mapper.postgresql.AiTokenUsageDailyMapper;
+import com.star.swiftAi.properties.AiMeteringProperties;
+import com.star.swiftAi.service.TokenMeteringService;
+import com.star.swiftCommon.properties.CommonProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token 计量与配额服务实现
+ *
+ * 用量按 (用户, 模型, 日期) 累加到 {@link LongAdder}（内部分段，高并发下无锁竞争），
+ * 定时任务读取每个计数器的当前值后减去该值再批量 upsert 到 ai_token_usage_daily，
+ * 读取与扣减之间并发累加的部分保留在计数器中，下次写入，不会丢失；写入失败时把已扣减的值加回。
+ *
+ * 配额按用户和日期在 Redis 中累加（{app.name}:ai:quota:{yyyyMMdd}:{userId}[:{modelId}]），
+ * 调用模型前检查，超出时拒绝；检查只看调用前的已用量，单次调用可能略微超出配额
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Service
+public class TokenMeteringServiceImpl implements TokenMeteringService {
+
+    private static final String QUOTA_SEGMENT = ":ai:quota:";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * 配额计数器的过期时间（覆盖跨天后的查询）
+     */
+    private static final Duration QUOTA_KEY_TTL = Duration.ofDays(2);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO ai_token_usage_daily (usage_date, user_id, model_id, prompt_tokens, completion_tokens, request_count, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (usage_date, user_id, model_id) DO UPDATE SET " +
+            "prompt_tokens = ai_token_usage_daily.prompt_tokens + EXCLUDED.prompt_tokens, " +
+            "completion_tokens = ai_token_usage_daily.completion_tokens + EXCLUDED.completion_tokens, " +
+            "request_count = ai_token_usage_daily.request_count + EXCLUDED.request_count, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final AiMeteringProperties meteringProperties;
+    private final AiTokenUsageDailyMapper tokenUsageDailyMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CommonProperties commonProperties;
+    private final JdbcTemplate pgJdbcTemplate;
+    private final Counter promptTokenCounter;
+    private final Counter completionTokenCounter;
+    private final Counter quotaRejectedCounter;
+
+    private final Map<UsageKey, UsageCounter> counters = new ConcurrentHashMap<>();
+
+    public TokenMeteringServiceImpl(AiMeteringProperties meteringProperties,
+                                    AiTokenUsageDailyMapper tokenUsageDailyMapper,
+                                    StringRedisTemplate stringRedisTemplate,
+                                    CommonProperties commonProperties,
+                                    MeterRegistry meterRegistry,
+                                    @Qualifier("pgJdbcTemplate") JdbcTemplate pgJdbcTemplate) {
+        this.meteringProperties = meteringProperties;
+        this.tokenUsageDailyMapper = tokenUsageDailyMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.commonProperties = commonProperties;
+        this.pgJdbcTemplate = pgJdbcTemplate;
+        this.promptTokenCounter = Counter.builder("ai.tokens").tag("type", "prompt").register(meterRegistry);
+        this.completionTokenCounter = Counter.builder("ai.tokens").tag("type", "completion").register(meterRegistry);
+        this.quotaRejectedCounter = Counter.builder("ai.quota.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public void checkQuota(String userId, Long modelId) {
+        if (!meteringProperties.isQuotaEnabled()) {
+            return;
+        }
+        String user = normalizeUser(userId);
+        long userLimit = userLimit(user);
+        long modelLimit = modelLimit(modelId);
+        if (userLimit <= 0 && modelLimit <= 0) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        List<String> values;
+        try {
+            values = stringRedisTemplate.opsForValue().multiGet(List.of(quotaKey(today, user, null), quotaKey(today, user, modelId)));
+        } catch (Exception e) {
+            // Redis 不可用时放行，避免配额检查影响正常对话
+            log.warn("读取配额计数失败，本次放行: userId={}, error={}", user, e.getMessage());
+            return;
+        }
+        long userUsed = parse(values, 0);
+        long modelUsed = parse(values, 1);
+        if (userLimit > 0 && userUsed >= userLimit) {
+            reject(user, modelId, userUsed, userLimit);
+        }
+        if (modelLimit > 0 && modelUsed >= modelLimit) {
+            reject(user, modelId, modelUsed, modelLimit);
+        }
+    }
+
+    @Override
+    public void record(String userId, Long modelId, long promptTokens, long completionTokens) {
+        if (!meteringProperties.isEnabled() || modelId == null) {
+            return;
+        }
+        long prompt = Math.max(0, promptTokens);
+        long completion = Math.max(0, completionTokens);
+        String user = normalizeUser(userId);
+        LocalDate today = LocalDate.now();
+
+        UsageCounter counter = counters.computeIfAbsent(new UsageKey(today, user, modelId), key -> new UsageCounter());
+        counter.prompt.add(prompt);
+        counter.completion.add(completion);
+        counter.requests.increment();
+        promptTokenCounter.increment(prompt);
+        completionTokenCounter.increment(completion);
+
+        long total = prompt + completion;
+        if (meteringProperties.isQuotaEnabled() && total > 0) {
+            try {
+                incrementQuota(quotaKey(today, user, null), total);
+                if (modelLimit(modelId) > 0) {
+                    incrementQuota(quotaKey(today, user, modelId), total);
+                }
+            } catch (Exception e) {
+                log.warn("累加配额计数失败: userId={}, error={}", user, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.metering.flush-interval:30s}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("写入Token用量失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("关闭前写入Token用量失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (counters.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<UsageRow> rows = new ArrayList<>();
+        for (Map.Entry<UsageKey, UsageCounter> entry : counters.entrySet()) {
+            UsageKey key = entry.getKey();
+            UsageCounter counter = entry.getValue();
+            UsageRow row = counter.drain(key);
+            if (row != null) {
+                rows.add(row);
+            } else if (key.day().isBefore(today)) {
+                // 往日的计数器只在跨零点的请求完成前还会累加：取出的那一轮保留，之后某轮为零时才移除
+                counters.remove(key, counter);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            pgJdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setDate(1, Date.valueOf(row.key().day()));
+                ps.setString(2, row.key().userId());
+                ps.setLong(3, row.key().modelId());
+                ps.setLong(4, row.prompt());
+                ps.setLong(5, row.completion());
+                ps.setLong(6, row.requests());
+            });
+            log.debug("写入Token用量: rows={}", rows.size());
+        } catch (Exception e) {
+            // 写入失败时把增量加回计数器，下次重试
+            for (UsageRow row : rows) {
+                counters.computeIfAbsent(row.key(), key -> new UsageCounter()).restore(row);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public TokenQuotaDTO getQuota(String userId) {
+        String user = normalizeUser(userId);
+        LocalDate today = LocalDate.now();
+        TokenQuotaDTO quota = new TokenQuotaDTO();
+        quota.setDate(today);
+        String used = stringRedisTemplate.opsForValue().get(quotaKey(today, user, null));
+        quota.setUsedTokens(used != null ? Long.parseLong(used) : 0);
+        long limit = userLimit(user);
+        quota.setLimitTokens(meteringProperties.isQuotaEnabled() && limit > 0 ? limit : null);
+        return quota;
+    }
+
+    @Override
+    public List<AiTokenUsageDaily> listDailyUsage(String userId, int days) {
+        LambdaQueryWrapper<AiTokenUsageDaily> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(AiTokenUsageDaily::getUserId, normalizeUser(userId))
+                .ge(AiTokenUsageDaily::getUsageDate, LocalDate.now().minusDays(Math.max(1, days) - 1L))
+                .orderByDesc(AiTokenUsageDaily::getUsageDate)
+                .orderByAsc(AiTokenUsageDaily::getModelId);
+        return tokenUsageDailyMapper.selectList(wrapper);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void incrementQuota(String key, long delta) {
+        Long value = stringRedisTemplate.opsForValue().increment(key, delta);
+        if (value != null && value == delta) {
+            stringRedisTemplate.expire(key, QUOTA_KEY_TTL);
+        }
+    }
+
+    private void reject(String user, Long modelId, long used, long limit) {
+        quotaRejectedCounter.increment();
+        log.info("超出每日Token配额: userId={}, modelId={}, used={}, limit={}", user, modelId, used, limit);
+        // 配额按自然日重置，建议在次日零点后重试
+        long retryAfter = Duration.between(LocalDateTime.now(), LocalDate.now().plusDays(1).atStartOfDay()).toSeconds();
+        throw new AiRejectedException("今日Token配额已用完（" + used + "/" + limit + "）", "quota", "QUOTA_EXCEEDED", 429, retryAfter);
+    }
+
+    private long userLimit(String user) {
+        if (ANONYMOUS_USER.equals(user)) {
+            return meteringProperties.getAnonymousDailyTokenLimit();
+        }
+        return meteringProperties.getUserDailyTokenLimits().getOrDefault(user, meteringProperties.getDailyTokenLimit());
+    }
+
+    private long modelLimit(Long modelId) {
+        if (modelId == null) {
+            return 0;
+        }
+        Long limit = meteringProperties.getModelDailyTokenLimits().get(modelId);
+        return limit != null ? limit : 0;
+    }
+
+    private String quotaKey(LocalDate day, String user, Long modelId) {
+        String key = commonProperties.getName() + QUOTA_SEGMENT + day.format(DAY_FORMAT) + ":" + user;
+        return modelId != null ? key + ":" + modelId : key;
+    }
+
+    private static long parse(List<String> values, int index) {
+        if (values == null || values.size() <= index || values.get(index) == null) {
+            return 0;
+        }
+        return Long.parseLong(values.get(index));
+    }
+
+    private static String normalizeUser(String userId) {
+        return userId != null ? userId : ANONYMOUS_USER;
+    }
+
+    private record UsageKey(LocalDate day, String userId, Long modelId) {
+    }
+
+    private record UsageRow(UsageKey key, long prompt, long completion, long requests) {
+    }
+
+    /**
+     * 单个 (用户, 模型, 日期) 的计数器
+     */
+    private static final class UsageCounter {
+
+        private final LongAdder prompt = new LongAdder();
+        private final LongAdder completion = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+
+        /**
+         * 取出当前值并从计数器中扣减，没有增量时返回null
+         */
+        UsageRow drain(UsageKey key) {
+            long p = prompt.sum();
+            long c = completion.sum();
+            long r = requests.sum();
+            if (p == 0 && c == 0 && r == 0) {
+                return null;
+            }
+            prompt.add(-p);
+            completion.add(-c);
+            requests.add(-r);
+            return new UsageRow(key, p, c, r);
+        }
+
+        void restore(UsageRow row) {
+            prompt.add(row.prompt());
+            completion.add(row.completion());
+            requests.add(row.requests());
+        }
+    }
+}
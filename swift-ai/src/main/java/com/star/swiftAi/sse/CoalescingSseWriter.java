@@ -0,0 +1,225 @@
+package com.star.swiftAi.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.dto.StreamChatResponseDTO;
+import com.star.swiftAi.properties.AiSseProperties;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 合并写出的 SSE 写入器
+ *
+ * 模型每输出一个分块就发送一次事件时，每个 token 都要做一次 JSON 序列化和一次 flush。
+ * 本写入器把连续的增量缓冲起来，在超过时间窗口或字节阈值时合并成一个事件发送：
+ * 第一个有内容的分块立即发送，保证首字延迟不变；结束分块到达时先发送缓冲内容，再单独发送结束事件；
+ * 缓冲期间没有新分块到达时由定时任务在窗口到期后发送。窗口关闭合并时退化为逐分块发送。
+ * 定时线程只负责在到期时把发送交给 flushExecutor（虚拟线程），阻塞的发送和 Redis 追加不在定时线程上执行，慢客户端只拖慢自己的流。
+ *
+ * 事件ID为从1开始递增的序号，每个事件同时追加到 {@link GenerationStreamStore}，断线后可凭 Last-Event-ID 续读；
+ * 事件数据只序列化一次，直播和续读发送的是同一段 JSON。
+ * 非线程安全的 {@link SseEmitter} 发送统一在本对象的锁内完成（使用 ReentrantLock，虚拟线程阻塞在发送上时不占用载体线程）
+ *
+ * @author SHOOTING_STAR_C
+ */
+public class CoalescingSseWriter {
+
+    private final SseEmitter emitter;
+    private final String generationId;
+    private final AiSseProperties.Window window;
+    private final ScheduledExecutorService scheduler;
+    private final Executor flushExecutor;
+    private final Consumer<Exception> failureHandler;
+    private final ObjectMapper objectMapper;
+    private final GenerationStreamStore streamStore;
+    private final Counter chunkCounter;
+    private final Counter eventCounter;
+    private final long maxDelayNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final StringBuilder pending = new StringBuilder();
+    private int pendingBytes;
+    private StreamChatResponseDTO latest;
+    private long lastSendNanos;
+    private long sequence;
+    private boolean contentSent;
+    private boolean closed;
+    private ScheduledFuture<?> scheduledFlush;
+
+    CoalescingSseWriter(SseEmitter emitter, String generationId, AiSseProperties.Window window, ScheduledExecutorService scheduler,
+                        Executor flushExecutor, Consumer<Exception> failureHandler, ObjectMapper objectMapper,
+                        GenerationStreamStore streamStore, Counter chunkCounter, Counter eventCounter) {
+        this.emitter = emitter;
+        this.generationId = generationId;
+        this.window = window;
+        this.scheduler = scheduler;
+        this.flushExecutor = flushExecutor;
+        this.failureHandler = failureHandler;
+        this.objectMapper = objectMapper;
+        this.streamStore = streamStore;
+        this.chunkCounter = chunkCounter;
+        this.eventCounter = eventCounter;
+        this.maxDelayNanos = window.getMaxDelay().toNanos();
+    }
+
+    /**
+     * 写入一个分块
+     *
+     * @param response 分块响应
+     * @throws IOException 发送失败
+     */
+    public void write(StreamChatResponseDTO response) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            chunkCounter.increment();
+
+            if (response.isFinished()) {
+                flush();
+                send(response);
+                close();
+                return;
+            }
+            boolean hasDelta = response.getDelta() != null && !response.getDelta().isEmpty();
+            if (!window.isCoalesce() || (!contentSent && hasDelta)) {
+                flush();
+                send(response);
+                contentSent |= hasDelta;
+                return;
+            }
+
+            if (hasDelta) {
+                pending.append(response.getDelta());
+                pendingBytes += utf8Length(response.getDelta());
+            }
+            latest = response;
+
+            long remaining = maxDelayNanos - (System.nanoTime() - lastSendNanos);
+            if (pendingBytes >= window.getMaxBytes() || remaining <= 0) {
+                flush();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::dispatchTimedFlush, remaining, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 立即发送缓冲的增量
+     *
+     * @throws IOException 发送失败
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            cancelScheduledFlush();
+            if (latest == null) {
+                return;
+            }
+            StreamChatResponseDTO merged = latest;
+            if (!pending.isEmpty()) {
+                String delta = pending.toString();
+                merged.setDelta(delta);
+                merged.setContent(delta);
+            }
+            latest = null;
+            pending.setLength(0);
+            pendingBytes = 0;
+            send(merged);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭写入器，丢弃未发送的缓冲内容
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            cancelScheduledFlush();
+            latest = null;
+            pending.setLength(0);
+            pendingBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在定时线程上执行：只把发送交给 flushExecutor，不做任何阻塞操作
+     */
+    private void dispatchTimedFlush() {
+        try {
+            flushExecutor.execute(this::flushOnTimer);
+        } catch (RejectedExecutionException e) {
+            // 应用关闭中，缓冲内容由生产线程在流结束时发送
+        }
+    }
+
+    private void flushOnTimer() {
+        lock.lock();
+        try {
+            scheduledFlush = null;
+            if (closed) {
+                return;
+            }
+            flush();
+        } catch (Exception e) {
+            close();
+            failureHandler.accept(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(StreamChatResponseDTO response) throws IOException {
+        long id = ++sequence;
+        String data = objectMapper.writeValueAsString(response);
+        if (generationId != null) {
+            streamStore.append(generationId, id, data, response.isFinished());
+        }
+        emitter.send(SseEmitter.event()
+                .data(data)
+                .id(String.valueOf(id)));
+        lastSendNanos = System.nanoTime();
+        eventCounter.increment();
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
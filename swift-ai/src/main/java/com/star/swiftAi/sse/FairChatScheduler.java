@@ -0,0 +1,412 @@
+package com.star.swiftAi.sse;
+
+import com.star.swiftAi.exception.AiRejectedException;
+import com.star.swiftAi.properties.AiSchedulerProperties;
+import com.star.swiftCommon.properties.CommonProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 流式聊天公平调度器
+ *
+ * <pre>
+ * 准入：每个用户（匿名按客户端IP）在集群内的并发流数记在 Redis 中（{app.name}:ai:streams:{key}），
+ *       超出上限或本节点排队已满时直接拒绝（429 / 503 + Retry-After），不占用 Tomcat 线程
+ * 调度：登录用户和匿名用户两个优先级按权重轮转（登录用户在前），优先级内每个用户一个队列，按赤字轮转（DRR）出队，
+ *       单个用户提交再多任务也只能按轮次执行，不会饿死其他用户
+ * 超时：排队超过 queueTimeout 的请求以 503 结束，客户端断开时直接移出队列
+ * </pre>
+ *
+ * 控制器返回 {@link DeferredResult}，任务出队时才把发射器交给 Spring MVC，排队期间响应尚未提交，可以返回错误状态码
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FairChatScheduler {
+
+    public static final String PRIORITY_AUTHENTICATED = "authenticated";
+    public static final String PRIORITY_ANONYMOUS = "anonymous";
+
+    private static final String SLOT_KEY_SUFFIX = ":ai:streams:";
+
+    private final AiSchedulerProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CommonProperties commonProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<String, Flow> flows = new HashMap<>();
+    /**
+     * 0：登录用户，1：匿名用户
+     */
+    private final PriorityClass[] priorities = {new PriorityClass(), new PriorityClass()};
+    private volatile int queued;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void start() {
+        priorities[0].weight = Math.max(1, properties.getAuthenticatedWeight());
+        priorities[1].weight = Math.max(1, properties.getAnonymousWeight());
+        int workerCount = Math.max(1, properties.getWorkers());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ai-chat-worker-");
+        threadFactory.setDaemon(true);
+        workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+        Gauge.builder("ai.scheduler.queued", this, scheduler -> scheduler.queued)
+                .register(meterRegistry);
+        log.info("流式聊天调度器初始化完成: workers={}, maxQueued={}, queueTimeout={}",
+                workerCount, properties.getMaxQueued(), properties.getQueueTimeout());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 提交流式任务
+     * 超出并发上限或排队已满时调用 onRejected 后抛出 {@link AiRejectedException}；
+     * 排队超时或客户端断开时调用 onRejected，不执行任务
+     *
+     * @param userId     登录用户ID，匿名为null（按客户端IP排队）
+     * @param request    当前请求
+     * @param cost       调度成本（任务内并行的上游调用数）
+     * @param emitter    出队时交给 Spring MVC 的发射器
+     * @param task       出队后在调度线程中执行的任务，返回时视为流结束
+     * @param onRejected 任务未执行时的清理回调
+     * @return 出队时以发射器完成的结果
+     */
+    public DeferredResult<SseEmitter> submit(String userId, HttpServletRequest request, int cost,
+                                             SseEmitter emitter, Runnable task, Runnable onRejected) {
+        boolean anonymous = userId == null;
+        String key = anonymous ? "ip:" + request.getRemoteAddr() : "user:" + userId;
+        String priority = anonymous ? PRIORITY_ANONYMOUS : PRIORITY_AUTHENTICATED;
+        int limit = anonymous ? properties.getMaxStreamsPerAnonymous() : properties.getMaxStreamsPerUser();
+
+        boolean slotHeld;
+        try {
+            slotHeld = acquireSlot(key, limit);
+        } catch (AiRejectedException e) {
+            rejected(priority, "limit").increment();
+            onRejected.run();
+            throw e;
+        }
+
+        DeferredResult<SseEmitter> result = new DeferredResult<>(properties.getQueueTimeout().toMillis());
+        Ticket ticket = new Ticket(key, priority, Math.max(1, cost), slotHeld, emitter, task, onRejected, result);
+        result.onTimeout(() -> {
+            // 与出队竞争失败时任务不会再执行（设置发射器会失败），同样按超时返回
+            cancel(ticket);
+            rejected(priority, "timeout").increment();
+            log.info("流式请求排队超时: key={}", key);
+            result.setErrorResult(rejection("排队超时，服务繁忙，请稍后重试", "QUEUE_TIMEOUT", 503));
+        });
+        result.onError(e -> {
+            if (cancel(ticket)) {
+                log.debug("排队中的客户端已断开: key={}", key);
+            }
+        });
+
+        String reason = enqueue(ticket);
+        if (reason != null) {
+            releaseSlot(ticket);
+            rejected(priority, reason).increment();
+            onRejected.run();
+            throw "key_full".equals(reason)
+                    ? rejection("排队中的请求过多，请等待当前回复完成后再试", "TOO_MANY_QUEUED", 429)
+                    : rejection("服务繁忙，请稍后重试", "QUEUE_FULL", 503);
+        }
+        return result;
+    }
+
+    // ==================== 排队与出队 ====================
+
+    /**
+     * 加入队列
+     *
+     * @return 拒绝原因，成功时为null
+     */
+    private String enqueue(Ticket ticket) {
+        lock.lock();
+        try {
+            if (queued >= properties.getMaxQueued()) {
+                return "queue_full";
+            }
+            Flow flow = flows.get(ticket.key);
+            if (flow != null && flow.tickets.size() >= properties.getMaxQueuedPerKey()) {
+                return "key_full";
+            }
+            if (flow == null) {
+                flow = new Flow(ticket.key, priorityClass(ticket.priority));
+                flows.put(ticket.key, flow);
+                // 新加入的队列本轮就有一个份额，不必等待一整轮
+                flow.deficit = 1;
+                flow.priorityClass.flows.addLast(flow);
+            }
+            flow.tickets.addLast(ticket);
+            ticket.enqueuedAt = System.nanoTime();
+            queued++;
+            notEmpty.signal();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 从队列中移除尚未出队的任务，并执行拒绝回调
+     *
+     * @return 任务是否仍在排队
+     */
+    private boolean cancel(Ticket ticket) {
+        lock.lock();
+        try {
+            Flow flow = flows.get(ticket.key);
+            if (flow == null || !flow.tickets.remove(ticket)) {
+                return false;
+            }
+            queued--;
+            if (flow.tickets.isEmpty()) {
+                removeFlow(flow);
+            }
+        } finally {
+            lock.unlock();
+        }
+        releaseSlot(ticket);
+        ticket.onRejected.run();
+        return true;
+    }
+
+    /**
+     * 选出下一个任务：优先级之间按权重轮转，优先级内按赤字轮转，调用方持有锁且队列非空
+     */
+    private Ticket next() {
+        while (true) {
+            for (PriorityClass priorityClass : priorities) {
+                if (priorityClass.credit > 0 && !priorityClass.flows.isEmpty()) {
+                    priorityClass.credit--;
+                    return nextInClass(priorityClass);
+                }
+            }
+            // 本轮份额用完（或有份额的优先级已无任务），开始新一轮
+            for (PriorityClass priorityClass : priorities) {
+                priorityClass.credit = priorityClass.weight;
+            }
+        }
+    }
+
+    private Ticket nextInClass(PriorityClass priorityClass) {
+        while (true) {
+            Flow flow = priorityClass.flows.peekFirst();
+            Ticket head = flow.tickets.peekFirst();
+            if (flow.deficit >= head.cost) {
+                flow.tickets.pollFirst();
+                flow.deficit -= head.cost;
+                queued--;
+                if (flow.tickets.isEmpty()) {
+                    removeFlow(flow);
+                } else if (flow.deficit < flow.tickets.peekFirst().cost) {
+                    rotate(flow);
+                }
+                return head;
+            }
+            rotate(flow);
+        }
+    }
+
+    /**
+     * 移到本优先级队尾并补充下一轮的份额
+     */
+    private void rotate(Flow flow) {
+        flow.priorityClass.flows.pollFirst();
+        flow.deficit++;
+        flow.priorityClass.flows.addLast(flow);
+    }
+
+    private void removeFlow(Flow flow) {
+        flows.remove(flow.key);
+        flow.priorityClass.flows.remove(flow);
+    }
+
+    private PriorityClass priorityClass(String priority) {
+        return PRIORITY_AUTHENTICATED.equals(priority) ? priorities[0] : priorities[1];
+    }
+
+    // ==================== 执行 ====================
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Ticket ticket;
+            lock.lock();
+            try {
+                while (queued == 0) {
+                    notEmpty.await();
+                }
+                ticket = next();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            run(ticket);
+        }
+    }
+
+    private void run(Ticket ticket) {
+        waitTimer(ticket.priority).record(System.nanoTime() - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            // 已超时或客户端已断开（回调与出队竞争时可能发生）
+            if (!ticket.result.setResult(ticket.emitter)) {
+                ticket.onRejected.run();
+                return;
+            }
+            ticket.task.run();
+        } catch (Exception e) {
+            log.error("流式任务执行失败: key={}, error={}", ticket.key, e.getMessage(), e);
+        } finally {
+            releaseSlot(ticket);
+        }
+    }
+
+    // ==================== 集群并发计数 ====================
+
+    /**
+     * 占用一个并发名额，Redis 不可用时放行
+     *
+     * @return 是否在 Redis 中占用了名额（结束时需要归还）
+     */
+    private boolean acquireSlot(String key, int limit) {
+        if (limit <= 0) {
+            return false;
+        }
+        String slotKey = slotKey(key);
+        Long count;
+        try {
+            count = stringRedisTemplate.opsForValue().increment(slotKey);
+            stringRedisTemplate.expire(slotKey, properties.getSlotTtl());
+        } catch (Exception e) {
+            log.warn("并发计数失败，放行请求: key={}, error={}", key, e.getMessage());
+            return false;
+        }
+        if (count != null && count > limit) {
+            decrement(slotKey);
+            log.info("超出并发流数上限: key={}, limit={}", key, limit);
+            throw rejection("同时进行的对话过多（上限 " + limit + "），请等待当前回复完成后再试", "TOO_MANY_STREAMS", 429);
+        }
+        return true;
+    }
+
+    private void releaseSlot(Ticket ticket) {
+        if (ticket.slotHeld) {
+            decrement(slotKey(ticket.key));
+        }
+    }
+
+    private void decrement(String slotKey) {
+        try {
+            Long count = stringRedisTemplate.opsForValue().decrement(slotKey);
+            if (count != null && count <= 0) {
+                stringRedisTemplate.delete(slotKey);
+            }
+        } catch (Exception e) {
+            log.warn("归还并发名额失败，等待计数过期: key={}, error={}", slotKey, e.getMessage());
+        }
+    }
+
+    private String slotKey(String key) {
+        return commonProperties.getName() + SLOT_KEY_SUFFIX + key;
+    }
+
+    private AiRejectedException rejection(String message, String errorCode, int statusCode) {
+        return new AiRejectedException(message, "scheduler", errorCode, statusCode, properties.getRetryAfter().toSeconds());
+    }
+
+    private Counter rejected(String priority, String reason) {
+        return Counter.builder("ai.scheduler.rejected")
+                .tag("priority", priority)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private Timer waitTimer(String priority) {
+        return Timer.builder("ai.scheduler.wait")
+                .tag("priority", priority)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 优先级：按权重轮转，credit 为本轮剩余份额
+     */
+    private static final class PriorityClass {
+        private final ArrayDeque<Flow> flows = new ArrayDeque<>();
+        private int weight = 1;
+        private int credit;
+    }
+
+    /**
+     * 单个用户（或匿名IP）的队列，deficit 为累积的赤字份额
+     */
+    private static final class Flow {
+        private final String key;
+        private final PriorityClass priorityClass;
+        private final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+        private int deficit;
+
+        private Flow(String key, PriorityClass priorityClass) {
+            this.key = key;
+            this.priorityClass = priorityClass;
+        }
+    }
+
+    private static final class Ticket {
+        private final String key;
+        private final String priority;
+        private final int cost;
+        private final boolean slotHeld;
+        private final SseEmitter emitter;
+        private final Runnable task;
+        private final Runnable onRejected;
+        private final DeferredResult<SseEmitter> result;
+        private long enqueuedAt;
+
+        private Ticket(String key, String priority, int cost, boolean slotHeld, SseEmitter emitter,
+                       Runnable task, Runnable onRejected, DeferredResult<SseEmitter> result) {
+            this.key = key;
+            this.priority = priority;
+            this.cost = cost;
+            this.slotHeld = slotHeld;
+            this.emitter = emitter;
+            this.task = task;
+            this.onRejected = onRejected;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.star.swiftAi.sse;
+
+import com.star.swiftAi.core.model.StreamHandle;
+import com.star.swiftCommon.properties.CommonProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 流式生成注册表
+ * 记录本节点正在进行的流式生成，客户端断开、超时或主动停止时取消对应的 {@link StreamHandle}；
+ * 停止请求可能落在其他节点上，本节点找不到生成时通过 Redis 发布/订阅广播给所有节点
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GenerationRegistry {
+
+    public static final String REASON_COMPLETION = "completion";
+    public static final String REASON_TIMEOUT = "timeout";
+    public static final String REASON_ERROR = "error";
+    public static final String REASON_STOP = "stop";
+    public static final String REASON_REJECTED = "rejected";
+    public static final String REASON_DUPLICATE = "duplicate";
+
+    private static final String CHANNEL_SUFFIX = ":ai:generation:stop";
+
+    /**
+     * 广播消息中生成ID与用户ID的分隔符
+     */
+    private static final char SEPARATOR = '|';
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final CommonProperties commonProperties;
+    private final MeterRegistry meterRegistry;
+    private final GenerationStreamStore streamStore;
+
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int index = body.indexOf(SEPARATOR);
+            String generationId = index < 0 ? body : body.substring(0, index);
+            String userId = index < 0 || index == body.length() - 1 ? null : body.substring(index + 1);
+            stopLocal(generationId, userId);
+        }, new ChannelTopic(channel()));
+    }
+
+    /**
+     * 注册一个新的流式生成
+     *
+     * @param ownerId 发起用户ID，匿名为null
+     * @return 生成句柄
+     */
+    public StreamHandle register(String ownerId) {
+        StreamHandle handle = new StreamHandle(UUID.randomUUID().toString());
+        generations.put(handle.getGenerationId(), new Generation(handle, ownerId));
+        streamStore.open(handle.getGenerationId(), ownerId);
+        return handle;
+    }
+
+    /**
+     * 取消并移除生成（发射器结束回调中调用，正常结束时取消为空操作）
+     *
+     * @param generationId 生成ID
+     * @param reason       原因（completion/timeout/error/rejected）
+     */
+    public void release(String generationId, String reason) {
+        Generation generation = generations.remove(generationId);
+        if (generation == null || !generation.handle().cancel()) {
+            return;
+        }
+        // 生成未正常结束，通知续读方退出
+        streamStore.markEnd(generationId);
+        if (!REASON_COMPLETION.equals(reason)) {
+            cancelledCounter(reason).increment();
+            log.info("流式生成已取消: generationId={}, reason={}", generationId, reason);
+        }
+    }
+
+    /**
+     * 停止生成：本节点找到时直接取消，否则广播给其他节点
+     *
+     * @param generationId 生成ID
+     * @param userId       请求停止的用户ID，匿名为null；只能停止自己发起的生成
+     */
+    public void stop(String generationId, String userId) {
+        if (stopLocal(generationId, userId)) {
+            return;
+        }
+        String body = generationId + SEPARATOR + (userId != null ? userId : "");
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            connection.publish(channel().getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.warn("广播停止生成失败: generationId={}, error={}", generationId, e.getMessage());
+        }
+    }
+
+    private boolean stopLocal(String generationId, String userId) {
+        Generation generation = generations.get(generationId);
+        if (generation == null) {
+            return false;
+        }
+        if (!Objects.equals(generation.ownerId(), userId)) {
+            log.warn("拒绝停止他人的生成: generationId={}, userId={}", generationId, userId);
+            return true;
+        }
+        if (generation.handle().cancel()) {
+            cancelledCounter(REASON_STOP).increment();
+            log.info("流式生成已停止: generationId={}", generationId);
+        }
+        return true;
+    }
+
+    private Counter cancelledCounter(String reason) {
+        return Counter.builder("ai.generation.cancelled")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private String channel() {
+        return commonProperties.getName() + CHANNEL_SUFFIX;
+    }
+
+    private record Generation(StreamHandle handle, String ownerId) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.star.swiftAi.sse;
+
+import com.star.swiftAi.properties.AiSseProperties;
+import com.star.swiftCommon.properties.CommonProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 生成事件流存储
+ *
+ * 每次流式生成的 SSE 事件按发送顺序追加到 Redis Stream {app.name}:ai:generation:{generationId}，
+ * 记录ID显式指定为 "{事件序号}-0"，与 SSE 事件ID一一对应，续读时可直接把 Last-Event-ID 换算为 Stream 位置；
+ * 结束事件带有结束标记，生成被取消或出错时追加一条只有结束标记的记录，使续读方能够及时退出
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GenerationStreamStore {
+
+    private static final String KEY_SEGMENT = ":ai:generation:";
+    private static final String OWNER_SUFFIX = ":owner";
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_END = "end";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CommonProperties commonProperties;
+    private final AiSseProperties sseProperties;
+
+    /**
+     * 是否启用断线续传
+     */
+    public boolean isEnabled() {
+        return sseProperties.getResume().isEnabled();
+    }
+
+    /**
+     * 登记生成的发起者，续读时据此校验
+     *
+     * @param generationId 生成ID
+     * @param ownerId      发起用户ID，匿名为null
+     */
+    public void open(String generationId, String ownerId) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(key(generationId) + OWNER_SUFFIX, ownerId != null ? ownerId : "",
+                    sseProperties.getResume().getTtl());
+        } catch (Exception e) {
+            log.warn("登记生成事件流失败: generationId={}, error={}", generationId, e.getMessage());
+        }
+    }
+
+    /**
+     * 查询生成的发起者
+     *
+     * @param generationId 生成ID
+     * @return 发起用户ID，匿名为空字符串，生成不存在或已过期时为null
+     */
+    public String getOwner(String generationId) {
+        return stringRedisTemplate.opsForValue().get(key(generationId) + OWNER_SUFFIX);
+    }
+
+    /**
+     * 追加一个事件，写入失败只记录日志，不影响正在进行的直播
+     *
+     * @param generationId 生成ID
+     * @param sequence     事件序号（从1开始递增）
+     * @param data         事件数据（JSON）
+     * @param end          是否为结束事件
+     */
+    public void append(String generationId, long sequence, String data, boolean end) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = key(generationId);
+        Map<String, String> fields = new HashMap<>(2);
+        fields.put(FIELD_DATA, data);
+        if (end) {
+            fields.put(FIELD_END, "1");
+        }
+        try {
+            stringRedisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(key).withId(RecordId.of(sequence, 0)));
+            if (sequence == 1 || end) {
+                stringRedisTemplate.expire(key, sseProperties.getResume().getTtl());
+            }
+        } catch (Exception e) {
+            log.warn("追加生成事件失败: generationId={}, sequence={}, error={}", generationId, sequence, e.getMessage());
+        }
+    }
+
+    /**
+     * 追加结束标记（生成被取消或出错时调用，已正常结束的生成重复追加无副作用）
+     *
+     * @param generationId 生成ID
+     */
+    public void markEnd(String generationId) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = key(generationId);
+        try {
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+                stringRedisTemplate.opsForStream().add(StreamRecords.string(Map.of(FIELD_END, "1")).withStreamKey(key));
+                stringRedisTemplate.expire(key, sseProperties.getResume().getTtl());
+            }
+        } catch (Exception e) {
+            log.warn("追加生成结束标记失败: generationId={}, error={}", generationId, e.getMessage());
+        }
+    }
+
+    /**
+     * 续读：先补发 lastSequence 之后已有的事件，再阻塞读取新事件，直到结束标记、空闲超时或客户端断开
+     *
+     * @param generationId 生成ID
+     * @param lastSequence 客户端最后收到的事件序号（Last-Event-ID），从头读取时为0
+     * @param emitter      SSE 发射器
+     * @param completed    发射器是否已结束
+     * @throws IOException 发送失败
+     */
+    public void replay(String generationId, long lastSequence, SseEmitter emitter, AtomicBoolean completed) throws IOException {
+        AiSseProperties.Resume resume = sseProperties.getResume();
+        String key = key(generationId);
+
+        List<MapRecord<String, Object, Object>> history = stringRedisTemplate.opsForStream()
+                .range(key, Range.rightUnbounded(Range.Bound.inclusive((lastSequence + 1) + "-0")));
+        RecordId lastId = RecordId.of(lastSequence, 0);
+        if (history != null) {
+            for (MapRecord<String, Object, Object> record : history) {
+                lastId = record.getId();
+                if (sendRecord(record, emitter, completed)) {
+                    return;
+                }
+            }
+        }
+
+        StreamReadOptions options = StreamReadOptions.empty().block(resume.getBlockTimeout()).count(100);
+        long idleDeadline = System.currentTimeMillis() + resume.getMaxIdle().toMillis();
+        while (!completed.get()) {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                    .read(options, StreamOffset.create(key, ReadOffset.from(lastId)));
+            if (records == null || records.isEmpty()) {
+                // 事件流不存在且发起者登记也不存在时生成已过期；只有登记时生成还在排队，继续等待
+                if (System.currentTimeMillis() > idleDeadline
+                        || (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key)) && getOwner(generationId) == null)) {
+                    finish(emitter, completed);
+                    return;
+                }
+                continue;
+            }
+            idleDeadline = System.currentTimeMillis() + resume.getMaxIdle().toMillis();
+            for (MapRecord<String, Object, Object> record : records) {
+                lastId = record.getId();
+                if (sendRecord(record, emitter, completed)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 发送一条记录
+     *
+     * @return 是否已到达结束标记
+     */
+    private boolean sendRecord(MapRecord<String, Object, Object> record, SseEmitter emitter, AtomicBoolean completed) throws IOException {
+        Object data = record.getValue().get(FIELD_DATA);
+        if (data != null) {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(record.getId().getTimestamp()))
+                    .data(data.toString()));
+        }
+        if (record.getValue().containsKey(FIELD_END)) {
+            finish(emitter, completed);
+            return true;
+        }
+        return false;
+    }
+
+    private void finish(SseEmitter emitter, AtomicBoolean completed) {
+        if (completed.compareAndSet(false, true)) {
+            emitter.complete();
+        }
+    }
+
+    private String key(String generationId) {
+        return commonProperties.getName() + KEY_SEGMENT + generationId;
+    }
+}
@@ -0,0 +1,84 @@
+package com.star.swiftAi.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.star.swiftAi.properties.AiSseProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+
+/**
+ * SSE 写入器工厂
+ * 按接口读取合并窗口配置创建 {@link CoalescingSseWriter}，所有写入器共享一个只负责计时的定时线程，
+ * 到期的发送在各自的虚拟线程上执行，一个慢客户端的阻塞发送不会推迟其他流
+ *
+ * 线程池不注册为 Bean，避免替换 Spring Boot 为 @Scheduled 任务自动配置的调度器
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Component
+@RequiredArgsConstructor
+public class SseWriterFactory {
+
+    /**
+     * 登录用户流式聊天接口
+     */
+    public static final String ENDPOINT_CHAT = "chat";
+
+    /**
+     * 匿名流式聊天接口
+     */
+    public static final String ENDPOINT_ANONYMOUS = "anonymous";
+
+    private final AiSseProperties sseProperties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final GenerationStreamStore streamStore;
+
+    private final ScheduledThreadPoolExecutor scheduler = createScheduler();
+
+    private final ExecutorService flushExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-flush-", 0).factory());
+
+    /**
+     * 创建写入器
+     *
+     * @param emitter        SSE 发射器
+     * @param endpoint       接口标识，用于选择合并窗口
+     * @param generationId   生成ID，事件会追加到该生成的事件流；为null时不记录
+     * @param failureHandler 定时发送失败时的回调
+     * @return 写入器
+     */
+    public CoalescingSseWriter create(SseEmitter emitter, String endpoint, String generationId, Consumer<Exception> failureHandler) {
+        return new CoalescingSseWriter(emitter, generationId, sseProperties.window(endpoint), scheduler, flushExecutor,
+                failureHandler, objectMapper, streamStore, counter("ai.sse.chunks", endpoint), counter("ai.sse.events", endpoint));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flushExecutor.shutdownNow();
+    }
+
+    private Counter counter(String name, String endpoint) {
+        return Counter.builder(name)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sse-flush-timer-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
@@ -0,0 +1,107 @@
+package com.star.swiftBenchmark.ai;
+
+import com.star.swiftAi.core.model.Message;
+import com.star.swiftAi.core.model.MessageChain;
+import com.star.swiftAi.core.model.ProviderRequest;
+import com.star.swiftAi.core.provider.impl.OpenAIProvider;
+import com.star.swiftAi.dto.MessageDTO;
+import com.star.swiftAi.util.TokenCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天请求构建基准：每次聊天都会由历史消息行构建 MessageChain，再由提供商直接写出请求体
+ * 历史消息的 token 数按会话账本命中处理（预先计算），与 AiChatServiceImpl.buildMessageChain 一致
+ *
+ * @author SHOOTING_STAR_C
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChatRequestBodyBenchmark {
+
+    private static final String SYSTEM_PROMPT = "你是一个资深的 Java 性能工程师，回答要简洁并给出可执行的建议。";
+    private static final String USER_MESSAGE = "请帮我看看这段代码还有哪些可以优化的地方？";
+
+    /**
+     * 历史消息条数
+     */
+    @Param({"10", "100"})
+    private int messages;
+
+    private List<MessageDTO> history;
+    private int[] historyTokens;
+    private OpenAIProvider provider;
+    private ProviderRequest request;
+
+    @Setup
+    public void setup() {
+        history = new ArrayList<>(messages);
+        historyTokens = new int[messages];
+        for (int i = 0; i < messages; i++) {
+            MessageDTO message = new MessageDTO();
+            message.setRole(i % 2 == 0 ? "user" : "assistant");
+            message.setContent("第" + i + "条消息：" + "请帮我分析一下这段代码的性能问题。".repeat(8));
+            history.add(message);
+            historyTokens[i] = TokenCounter.estimateTokens(message.getContent());
+        }
+
+        Map<String, Object> providerConfig = new HashMap<>();
+        providerConfig.put("api_key", "sk-benchmark");
+        provider = new OpenAIProvider(providerConfig, new HashMap<>());
+        request = toProviderRequest(buildMessageChain());
+    }
+
+    @Benchmark
+    public MessageChain buildChain() {
+        return buildMessageChain();
+    }
+
+    @Benchmark
+    public byte[] writeBody() throws Exception {
+        return provider.buildChatRequestBody(request, true);
+    }
+
+    @Benchmark
+    public byte[] chainAndBody() throws Exception {
+        return provider.buildChatRequestBody(toProviderRequest(buildMessageChain()), true);
+    }
+
+    private MessageChain buildMessageChain() {
+        MessageChain chain = new MessageChain(history.size() + 2);
+        chain.addSystem(SYSTEM_PROMPT);
+        for (int i = 0; i < history.size(); i++) {
+            MessageDTO message = history.get(i);
+            Message historyMessage = Message.of(message.getRole(), message.getContent());
+            historyMessage.setTokens(historyTokens[i]);
+            chain.addMessage(historyMessage);
+        }
+        chain.addUser(USER_MESSAGE);
+        return chain;
+    }
+
+    private static ProviderRequest toProviderRequest(MessageChain chain) {
+        ProviderRequest providerRequest = new ProviderRequest();
+        providerRequest.setModel("gpt-4o-mini");
+        providerRequest.setMessages(chain.getMessages());
+        return providerRequest;
+    }
+}
@@ -0,0 +1,81 @@
+package com.star.swiftBenchmark.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.star.swiftAi.core.model.LLMResponse;
+import com.star.swiftAi.core.provider.impl.OpenAiStreamChunkParser;
+import com.star.swiftAi.dto.StreamChatResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式数据块处理基准
+ * 覆盖每个数据块的完整路径：解析上游 SSE 行 -> LLMResponse -> StreamChatResponseDTO -> 下发 JSON
+ *
+ * @author SHOOTING_STAR_C
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StreamChunkBenchmark {
+
+    private static final String LINE = "data: {\"id\":\"chatcmpl-9Xx7\",\"object\":\"chat.completion.chunk\",\"created\":1730000000,"
+            + "\"model\":\"gpt-4o-mini\",\"system_fingerprint\":\"fp_0ba0d124f1\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{\"content\":\"性能\"},\"logprobs\":null,\"finish_reason\":null}]}";
+
+    private OpenAiStreamChunkParser parser;
+    private ObjectMapper objectMapper;
+    private LLMResponse response;
+
+    @Setup
+    public void setup() throws Exception {
+        parser = new OpenAiStreamChunkParser(new ObjectMapper());
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        response = parser.parse(OpenAiStreamChunkParser.extractData(LINE));
+    }
+
+    @Benchmark
+    public LLMResponse parse() throws Exception {
+        return parser.parse(OpenAiStreamChunkParser.extractData(LINE));
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(convert(response));
+    }
+
+    @Benchmark
+    public String parseAndSerialize() throws Exception {
+        LLMResponse parsed = parser.parse(OpenAiStreamChunkParser.extractData(LINE));
+        return objectMapper.writeValueAsString(convert(parsed));
+    }
+
+    /**
+     * 与控制器中的转换保持一致
+     */
+    private static StreamChatResponseDTO convert(LLMResponse llmResponse) {
+        StreamChatResponseDTO dto = new StreamChatResponseDTO();
+        dto.setSessionId("b1c3f4d2-6a1e-4a5b-9c6d-0e1f2a3b4c5d");
+        dto.setGenerationId("6f1e2d3c-4b5a-6978-8a9b-0c1d2e3f4a5b");
+        dto.setMessageId(llmResponse.getId());
+        dto.setRole(llmResponse.getRole() != null ? llmResponse.getRole() : "assistant");
+        dto.setContent(llmResponse.getContent());
+        dto.setDelta(llmResponse.getDelta());
+        dto.setTokensUsed(llmResponse.getUsage() != null ? llmResponse.getUsage().getTotal() : 0);
+        dto.setFinished(llmResponse.isFinished());
+        return dto;
+    }
+}
@@ -0,0 +1,63 @@
+package com.star.swiftBenchmark.ai;
+
+import com.star.swiftAi.util.TokenCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * token 估算基准
+ *
+ * @author SHOOTING_STAR_C
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TokenCounterBenchmark {
+
+    /**
+     * 文本类型：english / chinese / mixed
+     */
+    @Param({"english", "chinese", "mixed"})
+    private String language;
+
+    /**
+     * 文本长度（字符）
+     */
+    @Param({"256", "8192"})
+    private int length;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        String unit = switch (language) {
+            case "english" -> "The quick brown fox jumps over the lazy dog. ";
+            case "chinese" -> "敏捷的棕色狐狸跳过了那只懒狗。";
+            default -> "SwiftFrame 是一个基于 Spring Boot 的快速开发框架，支持 AI 聊天。";
+        };
+        StringBuilder builder = new StringBuilder(length + unit.length());
+        while (builder.length() < length) {
+            builder.append(unit);
+        }
+        text = builder.substring(0, length);
+    }
+
+    @Benchmark
+    public int estimateTokens() {
+        return TokenCounter.estimateTokens(text);
+    }
+}
@@ -0,0 +1,80 @@
+package com.star.swiftBenchmark.encrypt;
+
+import com.star.swiftEncrypt.utils.AesGmcUtil;
+import com.star.swiftEncrypt.utils.RsaUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RSA 与 AES-GCM 加解密基准
+ * 与业务调用方式一致，每次传入 Base64 编码的密钥
+ *
+ * @author SHOOTING_STAR_C
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CryptoBenchmark {
+
+    /**
+     * 明文长度（字节）
+     */
+    @Param({"64", "1024"})
+    private int payloadSize;
+
+    private String plaintext;
+    private String rsaPublicKey;
+    private String rsaPrivateKey;
+    private String rsaCiphertext;
+    private String aesKey;
+    private String aesCiphertext;
+
+    @Setup
+    public void setup() throws Exception {
+        plaintext = "a".repeat(payloadSize);
+
+        KeyPair keyPair = RsaUtil.generateKeyPair(2048);
+        rsaPublicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        rsaPrivateKey = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+        rsaCiphertext = RsaUtil.encrypt(plaintext, rsaPublicKey);
+
+        aesKey = Base64.getEncoder().encodeToString(AesGmcUtil.generateAesKey(256).getEncoded());
+        aesCiphertext = AesGmcUtil.encrypt(plaintext, aesKey);
+    }
+
+    @Benchmark
+    public String rsaEncrypt() throws Exception {
+        return RsaUtil.encrypt(plaintext, rsaPublicKey);
+    }
+
+    @Benchmark
+    public String rsaDecrypt() throws Exception {
+        return RsaUtil.decrypt(rsaCiphertext, rsaPrivateKey);
+    }
+
+    @Benchmark
+    public String aesEncrypt() throws Exception {
+        return AesGmcUtil.encrypt(plaintext, aesKey);
+    }
+
+    @Benchmark
+    public String aesDecrypt() throws Exception {
+        return AesGmcUtil.decrypt(aesCiphertext, aesKey);
+    }
+}
@@ -0,0 +1,94 @@
+package com.star.swiftBenchmark.security;
+
+import com.star.swiftSecurity.entity.SwiftUserDetails;
+import com.star.swiftSecurity.properties.JwtProperties;
+import com.star.swiftSecurity.utils.JwtUtil;
+import com.star.swiftredis.service.TokenStorageService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 签发与解析基准
+ * 令牌存储替换为空实现，只测量签名、序列化与验签本身
+ *
+ * @author SHOOTING_STAR_C
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private SwiftUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("swift-benchmark-secret-0123456789abcdef");
+        jwtProperties.setExpiration(TimeUnit.HOURS.toMillis(1));
+        jwtProperties.setRefreshExpiration(TimeUnit.DAYS.toMillis(7));
+
+        jwtUtil = new JwtUtil(jwtProperties, new NoopTokenStorageService());
+        jwtUtil.init();
+
+        userDetails = new SwiftUserDetails();
+        userDetails.setUserId(1800000000000000001L);
+        userDetails.setUsername("benchmark");
+        userDetails.setEmail("benchmark@example.com");
+        userDetails.setCachedAuthorityNames(Set.of("ai:chat:send", "ai:chat:history", "user:read"));
+
+        token = jwtUtil.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtUtil.extractClaim(token);
+    }
+
+    @Benchmark
+    public Long extractUserId() {
+        return jwtUtil.extractUserId(token);
+    }
+
+    private static class NoopTokenStorageService implements TokenStorageService {
+
+        @Override
+        public void storeToken(String type, Long userId, String token, long expiration) {
+        }
+
+        @Override
+        public String getToken(String type, Long userId) {
+            return null;
+        }
+
+        @Override
+        public void removeToken(String type, Long userId) {
+        }
+
+        @Override
+        public boolean validateToken(String type, Long userId, String token) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.star.swiftBenchmark.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.star.swiftSecurity.dto.UserCacheDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户缓存 JSON 往返基准
+ * 每个认证请求都会从 Redis 读取并反序列化用户缓存；缓存值可能是 JSON 字符串，也可能已被序列化器还原为 Map
+ *
+ * @author SHOOTING_STAR_C
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserCacheDtoBenchmark {
+
+    private ObjectMapper objectMapper;
+    private UserCacheDTO user;
+    private String json;
+    private Map<String, Object> map;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        user = new UserCacheDTO();
+        user.setUserId(1800000000000000001L);
+        user.setUsername("benchmark");
+        user.setFullName("基准测试用户");
+        user.setEmail("benchmark@example.com");
+        user.setPhone("13800000000");
+        user.setEnabled(true);
+        user.setAccountNonExpired(true);
+        user.setAccountNonLocked(true);
+        user.setCredentialsNonExpired(true);
+        user.setPasswordChangedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+        user.setLastLoginAt(LocalDateTime.of(2025, 6, 1, 12, 30));
+        user.setLastLoginIp("192.168.1.10");
+        user.setCreatedAt(LocalDateTime.of(2024, 12, 1, 8, 0));
+        user.setRoleNames(Set.of("ROLE_ADMIN", "ROLE_USER"));
+        user.setAuthorityNames(Set.of("user:read", "user:write", "ai:chat:send", "ai:chat:history", "ai:provider:manage"));
+
+        json = objectMapper.writeValueAsString(user);
+        map = objectMapper.readValue(json, LinkedHashMap.class);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(user);
+    }
+
+    @Benchmark
+    public UserCacheDTO deserialize() throws Exception {
+        return objectMapper.readValue(json, UserCacheDTO.class);
+    }
+
+    @Benchmark
+    public UserCacheDTO convertFromMap() {
+        return objectMapper.convertValue(map, UserCacheDTO.class);
+    }
+}
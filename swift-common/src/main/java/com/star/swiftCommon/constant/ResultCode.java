@@ -27,6 +27,8 @@ public enum ResultCode {
     FORBIDDEN("BUS-403-00", "禁止访问"),
     NOT_FOUND("BUS-404-00", "资源不存在"),
     METHOD_NOT_ALLOWED("BUS-405-00", "请求方法不允许"),
+    CONFLICT("BUS-409-00", "请求冲突"),
+    TOO_MANY_REQUESTS("BUS-429-00", "请求过于频繁"),
     BUSINESS_NOT_ALLOWED("BUS-406-00", "业务操作不允许");
 
 
@@ -10,6 +10,7 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
 import org.springframework.jdbc.datasource.init.DatabasePopulator;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
@@ -50,6 +51,19 @@ public class MysqlDataSourceConfig {
         return druidProperties.dataSource(dataSource);
     }
 
+    /**
+     * 默认事务管理器（MySQL 主数据源）
+     * 显式声明以免定义 pgTransactionManager 后 Spring Boot 不再自动创建默认事务管理器
+     *
+     * @param masterDataSource MySQL主数据源
+     * @return DataSourceTransactionManager
+     */
+    @Bean(name = "transactionManager")
+    @Primary
+    public DataSourceTransactionManager transactionManager(DataSource masterDataSource) {
+        return new DataSourceTransactionManager(masterDataSource);
+    }
+
     /**
      * MySQL数据源初始化器
      *
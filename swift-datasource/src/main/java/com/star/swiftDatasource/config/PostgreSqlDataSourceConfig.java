@@ -1,8 +1,11 @@
 package com.star.swiftDatasource.config;
 
 import com.alibaba.druid.pool.DruidDataSource;
+import com.star.swiftDatasource.filter.ConnectionHoldTimeFilter;
 import com.star.swiftDatasource.properties.PgDruidProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -10,9 +13,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
 import org.springframework.jdbc.datasource.init.DatabasePopulator;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
 import java.sql.SQLException;
@@ -31,13 +37,17 @@ import java.sql.SQLException;
 public class PostgreSqlDataSourceConfig {
 
     private final PgDruidProperties pgDruidProperties;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
 
-    public PostgreSqlDataSourceConfig(PgDruidProperties pgDruidProperties) {
+    public PostgreSqlDataSourceConfig(PgDruidProperties pgDruidProperties,
+                                      ObjectProvider<MeterRegistry> meterRegistryProvider) {
         this.pgDruidProperties = pgDruidProperties;
+        this.meterRegistryProvider = meterRegistryProvider;
     }
 
     /**
      * 加载 PostgreSQL 数据源
+     * 挂载 {@link ConnectionHoldTimeFilter} 统计连接占用时长，MeterRegistry 延迟到首次记录时获取
      *
      * @return DataSource
      * @throws SQLException SQLException
@@ -46,9 +56,46 @@ public class PostgreSqlDataSourceConfig {
     public DataSource pgDataSource() throws SQLException {
         log.info("初始化 PostgreSQL 数据源...");
         DruidDataSource pgDataSource = new DruidDataSource();
+        pgDataSource.getProxyFilters().add(new ConnectionHoldTimeFilter("pg", meterRegistryProvider));
         return pgDruidProperties.dataSource(pgDataSource);
     }
 
+    /**
+     * PostgreSQL 事务管理器
+     * 默认的 transactionManager 绑定 MySQL 主数据源，操作 PG 的短事务需显式使用此事务管理器
+     *
+     * @param pgDataSource PG数据源
+     * @return DataSourceTransactionManager
+     */
+    @Bean(name = "pgTransactionManager")
+    public DataSourceTransactionManager pgTransactionManager(@Qualifier("pgDataSource") DataSource pgDataSource) {
+        return new DataSourceTransactionManager(pgDataSource);
+    }
+
+    /**
+     * PostgreSQL 编程式事务模板
+     *
+     * @param pgTransactionManager PG事务管理器
+     * @return TransactionTemplate
+     */
+    @Bean(name = "pgTransactionTemplate")
+    public TransactionTemplate pgTransactionTemplate(
+            @Qualifier("pgTransactionManager") DataSourceTransactionManager pgTransactionManager) {
+        return new TransactionTemplate(pgTransactionManager);
+    }
+
+    /**
+     * PostgreSQL JdbcTemplate
+     * 用于批量写入、游标读取等不适合通过 MyBatis 逐行处理的场景
+     *
+     * @param pgDataSource PG数据源
+     * @return JdbcTemplate
+     */
+    @Bean(name = "pgJdbcTemplate")
+    public JdbcTemplate pgJdbcTemplate(@Qualifier("pgDataSource") DataSource pgDataSource) {
+        return new JdbcTemplate(pgDataSource);
+    }
+
     /**
      * PG数据源初始化器（可选）
      *
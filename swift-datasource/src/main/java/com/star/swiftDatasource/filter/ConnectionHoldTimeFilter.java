@@ -0,0 +1,68 @@
+package com.star.swiftDatasource.filter;
+
+import com.alibaba.druid.filter.FilterAdapter;
+import com.alibaba.druid.filter.FilterChain;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.pool.DruidPooledConnection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Druid 连接占用时长统计过滤器
+ * 记录连接从借出到归还连接池的时长（直方图），用于发现长时间占用连接的代码路径
+ *
+ * @author SHOOTING_STAR_C
+ */
+public class ConnectionHoldTimeFilter extends FilterAdapter {
+
+    private final String dataSourceName;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private volatile Timer timer;
+
+    public ConnectionHoldTimeFilter(String dataSourceName, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.dataSourceName = dataSourceName;
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public DruidPooledConnection dataSource_getConnection(FilterChain chain, DruidDataSource dataSource,
+                                                          long maxWaitMillis) throws SQLException {
+        DruidPooledConnection connection = super.dataSource_getConnection(chain, dataSource, maxWaitMillis);
+        if (connection != null) {
+            // 每次借出都会创建新的 DruidPooledConnection，记录借出时刻
+            connection.setConnectedTimeNano();
+        }
+        return connection;
+    }
+
+    @Override
+    public void dataSource_releaseConnection(FilterChain chain, DruidPooledConnection connection) throws SQLException {
+        long connectedAt = connection.getConnectedTimeNano();
+        super.dataSource_releaseConnection(chain, connection);
+        Timer holdTimer = timer();
+        if (connectedAt > 0 && holdTimer != null) {
+            holdTimer.record(System.nanoTime() - connectedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer() {
+        Timer current = timer;
+        if (current == null) {
+            MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+            if (registry == null) {
+                return null;
+            }
+            current = Timer.builder("db.connection.hold")
+                    .description("连接从借出到归还连接池的时长")
+                    .tag("datasource", dataSourceName)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            timer = current;
+        }
+        return current;
+    }
+}
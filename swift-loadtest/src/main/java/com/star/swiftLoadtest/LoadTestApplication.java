@@ -0,0 +1,80 @@
+package com.star.swiftLoadtest;
+
+import com.star.swiftLoadtest.mock.MockOpenAiServer;
+import com.star.swiftLoadtest.mock.MockServerOptions;
+import com.star.swiftLoadtest.runner.LoadTestOptions;
+import com.star.swiftLoadtest.runner.LoadTestRunner;
+import com.star.swiftLoadtest.support.CommandLineArgs;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 压测工具入口
+ *
+ * <pre>
+ * mock  启动模拟 OpenAI 兼容服务，Ctrl+C 结束
+ * run   对运行中的应用执行端到端聊天压测
+ * </pre>
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineArgs commandLineArgs = CommandLineArgs.parse(args);
+        String command = commandLineArgs.getCommand();
+        if ("mock".equals(command)) {
+            runMock(commandLineArgs);
+        } else if ("run".equals(command)) {
+            new LoadTestRunner(LoadTestOptions.from(commandLineArgs)).run();
+        } else {
+            printUsage();
+        }
+    }
+
+    private static void runMock(CommandLineArgs args) throws Exception {
+        MockOpenAiServer server = new MockOpenAiServer(MockServerOptions.from(args));
+        server.start();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+
+    private static void printUsage() {
+        System.out.println("""
+                用法: LoadTestApplication <mock|run> [--key=value ...]
+
+                mock 模拟 OpenAI 兼容服务:
+                  --port=18080                 监听端口
+                  --ttft=300ms                 首 token 延迟
+                  --tokens-per-second=50       输出速率，0 表示不限速
+                  --completion-tokens=128      每次回复的 token 数
+                  --token-text=模拟             每个 token 的文本
+                  --error-rate=0               错误注入比例（0~1）
+                  --error-status=500           注入错误的状态码
+                  --stream-abort-rate=0        流式中途断开比例（0~1）
+                  --embedding-dimensions=1024  向量维度
+                  --models=mock-chat,mock-embedding
+
+                run 端到端压测:
+                  --base-url=http://localhost:8081/swift
+                  --token=<jwt>                登录令牌，chat/stream 场景必填
+                  --actuator-token=<jwt>       访问 actuator 的令牌，默认同 token
+                  --model-id=<id>              模型ID，默认使用默认模型
+                  --message=...                发送的消息
+                  --scenarios=chat,stream,anonymous,anonymous-stream
+                  --concurrency=10             并发数
+                  --duration=60s               每个场景的计时时长
+                  --requests=0                 每个场景的请求数，大于0时优先于 duration
+                  --warmup=5s                  预热时长
+                  --request-timeout=120s
+                  --sample-interval=1s         actuator 采样间隔
+                  --output=result.json         结果输出文件
+                """);
+    }
+}
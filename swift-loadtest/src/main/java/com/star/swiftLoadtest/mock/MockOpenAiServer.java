@@ -0,0 +1,377 @@
+package com.star.swiftLoadtest.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟 OpenAI 兼容服务
+ *
+ * 基于 JDK 自带的 HttpServer，每个请求一个虚拟线程，提供 /models、/chat/completions（流式与非流式）
+ * 和 /embeddings 三个接口，路径带或不带 /v1 前缀均可；首 token 延迟、输出速率、回复长度和错误比例均可配置，
+ * 用于在不消耗真实额度的情况下压测 swift-ai 的完整聊天链路。
+ * 在提供商配置中把 base_url 指向 http://localhost:{port}/v1 即可接入
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class MockOpenAiServer implements AutoCloseable {
+
+    private static final String SSE_DONE = "data: [DONE]\n\n";
+
+    private final MockServerOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong streamCount = new AtomicLong();
+    private final AtomicLong injectedErrorCount = new AtomicLong();
+    private final AtomicLong abortedCount = new AtomicLong();
+    private final AtomicLong disconnectedCount = new AtomicLong();
+    private final AtomicLong completionTokenCount = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MockOpenAiServer(MockServerOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * 启动服务
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(options.getPort()), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("模拟 LLM 服务已启动: port={}, ttft={}ms, tokensPerSecond={}, completionTokens={}, errorRate={}",
+                getPort(), options.getTimeToFirstToken().toMillis(), options.getTokensPerSecond(),
+                options.getCompletionTokens(), options.getErrorRate());
+    }
+
+    /**
+     * 实际监听端口（配置为0时由系统分配）
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : options.getPort();
+    }
+
+    /**
+     * 服务统计
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("requests", requestCount.get());
+        stats.put("streams", streamCount.get());
+        stats.put("injectedErrors", injectedErrorCount.get());
+        stats.put("aborted", abortedCount.get());
+        stats.put("clientDisconnected", disconnectedCount.get());
+        stats.put("completionTokens", completionTokenCount.get());
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        log.info("模拟 LLM 服务已停止: {}", stats());
+    }
+
+    // ==================== 请求分发 ====================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/v1/")) {
+                path = path.substring(3);
+            }
+            String method = exchange.getRequestMethod();
+            if ("GET".equals(method) && "/stats".equals(path)) {
+                writeJson(exchange, 200, stats());
+                return;
+            }
+
+            requestCount.incrementAndGet();
+            if ("GET".equals(method) && "/models".equals(path)) {
+                handleModels(exchange);
+            } else if ("POST".equals(method) && "/chat/completions".equals(path)) {
+                handleChatCompletions(exchange);
+            } else if ("POST".equals(method) && "/embeddings".equals(path)) {
+                handleEmbeddings(exchange);
+            } else {
+                writeError(exchange, 404, "not_found", "Unknown path: " + path);
+            }
+        } catch (IOException e) {
+            // 客户端在响应过程中断开（例如上游流被取消）
+            disconnectedCount.incrementAndGet();
+            log.debug("客户端断开: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("模拟请求处理失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void handleModels(HttpExchange exchange) throws IOException {
+        List<Map<String, Object>> data = new ArrayList<>();
+        long created = System.currentTimeMillis() / 1000;
+        for (String model : options.getModels()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", model);
+            item.put("object", "model");
+            item.put("created", created);
+            item.put("owned_by", "swift-loadtest");
+            data.add(item);
+        }
+        writeJson(exchange, 200, Map.of("object", "list", "data", data));
+    }
+
+    private void handleChatCompletions(HttpExchange exchange) throws IOException {
+        JsonNode body = readBody(exchange);
+        if (injectError(exchange)) {
+            return;
+        }
+        String model = body.path("model").asText(options.getModels().get(0));
+        int promptTokens = estimatePromptTokens(body.path("messages"));
+        if (body.path("stream").asBoolean(false)) {
+            streamCompletion(exchange, model, promptTokens);
+        } else {
+            completion(exchange, model, promptTokens);
+        }
+    }
+
+    private void handleEmbeddings(HttpExchange exchange) throws IOException {
+        JsonNode body = readBody(exchange);
+        if (injectError(exchange)) {
+            return;
+        }
+        List<String> inputs = new ArrayList<>();
+        JsonNode input = body.path("input");
+        if (input.isArray()) {
+            input.forEach(node -> inputs.add(node.asText()));
+        } else {
+            inputs.add(input.asText());
+        }
+
+        int dimensions = body.path("dimensions").asInt(options.getEmbeddingDimensions());
+        List<Map<String, Object>> data = new ArrayList<>(inputs.size());
+        int promptTokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            String text = inputs.get(i);
+            promptTokens += Math.max(1, text.length() / 2);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("object", "embedding");
+            item.put("index", i);
+            item.put("embedding", embedding(text, dimensions));
+            data.add(item);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("object", "list");
+        response.put("model", body.path("model").asText("mock-embedding"));
+        response.put("data", data);
+        response.put("usage", Map.of("prompt_tokens", promptTokens, "total_tokens", promptTokens));
+        writeJson(exchange, 200, response);
+    }
+
+    // ==================== 聊天补全 ====================
+
+    private void completion(HttpExchange exchange, String model, int promptTokens) throws IOException {
+        int tokens = options.getCompletionTokens();
+        // 非流式同样按首 token 延迟 + 输出速率计算耗时，与真实服务的整体延迟一致
+        sleepUntil(System.nanoTime() + options.getTimeToFirstToken().toNanos()
+                + Math.max(0, tokens - 1) * options.tokenIntervalNanos());
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", "assistant");
+        message.put("content", options.getTokenText().repeat(tokens));
+
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("message", message);
+        choice.put("finish_reason", "stop");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", completionId());
+        response.put("object", "chat.completion");
+        response.put("created", System.currentTimeMillis() / 1000);
+        response.put("model", model);
+        response.put("choices", List.of(choice));
+        response.put("usage", usage(promptTokens, tokens));
+        writeJson(exchange, 200, response);
+        completionTokenCount.addAndGet(tokens);
+    }
+
+    private void streamCompletion(HttpExchange exchange, String model, int promptTokens) throws IOException {
+        streamCount.incrementAndGet();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        String id = completionId();
+        long created = System.currentTimeMillis() / 1000;
+        int tokens = options.getCompletionTokens();
+        int abortAt = ThreadLocalRandom.current().nextDouble() < options.getStreamAbortRate()
+                ? ThreadLocalRandom.current().nextInt(Math.max(1, tokens)) : -1;
+        long interval = options.tokenIntervalNanos();
+        // 按绝对时间推进，避免逐个休眠累积误差
+        long firstTokenAt = System.nanoTime() + options.getTimeToFirstToken().toNanos();
+
+        OutputStream out = exchange.getResponseBody();
+        for (int i = 0; i < tokens; i++) {
+            if (i == abortAt) {
+                abortedCount.incrementAndGet();
+                // 不发送结束块直接关闭连接，模拟上游中途断流
+                return;
+            }
+            sleepUntil(firstTokenAt + i * interval);
+            Map<String, Object> delta = new LinkedHashMap<>();
+            if (i == 0) {
+                delta.put("role", "assistant");
+            }
+            delta.put("content", options.getTokenText());
+            writeEvent(out, chunk(id, created, model, delta, null, null));
+            completionTokenCount.incrementAndGet();
+        }
+        writeEvent(out, chunk(id, created, model, Map.of(), "stop", usage(promptTokens, tokens)));
+        out.write(SSE_DONE.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private Map<String, Object> chunk(String id, long created, String model, Map<String, Object> delta,
+                                      String finishReason, Map<String, Object> usage) {
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("delta", delta);
+        choice.put("finish_reason", finishReason);
+
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("id", id);
+        chunk.put("object", "chat.completion.chunk");
+        chunk.put("created", created);
+        chunk.put("model", model);
+        chunk.put("choices", List.of(choice));
+        if (usage != null) {
+            chunk.put("usage", usage);
+        }
+        return chunk;
+    }
+
+    private void writeEvent(OutputStream out, Object data) throws IOException {
+        out.write(("data: " + objectMapper.writeValueAsString(data) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 按配置比例注入错误
+     *
+     * @return 是否已返回错误响应
+     */
+    private boolean injectError(HttpExchange exchange) throws IOException {
+        if (options.getErrorRate() <= 0 || ThreadLocalRandom.current().nextDouble() >= options.getErrorRate()) {
+            return false;
+        }
+        injectedErrorCount.incrementAndGet();
+        String type = options.getErrorStatus() == 429 ? "rate_limit_exceeded" : "server_error";
+        writeError(exchange, options.getErrorStatus(), type, "Injected error from mock server");
+        return true;
+    }
+
+    /**
+     * 粗略估算输入 token 数（按字符数/2），只用于填充 usage
+     */
+    private int estimatePromptTokens(JsonNode messages) {
+        int chars = 0;
+        for (JsonNode message : messages) {
+            chars += message.path("content").asText("").length();
+        }
+        return Math.max(1, chars / 2);
+    }
+
+    /**
+     * 由文本哈希生成的确定性单位向量，相同文本得到相同向量
+     */
+    private static float[] embedding(String text, int dimensions) {
+        SplittableRandom random = new SplittableRandom(text.hashCode());
+        float[] vector = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+            norm += vector[i] * vector[i];
+        }
+        float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static Map<String, Object> usage(int promptTokens, int completionTokens) {
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+        return usage;
+    }
+
+    private static String completionId() {
+        return "chatcmpl-mock-" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readAllBytes();
+            return bytes.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(bytes);
+        }
+    }
+
+    private void writeError(HttpExchange exchange, int status, String type, String message) throws IOException {
+        writeJson(exchange, status, Map.of("error", Map.of("message", message, "type", type)));
+    }
+
+    private void writeJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.star.swiftLoadtest.mock;
+
+import com.star.swiftLoadtest.support.CommandLineArgs;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 模拟 LLM 服务配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+public class MockServerOptions {
+
+    /**
+     * 监听端口
+     */
+    private int port = 18080;
+
+    /**
+     * 首个 token 延迟（TTFT）
+     */
+    private Duration timeToFirstToken = Duration.ofMillis(300);
+
+    /**
+     * 首个 token 之后的输出速率（token/秒），0 表示不限速
+     */
+    private double tokensPerSecond = 50;
+
+    /**
+     * 每次回复输出的 token 数
+     */
+    private int completionTokens = 128;
+
+    /**
+     * 每个 token 的文本，与 completionTokens 一起决定回复负载大小
+     */
+    private String tokenText = "模拟";
+
+    /**
+     * 错误注入比例（0~1），命中时直接返回 errorStatus
+     */
+    private double errorRate = 0;
+
+    /**
+     * 注入错误时返回的 HTTP 状态码
+     */
+    private int errorStatus = 500;
+
+    /**
+     * 流式输出中途断开的比例（0~1），用于验证上游异常时的降级处理
+     */
+    private double streamAbortRate = 0;
+
+    /**
+     * 向量维度
+     */
+    private int embeddingDimensions = 1024;
+
+    /**
+     * /models 返回的模型列表
+     */
+    private List<String> models = List.of("mock-chat", "mock-embedding");
+
+    public static MockServerOptions from(CommandLineArgs args) {
+        MockServerOptions options = new MockServerOptions();
+        options.setPort(args.getInt("port", options.getPort()));
+        options.setTimeToFirstToken(args.getDuration("ttft", options.getTimeToFirstToken()));
+        options.setTokensPerSecond(args.getDouble("tokens-per-second", options.getTokensPerSecond()));
+        options.setCompletionTokens(args.getInt("completion-tokens", options.getCompletionTokens()));
+        options.setTokenText(args.getString("token-text", options.getTokenText()));
+        options.setErrorRate(args.getDouble("error-rate", options.getErrorRate()));
+        options.setErrorStatus(args.getInt("error-status", options.getErrorStatus()));
+        options.setStreamAbortRate(args.getDouble("stream-abort-rate", options.getStreamAbortRate()));
+        options.setEmbeddingDimensions(args.getInt("embedding-dimensions", options.getEmbeddingDimensions()));
+        options.setModels(args.getList("models", String.join(",", options.getModels())));
+        return options;
+    }
+
+    /**
+     * 相邻两个 token 之间的间隔（纳秒）
+     */
+    public long tokenIntervalNanos() {
+        return tokensPerSecond <= 0 ? 0 : (long) (1_000_000_000L / tokensPerSecond);
+    }
+}
@@ -0,0 +1,136 @@
+package com.star.swiftLoadtest.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 被测应用资源采样
+ * 压测期间按固定间隔读取 /actuator/metrics 中的堆内存和线程数，记录峰值与最后一次采样值；
+ * actuator 不可访问时只记录一次警告，结果中对应字段为 -1
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class ActuatorSampler implements AutoCloseable {
+
+    private static final String HEAP_USED = "/actuator/metrics/jvm.memory.used?tag=area:heap";
+    private static final String THREADS_LIVE = "/actuator/metrics/jvm.threads.live";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String token;
+    private final Duration interval;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicBoolean warned = new AtomicBoolean();
+    private final Thread thread;
+
+    private volatile long maxHeapBytes = -1;
+    private volatile long lastHeapBytes = -1;
+    private volatile long maxThreads = -1;
+    private volatile long lastThreads = -1;
+
+    public ActuatorSampler(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, String token, Duration interval) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.interval = interval;
+        this.thread = Thread.ofPlatform().daemon().name("actuator-sampler").unstarted(this::loop);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void loop() {
+        while (running.get()) {
+            sample();
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void sample() {
+        long heap = read(HEAP_USED);
+        if (heap >= 0) {
+            lastHeapBytes = heap;
+            maxHeapBytes = Math.max(maxHeapBytes, heap);
+        }
+        long threads = read(THREADS_LIVE);
+        if (threads >= 0) {
+            lastThreads = threads;
+            maxThreads = Math.max(maxThreads, threads);
+        }
+    }
+
+    private long read(String path) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET();
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                warnOnce("HTTP " + response.statusCode());
+                return -1;
+            }
+            JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+            return measurements.isArray() && !measurements.isEmpty() ? measurements.get(0).path("value").asLong(-1) : -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            warnOnce(e.getMessage());
+            return -1;
+        }
+    }
+
+    private void warnOnce(String reason) {
+        if (warned.compareAndSet(false, true)) {
+            log.warn("无法读取 actuator 指标，堆内存与线程数将不计入结果: {}", reason);
+        }
+    }
+
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    public long getLastHeapBytes() {
+        return lastHeapBytes;
+    }
+
+    public long getMaxThreads() {
+        return maxThreads;
+    }
+
+    public long getLastThreads() {
+        return lastThreads;
+    }
+
+    @Override
+    public void close() {
+        running.set(false);
+        thread.interrupt();
+        try {
+            thread.join(interval.toMillis() + 5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 结束时补一次采样，反映压测结束瞬间的状态
+        sample();
+    }
+}
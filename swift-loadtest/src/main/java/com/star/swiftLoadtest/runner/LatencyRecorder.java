@@ -0,0 +1,66 @@
+package com.star.swiftLoadtest.runner;
+
+import java.util.Arrays;
+
+/**
+ * 延迟记录器
+ * 保存全部样本（纳秒），结束后排序取分位数；单个场景的样本量在百万以内，内存开销可以接受
+ *
+ * @author SHOOTING_STAR_C
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    /**
+     * 汇总统计（毫秒）
+     */
+    public synchronized Summary summarize() {
+        if (size == 0) {
+            return new Summary(0, 0, 0, 0, 0, 0, 0);
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long sample : sorted) {
+            sum += sample;
+        }
+        return new Summary(size,
+                toMillis(sorted[0]),
+                toMillis(sum / size),
+                toMillis(percentile(sorted, 50)),
+                toMillis(percentile(sorted, 90)),
+                toMillis(percentile(sorted, 99)),
+                toMillis(sorted[size - 1]));
+    }
+
+    /**
+     * 最近秩法取分位数
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1_000) / 1_000.0;
+    }
+
+    /**
+     * 延迟统计（毫秒）
+     */
+    public record Summary(int count, double min, double mean, double p50, double p90, double p99, double max) {
+    }
+}
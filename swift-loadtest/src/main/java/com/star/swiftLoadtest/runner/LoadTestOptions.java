@@ -0,0 +1,106 @@
+package com.star.swiftLoadtest.runner;
+
+import com.star.swiftLoadtest.support.CommandLineArgs;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测配置
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+public class LoadTestOptions {
+
+    /**
+     * 被测应用地址（含 context-path）
+     */
+    private String baseUrl = "http://localhost:8081/swift";
+
+    /**
+     * 登录令牌（Bearer），登录接口场景必填
+     */
+    private String token;
+
+    /**
+     * 访问 actuator 使用的令牌，为空时使用 token
+     */
+    private String actuatorToken;
+
+    /**
+     * 模型ID，为空时使用默认模型
+     */
+    private Long modelId;
+
+    /**
+     * 发送的消息内容
+     */
+    private String message = "你好，请简单介绍一下你自己。";
+
+    /**
+     * 依次执行的场景
+     */
+    private List<Scenario> scenarios = new ArrayList<>(List.of(Scenario.values()));
+
+    /**
+     * 目标并发数（同时在途的请求数）
+     */
+    private int concurrency = 10;
+
+    /**
+     * 每个场景的持续时间
+     */
+    private Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * 每个场景的请求总数，大于0时优先于 duration
+     */
+    private long requests = 0;
+
+    /**
+     * 每个场景正式计时前的预热时间，预热期间的请求不计入结果
+     */
+    private Duration warmup = Duration.ofSeconds(5);
+
+    /**
+     * 单个请求超时时间
+     */
+    private Duration requestTimeout = Duration.ofSeconds(120);
+
+    /**
+     * actuator 采样间隔
+     */
+    private Duration sampleInterval = Duration.ofSeconds(1);
+
+    /**
+     * 结果 JSON 输出文件，为空时只打印到控制台
+     */
+    private String output;
+
+    public static LoadTestOptions from(CommandLineArgs args) {
+        LoadTestOptions options = new LoadTestOptions();
+        String baseUrl = args.getString("base-url", options.getBaseUrl());
+        options.setBaseUrl(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl);
+        options.setToken(args.getString("token", null));
+        options.setActuatorToken(args.getString("actuator-token", null));
+        String modelId = args.getString("model-id", null);
+        options.setModelId(modelId != null ? Long.valueOf(modelId) : null);
+        options.setMessage(args.getString("message", options.getMessage()));
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String code : args.getList("scenarios", "chat,stream,anonymous,anonymous-stream")) {
+            scenarios.add(Scenario.of(code));
+        }
+        options.setScenarios(scenarios);
+        options.setConcurrency(args.getInt("concurrency", options.getConcurrency()));
+        options.setDuration(args.getDuration("duration", options.getDuration()));
+        options.setRequests(args.getLong("requests", options.getRequests()));
+        options.setWarmup(args.getDuration("warmup", options.getWarmup()));
+        options.setRequestTimeout(args.getDuration("request-timeout", options.getRequestTimeout()));
+        options.setSampleInterval(args.getDuration("sample-interval", options.getSampleInterval()));
+        options.setOutput(args.getString("output", null));
+        return options;
+    }
+}
@@ -0,0 +1,306 @@
+package com.star.swiftLoadtest.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 端到端聊天压测
+ *
+ * 按场景依次压测 /ai/chat、/ai/chat/stream 及匿名接口：每个场景启动 concurrency 个虚拟线程循环发送请求，
+ * 保证同时在途的请求数恒定（闭环模型）；先预热再计时，统计吞吐量、完整延迟和流式首 token 延迟（TTFT）的分位数，
+ * 并在压测期间采样被测应用 actuator 的堆内存与线程数。
+ * 流式请求以收到 finished=true 的事件为成功，连接提前结束视为失败
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    private static final String SUCCESS_CODE = "PUB-200-00";
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient httpClient;
+
+    public LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * 依次执行所有场景
+     *
+     * @return 各场景结果
+     */
+    public List<ScenarioResult> run() throws IOException, InterruptedException {
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Scenario scenario : options.getScenarios()) {
+            if (scenario.isAuthenticated() && options.getToken() == null) {
+                log.warn("场景 {} 需要登录令牌（--token），已跳过", scenario.getCode());
+                continue;
+            }
+            results.add(runScenario(scenario));
+        }
+        printReport(results);
+        if (options.getOutput() != null) {
+            writeOutput(results);
+        }
+        return results;
+    }
+
+    private ScenarioResult runScenario(Scenario scenario) throws InterruptedException {
+        log.info("开始压测场景: scenario={}, concurrency={}, warmup={}s, {}", scenario.getCode(),
+                options.getConcurrency(), options.getWarmup().toSeconds(),
+                options.getRequests() > 0 ? "requests=" + options.getRequests() : "duration=" + options.getDuration().toSeconds() + "s");
+
+        byte[] body = requestBody();
+        long warmupEnd = System.nanoTime() + options.getWarmup().toNanos();
+        long deadline = options.getRequests() > 0 ? Long.MAX_VALUE : warmupEnd + options.getDuration().toNanos();
+        AtomicLong issued = new AtomicLong();
+
+        ScenarioStats stats = new ScenarioStats();
+        String actuatorToken = options.getActuatorToken() != null ? options.getActuatorToken() : options.getToken();
+        long measureStart;
+        long measureEnd;
+        ActuatorSampler sampler = new ActuatorSampler(httpClient, objectMapper, options.getBaseUrl(), actuatorToken,
+                options.getSampleInterval());
+        try (sampler) {
+            sampler.start();
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < options.getConcurrency(); i++) {
+                    workers.execute(() -> {
+                        while (true) {
+                            long now = System.nanoTime();
+                            boolean measured = now >= warmupEnd;
+                            if (now >= deadline) {
+                                return;
+                            }
+                            if (measured && options.getRequests() > 0 && issued.incrementAndGet() > options.getRequests()) {
+                                return;
+                            }
+                            execute(scenario, body, measured ? stats : null);
+                        }
+                    });
+                }
+                // 预热结束后才开始计时
+                long remainingWarmup = warmupEnd - System.nanoTime();
+                if (remainingWarmup > 0) {
+                    Thread.sleep(Duration.ofNanos(remainingWarmup));
+                }
+                measureStart = System.nanoTime();
+            }
+            measureEnd = System.nanoTime();
+        }
+        return stats.toResult(scenario, options.getConcurrency(), (measureEnd - measureStart) / 1e9, sampler);
+    }
+
+    /**
+     * 发送一个请求并记录结果
+     *
+     * @param stats 结果统计，预热期间为null
+     */
+    private void execute(Scenario scenario, byte[] body, ScenarioStats stats) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.getBaseUrl() + scenario.getPath()))
+                .timeout(options.getRequestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (scenario.isAuthenticated()) {
+            builder.header("Authorization", "Bearer " + options.getToken());
+        }
+        if (scenario.isStreaming()) {
+            builder.header("Accept", "text/event-stream");
+        }
+
+        long start = System.nanoTime();
+        String failure;
+        long firstTokenNanos = -1;
+        try {
+            if (scenario.isStreaming()) {
+                HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    if (response.statusCode() != 200) {
+                        failure = "HTTP " + response.statusCode();
+                    } else {
+                        StreamOutcome outcome = readStream(in, start);
+                        firstTokenNanos = outcome.firstTokenNanos();
+                        failure = outcome.finished() ? null : "incomplete";
+                    }
+                }
+            } else {
+                HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    failure = "HTTP " + response.statusCode();
+                } else {
+                    String code = objectMapper.readTree(response.body()).path("code").asText();
+                    failure = SUCCESS_CODE.equals(code) ? null : "code " + code;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            failure = e.getClass().getSimpleName();
+        }
+
+        if (stats != null) {
+            stats.record(System.nanoTime() - start, firstTokenNanos, failure);
+        }
+    }
+
+    /**
+     * 读取 SSE 响应直到 finished=true 或连接结束
+     */
+    private StreamOutcome readStream(InputStream in, long start) throws IOException {
+        long firstTokenNanos = -1;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            JsonNode event = objectMapper.readTree(line.substring(5).trim());
+            if (firstTokenNanos < 0 && (hasText(event.path("delta")) || hasText(event.path("content")))) {
+                firstTokenNanos = System.nanoTime() - start;
+            }
+            if (event.path("finished").asBoolean(false)) {
+                return new StreamOutcome(firstTokenNanos, true);
+            }
+        }
+        return new StreamOutcome(firstTokenNanos, false);
+    }
+
+    private static boolean hasText(JsonNode node) {
+        return node.isTextual() && !node.asText().isEmpty();
+    }
+
+    private byte[] requestBody() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (options.getModelId() != null) {
+            body.put("modelId", options.getModelId());
+        }
+        body.put("message", options.getMessage());
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ==================== 结果输出 ====================
+
+    private void printReport(List<ScenarioResult> results) {
+        StringBuilder report = new StringBuilder("\n");
+        report.append(String.format("%-17s %6s %8s %7s %9s %9s %9s %9s %9s %9s %9s %8s%n",
+                "scenario", "conc", "requests", "failed", "req/s", "p50(ms)", "p99(ms)", "max(ms)",
+                "ttft50", "ttft99", "heap(MB)", "threads"));
+        for (ScenarioResult result : results) {
+            LatencyRecorder.Summary ttft = result.getTtft();
+            report.append(String.format("%-17s %6d %8d %7d %9.2f %9.1f %9.1f %9.1f %9s %9s %9.1f %8d%n",
+                    result.getScenario(), result.getConcurrency(), result.getRequests(), result.getFailed(),
+                    result.getThroughput(), result.getLatency().p50(), result.getLatency().p99(), result.getLatency().max(),
+                    ttft != null ? String.format("%.1f", ttft.p50()) : "-",
+                    ttft != null ? String.format("%.1f", ttft.p99()) : "-",
+                    result.getMaxHeapMb(), result.getMaxThreads()));
+            if (!result.getFailures().isEmpty()) {
+                report.append(String.format("  失败原因: %s%n", result.getFailures()));
+            }
+        }
+        log.info("压测结果:{}", report);
+    }
+
+    private void writeOutput(List<ScenarioResult> results) throws IOException {
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("time", LocalDateTime.now().toString());
+        output.put("baseUrl", options.getBaseUrl());
+        output.put("concurrency", options.getConcurrency());
+        output.put("durationSeconds", options.getDuration().toSeconds());
+        output.put("requests", options.getRequests());
+        output.put("warmupSeconds", options.getWarmup().toSeconds());
+        output.put("results", results);
+        File file = new File(options.getOutput());
+        objectMapper.writeValue(file, output);
+        log.info("压测结果已写入: {}", file.getAbsolutePath());
+    }
+
+    private record StreamOutcome(long firstTokenNanos, boolean finished) {
+    }
+
+    /**
+     * 场景内的并发统计
+     */
+    private static class ScenarioStats {
+
+        private final LatencyRecorder latency = new LatencyRecorder();
+        private final LatencyRecorder ttft = new LatencyRecorder();
+        private final LongAdder succeeded = new LongAdder();
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        void record(long latencyNanos, long firstTokenNanos, String failure) {
+            if (failure != null) {
+                failures.computeIfAbsent(failure, key -> new LongAdder()).increment();
+                return;
+            }
+            succeeded.increment();
+            latency.record(latencyNanos);
+            if (firstTokenNanos >= 0) {
+                ttft.record(firstTokenNanos);
+            }
+        }
+
+        ScenarioResult toResult(Scenario scenario, int concurrency, double elapsedSeconds, ActuatorSampler sampler) {
+            Map<String, Long> failureCounts = new TreeMap<>();
+            failures.forEach((reason, count) -> failureCounts.put(reason, count.sum()));
+            long failed = failureCounts.values().stream().mapToLong(Long::longValue).sum();
+
+            ScenarioResult result = new ScenarioResult();
+            result.setScenario(scenario.getCode());
+            result.setConcurrency(concurrency);
+            result.setElapsedSeconds(Math.round(elapsedSeconds * 100) / 100.0);
+            result.setSucceeded(succeeded.sum());
+            result.setFailed(failed);
+            result.setRequests(succeeded.sum() + failed);
+            result.setFailures(failureCounts);
+            result.setThroughput(elapsedSeconds > 0 ? Math.round(succeeded.sum() / elapsedSeconds * 100) / 100.0 : 0);
+            result.setLatency(latency.summarize());
+            result.setTtft(scenario.isStreaming() ? ttft.summarize() : null);
+            result.setMaxHeapMb(toMb(sampler.getMaxHeapBytes()));
+            result.setEndHeapMb(toMb(sampler.getLastHeapBytes()));
+            result.setMaxThreads(sampler.getMaxThreads());
+            result.setEndThreads(sampler.getLastThreads());
+            return result;
+        }
+
+        private static double toMb(long bytes) {
+            return bytes < 0 ? -1 : Math.round(bytes / 1024.0 / 1024.0 * 10) / 10.0;
+        }
+    }
+}
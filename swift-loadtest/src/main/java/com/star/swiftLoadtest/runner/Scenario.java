@@ -0,0 +1,48 @@
+package com.star.swiftLoadtest.runner;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 压测场景，对应 swift-ai 的聊天接口
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Scenario {
+
+    CHAT("chat", "/ai/chat", false, true),
+    STREAM("stream", "/ai/chat/stream", true, true),
+    ANONYMOUS("anonymous", "/ai/chat/anonymous", false, false),
+    ANONYMOUS_STREAM("anonymous-stream", "/ai/chat/anonymous/stream", true, false);
+
+    /**
+     * 命令行中的场景名
+     */
+    private final String code;
+
+    /**
+     * 接口路径（不含 context-path）
+     */
+    private final String path;
+
+    /**
+     * 是否为 SSE 流式接口
+     */
+    private final boolean streaming;
+
+    /**
+     * 是否需要登录令牌
+     */
+    private final boolean authenticated;
+
+    public static Scenario of(String code) {
+        for (Scenario scenario : values()) {
+            if (scenario.code.equalsIgnoreCase(code)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("未知的压测场景: " + code);
+    }
+}
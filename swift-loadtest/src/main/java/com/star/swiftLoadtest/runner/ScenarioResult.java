@@ -0,0 +1,84 @@
+package com.star.swiftLoadtest.runner;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 单个场景的压测结果
+ *
+ * @author SHOOTING_STAR_C
+ */
+@Data
+public class ScenarioResult {
+
+    /**
+     * 场景名
+     */
+    private String scenario;
+
+    /**
+     * 并发数
+     */
+    private int concurrency;
+
+    /**
+     * 计时时长（秒）
+     */
+    private double elapsedSeconds;
+
+    /**
+     * 完成的请求数（成功+失败）
+     */
+    private long requests;
+
+    /**
+     * 成功请求数
+     */
+    private long succeeded;
+
+    /**
+     * 失败请求数
+     */
+    private long failed;
+
+    /**
+     * 失败原因分布（HTTP 状态码或异常类型 -> 次数）
+     */
+    private Map<String, Long> failures;
+
+    /**
+     * 吞吐量（成功请求/秒）
+     */
+    private double throughput;
+
+    /**
+     * 完整请求延迟（毫秒）
+     */
+    private LatencyRecorder.Summary latency;
+
+    /**
+     * 首 token 延迟（毫秒），仅流式场景
+     */
+    private LatencyRecorder.Summary ttft;
+
+    /**
+     * 堆内存峰值（MB），actuator 不可用时为 -1
+     */
+    private double maxHeapMb;
+
+    /**
+     * 压测结束时的堆内存（MB）
+     */
+    private double endHeapMb;
+
+    /**
+     * 线程数峰值
+     */
+    private long maxThreads;
+
+    /**
+     * 压测结束时的线程数
+     */
+    private long endThreads;
+}
@@ -0,0 +1,107 @@
+package com.star.swiftLoadtest.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 命令行参数
+ * 第一个不以 -- 开头的参数为子命令，其余为 --key=value 形式的选项（--flag 等价于 --flag=true）
+ *
+ * @author SHOOTING_STAR_C
+ */
+public class CommandLineArgs {
+
+    private final String command;
+    private final Map<String, String> options;
+
+    private CommandLineArgs(String command, Map<String, String> options) {
+        this.command = command;
+        this.options = options;
+    }
+
+    public static CommandLineArgs parse(String[] args) {
+        String command = null;
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int index = arg.indexOf('=');
+                if (index < 0) {
+                    options.put(arg.substring(2), "true");
+                } else {
+                    options.put(arg.substring(2, index), arg.substring(index + 1));
+                }
+            } else if (command == null) {
+                command = arg;
+            } else {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+        }
+        return new CommandLineArgs(command, options);
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = options.get(key);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * 读取时长：纯数字按毫秒处理，也支持 500ms / 10s / 5m 形式
+     */
+    public Duration getDuration(String key, Duration defaultValue) {
+        String value = options.get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        value = value.trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(value));
+    }
+
+    /**
+     * 读取逗号分隔的列表
+     */
+    public List<String> getList(String key, String defaultValue) {
+        List<String> values = new ArrayList<>();
+        for (String item : getString(key, defaultValue).split(",")) {
+            if (!item.isBlank()) {
+                values.add(item.trim());
+            }
+        }
+        return values;
+    }
+}
@@ -74,6 +74,11 @@ public class SecurityConfig {
                     // SSE流式端点特殊处理：在请求进入时进行权限检查，避免响应已提交后再次检查
                     auth.requestMatchers("/ai/chat/stream").permitAll();
                     auth.requestMatchers("/ai/chat/anonymous/stream").permitAll();
+                    auth.requestMatchers(HttpMethod.POST, "/ai/chat/compare/stream").permitAll();
+                    auth.requestMatchers(HttpMethod.POST, "/ai/chat/anonymous/compare/stream").permitAll();
+                    auth.requestMatchers(HttpMethod.POST, "/ai/chat/anonymous/stop/*").permitAll();
+                    auth.requestMatchers(HttpMethod.GET, "/ai/chat/stream/*/resume").permitAll();
+                    auth.requestMatchers(HttpMethod.GET, "/ai/chat/anonymous/stream/*/resume").permitAll();
                     
                     // 其他所有请求需要认证
                     auth.anyRequest().authenticated();
@@ -158,6 +158,11 @@ public class AuthorityConstants {
      */
     public static final String AI_MESSAGE_READ = "ai:message:read";
 
+    /**
+     * 管理聊天消息归档（查看/归档/恢复分区）
+     */
+    public static final String AI_MESSAGE_ARCHIVE = "ai:message:archive";
+
     // ==================== AI会话管理权限 ====================
     
     /**
@@ -260,6 +265,7 @@ public class AuthorityConstants {
 
     public static final String AI_CHAT_SEND_DESC = "发送聊天消息";
     public static final String AI_CHAT_HISTORY_DESC = "查看聊天历史";
+    public static final String AI_MESSAGE_ARCHIVE_DESC = "管理聊天消息归档（查看/归档/恢复分区）";
 
     public static final String AI_SESSION_READ_DESC = "查看会话列表和详情";
     public static final String AI_SESSION_CREATE_DESC = "创建会话";
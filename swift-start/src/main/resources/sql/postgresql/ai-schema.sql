@@ -76,32 +76,50 @@ CREATE TABLE IF NOT EXISTS ai_chat_session (
     user_id VARCHAR(64),
     title VARCHAR(200),
     model_id BIGINT,
+    source VARCHAR(20) NOT NULL DEFAULT 'chat',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- 兼容旧表：补充会话来源列
+ALTER TABLE ai_chat_session ADD COLUMN IF NOT EXISTS source VARCHAR(20) NOT NULL DEFAULT 'chat';
+
 COMMENT ON TABLE ai_chat_session IS 'AI聊天会话表';
 COMMENT ON COLUMN ai_chat_session.id IS '主键ID';
 COMMENT ON COLUMN ai_chat_session.session_id IS '会话ID';
 COMMENT ON COLUMN ai_chat_session.user_id IS '用户ID';
 COMMENT ON COLUMN ai_chat_session.title IS '会话标题';
 COMMENT ON COLUMN ai_chat_session.model_id IS '使用的模型ID';
+COMMENT ON COLUMN ai_chat_session.source IS '会话来源：chat-在线对话，import-导入';
 COMMENT ON COLUMN ai_chat_session.created_at IS '创建时间';
 COMMENT ON COLUMN ai_chat_session.updated_at IS '更新时间';
 
 CREATE INDEX IF NOT EXISTS idx_ai_chat_session_session_id ON ai_chat_session(session_id);
 CREATE INDEX IF NOT EXISTS idx_ai_chat_session_user_id ON ai_chat_session(user_id);
 CREATE INDEX IF NOT EXISTS idx_ai_chat_session_model_id ON ai_chat_session(model_id);
+CREATE INDEX IF NOT EXISTS idx_ai_chat_session_updated_at ON ai_chat_session(updated_at);
 
--- 消息表
+-- 消息表（按 created_at 月度分区，分区由 MessagePartitionService 定时预创建，命名为 ai_chat_message_pYYYYMM）
+-- 分区表的主键必须包含分区键，因此主键为 (id, created_at)
+-- 注意：已存在的非分区表不会被自动转换，需要按 README 手工迁移
 CREATE TABLE IF NOT EXISTS ai_chat_message (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGSERIAL,
     session_id VARCHAR(64) NOT NULL,
     role VARCHAR(20) NOT NULL,
     content TEXT NOT NULL,
     tokens_used INTEGER,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    search_tsv TSVECTOR,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- 兼容旧表：补充全文检索列（只修改元数据，不重写表），由 MessageSearchIndexService 在后台填充；
+-- 早期版本写入时计算的生成列 content_tsv 连同其索引一并删除，已有消息由后台任务重新填充
+ALTER TABLE ai_chat_message ADD COLUMN IF NOT EXISTS search_tsv TSVECTOR;
+ALTER TABLE ai_chat_message DROP COLUMN IF EXISTS content_tsv;
+
+-- 默认分区：兜底尚未预创建分区的时间范围
+CREATE TABLE IF NOT EXISTS ai_chat_message_default PARTITION OF ai_chat_message DEFAULT;
 
 COMMENT ON TABLE ai_chat_message IS 'AI聊天消息表';
 COMMENT ON COLUMN ai_chat_message.id IS '主键ID';
@@ -110,9 +128,75 @@ COMMENT ON COLUMN ai_chat_message.role IS '角色：user/assistant/system';
 COMMENT ON COLUMN ai_chat_message.content IS '消息内容';
 COMMENT ON COLUMN ai_chat_message.tokens_used IS '使用的token数';
 COMMENT ON COLUMN ai_chat_message.created_at IS '创建时间';
+COMMENT ON COLUMN ai_chat_message.search_tsv IS '全文检索向量（simple 配置），写入时为空，由后台任务按 content 填充';
 
 CREATE INDEX IF NOT EXISTS idx_ai_chat_message_session_id ON ai_chat_message(session_id);
 CREATE INDEX IF NOT EXISTS idx_ai_chat_message_created_at ON ai_chat_message(created_at);
+-- 聊天历史键集分页（session_id = ? AND id < ? ORDER BY id DESC LIMIT n）
+CREATE INDEX IF NOT EXISTS idx_ai_chat_message_session_id_id ON ai_chat_message(session_id, id);
+-- 聊天记录全文检索：英文等按空白分词的文本走 tsvector，中日韩文本走 pg_trgm 子串匹配
+-- 两个 GIN 索引都只包含 search_tsv 已填充的行：写入消息时不计算 tsvector、不更新倒排索引，
+-- 只在待填充索引中追加一条 B 树条目；后台任务按批填充后，行才进入两个 GIN 索引
+DROP INDEX IF EXISTS idx_ai_chat_message_content_trgm;
+CREATE INDEX IF NOT EXISTS idx_ai_chat_message_search_tsv ON ai_chat_message
+    USING GIN (search_tsv) WITH (fastupdate = on, gin_pending_list_limit = 4096)
+    WHERE search_tsv IS NOT NULL;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_ai_chat_message_search_trgm ON ai_chat_message
+    USING GIN (content gin_trgm_ops) WITH (fastupdate = on, gin_pending_list_limit = 4096)
+    WHERE search_tsv IS NOT NULL;
+-- 待填充的消息（后台任务按 created_at 倒序取批）
+CREATE INDEX IF NOT EXISTS idx_ai_chat_message_search_pending ON ai_chat_message(created_at)
+    WHERE search_tsv IS NULL;
+
+-- 消息分区归档记录表
+CREATE TABLE IF NOT EXISTS ai_chat_message_archive (
+    id BIGSERIAL PRIMARY KEY,
+    partition_name VARCHAR(64) UNIQUE NOT NULL,
+    range_start TIMESTAMP NOT NULL,
+    range_end TIMESTAMP NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    row_count BIGINT NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL,
+    archived_at TIMESTAMP,
+    restored_at TIMESTAMP
+);
+
+COMMENT ON TABLE ai_chat_message_archive IS 'AI聊天消息分区归档记录表';
+COMMENT ON COLUMN ai_chat_message_archive.id IS '主键ID';
+COMMENT ON COLUMN ai_chat_message_archive.partition_name IS '分区表名';
+COMMENT ON COLUMN ai_chat_message_archive.range_start IS '分区范围起始（含）';
+COMMENT ON COLUMN ai_chat_message_archive.range_end IS '分区范围结束（不含）';
+COMMENT ON COLUMN ai_chat_message_archive.file_path IS '归档文件路径（gzip 压缩的 NDJSON）';
+COMMENT ON COLUMN ai_chat_message_archive.row_count IS '归档行数';
+COMMENT ON COLUMN ai_chat_message_archive.status IS '状态：ARCHIVED/RESTORED';
+COMMENT ON COLUMN ai_chat_message_archive.archived_at IS '归档时间';
+COMMENT ON COLUMN ai_chat_message_archive.restored_at IS '恢复时间';
+
+-- Token 用量日汇总表（由 TokenMeteringService 定时从内存计数器批量累加）
+CREATE TABLE IF NOT EXISTS ai_token_usage_daily (
+    id BIGSERIAL PRIMARY KEY,
+    usage_date DATE NOT NULL,
+    user_id VARCHAR(64) NOT NULL,
+    model_id BIGINT NOT NULL,
+    prompt_tokens BIGINT NOT NULL DEFAULT 0,
+    completion_tokens BIGINT NOT NULL DEFAULT 0,
+    request_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_ai_token_usage_daily UNIQUE (usage_date, user_id, model_id)
+);
+
+COMMENT ON TABLE ai_token_usage_daily IS 'AI Token用量日汇总表';
+COMMENT ON COLUMN ai_token_usage_daily.id IS '主键ID';
+COMMENT ON COLUMN ai_token_usage_daily.usage_date IS '统计日期';
+COMMENT ON COLUMN ai_token_usage_daily.user_id IS '用户ID（匿名用户为 anonymous）';
+COMMENT ON COLUMN ai_token_usage_daily.model_id IS '模型ID';
+COMMENT ON COLUMN ai_token_usage_daily.prompt_tokens IS '输入token数';
+COMMENT ON COLUMN ai_token_usage_daily.completion_tokens IS '输出token数';
+COMMENT ON COLUMN ai_token_usage_daily.request_count IS '请求次数';
+COMMENT ON COLUMN ai_token_usage_daily.updated_at IS '更新时间';
+
+CREATE INDEX IF NOT EXISTS idx_ai_token_usage_daily_user_date ON ai_token_usage_daily(user_id, usage_date);
 
 -- 系统提示词表
 CREATE TABLE IF NOT EXISTS ai_system_prompt (